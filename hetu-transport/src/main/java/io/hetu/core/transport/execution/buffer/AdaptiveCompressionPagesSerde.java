@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.airlift.slice.Slice;
+import io.hetu.core.transport.execution.buffer.PageCodecMarker.MarkerSet;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.spiller.SpillCipher;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.LZ4_COMPRESSED;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.LZ4;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.ZSTD;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Pages serde that picks the compression codec from the data it sees. The first pages are
+ * compressed with both LZ4 and ZSTD, and once enough pages have been sampled the codec with
+ * the lowest estimated cost (compression time plus time to write the resulting bytes) is used
+ * for all following pages. Every page records its codec in its markers, so pages written
+ * while sampling can be read back like any other page.
+ */
+@NotThreadSafe
+public class AdaptiveCompressionPagesSerde
+        extends PagesSerde
+{
+    public static final int DEFAULT_SAMPLE_PAGES = 4;
+
+    // write throughput assumed when weighing compression time against the bytes it saves
+    private static final double WRITE_BYTES_PER_NANO = 200.0 * 1024 * 1024 / SECONDS.toNanos(1);
+
+    private final Compressor lz4Compressor = new Lz4Compressor();
+    private final Compressor zstdCompressor = new ZstdCompressor();
+    private final int samplePages;
+
+    private int sampledPages;
+    private final long[] sampledCompressedBytes = new long[PageCompressionCodec.values().length];
+    private final long[] sampledCompressionNanos = new long[PageCompressionCodec.values().length];
+    private Optional<PageCompressionCodec> selectedCodec = Optional.empty();
+
+    public AdaptiveCompressionPagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<SpillCipher> spillCipher, int samplePages)
+    {
+        super(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), spillCipher);
+        checkArgument(samplePages > 0, "samplePages must be positive");
+        this.samplePages = samplePages;
+    }
+
+    /**
+     * The codec used for pages after the sampling phase, empty while still sampling.
+     */
+    public Optional<PageCompressionCodec> getSelectedCodec()
+    {
+        return selectedCodec;
+    }
+
+    @Override
+    protected Slice compress(Slice slice, int uncompressedSize, MarkerSet markers)
+    {
+        if (selectedCodec.isPresent()) {
+            return compressWith(selectedCodec.get(), slice, uncompressedSize, markers);
+        }
+
+        Optional<Slice> lz4 = sample(LZ4, lz4Compressor, slice, uncompressedSize);
+        Optional<Slice> zstd = sample(ZSTD, zstdCompressor, slice, uncompressedSize);
+        sampledCompressedBytes[NONE.ordinal()] += uncompressedSize;
+        sampledPages++;
+        if (sampledPages >= samplePages) {
+            selectedCodec = Optional.of(cheapestCodec());
+        }
+
+        // both results are at hand, so write the smaller one
+        if (zstd.isPresent() && (!lz4.isPresent() || zstd.get().length() <= lz4.get().length())) {
+            markers.add(COMPRESSED);
+            return zstd.get();
+        }
+        if (lz4.isPresent()) {
+            markers.add(COMPRESSED);
+            markers.add(LZ4_COMPRESSED);
+            return lz4.get();
+        }
+        return slice;
+    }
+
+    private Optional<Slice> sample(PageCompressionCodec codec, Compressor compressor, Slice slice, int uncompressedSize)
+    {
+        long start = System.nanoTime();
+        Optional<Slice> compressed = tryCompress(compressor, slice, uncompressedSize);
+        sampledCompressionNanos[codec.ordinal()] += System.nanoTime() - start;
+        // pages that do not compress well enough are written as is
+        sampledCompressedBytes[codec.ordinal()] += compressed.map(Slice::length).orElse(uncompressedSize);
+        return compressed;
+    }
+
+    private PageCompressionCodec cheapestCodec()
+    {
+        PageCompressionCodec cheapest = NONE;
+        double cheapestCost = Double.MAX_VALUE;
+        for (PageCompressionCodec codec : PageCompressionCodec.values()) {
+            double cost = sampledCompressionNanos[codec.ordinal()] + sampledCompressedBytes[codec.ordinal()] / WRITE_BYTES_PER_NANO;
+            if (cost < cheapestCost) {
+                cheapest = codec;
+                cheapestCost = cost;
+            }
+        }
+        return cheapest;
+    }
+
+    private Slice compressWith(PageCompressionCodec codec, Slice slice, int uncompressedSize, MarkerSet markers)
+    {
+        switch (codec) {
+            case NONE:
+                return slice;
+            case LZ4: {
+                Optional<Slice> compressed = tryCompress(lz4Compressor, slice, uncompressedSize);
+                if (compressed.isPresent()) {
+                    markers.add(COMPRESSED);
+                    markers.add(LZ4_COMPRESSED);
+                    return compressed.get();
+                }
+                return slice;
+            }
+            case ZSTD:
+                return super.compress(slice, uncompressedSize, markers);
+            default:
+                throw new IllegalArgumentException("Unsupported codec: " + codec);
+        }
+    }
+}
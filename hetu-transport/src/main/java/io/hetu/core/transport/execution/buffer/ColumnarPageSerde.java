@@ -0,0 +1,439 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.DictionaryBlockEncoding;
+import io.prestosql.spi.block.DictionaryId;
+import io.prestosql.spi.block.IntArrayBlock;
+import io.prestosql.spi.block.IntArrayBlockEncoding;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.LongArrayBlockEncoding;
+import io.prestosql.spi.block.VariableWidthBlock;
+import io.prestosql.spi.block.VariableWidthBlockEncoding;
+
+import java.util.Optional;
+
+/**
+ * Slice stream page serde writing every block with an encoder specialized for its layout instead of the
+ * generic block encodings. Nulls are bit-packed, long and int values are bit-packed relative to
+ * their minimum (frame of reference) or as deltas when that is narrower, variable width values are
+ * written as packed lengths followed by the raw bytes, and dictionary blocks keep their dictionary.
+ * Other block types fall back to the block encoding serde.
+ */
+public class ColumnarPageSerde
+        extends SliceStreamPageSerde
+{
+    private static final byte BLOCK_GENERIC = 0;
+    private static final byte BLOCK_LONG = 1;
+    private static final byte BLOCK_INT = 2;
+    private static final byte BLOCK_VARIABLE_WIDTH = 3;
+    private static final byte BLOCK_DICTIONARY = 4;
+
+    private static final byte VALUES_FRAME_OF_REFERENCE = 0;
+    private static final byte VALUES_DELTA = 1;
+
+    public ColumnarPageSerde(BlockEncodingSerde blockEncodingSerde)
+    {
+        super(blockEncodingSerde, Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    @Override
+    protected void writeBlock(SliceOutput output, Block<?> block)
+    {
+        Block<?> loadedBlock = block.getLoadedBlock();
+        switch (loadedBlock.getEncodingName()) {
+            case LongArrayBlockEncoding.NAME:
+                output.writeByte(BLOCK_LONG);
+                writeLongBlock(output, loadedBlock);
+                return;
+            case IntArrayBlockEncoding.NAME:
+                output.writeByte(BLOCK_INT);
+                writeIntBlock(output, loadedBlock);
+                return;
+            case VariableWidthBlockEncoding.NAME:
+                output.writeByte(BLOCK_VARIABLE_WIDTH);
+                writeVariableWidthBlock(output, loadedBlock);
+                return;
+            case DictionaryBlockEncoding.NAME:
+                output.writeByte(BLOCK_DICTIONARY);
+                writeDictionaryBlock(output, (DictionaryBlock) loadedBlock);
+                return;
+            default:
+                output.writeByte(BLOCK_GENERIC);
+                super.writeBlock(output, loadedBlock);
+        }
+    }
+
+    @Override
+    protected Block<?> readBlock(SliceInput input)
+    {
+        byte blockType = input.readByte();
+        switch (blockType) {
+            case BLOCK_LONG:
+                return readLongBlock(input);
+            case BLOCK_INT:
+                return readIntBlock(input);
+            case BLOCK_VARIABLE_WIDTH:
+                return readVariableWidthBlock(input);
+            case BLOCK_DICTIONARY:
+                return readDictionaryBlock(input);
+            case BLOCK_GENERIC:
+                return super.readBlock(input);
+            default:
+                throw new IllegalStateException("Unknown columnar block type: " + blockType);
+        }
+    }
+
+    private static void writeLongBlock(SliceOutput output, Block<?> block)
+    {
+        int positionCount = block.getPositionCount();
+        output.writeInt(positionCount);
+        boolean[] nulls = writeNulls(output, block);
+
+        long[] values = new long[positionCount];
+        int valueCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (nulls == null || !nulls[position]) {
+                values[valueCount++] = block.getLong(position, 0);
+            }
+        }
+        writeValues(output, values, valueCount);
+    }
+
+    private static Block<?> readLongBlock(SliceInput input)
+    {
+        int positionCount = input.readInt();
+        boolean[] nulls = readNulls(input, positionCount);
+        long[] values = new long[positionCount];
+        int valueCount = nulls == null ? positionCount : positionCount - countNulls(nulls);
+        readValues(input, values, valueCount);
+        if (nulls != null) {
+            scatter(values, valueCount, nulls);
+        }
+        return new LongArrayBlock(positionCount, Optional.ofNullable(nulls), values);
+    }
+
+    private static void writeIntBlock(SliceOutput output, Block<?> block)
+    {
+        int positionCount = block.getPositionCount();
+        output.writeInt(positionCount);
+        boolean[] nulls = writeNulls(output, block);
+
+        long[] values = new long[positionCount];
+        int valueCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (nulls == null || !nulls[position]) {
+                values[valueCount++] = block.getInt(position, 0);
+            }
+        }
+        writeValues(output, values, valueCount);
+    }
+
+    private static Block<?> readIntBlock(SliceInput input)
+    {
+        int positionCount = input.readInt();
+        boolean[] nulls = readNulls(input, positionCount);
+        long[] values = new long[positionCount];
+        int valueCount = nulls == null ? positionCount : positionCount - countNulls(nulls);
+        readValues(input, values, valueCount);
+        if (nulls != null) {
+            scatter(values, valueCount, nulls);
+        }
+        int[] intValues = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            intValues[i] = (int) values[i];
+        }
+        return new IntArrayBlock(positionCount, Optional.ofNullable(nulls), intValues);
+    }
+
+    private static void writeVariableWidthBlock(SliceOutput output, Block<?> block)
+    {
+        int positionCount = block.getPositionCount();
+        output.writeInt(positionCount);
+        writeNulls(output, block);
+
+        long[] lengths = new long[positionCount];
+        int totalLength = 0;
+        for (int position = 0; position < positionCount; position++) {
+            lengths[position] = block.getSliceLength(position);
+            totalLength += lengths[position];
+        }
+        writeValues(output, lengths, positionCount);
+
+        // values of a variable width block are contiguous, as VariableWidthBlockEncoding also relies on
+        output.writeInt(totalLength);
+        if (totalLength > 0) {
+            output.writeBytes(block.getSlice(0, 0, totalLength));
+        }
+    }
+
+    private static Block<?> readVariableWidthBlock(SliceInput input)
+    {
+        int positionCount = input.readInt();
+        boolean[] nulls = readNulls(input, positionCount);
+        long[] lengths = new long[positionCount];
+        readValues(input, lengths, positionCount);
+
+        int[] offsets = new int[positionCount + 1];
+        for (int position = 0; position < positionCount; position++) {
+            offsets[position + 1] = offsets[position] + (int) lengths[position];
+        }
+        int totalLength = input.readInt();
+        Slice slice = input.readSlice(totalLength);
+        return new VariableWidthBlock(positionCount, slice, offsets, Optional.ofNullable(nulls));
+    }
+
+    private void writeDictionaryBlock(SliceOutput output, DictionaryBlock block)
+    {
+        DictionaryBlock dictionaryBlock = block.compact();
+        int positionCount = dictionaryBlock.getPositionCount();
+        output.writeInt(positionCount);
+
+        writeBlock(output, dictionaryBlock.getDictionary());
+
+        long[] ids = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = dictionaryBlock.getId(position);
+        }
+        writeValues(output, ids, positionCount);
+
+        DictionaryId dictionaryId = dictionaryBlock.getDictionarySourceId();
+        output.writeLong(dictionaryId.getMostSignificantBits());
+        output.writeLong(dictionaryId.getLeastSignificantBits());
+        output.writeLong(dictionaryId.getSequenceId());
+    }
+
+    private Block<?> readDictionaryBlock(SliceInput input)
+    {
+        int positionCount = input.readInt();
+        Block<?> dictionary = readBlock(input);
+
+        long[] values = new long[positionCount];
+        readValues(input, values, positionCount);
+        int[] ids = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = (int) values[position];
+        }
+
+        DictionaryId dictionaryId = new DictionaryId(input.readLong(), input.readLong(), input.readLong());
+        return new DictionaryBlock(positionCount, dictionary, ids, false, dictionaryId);
+    }
+
+    /**
+     * Writes a null flag followed, if the block has nulls, by one bit per position.
+     * Returns the null positions, or null if there are none.
+     */
+    private static boolean[] writeNulls(SliceOutput output, Block<?> block)
+    {
+        int positionCount = block.getPositionCount();
+        boolean[] nulls = null;
+        if (block.mayHaveNull()) {
+            for (int position = 0; position < positionCount; position++) {
+                if (block.isNull(position)) {
+                    if (nulls == null) {
+                        nulls = new boolean[positionCount];
+                    }
+                    nulls[position] = true;
+                }
+            }
+        }
+
+        output.writeBoolean(nulls != null);
+        if (nulls != null) {
+            byte[] packed = new byte[(positionCount + 7) / 8];
+            for (int position = 0; position < positionCount; position++) {
+                if (nulls[position]) {
+                    packed[position >>> 3] |= (byte) (1 << (position & 7));
+                }
+            }
+            output.writeBytes(packed);
+        }
+        return nulls;
+    }
+
+    private static boolean[] readNulls(SliceInput input, int positionCount)
+    {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        byte[] packed = new byte[(positionCount + 7) / 8];
+        input.readBytes(packed);
+        boolean[] nulls = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            nulls[position] = (packed[position >>> 3] & (1 << (position & 7))) != 0;
+        }
+        return nulls;
+    }
+
+    private static int countNulls(boolean[] nulls)
+    {
+        int count = 0;
+        for (boolean isNull : nulls) {
+            if (isNull) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Spreads the first {@code valueCount} values over the non null positions, back to front so it can be done in place.
+     */
+    private static void scatter(long[] values, int valueCount, boolean[] nulls)
+    {
+        int valueIndex = valueCount - 1;
+        for (int position = nulls.length - 1; position >= 0; position--) {
+            values[position] = nulls[position] ? 0 : values[valueIndex--];
+        }
+    }
+
+    /**
+     * Bit-packs the values relative to their minimum, or packs the differences between consecutive
+     * values when those need fewer bits, as for sorted or clustered keys. The values are encoded in place.
+     */
+    private static void writeValues(SliceOutput output, long[] values, int valueCount)
+    {
+        if (valueCount == 0) {
+            return;
+        }
+
+        long min = values[0];
+        long max = values[0];
+        long deltaMin = Long.MAX_VALUE;
+        long deltaMax = Long.MIN_VALUE;
+        for (int i = 1; i < valueCount; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            long delta = value - values[i - 1];
+            deltaMin = Math.min(deltaMin, delta);
+            deltaMax = Math.max(deltaMax, delta);
+        }
+
+        // differences are taken with wrap around, so the unsigned range is exact even on overflow
+        int frameBits = bitWidth(max - min);
+        int deltaBits = valueCount > 1 ? bitWidth(deltaMax - deltaMin) : Long.SIZE;
+        if (deltaBits < frameBits) {
+            output.writeByte(VALUES_DELTA);
+            output.writeLong(values[0]);
+            output.writeLong(deltaMin);
+            output.writeByte(deltaBits);
+            for (int i = valueCount - 1; i > 0; i--) {
+                values[i] = values[i] - values[i - 1] - deltaMin;
+            }
+            pack(output, values, 1, valueCount - 1, deltaBits);
+        }
+        else {
+            output.writeByte(VALUES_FRAME_OF_REFERENCE);
+            output.writeLong(min);
+            output.writeByte(frameBits);
+            for (int i = 0; i < valueCount; i++) {
+                values[i] -= min;
+            }
+            pack(output, values, 0, valueCount, frameBits);
+        }
+    }
+
+    private static void readValues(SliceInput input, long[] values, int valueCount)
+    {
+        if (valueCount == 0) {
+            return;
+        }
+
+        byte encoding = input.readByte();
+        if (encoding == VALUES_DELTA) {
+            long first = input.readLong();
+            long deltaMin = input.readLong();
+            int bits = input.readByte();
+            unpack(input, values, 1, valueCount - 1, bits);
+            values[0] = first;
+            for (int i = 1; i < valueCount; i++) {
+                values[i] = values[i - 1] + values[i] + deltaMin;
+            }
+        }
+        else if (encoding == VALUES_FRAME_OF_REFERENCE) {
+            long min = input.readLong();
+            int bits = input.readByte();
+            unpack(input, values, 0, valueCount, bits);
+            for (int i = 0; i < valueCount; i++) {
+                values[i] += min;
+            }
+        }
+        else {
+            throw new IllegalStateException("Unknown columnar value encoding: " + encoding);
+        }
+    }
+
+    private static int bitWidth(long unsignedRange)
+    {
+        return Long.SIZE - Long.numberOfLeadingZeros(unsignedRange);
+    }
+
+    private static void pack(SliceOutput output, long[] values, int offset, int count, int bits)
+    {
+        if (bits == 0 || count == 0) {
+            return;
+        }
+        long[] words = new long[wordCount(count, bits)];
+        long bitPosition = 0;
+        for (int i = 0; i < count; i++, bitPosition += bits) {
+            int word = (int) (bitPosition >>> 6);
+            int shift = (int) (bitPosition & 63);
+            long value = values[offset + i];
+            words[word] |= value << shift;
+            if (shift + bits > Long.SIZE) {
+                words[word + 1] |= value >>> (Long.SIZE - shift);
+            }
+        }
+        output.writeBytes(Slices.wrappedLongArray(words));
+    }
+
+    private static void unpack(SliceInput input, long[] values, int offset, int count, int bits)
+    {
+        if (count == 0) {
+            return;
+        }
+        if (bits == 0) {
+            for (int i = 0; i < count; i++) {
+                values[offset + i] = 0;
+            }
+            return;
+        }
+        long[] words = new long[wordCount(count, bits)];
+        input.readBytes(Slices.wrappedLongArray(words));
+        long mask = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+        long bitPosition = 0;
+        for (int i = 0; i < count; i++, bitPosition += bits) {
+            int word = (int) (bitPosition >>> 6);
+            int shift = (int) (bitPosition & 63);
+            long value = words[word] >>> shift;
+            if (shift + bits > Long.SIZE) {
+                value |= words[word + 1] << (Long.SIZE - shift);
+            }
+            values[offset + i] = value & mask;
+        }
+    }
+
+    private static int wordCount(int count, int bits)
+    {
+        return (int) (((long) count * bits + Long.SIZE - 1) / Long.SIZE);
+    }
+}
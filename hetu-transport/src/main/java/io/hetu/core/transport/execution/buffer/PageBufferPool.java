@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Pool of off-heap buffers holding serialized pages. Buffers are handed out in power of two
+ * size classes and are reference counted: a buffer goes back to the pool when its last
+ * reference is released. Buffers that are never released are simply reclaimed by the garbage
+ * collector, so a missed release costs a pooled buffer but never leaks memory.
+ */
+@ThreadSafe
+public class PageBufferPool
+{
+    private static final int MIN_BUFFER_SIZE_BITS = 12;
+
+    private final long maxPooledBytes;
+    private final int maxBufferSize;
+    private final Queue<Slice>[] freeBuffers;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final AtomicLong allocations = new AtomicLong();
+    private final AtomicLong reuses = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public PageBufferPool(long maxPooledBytes, int maxBufferSize)
+    {
+        checkArgument(maxPooledBytes >= 0, "maxPooledBytes is negative");
+        checkArgument(maxBufferSize >= (1 << MIN_BUFFER_SIZE_BITS), "maxBufferSize must be at least %s", 1 << MIN_BUFFER_SIZE_BITS);
+        this.maxPooledBytes = maxPooledBytes;
+        this.maxBufferSize = maxBufferSize;
+        this.freeBuffers = new Queue[sizeClass(maxBufferSize) + 1];
+        for (int i = 0; i < freeBuffers.length; i++) {
+            freeBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Returns a buffer of at least {@code size} bytes with a reference count of one.
+     * Requests larger than the biggest size class get a buffer that is not returned to the pool.
+     */
+    public PooledBuffer allocate(int size)
+    {
+        checkArgument(size >= 0, "size is negative");
+        if (size > maxBufferSize) {
+            allocations.incrementAndGet();
+            return new PooledBuffer(Slices.allocateDirect(size), -1);
+        }
+        int sizeClass = sizeClass(size);
+        Slice buffer = freeBuffers[sizeClass].poll();
+        if (buffer == null) {
+            allocations.incrementAndGet();
+            buffer = Slices.allocateDirect(1 << (sizeClass + MIN_BUFFER_SIZE_BITS));
+        }
+        else {
+            reuses.incrementAndGet();
+            pooledBytes.addAndGet(-buffer.length());
+        }
+        return new PooledBuffer(buffer, sizeClass);
+    }
+
+    /**
+     * Bytes held by idle buffers waiting to be reused.
+     */
+    public long getPooledBytes()
+    {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Bytes held by buffers that still have at least one reference.
+     */
+    public long getUsedBytes()
+    {
+        return usedBytes.get();
+    }
+
+    public long getAllocations()
+    {
+        return allocations.get();
+    }
+
+    public long getReuses()
+    {
+        return reuses.get();
+    }
+
+    private void free(Slice buffer, int sizeClass)
+    {
+        if (sizeClass < 0) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buffer.length()) <= maxPooledBytes) {
+            freeBuffers[sizeClass].add(buffer);
+        }
+        else {
+            pooledBytes.addAndGet(-buffer.length());
+        }
+    }
+
+    private static int sizeClass(int size)
+    {
+        if (size <= (1 << MIN_BUFFER_SIZE_BITS)) {
+            return 0;
+        }
+        // number of bits needed to represent size - 1, i.e. log2 of the next power of two
+        return (Integer.SIZE - numberOfLeadingZeros(size - 1)) - MIN_BUFFER_SIZE_BITS;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("maxPooledBytes", maxPooledBytes)
+                .add("pooledBytes", pooledBytes)
+                .add("usedBytes", usedBytes)
+                .toString();
+    }
+
+    @ThreadSafe
+    public final class PooledBuffer
+    {
+        private final Slice buffer;
+        private final int sizeClass;
+        private final AtomicInteger referenceCount = new AtomicInteger(1);
+
+        private PooledBuffer(Slice buffer, int sizeClass)
+        {
+            this.buffer = requireNonNull(buffer, "buffer is null");
+            this.sizeClass = sizeClass;
+            usedBytes.addAndGet(buffer.length());
+        }
+
+        /**
+         * The whole buffer; callers slice out the part they filled.
+         */
+        public Slice getSlice()
+        {
+            return buffer;
+        }
+
+        public int getCapacity()
+        {
+            return buffer.length();
+        }
+
+        public void retain()
+        {
+            int oldReferences = referenceCount.getAndIncrement();
+            checkState(oldReferences > 0, "Buffer has already been released");
+        }
+
+        public void release()
+        {
+            int remainingReferences = referenceCount.decrementAndGet();
+            checkState(remainingReferences >= 0, "Buffer reference count is negative");
+            if (remainingReferences == 0) {
+                usedBytes.addAndGet(-buffer.length());
+                free(buffer, sizeClass);
+            }
+        }
+
+        public int getReferenceCount()
+        {
+            return referenceCount.get();
+        }
+    }
+}
@@ -27,7 +27,9 @@ public enum PageCodecMarker
 {
     COMPRESSED(1),
     ENCRYPTED(2),
-    MARKER_PAGE(3);
+    MARKER_PAGE(3),
+    // set together with COMPRESSED when the page was compressed with LZ4 instead of the default ZSTD
+    LZ4_COMPRESSED(4);
 
     private final int mask;
 
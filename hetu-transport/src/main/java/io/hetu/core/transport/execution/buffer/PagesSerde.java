@@ -15,6 +15,7 @@ package io.hetu.core.transport.execution.buffer;
 
 import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
@@ -34,6 +35,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.LZ4_COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readRawPage;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static java.lang.Math.toIntExact;
@@ -45,19 +47,34 @@ public class PagesSerde
         implements BlockEncodingSerdeProvider, GenericPagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final Decompressor LZ4_DECOMPRESSOR = new Lz4Decompressor();
+    // scratch buffers that grew beyond this are dropped instead of being kept for the next page
+    private static final int MAX_RETAINED_SCRATCH_SIZE = 4 * 1024 * 1024;
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
+    private final Optional<PageBufferPool> bufferPool;
+    private DynamicSliceOutput scratchBuffer;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, Optional.empty());
+    }
+
+    /**
+     * When a buffer pool is given, pages are serialized into a reused scratch buffer and the result
+     * is copied once into a pooled off-heap buffer owned by the returned {@link SerializedPage}.
+     */
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher, Optional<PageBufferPool> bufferPool)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
         this.compressor = requireNonNull(compressor, "compressor is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
     }
 
     @Override
@@ -80,27 +97,13 @@ public class PagesSerde
 
     private SerializedPage serializeImpl(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        SliceOutput serializationBuffer = getSerializationBuffer(page);
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
         int uncompressedSize = serializationBuffer.size();
         MarkerSet markers = MarkerSet.empty();
 
-        if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
-            int compressedSize = compressor.get().compress(
-                    (byte[]) slice.getBase(),
-                    (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
-                    uncompressedSize,
-                    compressed,
-                    0,
-                    compressed.length);
-
-            if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
-                slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
-                markers.add(COMPRESSED);
-            }
-        }
+        slice = compress(slice, uncompressedSize, markers);
 
         if (spillCipher.isPresent()) {
             byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
@@ -115,6 +118,15 @@ public class PagesSerde
             markers.add(ENCRYPTED);
         }
 
+        if (bufferPool.isPresent()) {
+            PageBufferPool.PooledBuffer buffer = bufferPool.get().allocate(slice.length());
+            buffer.getSlice().setBytes(0, slice);
+            if (scratchBuffer.getRetainedSize() > MAX_RETAINED_SCRATCH_SIZE) {
+                scratchBuffer = null;
+            }
+            return new SerializedPage(buffer.getSlice().slice(0, slice.length()), markers, page.getPositionCount(), uncompressedSize, page.getPageMetadata(), buffer);
+        }
+
         if (!slice.isCompact()) {
             slice = Slices.copyOf(slice);
         }
@@ -122,12 +134,32 @@ public class PagesSerde
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize, page.getPageMetadata());
     }
 
+    private SliceOutput getSerializationBuffer(Page page)
+    {
+        int estimatedSize = toIntExact(page.getSizeInBytes() + Integer.BYTES); // block length is an int
+        if (!bufferPool.isPresent()) {
+            return new DynamicSliceOutput(estimatedSize);
+        }
+        // the serialized bytes are copied into a pooled buffer, so the scratch buffer can be reused for the next page
+        if (scratchBuffer == null) {
+            scratchBuffer = new DynamicSliceOutput(estimatedSize);
+        }
+        scratchBuffer.reset();
+        return scratchBuffer;
+    }
+
     private Page deserializeImpl(SerializedPage serializedPage)
     {
         checkArgument(serializedPage != null, "serializedPage is null");
 
         Slice slice = serializedPage.getSlice();
 
+        if (serializedPage.isPooled() || ((serializedPage.isEncrypted() || serializedPage.isCompressed()) && !(slice.getBase() instanceof byte[]))) {
+            // ciphers and decompressors work on heap arrays, so off-heap (e.g. memory mapped) pages are copied once.
+            // Pooled buffers are reused once released, so blocks must not keep views into them either.
+            slice = Slices.copyOf(slice);
+        }
+
         if (serializedPage.isEncrypted()) {
             checkState(spillCipher.isPresent(), "Page is encrypted, but spill cipher is missing");
 
@@ -143,11 +175,18 @@ public class PagesSerde
         }
 
         if (serializedPage.isCompressed()) {
-            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+            Decompressor pageDecompressor;
+            if (LZ4_COMPRESSED.isSet(serializedPage.getPageCodecMarkers())) {
+                pageDecompressor = LZ4_DECOMPRESSOR;
+            }
+            else {
+                checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+                pageDecompressor = decompressor.get();
+            }
 
             int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
             byte[] decompressed = new byte[uncompressedSize];
-            checkState(decompressor.get().decompress(
+            checkState(pageDecompressor.decompress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     slice.length(),
@@ -161,6 +200,40 @@ public class PagesSerde
         return readRawPage(serializedPage.getPositionCount(), serializedPage.getPageMetadata(), slice.getInput(), blockEncodingSerde);
     }
 
+    /**
+     * Compresses the raw page bytes, adding the markers describing the codec used.
+     * Returns the input slice when the page is not worth compressing.
+     */
+    protected Slice compress(Slice slice, int uncompressedSize, MarkerSet markers)
+    {
+        if (!compressor.isPresent()) {
+            return slice;
+        }
+        Optional<Slice> compressed = tryCompress(compressor.get(), slice, uncompressedSize);
+        if (!compressed.isPresent()) {
+            return slice;
+        }
+        markers.add(COMPRESSED);
+        return compressed.get();
+    }
+
+    protected static Optional<Slice> tryCompress(Compressor compressor, Slice slice, int uncompressedSize)
+    {
+        byte[] compressed = new byte[compressor.maxCompressedLength(uncompressedSize)];
+        int compressedSize = compressor.compress(
+                (byte[]) slice.getBase(),
+                (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                uncompressedSize,
+                compressed,
+                0,
+                compressed.length);
+
+        if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
+            return Optional.of(Slices.wrappedBuffer(compressed, 0, compressedSize));
+        }
+        return Optional.empty();
+    }
+
     @Override
     public BlockEncodingSerde getBlockEncodingSerde()
     {
@@ -26,11 +26,18 @@ public class PagesSerdeFactory
 {
     private final BlockEncodingSerde blockEncodingSerde;
     private final boolean compressionEnabled;
+    private final Optional<PageBufferPool> outputBufferPool;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled, Optional.empty());
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, Optional<PageBufferPool> outputBufferPool)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.compressionEnabled = compressionEnabled;
+        this.outputBufferPool = requireNonNull(outputBufferPool, "outputBufferPool is null");
     }
 
     public PagesSerde createPagesSerde()
@@ -38,11 +45,44 @@ public class PagesSerdeFactory
         return createPagesSerdeInternal(Optional.empty(), false, false);
     }
 
+    /**
+     * Creates the serde for pages handed to output buffers. If an output buffer pool is configured,
+     * the serialized pages are held in pooled off-heap buffers and must be released once sent.
+     */
+    public PagesSerde createOutputPagesSerde()
+    {
+        if (!outputBufferPool.isPresent()) {
+            return createPagesSerde();
+        }
+        if (compressionEnabled) {
+            return new PagesSerde(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), Optional.empty(), outputBufferPool);
+        }
+        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), Optional.empty(), outputBufferPool);
+    }
+
     public PagesSerde createDirectPagesSerde(Optional<SpillCipher> spillCipher, boolean useDirectSerde, boolean useKryo)
     {
         return createPagesSerdeInternal(spillCipher, useDirectSerde, useKryo);
     }
 
+    /**
+     * Creates a direct serde that writes each block with a type specialized columnar encoding.
+     * Like the other direct serdes it reads and writes slice streams and does not compress or encrypt.
+     */
+    public PagesSerde createColumnarPagesSerde()
+    {
+        return new ColumnarPageSerde(blockEncodingSerde);
+    }
+
+    /**
+     * Creates a serde that samples the first pages and then compresses with whichever of
+     * no compression, LZ4 or ZSTD suits the data best. Only supported for the non direct serde.
+     */
+    public AdaptiveCompressionPagesSerde createAdaptiveCompressionPagesSerde(Optional<SpillCipher> spillCipher)
+    {
+        return new AdaptiveCompressionPagesSerde(blockEncodingSerde, spillCipher, AdaptiveCompressionPagesSerde.DEFAULT_SAMPLE_PAGES);
+    }
+
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher, boolean useDirectSerde, boolean useKryo)
     {
         if (useDirectSerde) {
@@ -44,6 +44,8 @@ public class SerializedPage
     private final int uncompressedSizeInBytes;
     private final byte pageCodecMarkers;
     private Properties pageMetadata = new Properties();
+    // set when the page bytes live in a pooled off-heap buffer
+    private final PageBufferPool.PooledBuffer pooledBuffer;
 
     public static SerializedPage forMarker(MarkerPage marker)
     {
@@ -77,8 +79,18 @@ public class SerializedPage
     }
 
     public SerializedPage(Slice slice, PageCodecMarker.MarkerSet markers, int positionCount, int uncompressedSizeInBytes, Properties pageMetadata)
+    {
+        this(slice, markers, positionCount, uncompressedSizeInBytes, pageMetadata, null);
+    }
+
+    /**
+     * Creates a page whose bytes are held by a pooled off-heap buffer. The page takes over the
+     * caller's reference to the buffer, which is given back with {@link #release()}.
+     */
+    public SerializedPage(Slice slice, PageCodecMarker.MarkerSet markers, int positionCount, int uncompressedSizeInBytes, Properties pageMetadata, PageBufferPool.PooledBuffer pooledBuffer)
     {
         this.slice = requireNonNull(slice, "slice is null");
+        this.pooledBuffer = pooledBuffer;
         this.positionCount = positionCount;
         checkArgument(uncompressedSizeInBytes >= 0, "uncompressedSizeInBytes is negative");
         this.uncompressedSizeInBytes = uncompressedSizeInBytes;
@@ -133,6 +145,29 @@ public class SerializedPage
         return slice;
     }
 
+    public boolean isPooled()
+    {
+        return pooledBuffer != null;
+    }
+
+    /**
+     * Adds a reference to the pooled buffer backing this page, so the bytes stay valid until
+     * the matching {@link #release()}. Does nothing for heap pages.
+     */
+    public void retain()
+    {
+        if (pooledBuffer != null) {
+            pooledBuffer.retain();
+        }
+    }
+
+    public void release()
+    {
+        if (pooledBuffer != null) {
+            pooledBuffer.release();
+        }
+    }
+
     @JsonProperty
     public byte getPageCodecMarkers()
     {
@@ -175,6 +210,7 @@ public class SerializedPage
                 .add("sizeInBytes", slice.length())
                 .add("uncompressedSizeInBytes", uncompressedSizeInBytes)
                 .add("pageMetadata", pageMetadata)
+                .add("pooled", pooledBuffer != null)
                 .toString();
     }
 
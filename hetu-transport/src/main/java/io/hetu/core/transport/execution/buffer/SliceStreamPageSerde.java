@@ -64,7 +64,7 @@ public class SliceStreamPageSerde
         output.writeInt(page.getPositionCount());
         output.writeInt(page.getChannelCount());
         for (int channel = 0; channel < page.getChannelCount(); channel++) {
-            serde.writeBlock(output, page.getBlock(channel));
+            writeBlock(output, page.getBlock(channel));
         }
 
         if (page.getPageMetadata().size() > 0) {
@@ -87,7 +87,7 @@ public class SliceStreamPageSerde
         int numberOfBlocks = input.readInt();
         Block[] blocks = new Block[numberOfBlocks];
         for (int i = 0; i < blocks.length; i++) {
-            blocks[i] = serde.readBlock(input);
+            blocks[i] = readBlock(input);
         }
 
         int propSize = input.readInt();
@@ -107,4 +107,14 @@ public class SliceStreamPageSerde
 
         return new Page(positionCount, blocks);
     }
+
+    protected void writeBlock(SliceOutput output, Block<?> block)
+    {
+        serde.writeBlock(output, block);
+    }
+
+    protected Block<?> readBlock(SliceInput input)
+    {
+        return serde.readBlock(input);
+    }
 }
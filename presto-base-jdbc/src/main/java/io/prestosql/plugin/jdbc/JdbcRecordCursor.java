@@ -117,6 +117,12 @@ public class JdbcRecordCursor
         return 0;
     }
 
+    @Override
+    public boolean hasBlockingIo()
+    {
+        return true;
+    }
+
     @Override
     public long getCompletedBytes()
     {
@@ -38,9 +38,11 @@ import java.util.Optional;
 import java.util.OptionalInt;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.SystemSessionProperties.JOIN_RADIX_PARTITIONING_ENABLED;
 import static io.prestosql.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
 import static io.prestosql.benchmark.BenchmarkQueryRunner.createLocalQueryRunnerHashEnabled;
 import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static io.prestosql.plugin.tpch.TpchMetadata.TINY_SCHEMA_NAME;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
@@ -58,10 +60,22 @@ public class HashBuildAndJoinBenchmark
 
     public HashBuildAndJoinBenchmark(Session session, LocalQueryRunner localQueryRunner)
     {
-        super(session, localQueryRunner, "hash_build_and_join_hash_enabled_" + isHashEnabled(session), 4, 5);
+        super(session, localQueryRunner, getBenchmarkName(session), 4, 5);
         this.hashEnabled = isHashEnabled(session);
     }
 
+    private static String getBenchmarkName(Session session)
+    {
+        StringBuilder name = new StringBuilder("hash_build_and_join_hash_enabled_").append(isHashEnabled(session));
+        if (SystemSessionProperties.isJoinRadixPartitioningEnabled(session)) {
+            name.append("_radix_partitioned");
+        }
+        if (session.getSchema().isPresent() && !session.getSchema().get().equals(TINY_SCHEMA_NAME)) {
+            name.append("_").append(session.getSchema().get());
+        }
+        return name.toString();
+    }
+
     private static boolean isHashEnabled(Session session)
     {
         return SystemSessionProperties.isOptimizeHashGenerationEnabled(session);
@@ -156,5 +170,16 @@ public class HashBuildAndJoinBenchmark
     {
         new HashBuildAndJoinBenchmark(testSessionBuilder().build(), createLocalQueryRunner()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
         new HashBuildAndJoinBenchmark(testSessionBuilder().build(), createLocalQueryRunnerHashEnabled()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+
+        // the tiny orders table fits in a single sub-table, compare radix partitioning on a larger build side
+        LocalQueryRunner localQueryRunner = createLocalQueryRunner();
+        Session sf1Session = Session.builder(localQueryRunner.getDefaultSession())
+                .setSchema("sf1")
+                .build();
+        Session radixSession = Session.builder(sf1Session)
+                .setSystemProperty(JOIN_RADIX_PARTITIONING_ENABLED, "true")
+                .build();
+        new HashBuildAndJoinBenchmark(sf1Session, localQueryRunner).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        new HashBuildAndJoinBenchmark(radixSession, localQueryRunner).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
     }
 }
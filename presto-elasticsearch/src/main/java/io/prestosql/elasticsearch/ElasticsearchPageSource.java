@@ -160,6 +160,12 @@ public class ElasticsearchPageSource
         return finished || !iterator.hasNext();
     }
 
+    @Override
+    public boolean hasBlockingIo()
+    {
+        return true;
+    }
+
     @Override
     public long getSystemMemoryUsage()
     {
@@ -46,6 +46,7 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_V1;
 import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_V2;
 import static io.prestosql.plugin.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
@@ -105,6 +106,17 @@ public final class HiveBucketing
         return (hashCode & Integer.MAX_VALUE) % bucketCount;
     }
 
+    /**
+     * Whether tables bucketed into these counts can be read with the smaller count: as one count divides the other,
+     * every bucket of the larger count holds rows of the single bucket of the smaller count given by its bucket number
+     * modulo the smaller count.
+     */
+    public static boolean isBucketCountDivisible(int bucketCount, int otherBucketCount)
+    {
+        checkArgument(bucketCount > 0 && otherBucketCount > 0, "bucket counts must be positive");
+        return Math.max(bucketCount, otherBucketCount) % Math.min(bucketCount, otherBucketCount) == 0;
+    }
+
     @VisibleForTesting
     static int getBucketHashCode(BucketingVersion bucketingVersion, List<TypeInfo> types, Page page, int position)
     {
@@ -145,6 +145,7 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Streams.stream;
 import static io.prestosql.plugin.hive.HiveBucketing.bucketedOnTimestamp;
+import static io.prestosql.plugin.hive.HiveBucketing.isBucketCountDivisible;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_FILESYSTEM_ERROR;
 import static io.prestosql.plugin.hive.HiveStorageFormat.ORC;
 import static io.prestosql.plugin.hive.HiveTableProperties.IS_EXTERNAL_TABLE;
@@ -2271,7 +2272,9 @@ public class HiveMetadata
                             bucketing.getColumns().stream()
                                     .map(HiveColumnHandle::getHiveType)
                                     .collect(toImmutableList()),
-                            OptionalInt.empty()),
+                            OptionalInt.empty(),
+                            false,
+                            partitionColumns.isEmpty()),
                     bucketing.getColumns().stream()
                             .map(ColumnHandle.class::cast)
                             .collect(toList())));
@@ -2452,14 +2455,15 @@ public class HiveMetadata
             return Optional.empty();
         }
 
-        int largerBucketCount = Math.max(leftHandle.getBucketCount(), rightHandle.getBucketCount());
-        int smallerBucketCount = Math.min(leftHandle.getBucketCount(), rightHandle.getBucketCount());
-        if (largerBucketCount % smallerBucketCount != 0) {
-            // must be evenly divisible
+        if (!isBucketCountDivisible(leftHandle.getBucketCount(), rightHandle.getBucketCount())) {
+            // must be evenly divisible, each bucket of the smaller count then covers the matching buckets of the larger one
             return Optional.empty();
         }
-        if (Integer.bitCount(largerBucketCount / smallerBucketCount) != 1) {
-            // ratio must be power of two
+        int largerBucketCount = Math.max(leftHandle.getBucketCount(), rightHandle.getBucketCount());
+        int smallerBucketCount = Math.min(leftHandle.getBucketCount(), rightHandle.getBucketCount());
+        if (Integer.bitCount(largerBucketCount / smallerBucketCount) != 1 && !(leftHandle.isUniformBucketCount() && rightHandle.isUniformBucketCount())) {
+            // Partitions may be bucketed with the table bucket count multiplied or divided by a power of two.
+            // With any other ratio the smaller count might neither divide nor be divisible by such a partition bucket count.
             return Optional.empty();
         }
 
@@ -2474,7 +2478,9 @@ public class HiveMetadata
                 leftHandle.getBucketingVersion(), // same as rightHandle.getBucketingVersion()
                 smallerBucketCount,
                 leftHandle.getHiveTypes(),
-                maxCompatibleBucketCount));
+                maxCompatibleBucketCount,
+                false,
+                leftHandle.isUniformBucketCount() && rightHandle.isUniformBucketCount()));
     }
 
     private static OptionalInt min(OptionalInt left, OptionalInt right)
@@ -2502,10 +2508,8 @@ public class HiveMetadata
                 "Types from the new PartitioningHandle (%s) does not match the TableHandle (%s)",
                 hivePartitioningHandle.getHiveTypes(),
                 bucketTypes);
-        int largerBucketCount = Math.max(bucketHandle.getTableBucketCount(), hivePartitioningHandle.getBucketCount());
-        int smallerBucketCount = Math.min(bucketHandle.getTableBucketCount(), hivePartitioningHandle.getBucketCount());
         checkArgument(
-                largerBucketCount % smallerBucketCount == 0 && Integer.bitCount(largerBucketCount / smallerBucketCount) == 1,
+                isBucketCountDivisible(bucketHandle.getTableBucketCount(), hivePartitioningHandle.getBucketCount()),
                 "The requested partitioning is not a valid alternative for the table layout");
 
         return new HiveTableHandle(
@@ -3336,6 +3340,79 @@ public class HiveMetadata
         return partialAndFinalAggregationType;
     }
 
+    @Override
+    public OptionalInt getSortedBucketCount(ConnectorSession session, ConnectorTableHandle tableHandle, List<String> columnNames)
+    {
+        HiveTableHandle hiveTable = (HiveTableHandle) tableHandle;
+        if (!HiveSessionProperties.isBucketExecutionEnabled(session) || !hiveTable.getPartitionColumns().isEmpty() || !hiveTable.getBucketHandle().isPresent()) {
+            return OptionalInt.empty();
+        }
+        HiveBucketHandle bucketHandle = hiveTable.getBucketHandle().get();
+        if (bucketHandle.getReadBucketCount() != bucketHandle.getTableBucketCount()) {
+            // several table buckets would be read in the same lifespan
+            return OptionalInt.empty();
+        }
+
+        Table table = metastore.getTable(new HiveIdentity(session), hiveTable.getSchemaName(), hiveTable.getTableName())
+                .orElseThrow(() -> new TableNotFoundException(hiveTable.getSchemaTableName()));
+        if (AcidUtils.isTransactionalTable(table.getParameters())) {
+            // delta directories of a bucket are read as separate splits
+            return OptionalInt.empty();
+        }
+        List<SortingColumn> sortedBy = table.getStorage().getBucketProperty()
+                .map(HiveBucketProperty::getSortedBy)
+                .orElse(ImmutableList.of());
+        if (sortedBy.size() < columnNames.size()) {
+            return OptionalInt.empty();
+        }
+        for (int i = 0; i < columnNames.size(); i++) {
+            SortingColumn sortingColumn = sortedBy.get(i);
+            if (!sortingColumn.getColumnName().equals(columnNames.get(i)) || sortingColumn.getOrder() != SortingColumn.Order.ASCENDING) {
+                return OptionalInt.empty();
+            }
+        }
+
+        int bucketCount = bucketHandle.getTableBucketCount();
+        if (!hasSingleFilePerBucket(session, table, bucketCount)) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(bucketCount);
+    }
+
+    private boolean hasSingleFilePerBucket(ConnectorSession session, Table table, int bucketCount)
+    {
+        Path tablePath = new Path(table.getStorage().getLocation());
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(new HdfsContext(session, table.getDatabaseName(), table.getTableName()), tablePath);
+            Set<Integer> buckets = new HashSet<>();
+            int fileCount = 0;
+            boolean legacyNames = false;
+            for (FileStatus status : fileSystem.listStatus(tablePath)) {
+                String fileName = status.getPath().getName();
+                if (fileName.startsWith("_") || fileName.startsWith(".")) {
+                    continue;
+                }
+                if (status.isDirectory()) {
+                    return false;
+                }
+                fileCount++;
+                OptionalInt bucket = HiveUtil.getBucketNumber(fileName);
+                if (!bucket.isPresent()) {
+                    legacyNames = true;
+                }
+                else if (!buckets.add(bucket.getAsInt())) {
+                    return false;
+                }
+            }
+            // files that do not follow the naming pattern are mapped to buckets by position, one file each
+            return !legacyNames || fileCount == bucketCount;
+        }
+        catch (IOException e) {
+            log.debug(e, "Failed to list the files of table %s", table.getTableName());
+            return false;
+        }
+    }
+
     @Override
     public void refreshMetadataCache()
     {
@@ -340,29 +340,36 @@ public class HivePageSource
         Arrays.fill(result, Boolean.FALSE);
         // loop to handle union of filters if any
         for (int j = 0; j < dynamicFilters.size(); j++) {
-            boolean[] filterResult = new boolean[page.getPositionCount()];
-            Arrays.fill(filterResult, Boolean.TRUE);
+            if (eligibleColumns.get(j).isEmpty()) {
+                continue;
+            }
+            // each column is only tested at the positions that passed the previous columns
+            int positionCount = page.getPositionCount();
+            int[] positions = new int[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                positions[i] = i;
+            }
             for (Map.Entry<Integer, ColumnHandle> column : eligibleColumns.get(j).entrySet()) {
                 final int columnIndex = column.getKey();
                 final ColumnHandle columnHandle = column.getValue();
                 final DynamicFilter dynamicFilter = dynamicFilters.get(j).get(columnHandle);
                 final Block block = page.getBlock(columnIndex).getLoadedBlock();
                 if (dynamicFilter instanceof BloomFilterDynamicFilter) {
-                    block.filter(((BloomFilterDynamicFilter) dynamicFilters.get(j).get(columnHandle)).getBloomFilterDeserialized(), filterResult);
+                    positionCount = ((BloomFilterDynamicFilter) dynamicFilter).getBloomFilterDeserialized().test(block, positions, positionCount, positions);
                 }
                 else {
-                    for (int i = 0; i < block.getPositionCount(); i++) {
-                        filterResult[i] = filterResult[i] && dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, i));
+                    int matchCount = 0;
+                    for (int i = 0; i < positionCount; i++) {
+                        if (dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, positions[i]))) {
+                            positions[matchCount++] = positions[i];
+                        }
                     }
+                    positionCount = matchCount;
                 }
             }
             // apply union of last filter
-            for (Map.Entry<Integer, ColumnHandle> column : eligibleColumns.get(j).entrySet()) {
-                final int columnIndex = column.getKey();
-                final Block block = page.getBlock(columnIndex).getLoadedBlock();
-                for (int i = 0; i < block.getPositionCount(); i++) {
-                    result[i] = result[i] || filterResult[i];
-                }
+            for (int i = 0; i < positionCount; i++) {
+                result[positions[i]] = true;
             }
         }
         return result;
@@ -33,6 +33,8 @@ public class HivePartitioningHandle
     private final List<HiveType> hiveTypes;
     private final OptionalInt maxCompatibleBucketCount;
     private final boolean forUpdateOrDelete;
+    // every file of the table is bucketed with bucketCount, i.e. there are no partitions that may be bucketed differently
+    private final boolean uniformBucketCount;
 
     public HivePartitioningHandle(
             BucketingVersion bucketingVersion,
@@ -43,19 +45,31 @@ public class HivePartitioningHandle
         this(bucketingVersion, bucketCount, hiveTypes, maxCompatibleBucketCount, false);
     }
 
+    public HivePartitioningHandle(
+            BucketingVersion bucketingVersion,
+            int bucketCount,
+            List<HiveType> hiveTypes,
+            OptionalInt maxCompatibleBucketCount,
+            boolean forUpdateOrDelete)
+    {
+        this(bucketingVersion, bucketCount, hiveTypes, maxCompatibleBucketCount, forUpdateOrDelete, false);
+    }
+
     @JsonCreator
     public HivePartitioningHandle(
             @JsonProperty("bucketingVersion") BucketingVersion bucketingVersion,
             @JsonProperty("bucketCount") int bucketCount,
             @JsonProperty("hiveTypes") List<HiveType> hiveTypes,
             @JsonProperty("maxCompatibleBucketCount") OptionalInt maxCompatibleBucketCount,
-            @JsonProperty("forUpdate") boolean forUpdateOrDelete)
+            @JsonProperty("forUpdate") boolean forUpdateOrDelete,
+            @JsonProperty("uniformBucketCount") boolean uniformBucketCount)
     {
         this.bucketingVersion = requireNonNull(bucketingVersion, "bucketingVersion is null");
         this.bucketCount = bucketCount;
         this.hiveTypes = requireNonNull(hiveTypes, "hiveTypes is null");
         this.maxCompatibleBucketCount = maxCompatibleBucketCount;
         this.forUpdateOrDelete = forUpdateOrDelete;
+        this.uniformBucketCount = uniformBucketCount;
     }
 
     @JsonProperty
@@ -88,6 +102,12 @@ public class HivePartitioningHandle
         return forUpdateOrDelete;
     }
 
+    @JsonProperty
+    public boolean isUniformBucketCount()
+    {
+        return uniformBucketCount;
+    }
+
     @Override
     public String toString()
     {
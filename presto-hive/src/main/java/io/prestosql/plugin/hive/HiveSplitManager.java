@@ -64,9 +64,11 @@ import java.util.function.Supplier;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Iterables.transform;
+import static io.prestosql.plugin.hive.HiveBucketing.isBucketCountDivisible;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
 import static io.prestosql.spi.StandardErrorCode.SERVER_SHUTTING_DOWN;
@@ -233,7 +235,7 @@ public class HiveSplitManager
         // sort partitions
         partitions = Ordering.natural().onResultOf(HivePartition::getPartitionId).reverse().sortedCopy(partitions);
 
-        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(session, metastore, table, tableName, partitions, bucketHandle.map(HiveBucketHandle::toTableBucketProperty));
+        Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(session, metastore, table, tableName, partitions, bucketHandle);
 
         HiveSplitLoader hiveSplitLoader = new BackgroundHiveSplitLoader(
                 table,
@@ -313,8 +315,9 @@ public class HiveSplitManager
         return highMemorySplitSourceCounter;
     }
 
-    public Iterable<HivePartitionMetadata> getPartitionMetadata(ConnectorSession session, SemiTransactionalHiveMetastore metastore, Table table, SchemaTableName tableName, List<HivePartition> hivePartitions, Optional<HiveBucketProperty> bucketProperty)
+    public Iterable<HivePartitionMetadata> getPartitionMetadata(ConnectorSession session, SemiTransactionalHiveMetastore metastore, Table table, SchemaTableName tableName, List<HivePartition> hivePartitions, Optional<HiveBucketHandle> bucketHandle)
     {
+        Optional<HiveBucketProperty> bucketProperty = bucketHandle.map(HiveBucketHandle::toTableBucketProperty);
         if (hivePartitions.isEmpty()) {
             return ImmutableList.of();
         }
@@ -416,6 +419,14 @@ public class HiveSplitManager
                                 partitionBucketColumns,
                                 partitionBucketCount));
                     }
+                    // the planner only co-locates a partitioned table with a read bucket count that is a power of two apart from the table's
+                    int readBucketCount = bucketHandle.get().getReadBucketCount();
+                    verify(isBucketCountDivisible(readBucketCount, partitionBucketCount),
+                            "Hive table (%s) is read with %s buckets, which is not compatible with partition (%s) bucketing (buckets=%s)",
+                            hivePartition.getTableName(),
+                            readBucketCount,
+                            hivePartition.getPartitionId(),
+                            partitionBucketCount);
                 }
 
                 results.add(new HivePartitionMetadata(hivePartition, Optional.of(partition), columnCoercions.build()));
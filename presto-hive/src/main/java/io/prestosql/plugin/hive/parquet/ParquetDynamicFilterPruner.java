@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Primitives;
+import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.ParquetDataSource;
+import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.predicate.Predicate;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.TypeManager;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.schema.MessageType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
+import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
+import static io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory.getParquetTupleDomain;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Prunes the row groups of a Parquet file with dynamic filters. Small value sets become discrete domains
+ * and the min/max of other filters become ranges, so they are checked against the row group statistics
+ * and dictionary pages the same way as the static predicate of the split.
+ */
+public class ParquetDynamicFilterPruner
+{
+    // larger sets are only used through their min/max, as matching every value against statistics and dictionaries gets expensive
+    static final int MAX_DISCRETE_VALUES = 1024;
+
+    private static final Set<Type> RANGE_TYPES = ImmutableSet.of(BIGINT, INTEGER, SMALLINT, TINYINT, DATE);
+
+    private final List<HiveColumnHandle> columns;
+    private final TypeManager typeManager;
+    private final MessageType requestedSchema;
+    private final Map<List<String>, RichColumnDescriptor> descriptorsByPath;
+    private final ParquetDataSource dataSource;
+    private final TupleDomain<HiveColumnHandle> effectivePredicate;
+    private final boolean failOnCorruptedParquetStatistics;
+
+    private int appliedFilterCount;
+
+    public ParquetDynamicFilterPruner(
+            List<HiveColumnHandle> columns,
+            TypeManager typeManager,
+            MessageType requestedSchema,
+            Map<List<String>, RichColumnDescriptor> descriptorsByPath,
+            ParquetDataSource dataSource,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            boolean failOnCorruptedParquetStatistics)
+    {
+        this.columns = ImmutableList.copyOf(requireNonNull(columns, "columns is null"));
+        this.typeManager = requireNonNull(typeManager, "typeManager is null");
+        this.requestedSchema = requireNonNull(requestedSchema, "requestedSchema is null");
+        this.descriptorsByPath = requireNonNull(descriptorsByPath, "descriptorsByPath is null");
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        this.effectivePredicate = requireNonNull(effectivePredicate, "effectivePredicate is null");
+        this.failOnCorruptedParquetStatistics = failOnCorruptedParquetStatistics;
+    }
+
+    /**
+     * Returns a filter of the row groups matching both the split predicate and the dynamic filters,
+     * or empty if the dynamic filters are the same as on the previous call or cannot prune anything
+     */
+    public Optional<java.util.function.Predicate<BlockMetaData>> getRowGroupFilter(List<Map<ColumnHandle, DynamicFilter>> dynamicFilters)
+    {
+        if (dynamicFilters.size() == appliedFilterCount) {
+            return Optional.empty();
+        }
+        appliedFilterCount = dynamicFilters.size();
+
+        TupleDomain<HiveColumnHandle> dynamicFilterDomain = getDynamicFilterDomain(dynamicFilters, columns, typeManager);
+        if (dynamicFilterDomain.isAll()) {
+            return Optional.empty();
+        }
+
+        TupleDomain<ColumnDescriptor> parquetTupleDomain = getParquetTupleDomain(descriptorsByPath, effectivePredicate.intersect(dynamicFilterDomain));
+        Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
+        return Optional.of(block -> {
+            try {
+                return predicateMatches(parquetPredicate, block, dataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics);
+            }
+            catch (ParquetCorruptionException e) {
+                throw new PrestoException(HIVE_BAD_DATA, e);
+            }
+        });
+    }
+
+    public static TupleDomain<HiveColumnHandle> getDynamicFilterDomain(List<Map<ColumnHandle, DynamicFilter>> dynamicFilters, List<HiveColumnHandle> columns, TypeManager typeManager)
+    {
+        Map<HiveColumnHandle, Domain> domains = new HashMap<>();
+        for (Map<ColumnHandle, DynamicFilter> filters : dynamicFilters) {
+            for (Map.Entry<ColumnHandle, DynamicFilter> entry : filters.entrySet()) {
+                Optional<HiveColumnHandle> column = columns.stream()
+                        .filter(handle -> handle.getColumnType() == REGULAR)
+                        .filter(handle -> handle.getName().equalsIgnoreCase(entry.getKey().getColumnName()))
+                        .findFirst();
+                if (!column.isPresent() || entry.getValue() == null) {
+                    continue;
+                }
+                Type type = typeManager.getType(column.get().getTypeSignature());
+                Optional<Domain> domain = toDomain(entry.getValue(), type);
+                if (domain.isPresent()) {
+                    domains.merge(column.get(), domain.get(), Domain::intersect);
+                }
+            }
+        }
+        return TupleDomain.withColumnDomains(domains);
+    }
+
+    private static Optional<Domain> toDomain(DynamicFilter dynamicFilter, Type type)
+    {
+        if (!type.isOrderable()) {
+            return Optional.empty();
+        }
+        if (dynamicFilter instanceof HashSetDynamicFilter) {
+            Set<?> values = ((HashSetDynamicFilter) dynamicFilter).getSetValues();
+            if (values == null) {
+                return Optional.empty();
+            }
+            if (values.isEmpty()) {
+                return Optional.of(Domain.none(type));
+            }
+            Class<?> javaType = Primitives.wrap(type.getJavaType());
+            if (!values.stream().allMatch(javaType::isInstance)) {
+                return Optional.empty();
+            }
+            if (values.size() <= MAX_DISCRETE_VALUES) {
+                return Optional.of(Domain.multipleValues(type, ImmutableList.copyOf(values)));
+            }
+            if (RANGE_TYPES.contains(type)) {
+                LongSummaryStatistics statistics = values.stream()
+                        .mapToLong(Long.class::cast)
+                        .summaryStatistics();
+                return Optional.of(toRange(type, statistics.getMin(), statistics.getMax()));
+            }
+        }
+        if (RANGE_TYPES.contains(type) && dynamicFilter.getMin() instanceof Long && dynamicFilter.getMax() instanceof Long) {
+            return Optional.of(toRange(type, (Long) dynamicFilter.getMin(), (Long) dynamicFilter.getMax()));
+        }
+        return Optional.empty();
+    }
+
+    private static Domain toRange(Type type, long min, long max)
+    {
+        return Domain.create(ValueSet.ofRanges(Range.range(type, min, true, max, true)), false);
+    }
+}
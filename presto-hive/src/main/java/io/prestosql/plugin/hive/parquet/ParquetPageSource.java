@@ -24,7 +24,10 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.LazyBlock;
 import io.prestosql.spi.block.LazyBlockLoader;
 import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
@@ -34,6 +37,7 @@ import org.apache.parquet.schema.MessageType;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
@@ -51,6 +55,7 @@ public class ParquetPageSource
     private static final int MAX_VECTOR_LENGTH = 1024;
 
     private final ParquetReader parquetReader;
+    private final Optional<ParquetDynamicFilterPruner> dynamicFilterPruner;
     private final MessageType fileSchema;
     // for debugging heap dump
     private final List<String> columnNames;
@@ -62,6 +67,7 @@ public class ParquetPageSource
 
     private int batchId;
     private boolean closed;
+    private List<Map<ColumnHandle, DynamicFilter>> appliedDynamicFilters = ImmutableList.of();
     private final boolean useParquetColumnNames;
 
     public ParquetPageSource(
@@ -72,12 +78,14 @@ public class ParquetPageSource
             Properties splitSchema,
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
-            boolean useParquetColumnNames)
+            boolean useParquetColumnNames,
+            Optional<ParquetDynamicFilterPruner> dynamicFilterPruner)
     {
         requireNonNull(splitSchema, "splitSchema is null");
         requireNonNull(columns, "columns is null");
         requireNonNull(effectivePredicate, "effectivePredicate is null");
         this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
+        this.dynamicFilterPruner = requireNonNull(dynamicFilterPruner, "dynamicFilterPruner is null");
         this.fileSchema = requireNonNull(fileSchema, "fileSchema is null");
         this.useParquetColumnNames = useParquetColumnNames;
 
@@ -137,6 +145,24 @@ public class ParquetPageSource
         return parquetReader.getSystemMemoryContext().getBytes();
     }
 
+    @Override
+    public void setDynamicFilter(Optional<DynamicFilterSupplier> dynamicFilterSupplier)
+    {
+        if (!dynamicFilterPruner.isPresent() || !dynamicFilterSupplier.isPresent()) {
+            return;
+        }
+        // called before every page, the row group filter is only rebuilt when new filters arrived
+        List<Map<ColumnHandle, DynamicFilter>> dynamicFilters = dynamicFilterSupplier.get().getDynamicFilters();
+        if (dynamicFilters.equals(appliedDynamicFilters)) {
+            return;
+        }
+        appliedDynamicFilters = dynamicFilters;
+        // row groups already being read are not affected, the rows of those are filtered by HivePageSource
+        dynamicFilterPruner.get()
+                .getRowGroupFilter(dynamicFilters)
+                .ifPresent(parquetReader::setRowGroupFilter);
+    }
+
     @Override
     public Page getNextPage()
     {
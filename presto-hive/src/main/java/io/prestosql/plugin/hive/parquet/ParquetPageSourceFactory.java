@@ -31,8 +31,10 @@ import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.plugin.hive.HiveConfig;
 import io.prestosql.plugin.hive.HivePageSourceFactory;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
 import io.prestosql.spi.heuristicindex.SplitMetadata;
@@ -150,6 +152,7 @@ public class ParquetPageSourceFactory
                 getParquetMaxReadBlockSize(session),
                 typeManager,
                 effectivePredicate,
+                dynamicFilter,
                 stats,
                 timeZone));
     }
@@ -169,10 +172,15 @@ public class ParquetPageSourceFactory
             DataSize maxReadBlockSize,
             TypeManager typeManager,
             TupleDomain<HiveColumnHandle> effectivePredicate,
+            Optional<DynamicFilterSupplier> dynamicFilter,
             FileFormatDataSourceStats stats,
             DateTimeZone timeZone)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
+        // filters arriving later are applied through ParquetPageSource.setDynamicFilter before the first row group is read
+        List<Map<ColumnHandle, DynamicFilter>> dynamicFilters = dynamicFilter
+                .map(DynamicFilterSupplier::getDynamicFilters)
+                .orElse(ImmutableList.of());
 
         ParquetDataSource dataSource = null;
         DateTimeZone readerTimeZone = timeZone;
@@ -208,9 +216,21 @@ public class ParquetPageSourceFactory
             TupleDomain<ColumnDescriptor> parquetTupleDomain = getParquetTupleDomain(descriptorsByPath, effectivePredicate);
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
             final ParquetDataSource finalDataSource = dataSource;
+            Optional<ParquetDynamicFilterPruner> dynamicFilterPruner = dynamicFilter.map(ignored -> new ParquetDynamicFilterPruner(
+                    columns,
+                    typeManager,
+                    requestedSchema,
+                    descriptorsByPath,
+                    finalDataSource,
+                    effectivePredicate,
+                    failOnCorruptedParquetStatistics));
+            java.util.function.Predicate<BlockMetaData> dynamicFilterMatches = dynamicFilterPruner
+                    .flatMap(pruner -> pruner.getRowGroupFilter(dynamicFilters))
+                    .orElse(block -> true);
             ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics)) {
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics)
+                        && dynamicFilterMatches.test(block)) {
                     blocks.add(block);
                 }
             }
@@ -232,7 +252,8 @@ public class ParquetPageSourceFactory
                     schema,
                     columns,
                     effectivePredicate,
-                    useParquetColumnNames);
+                    useParquetColumnNames,
+                    dynamicFilterPruner);
         }
         catch (Exception e) {
             try {
@@ -48,7 +48,7 @@ import io.prestosql.spi.type.StandardTypes;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.TypeSignatureParameter;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.testing.NoOpIndexClient;
 import io.prestosql.testing.TestingConnectorSession;
 import io.prestosql.type.InternalTypeManager;
@@ -249,7 +249,7 @@ public final class HiveTestUtils
         Supplier<List<Set<DynamicFilter>>> dynamicFilterSupplier = () -> {
             Set<DynamicFilter> dynamicFilters = new HashSet<>();
             ColumnHandle columnHandle = new HiveColumnHandle(filterKey, HIVE_LONG, parseTypeSignature(StandardTypes.BIGINT), 0, PARTITION_KEY, Optional.empty());
-            BloomFilter filter = new BloomFilter(1024 * 1024, 0.01);
+            SplitBlockBloomFilter filter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
             filterValues.stream().forEach(value -> filter.add(value));
 
             try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
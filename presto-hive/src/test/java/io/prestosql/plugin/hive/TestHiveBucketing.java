@@ -41,6 +41,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_V1;
 import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_V2;
 import static io.prestosql.plugin.hive.HiveBucketing.getBucketHashCode;
+import static io.prestosql.plugin.hive.HiveBucketing.isBucketCountDivisible;
 import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
 import static java.lang.Double.longBitsToDouble;
 import static java.lang.Float.intBitsToFloat;
@@ -49,9 +50,22 @@ import static java.util.Map.Entry;
 import static org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory.timestampTypeInfo;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveBucketing
 {
+    @Test
+    public void testBucketCountDivisible()
+    {
+        assertTrue(isBucketCountDivisible(16, 16));
+        assertTrue(isBucketCountDivisible(16, 32));
+        assertTrue(isBucketCountDivisible(48, 16));
+        assertTrue(isBucketCountDivisible(7, 21));
+        assertFalse(isBucketCountDivisible(32, 48));
+        assertFalse(isBucketCountDivisible(13, 16));
+    }
+
     @Test
     public void testHashingCompare()
     {
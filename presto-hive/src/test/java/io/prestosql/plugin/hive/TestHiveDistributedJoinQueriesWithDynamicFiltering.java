@@ -32,7 +32,7 @@ import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.ProjectNode;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.type.StandardTypes;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.Plan;
 import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
@@ -227,7 +227,7 @@ public class TestHiveDistributedJoinQueriesWithDynamicFiltering
     private Supplier<List<Map<ColumnHandle, DynamicFilter>>> createDynamicFilterSupplier(List<Long> values, ColumnHandle columnHandle, String filterId)
             throws IOException
     {
-        BloomFilter filter = new BloomFilter(values.size(), 0.01);
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(values.size(), 0.01);
         for (Long value : values) {
             filter.add(value);
         }
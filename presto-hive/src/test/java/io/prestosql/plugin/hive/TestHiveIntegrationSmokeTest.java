@@ -150,6 +150,7 @@ import static io.prestosql.SystemSessionProperties.ENABLE_DYNAMIC_FILTERING;
 import static io.prestosql.SystemSessionProperties.GROUPED_EXECUTION;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.SystemSessionProperties.MERGE_JOIN_ENABLED;
 import static io.prestosql.execution.SqlStageExecution.createSqlStageExecution;
 import static io.prestosql.execution.scheduler.TestSourcePartitionedScheduler.createFixedSplitSource;
 import static io.prestosql.execution.scheduler.policy.TestPhasedExecutionSchedule.createTableScanPlanFragment;
@@ -3397,6 +3398,16 @@ public class TestHiveIntegrationSmokeTest
                             "WITH (bucket_count = 32, bucketed_by = ARRAY['key32']) AS\n" +
                             "SELECT orderkey key32, comment value32 FROM orders",
                     15000);
+            assertUpdate(
+                    "CREATE TABLE test_mismatch_bucketing48\n" +
+                            "WITH (bucket_count = 48, bucketed_by = ARRAY['key48']) AS\n" +
+                            "SELECT orderkey key48, comment value48 FROM orders",
+                    15000);
+            assertUpdate(
+                    "CREATE TABLE test_mismatch_bucketing48_partitioned\n" +
+                            "WITH (bucket_count = 48, bucketed_by = ARRAY['key48p'], partitioned_by = ARRAY['part48p']) AS\n" +
+                            "SELECT orderkey key48p, comment value48p, orderstatus part48p FROM orders",
+                    15000);
             assertUpdate(
                     "CREATE TABLE test_mismatch_bucketingN AS\n" +
                             "SELECT orderkey keyN, comment valueN FROM orders",
@@ -3451,10 +3462,31 @@ public class TestHiveIntegrationSmokeTest
 
             assertUpdate(withMismatchOptimization, writeToTableWithFewerBuckets, 15000, assertRemoteExchangesCount(2));
             assertQuery("SELECT * FROM test_mismatch_bucketing_out8", "SELECT orderkey, comment, orderkey, comment, orderkey, comment from orders");
+
+            // bucket counts that divide each other without a power of two ratio
+            @Language("SQL") String joinWithThreeTimesTheBuckets = "SELECT key16, value16, key48, value48\n" +
+                    "FROM\n" +
+                    "  test_mismatch_bucketing16\n" +
+                    "JOIN\n" +
+                    "  test_mismatch_bucketing48\n" +
+                    "ON key16=key48";
+            assertQuery(withoutMismatchOptimization, joinWithThreeTimesTheBuckets, "SELECT orderkey, comment, orderkey, comment from orders");
+            assertQuery(withMismatchOptimization, joinWithThreeTimesTheBuckets, "SELECT orderkey, comment, orderkey, comment from orders", assertRemoteExchangesCount(1));
+
+            // partitions may be bucketed differently from a partitioned table, so it is not co-located with such a ratio
+            @Language("SQL") String joinWithPartitionedTable = "SELECT key16, value16, key48p, value48p\n" +
+                    "FROM\n" +
+                    "  test_mismatch_bucketing16\n" +
+                    "JOIN\n" +
+                    "  test_mismatch_bucketing48_partitioned\n" +
+                    "ON key16=key48p";
+            assertQuery(withMismatchOptimization, joinWithPartitionedTable, "SELECT orderkey, comment, orderkey, comment from orders", assertRemoteExchangesCount(2));
         }
         finally {
             assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing16");
             assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing32");
+            assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing48");
+            assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing48_partitioned");
             assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketingN");
             assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing_out32");
             assertUpdate("DROP TABLE IF EXISTS test_mismatch_bucketing_out8");
@@ -6319,6 +6351,47 @@ public class TestHiveIntegrationSmokeTest
         assertUpdate("DROP TABLE ordersSortBy_orderkey_inner");
     }
 
+    @Test
+    public void testMergeJoin()
+    {
+        assertUpdate("CREATE TABLE merge_join_lineitem WITH (transactional = false, format = 'ORC', " +
+                "bucketed_by = ARRAY['orderkey'], bucket_count = 4, sorted_by = ARRAY['orderkey']) " +
+                "AS SELECT orderkey, partkey FROM tpch.tiny.lineitem", 60175);
+        assertUpdate("CREATE TABLE merge_join_orders WITH (transactional = false, format = 'ORC', " +
+                "bucketed_by = ARRAY['orderkey'], bucket_count = 4, sorted_by = ARRAY['orderkey']) " +
+                "AS SELECT orderkey, custkey FROM tpch.tiny.orders", 15000);
+        assertUpdate("CREATE TABLE merge_join_orders_desc WITH (transactional = false, format = 'ORC', " +
+                "bucketed_by = ARRAY['orderkey'], bucket_count = 4, sorted_by = ARRAY['orderkey DESC']) " +
+                "AS SELECT orderkey, custkey FROM tpch.tiny.orders", 15000);
+
+        Session mergeJoin = Session.builder(getSession())
+                .setSystemProperty(MERGE_JOIN_ENABLED, "true")
+                .setSystemProperty(COLOCATED_JOIN, "true")
+                .setSystemProperty(GROUPED_EXECUTION, "true")
+                .setSystemProperty(ENABLE_DYNAMIC_FILTERING, "true")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
+                .build();
+
+        // dynamic filters do not prevent the merge join
+        String query = "SELECT count(*), sum(l.partkey), sum(o.custkey) FROM merge_join_lineitem l JOIN merge_join_orders o ON l.orderkey = o.orderkey";
+        assertTrue(explainPlan(mergeJoin, query).contains("Algorithm: SORT_MERGE"));
+        assertEquals(computeActual(mergeJoin, query).getMaterializedRows(), computeActual(query).getMaterializedRows());
+
+        // a table sorted in descending order keeps the hash join
+        String descendingQuery = "SELECT count(*), sum(l.partkey), sum(o.custkey) FROM merge_join_lineitem l JOIN merge_join_orders_desc o ON l.orderkey = o.orderkey";
+        assertFalse(explainPlan(mergeJoin, descendingQuery).contains("Algorithm: SORT_MERGE"));
+        assertEquals(computeActual(mergeJoin, descendingQuery).getMaterializedRows(), computeActual(descendingQuery).getMaterializedRows());
+
+        assertUpdate("DROP TABLE merge_join_lineitem");
+        assertUpdate("DROP TABLE merge_join_orders");
+        assertUpdate("DROP TABLE merge_join_orders_desc");
+    }
+
+    private String explainPlan(Session session, String query)
+    {
+        return (String) computeActual(session, "EXPLAIN " + query).getOnlyValue();
+    }
+
     @Test
     public void sortAggLeftJoin()
     {
@@ -25,7 +25,7 @@ import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.Type;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -76,8 +76,8 @@ public class TestHivePageSource
         ColumnHandle dayColumn = new HiveColumnHandle("pt_d", HIVE_INT, parseTypeSignature(INTEGER), 0, REGULAR, Optional.empty());
         ColumnHandle appColumn = new HiveColumnHandle("app_d", HIVE_INT, parseTypeSignature(INTEGER), 1, REGULAR, Optional.empty());
 
-        BloomFilter dayFilter = new BloomFilter(1024 * 1024, 0.01);
-        BloomFilter appFilter = new BloomFilter(1024 * 1024, 0.01);
+        SplitBlockBloomFilter dayFilter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
+        SplitBlockBloomFilter appFilter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
 
         for (int i = 0; i < 10; i++) {
             dayFilter.add(columnOffset1 + i);
@@ -25,7 +25,7 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import io.prestosql.spi.type.TestingTypeManager;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.MetaException;
@@ -164,7 +164,7 @@ public class TestHiveUtil
         assertFalse(isPartitionFiltered(partitions, ImmutableList.of(dynamicFilters), typeManager), "Should not filter partition if dynamicFilters is empty");
 
         ColumnHandle dayColumn = new HiveColumnHandle("pt_d", HIVE_LONG, parseTypeSignature(BIGINT), 0, PARTITION_KEY, Optional.empty());
-        BloomFilter dayFilter = new BloomFilter(1024 * 1024, 0.01);
+        SplitBlockBloomFilter dayFilter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
         dynamicFilters.add(new BloomFilterDynamicFilter("1", dayColumn, dayFilter, DynamicFilter.Type.GLOBAL));
         assertTrue(isPartitionFiltered(partitions, ImmutableList.of(dynamicFilters), typeManager), "Should filter partition if any dynamicFilter has 0 element count");
 
@@ -175,7 +175,7 @@ public class TestHiveUtil
         assertFalse(isPartitionFiltered(partitions, ImmutableList.of(dynamicFilters), typeManager), "Should not filter partition if partition value is in dynamicFilter");
 
         Set<DynamicFilter> dynamicFilters1 = new HashSet<>();
-        BloomFilter dayFilter1 = new BloomFilter(1024 * 1024, 0.01);
+        SplitBlockBloomFilter dayFilter1 = new SplitBlockBloomFilter(1024 * 1024, 0.01);
         dynamicFilters1.add(new BloomFilterDynamicFilter("1", dayColumn, dayFilter1, DynamicFilter.Type.GLOBAL));
         dayFilter1.add(0L);
         assertFalse(isPartitionFiltered(partitions, ImmutableList.of(dynamicFilters1), typeManager), "Should not filter partition if partition value is in dynamicFilter");
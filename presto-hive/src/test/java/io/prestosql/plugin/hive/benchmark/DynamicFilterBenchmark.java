@@ -25,7 +25,7 @@ import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.type.Type;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
@@ -83,11 +83,11 @@ public class DynamicFilterBenchmark
             ColumnHandle dayColumn = new HiveColumnHandle("pt_d", HIVE_INT, parseTypeSignature(INTEGER), 0, REGULAR, Optional.empty());
             ColumnHandle appColumn = new HiveColumnHandle("app_d", HIVE_INT, parseTypeSignature(INTEGER), 1, PARTITION_KEY, Optional.empty());
 
-            BloomFilter dayFilter = new BloomFilter(1024 * 1024, 0.01);
+            SplitBlockBloomFilter dayFilter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
             for (int i = 0; i < 10; i++) {
                 dayFilter.add(i);
             }
-            BloomFilter appFilter = new BloomFilter(1024 * 1024, 0.01);
+            SplitBlockBloomFilter appFilter = new SplitBlockBloomFilter(1024 * 1024, 0.01);
             for (int i = 1023; i > 1013; i--) {
                 appFilter.add(i);
             }
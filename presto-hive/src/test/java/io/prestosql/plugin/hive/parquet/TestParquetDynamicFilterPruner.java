@@ -0,0 +1,261 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.prestosql.parquet.writer.ParquetWriter;
+import io.prestosql.parquet.writer.ParquetWriterOptions;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.DynamicFilterFactory;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static io.prestosql.plugin.hive.HiveTestUtils.TYPE_MANAGER;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
+import static io.prestosql.plugin.hive.parquet.ParquetDynamicFilterPruner.MAX_DISCRETE_VALUES;
+import static io.prestosql.plugin.hive.parquet.ParquetDynamicFilterPruner.getDynamicFilterDomain;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetDynamicFilterPruner
+{
+    private static final HiveColumnHandle ID = new HiveColumnHandle("id", HIVE_LONG, HIVE_LONG.getTypeSignature(), 0, REGULAR, Optional.empty());
+    private static final HiveColumnHandle NAME = new HiveColumnHandle("name", HIVE_STRING, HIVE_STRING.getTypeSignature(), 1, REGULAR, Optional.empty());
+    private static final HiveColumnHandle DS = new HiveColumnHandle("ds", HIVE_STRING, HIVE_STRING.getTypeSignature(), -1, PARTITION_KEY, Optional.empty());
+    private static final List<HiveColumnHandle> COLUMNS = ImmutableList.of(ID, NAME, DS);
+    private static final int ROW_GROUPS = 4;
+    private static final int ROWS_PER_GROUP = 100;
+
+    @Test
+    public void testSmallSets()
+    {
+        TupleDomain<HiveColumnHandle> domain = getDynamicFilterDomain(
+                ImmutableList.of(ImmutableMap.of(
+                        ID, filter(ID, ImmutableSet.of(3L, 1L, 7L)),
+                        NAME, filter(NAME, ImmutableSet.of(utf8Slice("a"), utf8Slice("b"))))),
+                COLUMNS,
+                TYPE_MANAGER);
+
+        assertEquals(domain, TupleDomain.withColumnDomains(ImmutableMap.of(
+                ID, Domain.multipleValues(BIGINT, ImmutableList.of(1L, 3L, 7L)),
+                NAME, Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("a"), utf8Slice("b"))))));
+    }
+
+    @Test
+    public void testLargeSetsBecomeRanges()
+    {
+        Set<Long> ids = LongStream.range(10, 10 + MAX_DISCRETE_VALUES + 1).boxed().collect(Collectors.toSet());
+        TupleDomain<HiveColumnHandle> domain = getDynamicFilterDomain(ImmutableList.of(ImmutableMap.of(ID, filter(ID, ids))), COLUMNS, TYPE_MANAGER);
+
+        Domain expected = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 10L + MAX_DISCRETE_VALUES, true)), false);
+        assertEquals(domain, TupleDomain.withColumnDomains(ImmutableMap.of(ID, expected)));
+    }
+
+    @Test
+    public void testFiltersOfSameColumnIntersect()
+    {
+        List<Map<ColumnHandle, DynamicFilter>> dynamicFilters = ImmutableList.of(
+                ImmutableMap.of(ID, filter(ID, ImmutableSet.of(1L, 2L, 3L))),
+                ImmutableMap.of(ID, filter(ID, ImmutableSet.of(3L, 4L))));
+
+        assertEquals(
+                getDynamicFilterDomain(dynamicFilters, COLUMNS, TYPE_MANAGER),
+                TupleDomain.withColumnDomains(ImmutableMap.of(ID, Domain.singleValue(BIGINT, 3L))));
+    }
+
+    @Test
+    public void testEmptyFilterMatchesNothing()
+    {
+        assertTrue(getDynamicFilterDomain(ImmutableList.of(ImmutableMap.of(ID, filter(ID, ImmutableSet.of()))), COLUMNS, TYPE_MANAGER).isNone());
+    }
+
+    @Test
+    public void testIgnoredFilters()
+    {
+        List<Map<ColumnHandle, DynamicFilter>> dynamicFilters = ImmutableList.of(ImmutableMap.of(
+                // partition keys are not stored in the files
+                DS, filter(DS, ImmutableSet.of(utf8Slice("2020-01-01"))),
+                // values which are not of the column type cannot be turned into a domain
+                NAME, filter(NAME, ImmutableSet.of("a"))));
+
+        assertTrue(getDynamicFilterDomain(dynamicFilters, COLUMNS, TYPE_MANAGER).isAll());
+    }
+
+    @Test
+    public void testSkipRowGroupsOnOpen()
+            throws Exception
+    {
+        File file = writeRowGroups();
+        try {
+            Optional<DynamicFilterSupplier> dynamicFilter = supplier(() -> ImmutableList.of(ImmutableMap.of(ID, filter(ID, ImmutableSet.of(150L)))));
+            ParquetPageSource pageSource = createPageSource(file, dynamicFilter);
+            pageSource.setDynamicFilter(dynamicFilter);
+
+            assertEquals(readIds(pageSource), LongStream.range(ROWS_PER_GROUP, 2 * ROWS_PER_GROUP).boxed().collect(toImmutableList()));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSkipRowGroupsOfLateFilter()
+            throws Exception
+    {
+        File file = writeRowGroups();
+        try {
+            AtomicReference<List<Map<ColumnHandle, DynamicFilter>>> dynamicFilters = new AtomicReference<>(ImmutableList.of());
+            Optional<DynamicFilterSupplier> dynamicFilter = supplier(dynamicFilters::get);
+            ParquetPageSource pageSource = createPageSource(file, dynamicFilter);
+            pageSource.setDynamicFilter(dynamicFilter);
+
+            // the first row group is read before the filter arrives
+            Page page = pageSource.getNextPage();
+            assertEquals(page.getPositionCount(), ROWS_PER_GROUP);
+            assertEquals(BIGINT.getLong(page.getBlock(0).getLoadedBlock(), 0), 0L);
+
+            dynamicFilters.set(ImmutableList.of(ImmutableMap.of(ID, filter(ID, ImmutableSet.of(3 * ROWS_PER_GROUP + 5L)))));
+            pageSource.setDynamicFilter(dynamicFilter);
+
+            assertEquals(readIds(pageSource), LongStream.range(3 * ROWS_PER_GROUP, 4 * ROWS_PER_GROUP).boxed().collect(toImmutableList()));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes ids 0 to 399 into four row groups of 100 rows each
+     */
+    private static File writeRowGroups()
+            throws IOException
+    {
+        File file = File.createTempFile("row-groups", ".parquet");
+        ParquetWriterOptions options = ParquetWriterOptions.builder()
+                .setMaxBlockSize(new DataSize(1, BYTE))
+                .build();
+        try (ParquetWriter writer = new ParquetWriter(
+                new FileOutputStream(file),
+                new MessageType("schema", new PrimitiveType(OPTIONAL, INT64, ID.getName())),
+                ImmutableMap.of(ImmutableList.of(ID.getName()), BIGINT),
+                options,
+                UNCOMPRESSED,
+                "test")) {
+            for (int group = 0; group < ROW_GROUPS; group++) {
+                BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, ROWS_PER_GROUP);
+                for (int i = 0; i < ROWS_PER_GROUP; i++) {
+                    BIGINT.writeLong(blockBuilder, group * ROWS_PER_GROUP + i);
+                }
+                // every page fills a row group, since the row group size is exceeded after each write
+                writer.write(new Page(blockBuilder.build()));
+            }
+        }
+        return file;
+    }
+
+    private static ParquetPageSource createPageSource(File file, Optional<DynamicFilterSupplier> dynamicFilter)
+    {
+        return ParquetPageSourceFactory.createParquetPageSource(
+                HDFS_ENVIRONMENT,
+                "test",
+                new Configuration(false),
+                new Path(file.toURI()),
+                0,
+                file.length(),
+                file.length(),
+                new Properties(),
+                ImmutableList.of(ID),
+                true,
+                true,
+                new DataSize(16, MEGABYTE),
+                TYPE_MANAGER,
+                TupleDomain.all(),
+                dynamicFilter,
+                new FileFormatDataSourceStats(),
+                DateTimeZone.UTC);
+    }
+
+    private static List<Long> readIds(ParquetPageSource pageSource)
+            throws IOException
+    {
+        ImmutableList.Builder<Long> ids = ImmutableList.builder();
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+            Block block = page.getBlock(0).getLoadedBlock();
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                ids.add(BIGINT.getLong(block, position));
+            }
+        }
+        pageSource.close();
+        return ids.build();
+    }
+
+    private static Optional<DynamicFilterSupplier> supplier(Supplier<List<Map<ColumnHandle, DynamicFilter>>> dynamicFilters)
+    {
+        return Optional.of(new DynamicFilterSupplier(dynamicFilters, System.currentTimeMillis(), 0));
+    }
+
+    private static DynamicFilter filter(HiveColumnHandle column, Set<?> values)
+    {
+        return DynamicFilterFactory.create("filter-" + column.getName(), column, values, LOCAL);
+    }
+}
@@ -105,6 +105,8 @@ public final class SystemSessionProperties
     public static final String SPLIT_CONCURRENCY_ADJUSTMENT_INTERVAL = "split_concurrency_adjustment_interval";
     public static final String OPTIMIZE_METADATA_QUERIES = "optimize_metadata_queries";
     public static final String FAST_INEQUALITY_JOINS = "fast_inequality_joins";
+    public static final String JOIN_RADIX_PARTITIONING_ENABLED = "join_radix_partitioning_enabled";
+    public static final String MULTI_LOOKUP_JOIN_ENABLED = "multi_lookup_join_enabled";
     public static final String QUERY_PRIORITY = "query_priority";
     public static final String SPILL_ENABLED = "spill_enabled";
     public static final String SPILL_ORDER_BY = "spill_order_by";
@@ -166,6 +168,7 @@ public final class SystemSessionProperties
     public static final String SPILL_REUSE_TABLESCAN = "spill_reuse_tablescan";
     public static final String SPILL_THRESHOLD_REUSE_TABLESCAN = "spill_threshold_reuse_tablescan";
     public static final String SORT_BASED_AGGREGATION_ENABLED = "sort_based_aggregation_enabled";
+    public static final String MERGE_JOIN_ENABLED = "merge_join_enabled";
     public static final String PRCNT_DRIVERS_FOR_PARTIAL_AGGR = "prcnt_drivers_for_partial_aggr";
     public static final String SPILL_TO_HDFS_ENABLED = "spill_to_hdfs_enabled";
     public static final String CTE_MATERIALIZATION_ENABLED = "cte_materialization_enabled";
@@ -208,6 +211,7 @@ public final class SystemSessionProperties
     public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
     public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_HEAVY_HITTERS_ENABLED = "adaptive_partial_aggregation_heavy_hitters_enabled";
 
     public static final String RETRY_POLICY = "retry_policy";
 
@@ -520,6 +524,16 @@ public final class SystemSessionProperties
                         "Use faster handling of inequality join if it is possible",
                         featuresConfig.isFastInequalityJoins(),
                         false),
+                booleanProperty(
+                        JOIN_RADIX_PARTITIONING_ENABLED,
+                        "Split large join hash tables into cache sized sub-tables by hash bits",
+                        featuresConfig.isJoinRadixPartitioningEnabled(),
+                        false),
+                booleanProperty(
+                        MULTI_LOOKUP_JOIN_ENABLED,
+                        "Run chains of broadcast inner joins that probe with columns of the same input as a single join operator",
+                        featuresConfig.isMultiLookupJoinEnabled(),
+                        false),
                 booleanProperty(
                         COLOCATED_JOIN,
                         "Experimental: Use a colocated join when possible",
@@ -872,6 +886,11 @@ public final class SystemSessionProperties
                         "Enable sort based aggregation",
                         featuresConfig.isSortBasedAggregationEnabled(),
                         false),
+                booleanProperty(
+                        MERGE_JOIN_ENABLED,
+                        "Enable sort merge join for inputs sorted on the join keys",
+                        featuresConfig.isMergeJoinEnabled(),
+                        false),
                 integerProperty(
                         PRCNT_DRIVERS_FOR_PARTIAL_AGGR,
                         "Sort based aggr, percentage of number of drivers that are used for not finalized values",
@@ -1056,6 +1075,11 @@ public final class SystemSessionProperties
                         "Ratio between aggregation output and input rows above which partial aggregation might be adaptively turned off",
                         featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_HEAVY_HITTERS_ENABLED,
+                        "Keep aggregating the most frequent keys after partial aggregation was adaptively turned off, and periodically re-enable it",
+                        featuresConfig.isAdaptivePartialAggregationHeavyHittersEnabled(),
+                        false),
                 booleanProperty(TRANSFORM_SELF_JOIN_TO_WINDOW,
                         "Transform Sub-query SelfJoin using window lead/lag",
                         featuresConfig.isTransformSelfJoinToWindow(),
@@ -1304,6 +1328,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FAST_INEQUALITY_JOINS, Boolean.class);
     }
 
+    public static boolean isJoinRadixPartitioningEnabled(Session session)
+    {
+        return session.getSystemProperty(JOIN_RADIX_PARTITIONING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isMultiLookupJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(MULTI_LOOKUP_JOIN_ENABLED, Boolean.class);
+    }
+
     public static JoinReorderingStrategy getJoinReorderingStrategy(Session session)
     {
         Boolean reorderJoins = session.getSystemProperty(REORDER_JOINS, Boolean.class);
@@ -1722,6 +1756,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SORT_BASED_AGGREGATION_ENABLED, Boolean.class);
     }
 
+    public static boolean isMergeJoinEnabled(Session session)
+    {
+        return session.getSystemProperty(MERGE_JOIN_ENABLED, Boolean.class);
+    }
+
     public static int getPrcntDriversForPartialAggr(Session session)
     {
         return session.getSystemProperty(PRCNT_DRIVERS_FOR_PARTIAL_AGGR, Integer.class);
@@ -1888,6 +1927,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
     }
 
+    public static boolean isAdaptivePartialAggregationHeavyHittersEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_HEAVY_HITTERS_ENABLED, Boolean.class);
+    }
+
     public static boolean shouldTransformSelfJoinToWindowFunction(Session session)
     {
         return session.getSystemProperty(TRANSFORM_SELF_JOIN_TO_WINDOW, Boolean.class);
@@ -24,12 +24,14 @@ import io.prestosql.spi.connector.QualifiedObjectName;
 import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.spi.security.Identity;
 import io.prestosql.utils.HetuConfig;
+import org.weakref.jmx.Managed;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.util.Objects.requireNonNull;
 
@@ -41,6 +43,12 @@ public class CacheStorageMonitor
     private final Map<CachedDataStorage.TableInfo, List<CachedDataKey>> monitoredTables = new ConcurrentHashMap<>();
     private final AtomicBoolean tableCount = new AtomicBoolean();
     private final String userName;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong recomputeTimeAvoided = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
 
     @Inject
     public CacheStorageMonitor(HetuConfig hetuConfig, Metadata metadata)
@@ -91,4 +99,73 @@ public class CacheStorageMonitor
         identity = new Identity(userName, identity.getGroups(), identity.getPrincipal(), identity.getRoles(), identity.getExtraCredentials());
         return session.withUpdatedIdentity(identity);
     }
+
+    /**
+     * Records a lookup served by committed cached data, which saved reading the cached size
+     * from the sources and the time it took to materialize the data.
+     */
+    public void recordHit(CachedDataStorage cachedDataStorage)
+    {
+        hits.incrementAndGet();
+        bytesSaved.addAndGet(cachedDataStorage.getDataSize());
+        recomputeTimeAvoided.addAndGet(cachedDataStorage.getRuntime());
+    }
+
+    public void recordMiss()
+    {
+        misses.incrementAndGet();
+    }
+
+    public void recordEviction(CachedDataStorage cachedDataStorage)
+    {
+        evictions.incrementAndGet();
+        evictedBytes.addAndGet(cachedDataStorage.getDataSize());
+    }
+
+    @Managed
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public double getHitRatio()
+    {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Managed
+    public long getBytesSaved()
+    {
+        return bytesSaved.get();
+    }
+
+    /**
+     * Total materialization time, in milliseconds, of the cached data served by hits.
+     */
+    @Managed
+    public long getRecomputeTimeAvoidedMillis()
+    {
+        return recomputeTimeAvoided.get();
+    }
+
+    @Managed
+    public long getEvictions()
+    {
+        return evictions.get();
+    }
+
+    @Managed
+    public long getEvictedBytes()
+    {
+        return evictedBytes.get();
+    }
 }
@@ -41,10 +41,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.lang.Math.max;
 import static java.util.Objects.requireNonNull;
 
 public class CachedDataManager
@@ -55,7 +55,6 @@ public class CachedDataManager
     private final Optional<Map<CachedDataKey, Map<Long, CachedDataStorage>>> waitingDelete;
     private final CacheStorageMonitor monitor;
     private final Metadata metadata;
-    private final AtomicLong currentSize = new AtomicLong();
     private final long cachedDataMaxSize;
     private final String userName;
     private final AtomicBoolean isReady = new AtomicBoolean();
@@ -78,6 +77,7 @@ public class CachedDataManager
                 {
                     if (notification.wasEvicted()) {
                         LOG.info("CTE Materialized entry evicted, Cause: %s", notification.getCause().name());
+                        monitor.recordEviction(notification.getValue());
                         if (notification.getValue().getRefCount() <= 0) {
                             Session session = sessionBuilder.setQueryId(queryIdGenerator.createNextQueryId()).build();
                             monitor.stopTableMonitorForModification(notification.getValue(), session);
@@ -139,9 +139,16 @@ public class CachedDataManager
         if (object != null && validateCacheEntry(dataKey, object, session)) {
             /* Increment listener count */
             object.grab();
+            if (object.isCommitted()) {
+                monitor.recordHit(object);
+            }
+            else {
+                monitor.recordMiss();
+            }
             return object;
         }
 
+        monitor.recordMiss();
         return null;
     }
 
@@ -187,37 +194,43 @@ public class CachedDataManager
         }
 
         LOG.debug("Cache materialization completed for key: %s", dataKey.toString());
-        CachedDataStorage data = done(dataKey, session, cdsTime);
+        done(dataKey, session, cdsTime);
 
-        /* Prune the cache if needed */
-        if (!isSizeAvailableForCacheLimits(data.getDataSize())) {
-            pruneCacheForStaleEntries(data.getDataSize(), session);
+        /* Prune the cache if needed, the committed data is already part of the cached size */
+        long sizeToFree = getCachedDataSize() - cachedDataMaxSize;
+        if (sizeToFree > 0) {
+            pruneCacheForStaleEntries(sizeToFree, session);
         }
-
-        currentSize.addAndGet(data.getDataSize());
     }
 
-    private boolean isSizeAvailableForCacheLimits(long requiredSize)
+    /**
+     * Size of the data of all committed entries.
+     */
+    public long getCachedDataSize()
     {
-        return cachedDataMaxSize >= (currentSize.get() + requiredSize);
+        if (!dataCache.isPresent()) {
+            return 0;
+        }
+
+        return dataCache.get().asMap().values()
+                .stream()
+                .filter(CachedDataStorage::isCommitted)
+                .mapToLong(CachedDataStorage::getDataSize)
+                .sum();
     }
 
-    private void pruneCacheForStaleEntries(long requiredSize, Session session)
+    private void pruneCacheForStaleEntries(long sizeToFree, Session session)
     {
-        /* get candidate keys for elimination */
+        /* get candidate keys for elimination, the ones saving the least recompute time per cached byte first */
         List<CachedDataStorage> evictionCandidates = ImmutableList.copyOf(dataCache.get().asMap().values())
                 .stream()
                 .filter(cds -> cds.isCommitted() && cds.getRefCount() <= 0)
-                .sorted(Comparator.comparing(CachedDataStorage::getRuntime)
-                        .thenComparing(CachedDataStorage::getAccessCount)
-                        .thenComparing(CachedDataStorage::getDataSize)
-                        .thenComparing(CachedDataStorage::getLastAccessTime)
-                        .reversed())
+                .sorted(Comparator.comparingDouble(CachedDataManager::getRetentionScore)
+                        .thenComparing(CachedDataStorage::getLastAccessTime))
                 .collect(toImmutableList());
 
         /* invalidate the required number of keys only... */
         ImmutableSet.Builder<CachedDataKey> toDelete = ImmutableSet.builder();
-        long sizeToFree = requiredSize - (cachedDataMaxSize - currentSize.get());
         for (CachedDataStorage cds : evictionCandidates) {
             if (sizeToFree <= 0) {
                 break;
@@ -225,11 +238,21 @@ public class CachedDataManager
 
             toDelete.add(cds.getIdentifier());
             sizeToFree -= cds.getDataSize();
+            monitor.recordEviction(cds);
         }
 
         invalidate(toDelete.build(), session);
     }
 
+    /**
+     * Recompute time an entry is expected to save per cached byte: how often it was reused
+     * times how long it took to materialize, over its size.
+     */
+    static double getRetentionScore(CachedDataStorage cds)
+    {
+        return (double) cds.getAccessCount() * cds.getRuntime() / max(cds.getDataSize(), 1);
+    }
+
     public CachedDataStorage get(CachedDataKey dataKey)
     {
         if (!dataCache.isPresent()) {
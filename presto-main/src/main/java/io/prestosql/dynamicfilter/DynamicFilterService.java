@@ -15,6 +15,7 @@
 package io.prestosql.dynamicfilter;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
@@ -41,9 +42,8 @@ import io.prestosql.spi.relation.RowExpression;
 import io.prestosql.spi.relation.VariableReferenceExpression;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
-import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.SubPlan;
@@ -52,14 +52,12 @@ import io.prestosql.sql.planner.plan.SemiJoinNode;
 import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.utils.DynamicFilterUtils;
 
-import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -69,17 +67,18 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Sets.difference;
 import static com.google.common.collect.Sets.intersection;
@@ -93,7 +92,6 @@ import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.GLOBAL;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
 import static io.prestosql.spi.statestore.StateCollection.Type.MAP;
-import static io.prestosql.spi.statestore.StateCollection.Type.SET;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
 import static io.prestosql.sql.planner.ExpressionExtractor.extractExpressions;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
@@ -102,19 +100,27 @@ import static io.prestosql.utils.DynamicFilterUtils.findFilterNodeInStage;
 import static io.prestosql.utils.DynamicFilterUtils.getDynamicFilterDataType;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Merges the partial dynamic filters reported by the build side tasks in their task status,
+ * and pushes the merged global filters to the probe side stages which consume them.
+ * When a state store is configured, merged global filters are also published to it.
+ */
 public class DynamicFilterService
 {
     private static final Logger log = Logger.get(DynamicFilterService.class);
-    private final ScheduledExecutorService filterMergeExecutor;
-    private static final int THREAD_POOL_SIZE = 1;
-    private static final int MERGE_DYNAMIC_FILTER_INTERVAL = 1;
-    private ScheduledFuture<?> backgroundTask;
+    private final ExecutorService cleanupExecutor;
 
     private final Map<String, Map<String, DynamicFilterRegistryInfo>> dynamicFilters = new ConcurrentHashMap<>();
     private final Map<String, CopyOnWriteArraySet<TaskId>> dynamicFiltersToTask = new ConcurrentHashMap<>();
-    private static final Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new HashMap<>();
-    private final List<String> finishedQuery = Collections.synchronizedList(new ArrayList<>());
-    private List<QueryId> registeredQueries = new ArrayList<>();
+    private final Map<String, PartialDynamicFilters> partialDynamicFilters = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new ConcurrentHashMap<>();
+    private final List<QueryId> registeredQueries = new CopyOnWriteArrayList<>();
+    private final Map<String, Runnable> dynamicFilterAvailableListeners = new ConcurrentHashMap<>();
+
+    @GuardedBy("dynamicFilterConsumers")
+    private final Map<String, List<DynamicFilterConsumer>> dynamicFilterConsumers = new HashMap<>();
+    @GuardedBy("dynamicFilterConsumers")
+    private final Map<String, Map<String, SerializedDynamicFilter>> mergedGlobalDynamicFilters = new HashMap<>();
 
     private final StateStoreProvider stateStoreProvider;
 
@@ -127,189 +133,198 @@ public class DynamicFilterService
     public DynamicFilterService(StateStoreProvider stateStoreProvider)
     {
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "StateStoreProvider is null");
-        this.filterMergeExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("dynamic-filter-service-%s"));
+        this.cleanupExecutor = Executors.newSingleThreadExecutor(threadsNamed("dynamic-filter-service-%s"));
     }
 
     /**
-     * Starting the Dynamic Filter Service
+     * Stopping the Dynamic Filter Service
      */
-    @PostConstruct
-    public void start()
+    @PreDestroy
+    public void stop()
     {
-        checkState(backgroundTask == null, "Dynamic filter merger already started");
-        backgroundTask = filterMergeExecutor.scheduleWithFixedDelay(() -> {
-            try {
-                if (this.stateStoreProvider.getStateStore() != null) {
-                    mergeDynamicFilters();
-                    removeFinishedQuery();
-                }
-            }
-            catch (Exception e) {
-                log.error("Error merging Dynamic Filters: " + e.getMessage());
-            }
-        }, 0, MERGE_DYNAMIC_FILTER_INTERVAL, TimeUnit.MILLISECONDS);
+        cleanupExecutor.shutdownNow();
     }
 
     /**
-     * Stopping the Dynamic Filter Service
+     * Adds the partial dynamic filters reported by a build side task, and merges every filter
+     * for which all the registered tasks have reported their partial filter.
+     * Partial filters can arrive before the tasks are registered, a task reporting the same filter again is ignored.
+     *
+     * @param taskId the task which produced the partial filters
+     * @param partialFilters partial filters by dynamic filter id
      */
-    @PreDestroy
-    public void stop()
+    public void addTaskDynamicFilters(TaskId taskId, Map<String, SerializedDynamicFilter> partialFilters)
     {
-        filterMergeExecutor.shutdownNow();
+        String queryId = taskId.getQueryId().getId();
+        for (Map.Entry<String, SerializedDynamicFilter> entry : partialFilters.entrySet()) {
+            String filterId = entry.getKey();
+            PartialDynamicFilters partials = partialDynamicFilters.computeIfAbsent(filterId + "-" + queryId, key -> new PartialDynamicFilters());
+            try {
+                partials.add(taskId, entry.getValue());
+            }
+            catch (IOException | RuntimeException e) {
+                log.warn("Could not add partial dynamic filter " + filterId + " of task " + taskId + ": " + e.getMessage());
+                continue;
+            }
+            mergeIfComplete(filterId, queryId);
+        }
     }
 
     /**
-     * Global Dynamic Filter merging, periodically looks for dynamic filters that can be merged and merges them
+     * Merges a dynamic filter once every registered task has reported its partial filter,
+     * for each dynamic filter we only try to merge it once
      */
-    private void mergeDynamicFilters()
+    private void mergeIfComplete(String filterId, String queryId)
     {
-        final StateStore stateStore = stateStoreProvider.getStateStore();
-        for (Map.Entry<String, Map<String, DynamicFilterRegistryInfo>> queryToDynamicFiltersEntry : dynamicFilters.entrySet()) {
-            final String queryId = queryToDynamicFiltersEntry.getKey();
-            if (!cachedDynamicFilters.containsKey(queryId)) {
-                cachedDynamicFilters.put(queryId, new ConcurrentHashMap<>());
-            }
-            Map<String, DynamicFilter> cachedDynamicFiltersForQuery = cachedDynamicFilters.get(queryId);
-            StateMap mergedDynamicFilters = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
+        Map<String, DynamicFilterRegistryInfo> filtersForQuery = dynamicFilters.get(queryId);
+        DynamicFilterRegistryInfo registryInfo = filtersForQuery == null ? null : filtersForQuery.get(filterId);
+        Set<TaskId> registeredTasks = dynamicFiltersToTask.get(filterId + "-" + queryId);
+        PartialDynamicFilters partials = partialDynamicFilters.get(filterId + "-" + queryId);
+        if (registryInfo == null || registeredTasks == null || registeredTasks.isEmpty() || partials == null) {
+            return;
+        }
 
-            for (Map.Entry<String, DynamicFilterRegistryInfo> columnToDynamicFilterEntry : queryToDynamicFiltersEntry.getValue().entrySet()) {
-                if (columnToDynamicFilterEntry.getValue().isMerged()) {
-                    continue;
-                }
+        Optional<SerializedDynamicFilter> globalFilter;
+        synchronized (partials) {
+            if (registryInfo.isMerged() || !partials.getReportedTasks().containsAll(registeredTasks)) {
+                return;
+            }
+            registryInfo.setMerged();
+            globalFilter = mergeDynamicFilter(filterId, queryId, registryInfo, partials);
+        }
 
-                final String filterId = columnToDynamicFilterEntry.getKey();
-                final Type filterType = columnToDynamicFilterEntry.getValue().getType();
-                final DataType filterDataType = columnToDynamicFilterEntry.getValue().getDataType();
-                final Optional<Predicate<List>> dfFilter = columnToDynamicFilterEntry.getValue().getFilter();
-                final Symbol column = columnToDynamicFilterEntry.getValue().getSymbol();
-                final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
+        Runnable dynamicFilterAvailableListener = dynamicFilterAvailableListeners.get(queryId);
+        if (dynamicFilterAvailableListener != null) {
+            dynamicFilterAvailableListener.run();
+        }
+        globalFilter.ifPresent(filter -> publishGlobalDynamicFilter(filterId, queryId, filter));
+    }
 
-                if (!hasMergeCondition(filterId, queryId)) {
-                    continue;
+    /**
+     * Merges the partial filters into the filter used for split pruning on the coordinator
+     *
+     * @return the serialized merged filter if it is a global filter to be sent to the workers
+     */
+    private Optional<SerializedDynamicFilter> mergeDynamicFilter(String filterId, String queryId, DynamicFilterRegistryInfo registryInfo, PartialDynamicFilters partials)
+    {
+        final Type filterType = registryInfo.getType();
+        final DataType filterDataType = registryInfo.getDataType();
+        final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
+        try {
+            DynamicFilter mergedFilter;
+            SerializedDynamicFilter serializedFilter;
+            if (filterDataType == BLOOM_FILTER) {
+                SplitBlockBloomFilter mergedBloomFilter = partials.getBloomFilter();
+                if (mergedBloomFilter == null) {
+                    throw new IOException("Partial BloomFilter DynamicFilter is missing.");
                 }
-
-                Collection<Object> results = ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId))).getAll();
-                try {
-                    DynamicFilter mergedFilter;
-                    if (filterDataType == BLOOM_FILTER) {
-                        BloomFilter mergedBloomFilter = mergeBloomFilters(results);
-                        if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
-                            throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
-                        }
-                        mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
-
-                        if (filterType == GLOBAL) {
-                            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                                mergedBloomFilter.writeTo(out);
-                                byte[] filter = out.toByteArray();
-                                mergedDynamicFilters.put(filterKey, filter);
-                            }
-                        }
-                    }
-                    else if (filterDataType == HASHSET) {
-                        Set mergedSet = mergeHashSets(results);
-                        mergedFilter = DynamicFilterFactory.create(filterKey, null, mergedSet, filterType, dfFilter, Optional.empty());
-
-                        mergedFilter.setMinMax();
-
-                        if (filterType == GLOBAL) {
-                            mergedDynamicFilters.put(filterKey, mergedSet);
-                        }
-                    }
-                    else {
-                        throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
-                    }
-
-                    log.debug("Merged successfully dynamic filter id: "
-                            + filterId + "-" + queryId + " type: " + filterDataType
-                            + ", column: " + column + ", item count: " + mergedFilter.getSize());
-                    cachedDynamicFiltersForQuery.put(filterId, mergedFilter);
+                if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
                 }
-                catch (IOException | PrestoException e) {
-                    log.warn("Could not merge dynamic filter: " + e.getLocalizedMessage());
+                mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
+                try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                    mergedBloomFilter.writeTo(out);
+                    serializedFilter = SerializedDynamicFilter.fromBloomFilter(out.toByteArray());
                 }
-                finally {
-                    // for each dynamic filter we only try to merge it once
-                    columnToDynamicFilterEntry.getValue().setMerged();
+            }
+            else if (filterDataType == HASHSET) {
+                if (!partials.getValueType().isPresent()) {
+                    throw new IOException("Partial HashSet DynamicFilter is invalid.");
                 }
+                Set<Object> mergedSet = new HashSet<>(partials.getValues());
+                mergedFilter = DynamicFilterFactory.create(filterKey, null, mergedSet, filterType, registryInfo.getFilter(), Optional.empty());
+                mergedFilter.setMinMax();
+                serializedFilter = SerializedDynamicFilter.fromValues(partials.getValueType().get(), mergedSet);
             }
+            else {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
+            }
+
+            log.debug("Merged successfully dynamic filter id: "
+                    + filterId + "-" + queryId + " type: " + filterDataType
+                    + ", column: " + registryInfo.getSymbol() + ", item count: " + mergedFilter.getSize());
+            cachedDynamicFilters.computeIfAbsent(queryId, key -> new ConcurrentHashMap<>()).put(filterId, mergedFilter);
+            return filterType == GLOBAL ? Optional.of(serializedFilter) : Optional.empty();
+        }
+        catch (IOException | PrestoException e) {
+            log.warn("Could not merge dynamic filter: " + e.getLocalizedMessage());
+            return Optional.empty();
         }
     }
 
-    private void removeFinishedQuery()
+    private void publishGlobalDynamicFilter(String filterId, String queryId, SerializedDynamicFilter filter)
     {
-        List<String> handledQuery = new ArrayList<>();
-        StateStore stateStore = stateStoreProvider.getStateStore();
-        StateMap mergedStateCollection = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
-        // Clear registered dynamic filter tasks
-        synchronized (finishedQuery) {
-            for (String queryId : finishedQuery) {
-                Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.get(queryId);
-                if (filters != null) {
-                    for (Entry<String, DynamicFilterRegistryInfo> entry : filters.entrySet()) {
-                        String filterId = entry.getKey();
-                        clearPartialResults(filterId, queryId);
-                        if (entry.getValue().isMerged()) {
-                            String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
-                            mergedStateCollection.remove(filterKey);
-                        }
-                    }
-                }
-                List<String> collectionKeys = stateStore.getStateCollections().keySet().stream().filter(key -> key.contains(queryId)).collect(Collectors.toList());
-                for (String key : collectionKeys) {
-                    clearStatesInStateStore(stateStore, key);
-                }
-                dynamicFilters.remove(queryId);
+        List<DynamicFilterConsumer> consumers;
+        synchronized (dynamicFilterConsumers) {
+            mergedGlobalDynamicFilters.computeIfAbsent(queryId, key -> new HashMap<>()).put(filterId, filter);
+            consumers = dynamicFilterConsumers.getOrDefault(queryId, ImmutableList.of()).stream()
+                    .filter(consumer -> consumer.getFilterIds().contains(filterId))
+                    .collect(toImmutableList());
+        }
+        consumers.forEach(consumer -> consumer.accept(ImmutableMap.of(filterId, filter)));
 
-                cachedDynamicFilters.remove(queryId);
-                registeredQueries.remove(queryId);
-                handledQuery.add(queryId);
-            }
-            finishedQuery.removeAll(handledQuery);
+        // the state store is only needed by workers which do not receive the filters in their task updates
+        StateStore stateStore = stateStoreProvider.getStateStore();
+        if (stateStore != null) {
+            String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
+            StateMap mergedDynamicFilters = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
+            mergedDynamicFilters.put(filterKey, filter.isBloomFilter() ? filter.getBloomFilter().get() : filter.getValueSet());
         }
     }
 
-    private static BloomFilter mergeBloomFilters(Collection<Object> partialBloomFilters)
-            throws IOException
+    /**
+     * Registers a consumer of the merged global dynamic filters of a query,
+     * the filters which are already merged are passed to the consumer right away
+     *
+     * @param queryId query id of the query
+     * @param filterIds ids of the dynamic filters to consume
+     * @param consumer receives the merged filters by dynamic filter id
+     */
+    public void addDynamicFilterConsumer(String queryId, Set<String> filterIds, Consumer<Map<String, SerializedDynamicFilter>> consumer)
     {
-        BloomFilter mergedFilter = null;
-        for (Object partialBloomFilter : partialBloomFilters) {
-            BloomFilter deserializedBloomFilter = BloomFilter.readFrom(new ByteArrayInputStream((byte[]) partialBloomFilter));
-            if (mergedFilter == null) {
-                mergedFilter = deserializedBloomFilter;
-            }
-            else {
-                mergedFilter.merge(deserializedBloomFilter);
-            }
+        if (filterIds.isEmpty()) {
+            return;
+        }
+        Map<String, SerializedDynamicFilter> available;
+        synchronized (dynamicFilterConsumers) {
+            dynamicFilterConsumers.computeIfAbsent(queryId, key -> new ArrayList<>()).add(new DynamicFilterConsumer(filterIds, consumer));
+            available = mergedGlobalDynamicFilters.getOrDefault(queryId, ImmutableMap.of()).entrySet().stream()
+                    .filter(entry -> filterIds.contains(entry.getKey()))
+                    .collect(toImmutableMap(Entry::getKey, Entry::getValue));
+        }
+        if (!available.isEmpty()) {
+            consumer.accept(available);
         }
-        return mergedFilter;
     }
 
-    private static Set<?> mergeHashSets(Collection<Object> results)
-            throws IOException
+    private void removeFinishedQuery(String queryId)
     {
-        Set<?> merged = new HashSet<>();
-        for (Object o : results) {
-            if (!(o instanceof Set)) {
-                throw new IOException("Partial HashSet DynamicFilter is invalid.");
+        Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.remove(queryId);
+        StateStore stateStore = stateStoreProvider.getStateStore();
+        if (stateStore != null) {
+            StateMap mergedStateCollection = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
+            if (filters != null) {
+                for (Entry<String, DynamicFilterRegistryInfo> entry : filters.entrySet()) {
+                    if (entry.getValue().isMerged() && entry.getValue().getType() == GLOBAL) {
+                        mergedStateCollection.remove(createKey(DynamicFilterUtils.FILTERPREFIX, entry.getKey(), queryId));
+                    }
+                }
+            }
+            List<String> collectionKeys = stateStore.getStateCollections().keySet().stream().filter(key -> key.contains(queryId)).collect(Collectors.toList());
+            for (String key : collectionKeys) {
+                clearStatesInStateStore(stateStore, key);
             }
-            merged.addAll((Set) o);
         }
-        return merged;
-    }
-
-    private boolean hasMergeCondition(String filterKey, String queryId)
-    {
-        int finishedDynamicFilterNumber = 0;
-        final StateStore stateStore = stateStoreProvider.getStateStore();
-
-        StateCollection temp = stateStore.getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterKey, queryId));
-        if (temp != null) {
-            finishedDynamicFilterNumber = temp.size();
+        String suffix = "-" + queryId;
+        dynamicFiltersToTask.keySet().removeIf(key -> key.endsWith(suffix));
+        partialDynamicFilters.keySet().removeIf(key -> key.endsWith(suffix));
+        synchronized (dynamicFilterConsumers) {
+            dynamicFilterConsumers.remove(queryId);
+            mergedGlobalDynamicFilters.remove(queryId);
         }
-
-        return finishedDynamicFilterNumber > 0 && finishedDynamicFilterNumber == dynamicFiltersToTask.get(filterKey + "-" + queryId).size();
+        dynamicFilterAvailableListeners.remove(queryId);
+        cachedDynamicFilters.remove(queryId);
+        registeredQueries.remove(new QueryId(queryId));
     }
 
     /**
@@ -322,7 +337,7 @@ public class DynamicFilterService
      */
     public void registerTasks(PlanNode node, Set<TaskId> taskIds, Set<InternalNode> workers, StageStateMachine stateMachine)
     {
-        if (taskIds.isEmpty() || stateStoreProvider.getStateStore() == null) {
+        if (taskIds.isEmpty()) {
             return;
         }
         if (node instanceof JoinNode) {
@@ -342,28 +357,24 @@ public class DynamicFilterService
 
     private void registerTasksHelper(PlanNode node, Symbol buildSymbol, Map<String, Symbol> dynamicFiltersMap, Set<TaskId> taskIds, Set<InternalNode> workers, StageStateMachine stateMachine)
     {
-        final StateStore stateStore = stateStoreProvider.getStateStore();
         String queryId = stateMachine.getSession().getQueryId().toString();
         for (Map.Entry<String, Symbol> entry : dynamicFiltersMap.entrySet()) {
             Symbol buildSymbolToCheck = buildSymbol != null ? buildSymbol : node.getOutputSymbols().contains(entry.getValue()) ? entry.getValue() : null;
             if (buildSymbolToCheck != null && entry.getValue().getName().equals(buildSymbol.getName())) {
                 String filterId = entry.getKey();
-                stateStore.createStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId), SET);
-                stateStore.createStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId), SET);
-                dynamicFilters.putIfAbsent(queryId, new ConcurrentHashMap<>());
-                Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.get(queryId);
+                Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.computeIfAbsent(queryId, key -> new ConcurrentHashMap<>());
+                dynamicFiltersToTask.computeIfAbsent(filterId + "-" + queryId, key -> new CopyOnWriteArraySet<>()).addAll(taskIds);
                 if (node instanceof JoinNode) {
-                    filters.put(filterId, extractDynamicFilterRegistryInfo((JoinNode) node, stateMachine.getSession(), filterId));
+                    filters.putIfAbsent(filterId, extractDynamicFilterRegistryInfo((JoinNode) node, stateMachine.getSession(), filterId));
                 }
                 else if (node instanceof SemiJoinNode) {
-                    filters.put(filterId, extractDynamicFilterRegistryInfo((SemiJoinNode) node, stateMachine.getSession()));
+                    filters.putIfAbsent(filterId, extractDynamicFilterRegistryInfo((SemiJoinNode) node, stateMachine.getSession()));
                 }
-                dynamicFiltersToTask.putIfAbsent(filterId + "-" + queryId, new CopyOnWriteArraySet<>());
-                CopyOnWriteArraySet<TaskId> taskSet = dynamicFiltersToTask.get(filterId + "-" + queryId);
-                taskSet.addAll(taskIds);
                 log.debug("registerTasks source " + filterId + " filters:" + filters + ", workers: "
                         + workers.stream().map(x -> x.getNodeIdentifier()).collect(Collectors.joining(",")) +
                         ", taskIds: " + taskIds.stream().map(TaskId::toString).collect(Collectors.joining(",")));
+                // the tasks may have reported their partial filters already
+                mergeIfComplete(filterId, queryId);
             }
         }
     }
@@ -375,25 +386,14 @@ public class DynamicFilterService
      */
     public void clearDynamicFiltersForQuery(String queryId)
     {
-        synchronized (finishedQuery) {
-            finishedQuery.add(queryId);
-        }
-    }
-
-    /**
-     * Cleaning local cache and state store cache
-     *
-     * @param filterId, part of the id for dynamic filter that will be cleaned
-     * @param queryId, query id for part of the id of dynamic filter that will be cleaned
-     */
-    private void clearPartialResults(String filterId, String queryId)
-    {
-        StateStore stateStore = stateStoreProvider.getStateStore();
-        if (stateStore != null) {
-            clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId));
-            clearStatesInStateStore(stateStore, createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId));
-        }
-        dynamicFiltersToTask.remove(filterId + "-" + queryId);
+        cleanupExecutor.execute(() -> {
+            try {
+                removeFinishedQuery(queryId);
+            }
+            catch (RuntimeException e) {
+                log.error("Error clearing Dynamic Filters of query " + queryId + ": " + e.getMessage());
+            }
+        });
     }
 
     private static void clearStatesInStateStore(StateStore stateStore, String stateCollectionName)
@@ -531,6 +531,7 @@ public class DynamicFilterService
 
         if (!producedDynamicFilters.isEmpty()) {
             registeredQueries.add(sqlQueryExecution.getQueryId());
+            dynamicFilterAvailableListeners.put(sqlQueryExecution.getQueryId().getId(), sqlQueryExecution::recordDynamicFilterAvailable);
         }
     }
 
@@ -609,7 +610,7 @@ public class DynamicFilterService
                 .collect(toImmutableSet());
     }
 
-    private static Set<String> getConsumedDynamicFilters(PlanNode planNode)
+    public static Set<String> getConsumedDynamicFilters(PlanNode planNode)
     {
         return extractExpressions(planNode).stream()
                 .flatMap(expression -> extractDynamicFilters(expression).getDynamicConjuncts().stream())
@@ -633,7 +634,7 @@ public class DynamicFilterService
         private final Symbol symbol;
         private final Type type;
         private final DataType dataType;
-        private boolean isMerged;
+        private volatile boolean isMerged;
         private Optional<Predicate<List>> filter;
 
         public DynamicFilterRegistryInfo(Symbol symbol, Type type, Session session, Optional<Predicate<List>> filter)
@@ -675,4 +676,85 @@ public class DynamicFilterService
             return filter;
         }
     }
+
+    /**
+     * Partial filters of one dynamic filter, merged incrementally as the tasks report them
+     */
+    private static class PartialDynamicFilters
+    {
+        @GuardedBy("this")
+        private final Set<TaskId> reportedTasks = new HashSet<>();
+        @GuardedBy("this")
+        private final Set<Object> values = new HashSet<>();
+        @GuardedBy("this")
+        private Optional<io.prestosql.spi.type.Type> valueType = Optional.empty();
+        @GuardedBy("this")
+        private SplitBlockBloomFilter bloomFilter;
+
+        public synchronized void add(TaskId taskId, SerializedDynamicFilter partialFilter)
+                throws IOException
+        {
+            if (reportedTasks.contains(taskId)) {
+                return;
+            }
+            if (partialFilter.isBloomFilter()) {
+                SplitBlockBloomFilter deserializedBloomFilter = SplitBlockBloomFilter.fromByteArray(partialFilter.getBloomFilter().get());
+                if (bloomFilter == null) {
+                    bloomFilter = deserializedBloomFilter;
+                }
+                else {
+                    bloomFilter.merge(deserializedBloomFilter);
+                }
+            }
+            else {
+                values.addAll(partialFilter.getValueSet());
+                if (!valueType.isPresent()) {
+                    valueType = partialFilter.getType();
+                }
+            }
+            reportedTasks.add(taskId);
+        }
+
+        public synchronized Set<TaskId> getReportedTasks()
+        {
+            return reportedTasks;
+        }
+
+        public synchronized Set<Object> getValues()
+        {
+            return values;
+        }
+
+        public synchronized Optional<io.prestosql.spi.type.Type> getValueType()
+        {
+            return valueType;
+        }
+
+        public synchronized SplitBlockBloomFilter getBloomFilter()
+        {
+            return bloomFilter;
+        }
+    }
+
+    private static class DynamicFilterConsumer
+    {
+        private final Set<String> filterIds;
+        private final Consumer<Map<String, SerializedDynamicFilter>> consumer;
+
+        public DynamicFilterConsumer(Set<String> filterIds, Consumer<Map<String, SerializedDynamicFilter>> consumer)
+        {
+            this.filterIds = ImmutableSet.copyOf(requireNonNull(filterIds, "filterIds is null"));
+            this.consumer = requireNonNull(consumer, "consumer is null");
+        }
+
+        public Set<String> getFilterIds()
+        {
+            return filterIds;
+        }
+
+        public void accept(Map<String, SerializedDynamicFilter> filters)
+        {
+            consumer.accept(filters);
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.DynamicFilterFactory;
+import io.prestosql.spi.type.Type;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.GLOBAL;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+import static io.prestosql.spi.type.TypeUtils.writeNativeValue;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Dynamic filter values sent between the coordinator and the workers, either a serialized bloom filter
+ * or the values of a hash set together with their type.
+ * Partial filters are reported by the build side tasks in their task status,
+ * and merged filters are pushed to the probe side tasks in task update requests.
+ */
+public class SerializedDynamicFilter
+{
+    private final Optional<byte[]> bloomFilter;
+    private final Optional<Type> type;
+    private final Optional<Block> values;
+
+    @JsonCreator
+    public SerializedDynamicFilter(
+            @JsonProperty("bloomFilter") Optional<byte[]> bloomFilter,
+            @JsonProperty("type") Optional<Type> type,
+            @JsonProperty("values") Optional<Block> values)
+    {
+        this.bloomFilter = requireNonNull(bloomFilter, "bloomFilter is null");
+        this.type = requireNonNull(type, "type is null");
+        this.values = requireNonNull(values, "values is null");
+        checkArgument(bloomFilter.isPresent() != values.isPresent(), "either bloomFilter or values must be present");
+        checkArgument(type.isPresent() == values.isPresent(), "values must come with their type");
+    }
+
+    public static SerializedDynamicFilter fromBloomFilter(byte[] bloomFilter)
+    {
+        return new SerializedDynamicFilter(Optional.of(bloomFilter), Optional.empty(), Optional.empty());
+    }
+
+    public static SerializedDynamicFilter fromValues(Type type, Set<?> values)
+    {
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, values.size());
+        for (Object value : values) {
+            writeNativeValue(type, blockBuilder, value);
+        }
+        return new SerializedDynamicFilter(Optional.empty(), Optional.of(type), Optional.of(blockBuilder.build()));
+    }
+
+    @JsonProperty
+    public Optional<byte[]> getBloomFilter()
+    {
+        return bloomFilter;
+    }
+
+    @JsonProperty
+    public Optional<Type> getType()
+    {
+        return type;
+    }
+
+    @JsonProperty
+    public Optional<Block> getValues()
+    {
+        return values;
+    }
+
+    public boolean isBloomFilter()
+    {
+        return bloomFilter.isPresent();
+    }
+
+    /**
+     * Reads the values of a hash set filter back into the java representation of their type
+     */
+    public Set<Object> getValueSet()
+    {
+        checkState(values.isPresent(), "bloom filter has no value set");
+        Block block = values.get();
+        Set<Object> valueSet = new HashSet<>(block.getPositionCount());
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            Object value = readNativeValue(type.get(), block, position);
+            if (value != null) {
+                valueSet.add(value);
+            }
+        }
+        return valueSet;
+    }
+
+    /**
+     * Creates the global dynamic filter used by the probe side tasks on the workers
+     */
+    public DynamicFilter toDynamicFilter(String filterId)
+    {
+        if (bloomFilter.isPresent()) {
+            return DynamicFilterFactory.create(filterId, null, bloomFilter.get(), GLOBAL);
+        }
+        DynamicFilter dynamicFilter = DynamicFilterFactory.create(filterId, null, getValueSet(), GLOBAL);
+        dynamicFilter.setMinMax();
+        return dynamicFilter;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("bloomFilterBytes", bloomFilter.map(bytes -> bytes.length).orElse(null))
+                .add("type", type.orElse(null))
+                .add("valueCount", values.map(Block::getPositionCount).orElse(null))
+                .omitNullValues()
+                .toString();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Partial dynamic filters produced by a task, waiting to be sent to the coordinator in the task status.
+ * Every addition gets a new version, and filters are kept until the coordinator acknowledges a version
+ * at least as new as theirs, so that a lost status response does not lose them.
+ */
+@ThreadSafe
+public class TaskDynamicFilters
+{
+    @GuardedBy("this")
+    private final Map<String, VersionedFilter> filters = new HashMap<>();
+    @GuardedBy("this")
+    private long version;
+    @GuardedBy("this")
+    private long acknowledgedVersion;
+    @GuardedBy("this")
+    private SettableFuture<?> newFilters = SettableFuture.create();
+
+    public void addPartialFilters(Map<String, SerializedDynamicFilter> partialFilters)
+    {
+        requireNonNull(partialFilters, "partialFilters is null");
+        if (partialFilters.isEmpty()) {
+            return;
+        }
+        SettableFuture<?> future;
+        synchronized (this) {
+            version++;
+            for (Map.Entry<String, SerializedDynamicFilter> entry : partialFilters.entrySet()) {
+                filters.put(entry.getKey(), new VersionedFilter(version, entry.getValue()));
+            }
+            future = newFilters;
+            newFilters = SettableFuture.create();
+        }
+        // complete outside of the lock, the listeners create a new task status
+        future.set(null);
+    }
+
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    public synchronized void acknowledge(long acknowledgedVersion)
+    {
+        if (acknowledgedVersion <= this.acknowledgedVersion) {
+            return;
+        }
+        this.acknowledgedVersion = acknowledgedVersion;
+        filters.values().removeIf(filter -> filter.getVersion() <= acknowledgedVersion);
+    }
+
+    /**
+     * Returns the filters the coordinator has not acknowledged yet
+     */
+    public synchronized Map<String, SerializedDynamicFilter> getUnacknowledgedFilters()
+    {
+        ImmutableMap.Builder<String, SerializedDynamicFilter> builder = ImmutableMap.builder();
+        filters.forEach((filterId, filter) -> builder.put(filterId, filter.getFilter()));
+        return builder.build();
+    }
+
+    /**
+     * Returns a future completed as soon as there are filters the coordinator has not acknowledged
+     */
+    public synchronized ListenableFuture<?> whenUnacknowledgedFiltersAvailable()
+    {
+        if (!filters.isEmpty()) {
+            return immediateFuture(null);
+        }
+        // waiters may cancel their future, which must not affect the others
+        return nonCancellationPropagating(newFilters);
+    }
+
+    private static class VersionedFilter
+    {
+        private final long version;
+        private final SerializedDynamicFilter filter;
+
+        VersionedFilter(long version, SerializedDynamicFilter filter)
+        {
+            this.version = version;
+            this.filter = requireNonNull(filter, "filter is null");
+        }
+
+        long getVersion()
+        {
+            return version;
+        }
+
+        SerializedDynamicFilter getFilter()
+        {
+            return filter;
+        }
+    }
+}
@@ -40,4 +40,11 @@ public interface ExchangeManager
     ExchangeSink createSink(ExchangeSinkInstanceHandle handle, DirectSerialisationType serType, boolean preserveRecordsOrder);
 
     ExchangeSource createSource(List<ExchangeSourceHandle> handles);
+
+    /**
+     * Releases the threads held by the exchange manager, no sinks or sources can be created afterwards
+     */
+    default void close()
+    {
+    }
 }
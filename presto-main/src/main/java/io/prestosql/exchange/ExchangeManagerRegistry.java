@@ -18,6 +18,7 @@ import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.spi.classloader.ThreadContextClassLoader;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.io.File;
@@ -91,6 +92,15 @@ public class ExchangeManagerRegistry
         this.exchangeManager = exchangeManagerInstance;
     }
 
+    @PreDestroy
+    public void stop()
+    {
+        ExchangeManager exchangeManagerInstance = this.exchangeManager;
+        if (exchangeManagerInstance != null) {
+            exchangeManagerInstance.close();
+        }
+    }
+
     public ExchangeManager getExchangeManager()
     {
         ExchangeManager exchangeManagerInstance = this.exchangeManager;
@@ -42,7 +42,13 @@ public class FileSystemExchangeConfig
     private int exchangeSinkBufferPoolMinSize = 10;
     private int exchangeSinkBuffersPerPartition = 2;
     private DataSize exchangeSinkMaxFileSize = new DataSize(1, GIGABYTE);
+    private DataSize exchangeSinkMinFileSize = new DataSize(1, GIGABYTE);
+    private int exchangeSinkFilesPerPartition = 1;
+    private int exchangeSinkWriterThreads;
     private int exchangeSourceConcurrentReaders = 4;
+    private int exchangeSourcePrefetchFiles;
+    private String exchangeLocalCacheDirectory;
+    private DataSize exchangeLocalCacheMaxSize = new DataSize(10, GIGABYTE);
     private int maxOutputPartitionCount = 50;
     private int exchangeFileListingParallelism = 50;
     private String exchangeFilesystemType = "local";
@@ -53,7 +59,8 @@ public class FileSystemExchangeConfig
     {
         OFF,
         JAVA,
-        KRYO
+        KRYO,
+        COLUMNAR
     }
 
     @NotNull
@@ -155,6 +162,47 @@ public class FileSystemExchangeConfig
         return this;
     }
 
+    public DataSize getExchangeSinkMinFileSize()
+    {
+        return exchangeSinkMinFileSize;
+    }
+
+    @Config("exchange.sink-min-file-size")
+    @ConfigDescription("Size at which sinks roll over their first file, doubled for each further file up to the max file size")
+    public FileSystemExchangeConfig setExchangeSinkMinFileSize(DataSize exchangeSinkMinFileSize)
+    {
+        this.exchangeSinkMinFileSize = exchangeSinkMinFileSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getExchangeSinkFilesPerPartition()
+    {
+        return exchangeSinkFilesPerPartition;
+    }
+
+    @Config("exchange.sink-files-per-partition")
+    @ConfigDescription("Number of files a sink writes concurrently for each partition")
+    public FileSystemExchangeConfig setExchangeSinkFilesPerPartition(int exchangeSinkFilesPerPartition)
+    {
+        this.exchangeSinkFilesPerPartition = exchangeSinkFilesPerPartition;
+        return this;
+    }
+
+    @Min(0)
+    public int getExchangeSinkWriterThreads()
+    {
+        return exchangeSinkWriterThreads;
+    }
+
+    @Config("exchange.sink-writer-threads")
+    @ConfigDescription("Number of threads writing sink files, 0 writes on the calling thread")
+    public FileSystemExchangeConfig setExchangeSinkWriterThreads(int exchangeSinkWriterThreads)
+    {
+        this.exchangeSinkWriterThreads = exchangeSinkWriterThreads;
+        return this;
+    }
+
     @Min(1)
     public int getExchangeSourceConcurrentReaders()
     {
@@ -168,6 +216,47 @@ public class FileSystemExchangeConfig
         return this;
     }
 
+    @Min(0)
+    public int getExchangeSourcePrefetchFiles()
+    {
+        return exchangeSourcePrefetchFiles;
+    }
+
+    @Config("exchange.source-prefetch-files")
+    @ConfigDescription("Number of files each source reader opens ahead of reading them")
+    public FileSystemExchangeConfig setExchangeSourcePrefetchFiles(int exchangeSourcePrefetchFiles)
+    {
+        this.exchangeSourcePrefetchFiles = exchangeSourcePrefetchFiles;
+        return this;
+    }
+
+    public String getExchangeLocalCacheDirectory()
+    {
+        return exchangeLocalCacheDirectory;
+    }
+
+    @Config("exchange.local-cache-directory")
+    @ConfigDescription("Local directory where source files read from the exchange storage are cached, the cache is disabled if not set")
+    public FileSystemExchangeConfig setExchangeLocalCacheDirectory(String exchangeLocalCacheDirectory)
+    {
+        this.exchangeLocalCacheDirectory = exchangeLocalCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getExchangeLocalCacheMaxSize()
+    {
+        return exchangeLocalCacheMaxSize;
+    }
+
+    @Config("exchange.local-cache-max-size")
+    @ConfigDescription("Max size of the files kept in the local exchange cache")
+    public FileSystemExchangeConfig setExchangeLocalCacheMaxSize(DataSize exchangeLocalCacheMaxSize)
+    {
+        this.exchangeLocalCacheMaxSize = exchangeLocalCacheMaxSize;
+        return this;
+    }
+
     @Min(1)
     public int getMaxOutputPartitionCount()
     {
@@ -215,7 +304,7 @@ public class FileSystemExchangeConfig
     }
 
     @Config("exchange.direct-serialization-type")
-    @ConfigDescription("direct serialization type")
+    @ConfigDescription("Direct serialization type, one of OFF, JAVA, KRYO or COLUMNAR")
     public FileSystemExchangeConfig setDirectSerializationType(DirectSerialisationType directSerialisationType)
     {
         this.directSerialisationType = directSerialisationType;
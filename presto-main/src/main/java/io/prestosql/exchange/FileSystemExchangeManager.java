@@ -18,6 +18,7 @@ import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
 import io.prestosql.exchange.storage.FileSystemExchangeStorage;
 import io.prestosql.spi.PrestoException;
 
+import javax.annotation.PreDestroy;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -28,9 +29,11 @@ import java.security.NoSuchAlgorithmException;
 import java.util.AbstractMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.exchange.FileSystemExchangeErrorCode.MAX_OUTPUT_PARTITION_COUNT_EXCEEDED;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -38,6 +41,7 @@ import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class FileSystemExchangeManager
         implements ExchangeManager
@@ -55,10 +59,15 @@ public class FileSystemExchangeManager
     private final int exchangeSinkBufferPoolMinSize;
     private final int exchangeSinkBuffersPerPartition;
     private final long exchangeSinkMaxFileSizeInBytes;
+    private final long exchangeSinkMinFileSizeInBytes;
+    private final int exchangeSinkFilesPerPartition;
     private final int exchangeSourceConcurrentReaders;
+    private final int exchangeSourcePrefetchFiles;
     private final int maxOutputPartitionCount;
     private final int exchangeFileListingParallelism;
     private final ExecutorService executor;
+    private final Executor sinkWriterExecutor;
+    private final ExecutorService sourcePrefetchExecutor;
     private final DirectSerialisationType directSerialisationType;
     private final int directSerialisationBufferSize;
 
@@ -80,11 +89,18 @@ public class FileSystemExchangeManager
         this.exchangeSinkBufferPoolMinSize = config.getExchangeSinkBufferPoolMinSize();
         this.exchangeSinkBuffersPerPartition = config.getExchangeSinkBuffersPerPartition();
         this.exchangeSinkMaxFileSizeInBytes = config.getExchangeSinkMaxFileSize().toBytes();
+        this.exchangeSinkMinFileSizeInBytes = config.getExchangeSinkMinFileSize().toBytes();
+        this.exchangeSinkFilesPerPartition = config.getExchangeSinkFilesPerPartition();
         this.exchangeSourceConcurrentReaders = config.getExchangeSourceConcurrentReaders();
+        this.exchangeSourcePrefetchFiles = config.getExchangeSourcePrefetchFiles();
         this.maxOutputPartitionCount = config.getMaxOutputPartitionCount();
         this.exchangeFileListingParallelism = config.getExchangeFileListingParallelism();
         this.directSerialisationBufferSize = toIntExact(config.getDirectSerialisationBufferSize().toBytes());
         this.executor = newCachedThreadPool(daemonThreadsNamed("exchange-source-handles-creation-%s"));
+        this.sinkWriterExecutor = config.getExchangeSinkWriterThreads() > 0
+                ? newFixedThreadPool(config.getExchangeSinkWriterThreads(), daemonThreadsNamed("exchange-sink-writer-%s"))
+                : directExecutor();
+        this.sourcePrefetchExecutor = newCachedThreadPool(daemonThreadsNamed("exchange-source-prefetch-%s"));
         this.exchangeConfig = config;
         //TODO(Kishore): Need to enable compression and encryption for direct serde later
         directSerialisationType = (exchangeCompressionEnabled || exchangeEncryptionEnabled) ? DirectSerialisationType.OFF : config.getDirectSerializationType();
@@ -136,6 +152,9 @@ public class FileSystemExchangeManager
                 exchangeSinkBufferPoolMinSize,
                 exchangeSinkBuffersPerPartition,
                 exchangeSinkMaxFileSizeInBytes,
+                exchangeSinkMinFileSizeInBytes,
+                exchangeSinkFilesPerPartition,
+                sinkWriterExecutor,
                 directSerialisationType,
                 directSerialisationBufferSize);
     }
@@ -156,6 +175,9 @@ public class FileSystemExchangeManager
                 exchangeSinkBufferPoolMinSize,
                 exchangeSinkBuffersPerPartition,
                 exchangeSinkMaxFileSizeInBytes,
+                exchangeSinkMinFileSizeInBytes,
+                exchangeSinkFilesPerPartition,
+                sinkWriterExecutor,
                 serType,
                 directSerialisationBufferSize);
     }
@@ -184,7 +206,20 @@ public class FileSystemExchangeManager
                 sourceFiles,
                 maxPageStorageSizeInBytes,
                 exchangeSourceConcurrentReaders,
+                exchangeSourcePrefetchFiles,
+                sourcePrefetchExecutor,
                 directSerialisationType,
                 directSerialisationBufferSize);
     }
+
+    @PreDestroy
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+        if (sinkWriterExecutor instanceof ExecutorService) {
+            ((ExecutorService) sinkWriterExecutor).shutdownNow();
+        }
+        sourcePrefetchExecutor.shutdownNow();
+    }
 }
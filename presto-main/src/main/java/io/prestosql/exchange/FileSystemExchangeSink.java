@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
@@ -41,11 +42,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -65,6 +67,7 @@ import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class FileSystemExchangeSink
         implements ExchangeSink
@@ -84,7 +87,11 @@ public class FileSystemExchangeSink
     private final boolean preserveRecordsOrder;
     private final int maxPageStorageSizeInBytes;
     private final long maxFileSizeInBytes;
+    private final long minFileSizeInBytes;
+    private final int filesPerPartition;
+    private final Executor writeExecutor;
     private final BufferPool bufferPool;
+    private final PendingDirectWrites pendingDirectWrites;
 
     private final Map<Integer, BufferedStorageWriter> writerMap = new ConcurrentHashMap<>();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
@@ -104,6 +111,9 @@ public class FileSystemExchangeSink
             int exchangeSinkBufferPoolMinSize,
             int exchangeSinkBuffersPerPartition,
             long maxFileSizeInBytes,
+            long minFileSizeInBytes,
+            int filesPerPartition,
+            Executor writeExecutor,
             DirectSerialisationType directSerialisationType,
             int directSerialisationBufferSize)
     {
@@ -118,23 +128,31 @@ public class FileSystemExchangeSink
         this.preserveRecordsOrder = preserveRecordsOrder;
         this.maxPageStorageSizeInBytes = maxPageStorageSizeInBytes;
         this.maxFileSizeInBytes = maxFileSizeInBytes;
+        this.minFileSizeInBytes = minFileSizeInBytes;
+        checkArgument(filesPerPartition >= 1, "filesPerPartition must be at least 1");
+        // records are only ordered within a file
+        this.filesPerPartition = preserveRecordsOrder ? 1 : filesPerPartition;
+        this.writeExecutor = requireNonNull(writeExecutor, "writeExecutor is null");
         this.directSerialisationType = directSerialisationType;
         this.directSerialisationBufferSize = directSerialisationBufferSize;
+        // every file being written holds a partially filled buffer, so size the pool per file
+        int numOfBuffers = max(outputPartitionCount * this.filesPerPartition * exchangeSinkBuffersPerPartition, exchangeSinkBufferPoolMinSize);
         if (directSerialisationType == DirectSerialisationType.OFF) {
             this.bufferPool = new BufferPool(
                     stats,
-                    max(outputPartitionCount * exchangeSinkBuffersPerPartition, exchangeSinkBufferPoolMinSize),
+                    numOfBuffers,
                     exchangeStorage.getWriterBufferSize());
         }
         else {
             this.bufferPool = null;
         }
+        this.pendingDirectWrites = new PendingDirectWrites(stats, (long) numOfBuffers * exchangeStorage.getWriterBufferSize());
     }
 
     @Override
     public CompletableFuture<Void> isBlocked()
     {
-        return (bufferPool != null) ? bufferPool.isBlocked() : NOT_BLOCKED;
+        return (bufferPool != null) ? bufferPool.isBlocked() : pendingDirectWrites.isBlocked();
     }
 
     public DirectSerialisationType getDirectSerialisationType()
@@ -188,9 +206,13 @@ public class FileSystemExchangeSink
                 preserveRecordsOrder,
                 partitionId,
                 bufferPool,
+                pendingDirectWrites,
                 failure,
                 maxPageStorageSizeInBytes,
                 maxFileSizeInBytes,
+                minFileSizeInBytes,
+                filesPerPartition,
+                writeExecutor,
                 directSerialisationType,
                 directSerialisationBufferSize);
     }
@@ -209,6 +231,7 @@ public class FileSystemExchangeSink
     {
         return INSTANCE_SIZE
                 + ((bufferPool != null) ? bufferPool.bufferRetainedSize : 0)
+                + pendingDirectWrites.getPendingBytes()
                 + estimatedSizeOf(writerMap, SizeOf::sizeOf, BufferedStorageWriter::getRetainedSize);
     }
 
@@ -280,6 +303,13 @@ public class FileSystemExchangeSink
                         directExecutor())));
     }
 
+    /**
+     * Writes the pages of one partition. Unless records order must be preserved, pages are spread
+     * round robin over several files that are written concurrently. Writes to one file go through
+     * a serial lane on the shared writer executor, so they stay in order. Each file rolls over once
+     * it reaches its target size, which starts at the min file size and doubles for each following
+     * file of the same stream up to the max file size.
+     */
     @ThreadSafe
     private static class BufferedStorageWriter
     {
@@ -293,24 +323,24 @@ public class FileSystemExchangeSink
         private final boolean preserveRecordsOrder;
         private final int partitionId;
         private final BufferPool bufferPool;
+        private final PendingDirectWrites pendingDirectWrites;
         private final AtomicReference<Throwable> failure;
         private final int maxPageStorageSizeInBytes;
         private final long maxFileSizeInBytes;
+        private final long minFileSizeInBytes;
+        private final DirectSerialisationType directSerialisationType;
+        private final int directSerialisationBufferSize;
 
         @GuardedBy("this")
-        private ExchangeStorageWriter currentWriter;
+        private final List<FileStream> streams = new ArrayList<>();
         @GuardedBy("this")
-        private long currentFileSize;
+        private int nextStream;
         @GuardedBy("this")
-        private SliceOutput currentBuffer;
+        private final List<SinkFile> files = new ArrayList<>();
         @GuardedBy("this")
-        private final List<ExchangeStorageWriter> writers = new ArrayList<>();
+        private final List<ListenableFuture<Void>> finishedFiles = new ArrayList<>();
         @GuardedBy("this")
         private boolean closed;
-        @GuardedBy("this")
-        private final DirectSerialisationType directSerialisationType;
-        @GuardedBy("this")
-        private final int directSerialisationBufferSize;
 
         public BufferedStorageWriter(FileSystemExchangeStorage exchangeStorage,
                                      FileSystemExchangeStats stats,
@@ -320,9 +350,13 @@ public class FileSystemExchangeSink
                                      boolean preserveRecordsOrder,
                                      int partitionId,
                                      BufferPool bufferPool,
+                                     PendingDirectWrites pendingDirectWrites,
                                      AtomicReference<Throwable> failure,
                                      int maxPageStorageSizeInBytes,
                                      long maxFileSizeInBytes,
+                                     long minFileSizeInBytes,
+                                     int filesPerPartition,
+                                     Executor writeExecutor,
                                      DirectSerialisationType directSerialisationType,
                                      int directSerialisationBufferSize)
         {
@@ -334,34 +368,25 @@ public class FileSystemExchangeSink
             this.preserveRecordsOrder = preserveRecordsOrder;
             this.partitionId = partitionId;
             this.bufferPool = bufferPool;
+            this.pendingDirectWrites = requireNonNull(pendingDirectWrites, "pendingDirectWrites is null");
             this.failure = requireNonNull(failure, "failure is null");
             this.maxPageStorageSizeInBytes = maxPageStorageSizeInBytes;
             this.maxFileSizeInBytes = maxFileSizeInBytes;
+            this.minFileSizeInBytes = min(minFileSizeInBytes, maxFileSizeInBytes);
             this.directSerialisationType = directSerialisationType;
             this.directSerialisationBufferSize = directSerialisationBufferSize;
 
-            addExchangeStorageWriter();
-        }
-
-        private void addExchangeStorageWriter()
-        {
-            currentWriter = exchangeStorage.createExchangeWriter(
-                    outputDirectory.resolve(partitionId + "_" + writers.size() + DATA_FILE_SUFFIX),
-                    secretKey, exchangeCompressionEnabled, directSerialisationType, directSerialisationBufferSize);
-            writers.add(currentWriter);
+            requireNonNull(writeExecutor, "writeExecutor is null");
+            for (int i = 0; i < filesPerPartition; i++) {
+                streams.add(new FileStream(new BoundedExecutor(writeExecutor, 1)));
+            }
         }
 
-        private String propertiesToString(Properties properties)
+        private FileStream nextStream()
         {
-            StringBuilder stringBuilder = new StringBuilder();
-            if (properties.size() > 0) {
-                for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-                    stringBuilder.append(entry.getKey()).append("=")
-                            .append(entry.getValue()).append(System.lineSeparator());
-                }
-                stringBuilder.replace(stringBuilder.length() - 1, stringBuilder.length(), System.lineSeparator());
-            }
-            return stringBuilder.toString();
+            FileStream stream = streams.get(nextStream);
+            nextStream = (nextStream + 1) % streams.size();
+            return stream;
         }
 
         public synchronized void write(Slice data)
@@ -377,18 +402,11 @@ public class FileSystemExchangeSink
                         succinctBytes(requiredPageStorageSize)));
             }
 
-            if (currentFileSize + requiredPageStorageSize > maxFileSizeInBytes && !preserveRecordsOrder) {
-                stats.getFileSizeInBytes().add(currentFileSize);
-                flushIfNeeded(true);
-                addExchangeStorageWriter();
-                currentFileSize = 0;
-                currentBuffer = null;
-            }
-
-            writeInternal(Slices.wrappedIntArray(data.length()));
-            writeInternal(data);
-
-            currentFileSize += requiredPageStorageSize;
+            FileStream stream = nextStream();
+            stream.prepareWrite(requiredPageStorageSize);
+            stream.writeInternal(Slices.wrappedIntArray(data.length()));
+            stream.writeInternal(data);
+            stream.fileSize += requiredPageStorageSize;
         }
 
         public synchronized void write(Page page, PagesSerde directSerde)
@@ -404,32 +422,10 @@ public class FileSystemExchangeSink
                         succinctBytes(requiredPageStorageSize)));
             }
 
-            if (currentFileSize + requiredPageStorageSize > maxFileSizeInBytes && !preserveRecordsOrder) {
-                stats.getFileSizeInBytes().add(currentFileSize);
-                addExchangeStorageWriter();
-                currentFileSize = 0;
-            }
-
-            currentWriter.write(page, directSerde);
-            currentFileSize += requiredPageStorageSize;
-        }
-
-        private void writeInternal(Slice slice)
-        {
-            int position = 0;
-            while (position < slice.length()) {
-                if (currentBuffer == null) {
-                    currentBuffer = bufferPool.take();
-                    if (currentBuffer == null) {
-                        return;
-                    }
-                }
-                int writableBytes = min(currentBuffer.writableBytes(), slice.length() - position);
-                currentBuffer.writeBytes(slice.getBytes(position, writableBytes));
-                position += writableBytes;
-
-                flushIfNeeded(false);
-            }
+            FileStream stream = nextStream();
+            stream.prepareWrite(requiredPageStorageSize);
+            stream.writePage(page, directSerde, requiredPageStorageSize);
+            stream.fileSize += requiredPageStorageSize;
         }
 
         public synchronized ListenableFuture<Void> finish()
@@ -438,12 +434,10 @@ public class FileSystemExchangeSink
                 return immediateFailedFuture(new IllegalStateException("BufferedStorageWriter has closed"));
             }
 
-            stats.getFileSizeInBytes().add(currentFileSize);
-            flushIfNeeded(true);
-            if (writers.size() == 1) {
-                return currentWriter.finish();
+            for (FileStream stream : streams) {
+                stream.finishFile();
             }
-            return Futures.transform(Futures.allAsList(writers.stream().map(ExchangeStorageWriter::finish).collect(toImmutableList())), val -> null, directExecutor());
+            return Futures.transform(Futures.allAsList(finishedFiles), val -> null, directExecutor());
         }
 
         public synchronized ListenableFuture<Void> abort()
@@ -453,28 +447,209 @@ public class FileSystemExchangeSink
             }
             closed = true;
 
-            if (writers.size() == 1) {
-                return currentWriter.abort();
-            }
-            return Futures.transform(Futures.allAsList(writers.stream().map(ExchangeStorageWriter::abort).collect(toImmutableList())), val -> null, directExecutor());
+            return Futures.transform(Futures.allAsList(files.stream().map(SinkFile::abort).collect(toImmutableList())), val -> null, directExecutor());
         }
 
         public synchronized long getRetainedSize()
         {
-            return INSTANCE_SIZE + estimatedSizeOf(writers, ExchangeStorageWriter::getRetainedSize);
+            return INSTANCE_SIZE + estimatedSizeOf(files, file -> file.writer.getRetainedSize());
         }
 
-        private void flushIfNeeded(boolean finished)
+        // accessed only while holding the lock of the enclosing writer
+        private class FileStream
         {
-            SliceOutput buffer = currentBuffer;
-            if (buffer != null && (!buffer.isWritable() || finished)) {
-                if (!buffer.isWritable()) {
-                    currentBuffer = null;
+            private final Executor lane;
+            private SinkFile currentFile;
+            private long fileSize;
+            private long targetFileSize = minFileSizeInBytes;
+            private SliceOutput currentBuffer;
+
+            FileStream(Executor lane)
+            {
+                this.lane = requireNonNull(lane, "lane is null");
+            }
+
+            /**
+             * Makes sure a file is open that can take the next page, rolling the current one over if it reached its target size.
+             */
+            void prepareWrite(long requiredPageStorageSize)
+            {
+                if (currentFile != null && fileSize + requiredPageStorageSize > targetFileSize && !preserveRecordsOrder) {
+                    finishFile();
+                    targetFileSize = min(targetFileSize * 2, maxFileSizeInBytes);
                 }
-                ListenableFuture<Void> writeFuture = currentWriter.write(buffer.slice());
-                writeFuture.addListener(() -> bufferPool.offer(buffer), directExecutor());
+                if (currentFile == null) {
+                    ExchangeStorageWriter writer = exchangeStorage.createExchangeWriter(
+                            outputDirectory.resolve(partitionId + "_" + files.size() + DATA_FILE_SUFFIX),
+                            secretKey, exchangeCompressionEnabled, directSerialisationType, directSerialisationBufferSize);
+                    currentFile = new SinkFile(writer, lane, stats);
+                    files.add(currentFile);
+                }
+            }
+
+            void writeInternal(Slice slice)
+            {
+                int position = 0;
+                while (position < slice.length()) {
+                    if (currentBuffer == null) {
+                        currentBuffer = bufferPool.take();
+                        if (currentBuffer == null) {
+                            return;
+                        }
+                    }
+                    int writableBytes = min(currentBuffer.writableBytes(), slice.length() - position);
+                    currentBuffer.writeBytes(slice.getBytes(position, writableBytes));
+                    position += writableBytes;
+
+                    flushIfNeeded(false);
+                }
+            }
+
+            void writePage(Page page, PagesSerde directSerde, long pageSize)
+            {
+                // direct serdes keep no state between pages, so files of several streams can share one
+                pendingDirectWrites.add(pageSize);
+                ListenableFuture<Void> writeFuture = currentFile.write(page, directSerde, pageSize);
+                writeFuture.addListener(() -> pendingDirectWrites.remove(pageSize), directExecutor());
                 addExceptionCallback(writeFuture, throwable -> failure.compareAndSet(null, throwable));
             }
+
+            void finishFile()
+            {
+                if (currentFile == null) {
+                    return;
+                }
+                stats.getFileSizeInBytes().add(fileSize);
+                flushIfNeeded(true);
+                finishedFiles.add(currentFile.finish());
+                currentFile = null;
+                fileSize = 0;
+            }
+
+            private void flushIfNeeded(boolean finished)
+            {
+                SliceOutput buffer = currentBuffer;
+                if (buffer != null && (!buffer.isWritable() || finished)) {
+                    currentBuffer = null;
+                    ListenableFuture<Void> writeFuture = currentFile.write(buffer.slice());
+                    writeFuture.addListener(() -> bufferPool.offer(buffer), directExecutor());
+                    addExceptionCallback(writeFuture, throwable -> failure.compareAndSet(null, throwable));
+                }
+            }
+        }
+    }
+
+    /**
+     * A file written by a sink. All operations on the file run on its serial lane,
+     * which also makes the throughput counters safe to update without locking.
+     */
+    private static class SinkFile
+    {
+        private final ExchangeStorageWriter writer;
+        private final Executor lane;
+        private final FileSystemExchangeStats stats;
+        private long bytesWritten;
+        private long writeNanos;
+
+        SinkFile(ExchangeStorageWriter writer, Executor lane, FileSystemExchangeStats stats)
+        {
+            this.writer = requireNonNull(writer, "writer is null");
+            this.lane = requireNonNull(lane, "lane is null");
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+
+        ListenableFuture<Void> write(Slice slice)
+        {
+            return Futures.submitAsync(() -> timed(slice.length(), () -> writer.write(slice)), lane);
+        }
+
+        ListenableFuture<Void> write(Page page, PagesSerde directSerde, long pageSize)
+        {
+            return Futures.submitAsync(() -> timed(pageSize, () -> writer.write(page, directSerde)), lane);
+        }
+
+        ListenableFuture<Void> finish()
+        {
+            return Futures.submitAsync(() -> {
+                ListenableFuture<Void> future = timed(0, writer::finish);
+                if (writeNanos > 0) {
+                    stats.getFileWriteBytesPerSecond().add((long) (bytesWritten * (double) SECONDS.toNanos(1) / writeNanos));
+                }
+                return future;
+            }, lane);
+        }
+
+        ListenableFuture<Void> abort()
+        {
+            return Futures.submitAsync(writer::abort, lane);
+        }
+
+        private ListenableFuture<Void> timed(long bytes, Supplier<ListenableFuture<Void>> operation)
+        {
+            long start = System.nanoTime();
+            try {
+                return operation.get();
+            }
+            finally {
+                writeNanos += System.nanoTime() - start;
+                bytesWritten += bytes;
+            }
+        }
+    }
+
+    /**
+     * Bounds the bytes of pages queued for direct serialization, the counterpart of the buffer pool
+     * for sinks that serialize pages straight into the files.
+     */
+    @ThreadSafe
+    private static class PendingDirectWrites
+    {
+        private final FileSystemExchangeStats stats;
+        private final long maxPendingBytes;
+        @GuardedBy("this")
+        private long pendingBytes;
+        @GuardedBy("this")
+        private CompletableFuture<Void> blockedFuture = new CompletableFuture<>();
+
+        public PendingDirectWrites(FileSystemExchangeStats stats, long maxPendingBytes)
+        {
+            this.stats = requireNonNull(stats, "stats is null");
+            this.maxPendingBytes = maxPendingBytes;
+        }
+
+        public synchronized CompletableFuture<Void> isBlocked()
+        {
+            if (pendingBytes < maxPendingBytes) {
+                return NOT_BLOCKED;
+            }
+            if (blockedFuture.isDone()) {
+                blockedFuture = new CompletableFuture<>();
+                stats.getExchangeSinkBlocked().record(blockedFuture);
+            }
+            return blockedFuture;
+        }
+
+        public synchronized void add(long bytes)
+        {
+            pendingBytes += bytes;
+        }
+
+        public void remove(long bytes)
+        {
+            CompletableFuture<Void> future;
+            synchronized (this) {
+                pendingBytes -= bytes;
+                if (pendingBytes >= maxPendingBytes) {
+                    return;
+                }
+                future = blockedFuture;
+            }
+            future.complete(null);
+        }
+
+        public synchronized long getPendingBytes()
+        {
+            return pendingBytes;
         }
     }
 
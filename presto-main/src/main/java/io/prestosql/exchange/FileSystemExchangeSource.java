@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
@@ -55,6 +56,8 @@ public class FileSystemExchangeSource
             List<ExchangeSourceFile> sourceFiles,
             int maxPageStorageSize,
             int exchangeSourceConcurrentReaders,
+            int exchangeSourcePrefetchFiles,
+            Executor prefetchExecutor,
             DirectSerialisationType directSerialisationType,
             int directSerialisationBufferSize)
     {
@@ -67,7 +70,7 @@ public class FileSystemExchangeSource
 
         ImmutableList.Builder<ExchangeStorageReader> exchangeReaders = ImmutableList.builder();
         for (int i = 0; i < numOfReaders; i++) {
-            exchangeReaders.add(exchangeStorage.createExchangeReader(sourceFileQueue, maxPageStorageSize, directSerialisationType, directSerialisationBufferSize));
+            exchangeReaders.add(exchangeStorage.createExchangeReader(sourceFileQueue, maxPageStorageSize, exchangeSourcePrefetchFiles, prefetchExecutor, directSerialisationType, directSerialisationBufferSize));
         }
         this.readers = exchangeReaders.build();
         this.directSerialisationType = directSerialisationType;
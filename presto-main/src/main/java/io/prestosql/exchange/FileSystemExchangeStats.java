@@ -13,6 +13,7 @@
  */
 package io.prestosql.exchange;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
@@ -27,6 +28,9 @@ public class FileSystemExchangeStats
     private final ExecutionStats exchangeSinkAborted = new ExecutionStats();
     private final ExecutionStats exchangeSourceBlocked = new ExecutionStats();
     private final DistributionStat fileSizeInBytes = new DistributionStat();
+    private final DistributionStat fileWriteBytesPerSecond = new DistributionStat();
+    private final CounterStat localCacheHits = new CounterStat();
+    private final CounterStat localCacheMisses = new CounterStat();
 
     @Managed
     @Nested
@@ -83,4 +87,34 @@ public class FileSystemExchangeStats
     {
         return fileSizeInBytes;
     }
+
+    /**
+     * Write throughput of each finished sink file, measured over the time spent writing it.
+     */
+    @Managed
+    @Nested
+    public DistributionStat getFileWriteBytesPerSecond()
+    {
+        return fileWriteBytesPerSecond;
+    }
+
+    /**
+     * Source files served from a copy in the local exchange cache.
+     */
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheHits()
+    {
+        return localCacheHits;
+    }
+
+    /**
+     * Source files that had to be copied from the exchange storage into the local exchange cache.
+     */
+    @Managed
+    @Nested
+    public CounterStat getLocalCacheMisses()
+    {
+        return localCacheMisses;
+    }
 }
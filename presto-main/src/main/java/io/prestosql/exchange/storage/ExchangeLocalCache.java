@@ -0,0 +1,386 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange.storage;
+
+import io.airlift.log.Logger;
+import io.prestosql.exchange.FileSystemExchangeStats;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+
+/**
+ * Node local read-through cache of exchange source files. The first read of a file streams it
+ * from the exchange storage and writes what it reads to the local directory, so that retried tasks
+ * scheduled on the same node read it from local disk instead. A file is cached only once it was
+ * read completely. Files are evicted in least recently used order once the cached bytes exceed the max size.
+ * <p>
+ * Files are keyed by the path of their URI, so the same file is matched regardless of how the
+ * scheme and authority are spelled. Files are cached as stored, so encrypted exchange data
+ * stays encrypted on local disk.
+ */
+@ThreadSafe
+public class ExchangeLocalCache
+{
+    private static final Logger LOG = Logger.get(ExchangeLocalCache.class);
+    private static final String CACHE_FILE_SUFFIX = ".cache";
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final FileSystemExchangeStats stats;
+
+    @GuardedBy("this")
+    private final LinkedHashMap<Path, CachedFile> files = new LinkedHashMap<>(16, 0.75f, true);
+    // files being copied by a first read, the token identifies the copy so that an invalidated one is not published
+    @GuardedBy("this")
+    private final Map<Path, Object> loading = new HashMap<>();
+    @GuardedBy("this")
+    private long cachedBytes;
+    @GuardedBy("this")
+    private boolean closed;
+
+    public ExchangeLocalCache(Path directory, long maxSizeInBytes, FileSystemExchangeStats stats)
+    {
+        checkArgument(maxSizeInBytes > 0, "maxSizeInBytes must be positive");
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.stats = requireNonNull(stats, "stats is null");
+
+        try {
+            Files.createDirectories(directory);
+            // files left by a previous run are not indexed and would never be evicted
+            deleteCacheFiles();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize exchange cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * Opens a source file from the cache if a copy is there. Otherwise the file is read from the
+     * exchange storage, and unless another read is already copying it, the returned stream copies
+     * what it reads into the cache. Files larger than the cache, that fail to be copied, or that are
+     * not read to the end are not cached.
+     */
+    public InputStream open(Path file, HetuFileSystemClient fileSystemClient)
+            throws IOException
+    {
+        Path key = cacheKey(file.toUri());
+        Object token = new Object();
+        boolean copy;
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile != null) {
+                stats.getLocalCacheHits().update(1);
+                // opened under the lock so that it cannot be evicted in between, eviction afterwards does not affect open streams
+                return Files.newInputStream(cachedFile.getPath());
+            }
+            stats.getLocalCacheMisses().update(1);
+            copy = !closed && loading.putIfAbsent(key, token) == null;
+        }
+        if (!copy) {
+            return fileSystemClient.newInputStream(file);
+        }
+
+        Path cachePath = directory.resolve(randomUUID() + CACHE_FILE_SUFFIX);
+        InputStream input;
+        try {
+            input = fileSystemClient.newInputStream(file);
+        }
+        catch (IOException | RuntimeException e) {
+            abandon(key, token, cachePath);
+            throw e;
+        }
+        try {
+            return new CachingInputStream(input, Files.newOutputStream(cachePath), key, token, cachePath);
+        }
+        catch (IOException e) {
+            LOG.warn(e, "Failed to cache exchange file %s", file);
+            abandon(key, token, cachePath);
+            return input;
+        }
+    }
+
+    /**
+     * Drops the cached files under the given exchange storage directory, once the exchange it belongs to is removed.
+     * Copies in flight under the directory are discarded when they complete.
+     */
+    public synchronized void invalidate(URI directoryUri)
+    {
+        Path prefix = cacheKey(directoryUri);
+        loading.keySet().removeIf(key -> key.startsWith(prefix));
+        Iterator<Map.Entry<Path, CachedFile>> iterator = files.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, CachedFile> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                iterator.remove();
+                remove(entry.getValue());
+            }
+        }
+    }
+
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    public synchronized int getCachedFileCount()
+    {
+        return files.size();
+    }
+
+    public synchronized void close()
+    {
+        closed = true;
+        loading.clear();
+        files.values().forEach(this::remove);
+        files.clear();
+    }
+
+    private void publish(Path key, Object token, Path cachePath, long size)
+    {
+        synchronized (this) {
+            // the copy may have been invalidated, or the cache closed, while the file was read
+            if (loading.remove(key, token)) {
+                CachedFile previous = files.put(key, new CachedFile(cachePath, size));
+                if (previous != null) {
+                    remove(previous);
+                }
+                cachedBytes += size;
+                evict();
+                return;
+            }
+        }
+        deleteQuietly(cachePath);
+    }
+
+    private void abandon(Path key, Object token, Path cachePath)
+    {
+        synchronized (this) {
+            loading.remove(key, token);
+        }
+        deleteQuietly(cachePath);
+    }
+
+    private static Path cacheKey(URI uri)
+    {
+        return Paths.get(uri.normalize().getPath());
+    }
+
+    @GuardedBy("this")
+    private void evict()
+    {
+        Iterator<CachedFile> iterator = files.values().iterator();
+        while (cachedBytes > maxSizeInBytes && iterator.hasNext()) {
+            CachedFile cachedFile = iterator.next();
+            iterator.remove();
+            remove(cachedFile);
+        }
+    }
+
+    @GuardedBy("this")
+    private void remove(CachedFile cachedFile)
+    {
+        cachedBytes -= cachedFile.getSize();
+        deleteQuietly(cachedFile.getPath());
+    }
+
+    private static void deleteQuietly(Path path)
+    {
+        try {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e) {
+            LOG.warn(e, "Failed to delete exchange cache file %s", path);
+        }
+    }
+
+    private void deleteCacheFiles()
+            throws IOException
+    {
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().endsWith(CACHE_FILE_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the bytes read from the exchange storage into a cache file. The copy is published when the
+     * end of the file is reached, and discarded if the stream is closed earlier, skipped, or grows larger
+     * than the cache. Failures to write the copy only stop the caching, the read itself goes on.
+     */
+    private class CachingInputStream
+            extends FilterInputStream
+    {
+        private final Path key;
+        private final Object token;
+        private final Path cachePath;
+        private OutputStream output;
+        private long size;
+
+        CachingInputStream(InputStream input, OutputStream output, Path key, Object token, Path cachePath)
+        {
+            super(input);
+            this.output = requireNonNull(output, "output is null");
+            this.key = requireNonNull(key, "key is null");
+            this.token = requireNonNull(token, "token is null");
+            this.cachePath = requireNonNull(cachePath, "cachePath is null");
+        }
+
+        @Override
+        public int read()
+                throws IOException
+        {
+            int value = in.read();
+            if (value < 0) {
+                finish();
+            }
+            else if (output != null) {
+                copy(new byte[] {(byte) value}, 0, 1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                finish();
+            }
+            else if (output != null) {
+                copy(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n)
+                throws IOException
+        {
+            stopCaching();
+            return in.skip(n);
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            try {
+                stopCaching();
+            }
+            finally {
+                in.close();
+            }
+        }
+
+        private void copy(byte[] buffer, int offset, int length)
+        {
+            size += length;
+            if (size > maxSizeInBytes) {
+                stopCaching();
+                return;
+            }
+            try {
+                output.write(buffer, offset, length);
+            }
+            catch (IOException e) {
+                LOG.warn(e, "Failed to cache exchange file %s", key);
+                stopCaching();
+            }
+        }
+
+        private void finish()
+        {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.close();
+                output = null;
+                publish(key, token, cachePath, size);
+            }
+            catch (IOException e) {
+                LOG.warn(e, "Failed to cache exchange file %s", key);
+                stopCaching();
+            }
+        }
+
+        private void stopCaching()
+        {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.close();
+            }
+            catch (IOException e) {
+                // the copy is discarded anyway
+            }
+            output = null;
+            abandon(key, token, cachePath);
+        }
+    }
+
+    private static class CachedFile
+    {
+        private final Path path;
+        private final long size;
+
+        CachedFile(Path path, long size)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.size = size;
+        }
+
+        Path getPath()
+        {
+            return path;
+        }
+
+        long getSize()
+        {
+            return size;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 
 public interface FileSystemExchangeStorage
         extends AutoCloseable
@@ -34,7 +35,7 @@ public interface FileSystemExchangeStorage
 
     void createDirectories(URI dir) throws IOException;
 
-    ExchangeStorageReader createExchangeReader(Queue<ExchangeSourceFile> sourceFiles, int maxPageSize, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize);
+    ExchangeStorageReader createExchangeReader(Queue<ExchangeSourceFile> sourceFiles, int maxPageSize, int prefetchFiles, Executor prefetchExecutor, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize);
 
     ExchangeStorageWriter createExchangeWriter(URI file, Optional<SecretKey> secretKey, boolean exchangeCompressionEnabled, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize);
 
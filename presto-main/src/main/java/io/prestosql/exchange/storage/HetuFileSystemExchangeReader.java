@@ -14,6 +14,7 @@
 package io.prestosql.exchange.storage;
 
 import com.esotericsoftware.kryo.io.Input;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.compress.snappy.SnappyFramedInputStream;
 import io.airlift.log.Logger;
@@ -35,16 +36,22 @@ import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayDeque;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static java.lang.Math.toIntExact;
@@ -61,6 +68,7 @@ public class HetuFileSystemExchangeReader
     private static final int BUFFER_SIZE_IN_BYTES = toIntExact(new DataSize(4, KILOBYTE).toBytes());
 
     HetuFileSystemClient fsClient;
+    private final Optional<ExchangeLocalCache> localCache;
 
     private final Queue<ExchangeSourceFile> sourceFiles;
     private final AlgorithmParameterSpec algorithmParameterSpec;
@@ -71,16 +79,23 @@ public class HetuFileSystemExchangeReader
     private boolean closed;
     @GuardedBy("this")
     private Input kryoInput;
+    @GuardedBy("this")
+    private final Queue<ListenableFuture<InputStreamSliceInput>> prefetchedInputs = new ArrayDeque<>();
+    private final int prefetchFiles;
+    private final Executor prefetchExecutor;
     private final DirectSerialisationType directSerialisationType;
     private final int directSerialisationBufferSize;
 
-    public HetuFileSystemExchangeReader(Queue<ExchangeSourceFile> sourceFiles, HetuFileSystemClient fileSystemClient, AlgorithmParameterSpec algorithmParameterSpec, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    public HetuFileSystemExchangeReader(Queue<ExchangeSourceFile> sourceFiles, HetuFileSystemClient fileSystemClient, Optional<ExchangeLocalCache> localCache, AlgorithmParameterSpec algorithmParameterSpec, int prefetchFiles, Executor prefetchExecutor, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
     {
         this.sourceFiles = requireNonNull(sourceFiles, "sourceFiles is null");
         this.fsClient = requireNonNull(fileSystemClient, "fileSystemClient is null");
+        this.localCache = requireNonNull(localCache, "localCache is null");
         this.algorithmParameterSpec = requireNonNull(algorithmParameterSpec, "gcmParameterSpec is null");
         this.directSerialisationType = directSerialisationType;
         this.directSerialisationBufferSize = directSerialisationBufferSize;
+        this.prefetchFiles = prefetchFiles;
+        this.prefetchExecutor = requireNonNull(prefetchExecutor, "prefetchExecutor is null");
     }
 
     @Override
@@ -99,13 +114,11 @@ public class HetuFileSystemExchangeReader
             return sliceInput.readSlice(markerData);
         }
 
-        ExchangeSourceFile sourceFile = sourceFiles.poll();
-        if (sourceFile == null) {
+        if (!nextFile()) {
             close();
             return null;
         }
 
-        sliceInput = getSliceInput(sourceFile);
         markerData = sliceInput.readInt();
         return sliceInput.readSlice(markerData);
     }
@@ -118,12 +131,10 @@ public class HetuFileSystemExchangeReader
         }
 
         if (sliceInput == null || (kryoInput == null && directSerialisationType == DirectSerialisationType.KRYO)) {
-            ExchangeSourceFile sourceFile = sourceFiles.poll();
-            if (sourceFile == null) {
+            if (!nextFile()) {
                 close();
                 return null;
             }
-            sliceInput = getSliceInput(sourceFile);
             if (directSerialisationType == DirectSerialisationType.KRYO) {
                 kryoInput = new Input(sliceInput, directSerialisationBufferSize);
             }
@@ -131,39 +142,82 @@ public class HetuFileSystemExchangeReader
 
         if (directSerialisationType == DirectSerialisationType.KRYO) {
             if (kryoInput.end()) {
-                ExchangeSourceFile sourceFile = sourceFiles.poll();
-                if (sourceFile == null) {
+                if (!nextFile()) {
                     close();
                     return null;
                 }
-                sliceInput = getSliceInput(sourceFile);
                 kryoInput = new Input(sliceInput, directSerialisationBufferSize);
             }
             return serde.deserialize(kryoInput);
         }
         else {
             if (!sliceInput.isReadable()) {
-                ExchangeSourceFile sourceFile = sourceFiles.poll();
-                if (sourceFile == null) {
+                if (!nextFile()) {
                     close();
                     return null;
                 }
-                sliceInput = getSliceInput(sourceFile);
             }
             return serde.deserialize(sliceInput);
         }
     }
 
     @Override
-    public ListenableFuture<?> isBlocked()
+    public synchronized ListenableFuture<?> isBlocked()
     {
+        if (sliceInput == null && !prefetchedInputs.isEmpty()) {
+            return nonCancellationPropagating(prefetchedInputs.peek());
+        }
         return immediateFuture(null);
     }
 
+    /**
+     * Moves on to the next source file, preferably one that has been opened ahead.
+     * Returns false once there are no files left.
+     */
+    @GuardedBy("this")
+    private boolean nextFile()
+    {
+        ListenableFuture<InputStreamSliceInput> next = prefetchedInputs.poll();
+        if (next == null) {
+            ExchangeSourceFile sourceFile = sourceFiles.poll();
+            if (sourceFile == null) {
+                return false;
+            }
+            next = immediateFuture(getSliceInput(sourceFile));
+        }
+        if (sliceInput != null) {
+            sliceInput.close();
+        }
+        sliceInput = getFutureValue(next);
+        prefetch();
+        return true;
+    }
+
+    /**
+     * Opens up to prefetchFiles source files in the background, filling their first buffer,
+     * so that opening and first reads of the next files overlap with reading the current one.
+     * Only called once reading has started, as readers sharing a file queue are created up front.
+     */
+    @GuardedBy("this")
+    private void prefetch()
+    {
+        while (prefetchedInputs.size() < prefetchFiles) {
+            ExchangeSourceFile sourceFile = sourceFiles.poll();
+            if (sourceFile == null) {
+                return;
+            }
+            prefetchedInputs.add(Futures.submitAsync(() -> {
+                InputStreamSliceInput input = getSliceInput(sourceFile);
+                input.isReadable();
+                return immediateFuture(input);
+            }, prefetchExecutor));
+        }
+    }
+
     @Override
     public synchronized long getRetainedSize()
     {
-        return INSTANCE_SIZE + (sliceInput == null ? 0 : sliceInput.getRetainedSize());
+        return INSTANCE_SIZE + (sliceInput == null ? 0 : sliceInput.getRetainedSize()) + (long) prefetchedInputs.size() * BUFFER_SIZE_IN_BYTES;
     }
 
     @Override
@@ -179,6 +233,10 @@ public class HetuFileSystemExchangeReader
             return;
         }
         closed = true;
+        for (ListenableFuture<InputStreamSliceInput> input : prefetchedInputs) {
+            addSuccessCallback(input, InputStreamSliceInput::close);
+        }
+        prefetchedInputs.clear();
         if (kryoInput != null) {
             kryoInput.close();
         }
@@ -188,6 +246,15 @@ public class HetuFileSystemExchangeReader
         }
     }
 
+    private InputStream openFile(Path file)
+            throws IOException
+    {
+        if (localCache.isPresent()) {
+            return localCache.get().open(file, fsClient);
+        }
+        return fsClient.newInputStream(file);
+    }
+
     private InputStreamSliceInput getSliceInput(ExchangeSourceFile sourceFile)
     {
         try {
@@ -197,18 +264,18 @@ public class HetuFileSystemExchangeReader
             if (secretKey.isPresent() && exchangeCompressionEnabled) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.DECRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                return new InputStreamSliceInput(new SnappyFramedInputStream(new CipherInputStream(fsClient.newInputStream(file), cipher)), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new SnappyFramedInputStream(new CipherInputStream(openFile(file), cipher)), BUFFER_SIZE_IN_BYTES);
             }
             else if (secretKey.isPresent()) {
                 Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
                 cipher.init(Cipher.DECRYPT_MODE, secretKey.get(), algorithmParameterSpec);
-                return new InputStreamSliceInput(new CipherInputStream(fsClient.newInputStream(file), cipher), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new CipherInputStream(openFile(file), cipher), BUFFER_SIZE_IN_BYTES);
             }
             else if (exchangeCompressionEnabled) {
-                return new InputStreamSliceInput(new SnappyFramedInputStream(fsClient.newInputStream(file)), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(new SnappyFramedInputStream(openFile(file)), BUFFER_SIZE_IN_BYTES);
             }
             else {
-                return new InputStreamSliceInput(fsClient.newInputStream(file), BUFFER_SIZE_IN_BYTES);
+                return new InputStreamSliceInput(openFile(file), BUFFER_SIZE_IN_BYTES);
             }
         }
         catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException | NoSuchPaddingException |
@@ -18,7 +18,9 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.prestosql.exchange.ExchangeSourceFile;
 import io.prestosql.exchange.FileStatus;
+import io.prestosql.exchange.FileSystemExchangeConfig;
 import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.exchange.FileSystemExchangeStats;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 
 import javax.crypto.SecretKey;
@@ -33,25 +35,40 @@ import java.security.spec.AlgorithmParameterSpec;
 import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 
 import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
 
 public class HetuFileSystemExchangeStorage
         implements FileSystemExchangeStorage
 {
     private HetuFileSystemClient fileSystemClient;
     private final AlgorithmParameterSpec algorithmParameterSpec;
+    private final Optional<ExchangeLocalCache> localCache;
     private static final int BUFFER_SIZE_IN_BYTES = toIntExact(new DataSize(4, KILOBYTE).toBytes());
 
-    @Inject
     public HetuFileSystemExchangeStorage()
+    {
+        this(Optional.empty());
+    }
+
+    @Inject
+    public HetuFileSystemExchangeStorage(FileSystemExchangeConfig config, FileSystemExchangeStats stats)
+    {
+        this(Optional.ofNullable(config.getExchangeLocalCacheDirectory())
+                .map(directory -> new ExchangeLocalCache(Paths.get(directory), config.getExchangeLocalCacheMaxSize().toBytes(), stats)));
+    }
+
+    public HetuFileSystemExchangeStorage(Optional<ExchangeLocalCache> localCache)
     {
         byte[] iv = new byte[16];
         new SecureRandom().nextBytes(iv);
         this.algorithmParameterSpec = new IvParameterSpec(iv);
+        this.localCache = requireNonNull(localCache, "localCache is null");
     }
 
     public void setFileSystemClient(HetuFileSystemClient fsClient)
@@ -83,6 +100,7 @@ public class HetuFileSystemExchangeStorage
         try {
             directories.forEach(uri -> {
                 try {
+                    localCache.ifPresent(cache -> cache.invalidate(uri));
                     fileSystemClient.deleteRecursively(Paths.get(uri.toString()));
                 }
                 catch (IOException e) {
@@ -135,12 +153,13 @@ public class HetuFileSystemExchangeStorage
     @Override
     public void close()
     {
+        localCache.ifPresent(ExchangeLocalCache::close);
     }
 
     @Override
-    public ExchangeStorageReader createExchangeReader(Queue<ExchangeSourceFile> sourceFiles, int maxPageSize, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
+    public ExchangeStorageReader createExchangeReader(Queue<ExchangeSourceFile> sourceFiles, int maxPageSize, int prefetchFiles, Executor prefetchExecutor, DirectSerialisationType directSerialisationType, int directSerialisationBufferSize)
     {
-        return new HetuFileSystemExchangeReader(sourceFiles, fileSystemClient, algorithmParameterSpec, directSerialisationType, directSerialisationBufferSize);
+        return new HetuFileSystemExchangeReader(sourceFiles, fileSystemClient, localCache, algorithmParameterSpec, prefetchFiles, prefetchExecutor, directSerialisationType, directSerialisationBufferSize);
     }
 
     @Override
@@ -73,6 +73,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
@@ -136,6 +137,8 @@ public class QueryStateMachine
     private final AtomicLong peakTaskTotalMemory = new AtomicLong();
 
     private final QueryStateTimer queryStateTimer;
+    // null until the first dynamic filter of the query is merged
+    private final AtomicReference<Duration> dynamicFilterAvailabilityTime = new AtomicReference<>();
 
     private final StateMachine<QueryState> queryState;
     private final AtomicBoolean queryCleanedUp = new AtomicBoolean();
@@ -697,7 +700,8 @@ public class QueryStateMachine
                 new Duration(inputBlockedTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(failedInputBlockedTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(outputBlockedTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
-                new Duration(failedOutputBlockedTime, NANOSECONDS).convertToMostSuccinctTimeUnit());
+                new Duration(failedOutputBlockedTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
+                firstNonNull(dynamicFilterAvailabilityTime.get(), new Duration(0, MILLISECONDS)));
     }
 
     public VersionedMemoryPoolId getMemoryPool()
@@ -1072,6 +1076,15 @@ public class QueryStateMachine
         queryStateTimer.recordHeartbeat();
     }
 
+    /**
+     * Records that a merged dynamic filter became available. Only the first one is kept,
+     * so the query stats show the time from query start until a dynamic filter was available
+     */
+    public void recordDynamicFilterAvailable()
+    {
+        dynamicFilterAvailabilityTime.compareAndSet(null, queryStateTimer.getElapsedTime());
+    }
+
     public void beginSyntaxAnalysis()
     {
         queryStateTimer.beginSyntaxAnalysis();
@@ -1322,7 +1335,8 @@ public class QueryStateMachine
                 queryStats.getInputBlockedTime(),
                 queryStats.getFailedInputBlockedTime(),
                 queryStats.getOutputBlockedTime(),
-                queryStats.getFailedOutputBlockedTime());
+                queryStats.getFailedOutputBlockedTime(),
+                queryStats.getDynamicFilterAvailabilityTime());
     }
 
     public void setPriority(int priority)
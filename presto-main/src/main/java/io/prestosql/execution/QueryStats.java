@@ -126,6 +126,9 @@ public class QueryStats
     private final Duration outputBlockedTime;
     private final Duration failedOutputBlockedTime;
 
+    // time from the start of the query until the first merged dynamic filter became available, 0 if none was
+    private final Duration dynamicFilterAvailabilityTime;
+
     @JsonCreator
     public QueryStats(
             @JsonProperty("createTime") DateTime createTime,
@@ -212,7 +215,8 @@ public class QueryStats
             @JsonProperty("inputBlockedTime") Duration inputBlockedTime,
             @JsonProperty("failedInputBlockedTime") Duration failedInputBlockedTime,
             @JsonProperty("outputBlockedTime") Duration outputBlockedTime,
-            @JsonProperty("failedOutputBlockedTime") Duration failedOutputBlockedTime)
+            @JsonProperty("failedOutputBlockedTime") Duration failedOutputBlockedTime,
+            @JsonProperty("dynamicFilterAvailabilityTime") Duration dynamicFilterAvailabilityTime)
     {
         this.createTime = requireNonNull(createTime, "createTime is null");
         this.executionStartTime = executionStartTime;
@@ -317,6 +321,7 @@ public class QueryStats
         this.failedInputBlockedTime = requireNonNull(failedInputBlockedTime, "failedInputBlockedTime is null");
         this.outputBlockedTime = requireNonNull(outputBlockedTime, "outputBlockedTime is null");
         this.failedOutputBlockedTime = requireNonNull(failedOutputBlockedTime, "failedOutputBlockedTime is null");
+        this.dynamicFilterAvailabilityTime = requireNonNull(dynamicFilterAvailabilityTime, "dynamicFilterAvailabilityTime is null");
     }
 
     @JsonProperty
@@ -799,4 +804,10 @@ public class QueryStats
     {
         return failedOutputBlockedTime;
     }
+
+    @JsonProperty
+    public Duration getDynamicFilterAvailabilityTime()
+    {
+        return dynamicFilterAvailabilityTime;
+    }
 }
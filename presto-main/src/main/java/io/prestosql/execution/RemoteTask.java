@@ -15,11 +15,14 @@ package io.prestosql.execution;
 
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.plan.PlanNodeId;
 
+import java.util.Map;
+
 public interface RemoteTask
 {
     TaskId getTaskId();
@@ -42,6 +45,13 @@ public interface RemoteTask
 
     void setOutputBuffers(OutputBuffers outputBuffers);
 
+    /**
+     * Sends merged dynamic filters to the task, for the table scans on its probe side
+     */
+    default void addDynamicFilters(Map<String, SerializedDynamicFilter> dynamicFilters)
+    {
+    }
+
     /**
      * Listener is always notified asynchronously using a dedicated notification thread pool so, care should
      * be taken to avoid leaking {@code this} when adding a listener in a constructor. Additionally, it is
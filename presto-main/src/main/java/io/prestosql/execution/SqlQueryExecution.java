@@ -1120,6 +1120,11 @@ public class SqlQueryExecution
         stateMachine.pruneQueryInfo();
     }
 
+    public void recordDynamicFilterAvailable()
+    {
+        stateMachine.recordDynamicFilterAvailable();
+    }
+
     @Override
     public QueryId getQueryId()
     {
@@ -26,6 +26,7 @@ import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.dynamicfilter.DynamicFilterService;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.exchange.Exchange;
 import io.prestosql.exchange.ExchangeSinkHandle;
 import io.prestosql.exchange.ExchangeSinkInstanceHandle;
@@ -59,6 +60,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -83,6 +85,7 @@ import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
 import static io.prestosql.SystemSessionProperties.isReuseTableScanEnabled;
+import static io.prestosql.dynamicfilter.DynamicFilterService.getConsumedDynamicFilters;
 import static io.prestosql.failuredetector.FailureDetector.State.GONE;
 import static io.prestosql.operator.ExchangeOperator.REMOTE_CONNECTOR_ID;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -134,6 +137,10 @@ public final class SqlStageExecution
 
     private final AtomicBoolean dynamicFilterSchedulingInfoPropagated = new AtomicBoolean();
 
+    // merged dynamic filters consumed by this stage, sent to every task including the ones scheduled later
+    @GuardedBy("this")
+    private final Map<String, SerializedDynamicFilter> receivedDynamicFilters = new HashMap<>();
+
     @GuardedBy("SqlStageExecution.class")
     public static Map<QueryId, List<UUID>> queryIdReuseTableScanMappingIdFinishedMap = new ConcurrentHashMap<>();
 
@@ -255,6 +262,22 @@ public final class SqlStageExecution
     private void initialize()
     {
         stateMachine.addStateChangeListener(newState -> checkAllTaskFinal());
+        if (isEnableDynamicFiltering(stateMachine.getSession())) {
+            dynamicFilterService.addDynamicFilterConsumer(
+                    stateMachine.getSession().getQueryId().getId(),
+                    getConsumedDynamicFilters(stateMachine.getFragment().getRoot()),
+                    this::addDynamicFilters);
+        }
+    }
+
+    private void addDynamicFilters(Map<String, SerializedDynamicFilter> dynamicFilters)
+    {
+        List<RemoteTask> remoteTasks;
+        synchronized (this) {
+            receivedDynamicFilters.putAll(dynamicFilters);
+            remoteTasks = getAllTasks();
+        }
+        remoteTasks.forEach(task -> task.addDynamicFilters(dynamicFilters));
     }
 
     public StageId getStageId()
@@ -681,6 +704,9 @@ public final class SqlStageExecution
                 snapshotManager, OptionalInt.empty());
 
         completeSources.forEach(task::noMoreSplits);
+        if (!receivedDynamicFilters.isEmpty()) {
+            task.addDynamicFilters(ImmutableMap.copyOf(receivedDynamicFilters));
+        }
 
         allTasks.add(taskId);
         tasks.computeIfAbsent(node, key -> newConcurrentHashSet()).add(task);
@@ -26,6 +26,8 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
+import io.prestosql.dynamicfilter.TaskDynamicFilters;
 import io.prestosql.exchange.ExchangeManagerRegistry;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.BufferResult;
@@ -68,6 +70,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.connector.DataCenterUtility.loadDCCatalogForUpdateTask;
@@ -276,6 +279,10 @@ public class SqlTask
         Map<Long, SnapshotInfo> snapshotCaptureResult = ImmutableMap.of();
         Optional<RestoreResult> snapshotRestoreResult = Optional.empty();
         DataSize peakUserMemoryReservation = new DataSize(0, BYTE);
+        // read the version before the filters, so that acknowledging it never drops a filter which was not sent
+        TaskDynamicFilters dynamicFilters = taskStateMachine.getDynamicFilters();
+        long dynamicFiltersVersion = dynamicFilters.getVersion();
+        Map<String, SerializedDynamicFilter> unacknowledgedDynamicFilters = dynamicFilters.getUnacknowledgedFilters();
         TaskInfo finalTaskInfo = taskHolder.getFinalTaskInfo();
         if (finalTaskInfo != null) {
             TaskStats taskStats = finalTaskInfo.getStats();
@@ -339,7 +346,9 @@ public class SqlTask
                 fullGcTime,
                 snapshotCaptureResult,
                 snapshotRestoreResult,
-                peakUserMemoryReservation);
+                peakUserMemoryReservation,
+                dynamicFiltersVersion,
+                unacknowledgedDynamicFilters);
     }
 
     private TaskStats getTaskStats(TaskHolder taskHolder)
@@ -394,8 +403,16 @@ public class SqlTask
             return immediateFuture(getTaskStatus());
         }
 
-        ListenableFuture<TaskState> futureTaskState = taskStateMachine.getStateChange(callersCurrentState);
-        return Futures.transform(futureTaskState, input -> getTaskStatus(), directExecutor());
+        // new partial dynamic filters are reported right away instead of waiting for a state change
+        ListenableFuture<?> futureStatusChange = whenAnyComplete(ImmutableList.of(
+                taskStateMachine.getStateChange(callersCurrentState),
+                taskStateMachine.getDynamicFilters().whenUnacknowledgedFiltersAvailable()));
+        return Futures.transform(futureStatusChange, input -> getTaskStatus(), directExecutor());
+    }
+
+    public void acknowledgeDynamicFilters(long dynamicFiltersVersion)
+    {
+        taskStateMachine.getDynamicFilters().acknowledge(dynamicFiltersVersion);
     }
 
     public ListenableFuture<TaskInfo> getTaskInfo(TaskState callersCurrentState)
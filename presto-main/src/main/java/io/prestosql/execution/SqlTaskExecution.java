@@ -294,7 +294,8 @@ public class SqlTaskExecution
                 getInitialSplitsPerNode(taskContext.getSession()),
                 getSplitConcurrencyAdjustmentInterval(taskContext.getSession()),
                 getMaxDriversPerTask(taskContext.getSession()),
-                queryPriorityTag);
+                queryPriorityTag,
+                taskContext::getJoinBridgeNumaNode);
         taskStateMachine.addStateChangeListener(state -> {
             if (state.isDone()) {
                 taskExecutor.removeTask(localTaskHandle);
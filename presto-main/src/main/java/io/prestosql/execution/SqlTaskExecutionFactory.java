@@ -15,6 +15,7 @@ package io.prestosql.execution;
 
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
+import io.hetu.core.transport.execution.buffer.PageBufferPool;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.Session;
 import io.prestosql.event.SplitMonitor;
@@ -54,6 +55,9 @@ import static java.util.Objects.requireNonNull;
 
 public class SqlTaskExecutionFactory
 {
+    // pages are split to about 1MB before serialization, larger buffers are allocated without pooling
+    private static final int MAX_POOLED_OUTPUT_BUFFER_SIZE = 8 * 1024 * 1024;
+
     private static final Logger log = Logger.get(SqlTaskExecutionFactory.class);
     private static LocalExecutionPlanner extensionPlanner;
     private static boolean extensionPlannerInitialized;
@@ -66,6 +70,7 @@ public class SqlTaskExecutionFactory
     private final boolean perOperatorCpuTimerEnabled;
     private final boolean cpuTimerEnabled;
     private final Metadata metadata;
+    private final Optional<PageBufferPool> outputBufferPool;
 
     public SqlTaskExecutionFactory(
             Executor taskNotificationExecutor,
@@ -83,6 +88,14 @@ public class SqlTaskExecutionFactory
         this.perOperatorCpuTimerEnabled = config.isPerOperatorCpuTimerEnabled();
         this.cpuTimerEnabled = config.isTaskCpuTimerEnabled();
         this.metadata = metadata;
+        this.outputBufferPool = config.isSinkOffHeapBufferEnabled()
+                ? Optional.of(new PageBufferPool(config.getSinkOffHeapBufferPoolSize().toBytes(), MAX_POOLED_OUTPUT_BUFFER_SIZE))
+                : Optional.empty();
+    }
+
+    public Optional<PageBufferPool> getOutputBufferPool()
+    {
+        return outputBufferPool;
     }
 
     public SqlTaskExecution create(String taskInstanceId, Session session, QueryContext queryContext, TaskStateMachine taskStateMachine, OutputBuffer outputBuffer, PlanFragment fragment, List<TaskSource> sources, OptionalInt totalPartitions, Optional<PlanNodeId> consumer,
@@ -96,7 +109,7 @@ public class SqlTaskExecutionFactory
                 cpuTimerEnabled,
                 totalPartitions,
                 consumer,
-                new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockEncodingSerde(), isExchangeCompressionEnabled(session)),
+                new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockEncodingSerde(), isExchangeCompressionEnabled(session), outputBufferPool),
                 new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockKryoEncodingSerde(), isExchangeCompressionEnabled(session)));
 
         LocalExecutionPlan localExecutionPlan = null;
@@ -27,6 +27,7 @@ import io.airlift.stats.CounterStat;
 import io.airlift.stats.GcMonitor;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageBufferPool;
 import io.prestosql.Session;
 import io.prestosql.event.SplitMonitor;
 import io.prestosql.exchange.ExchangeManagerRegistry;
@@ -375,6 +376,18 @@ public class SqlTaskManager
         return taskNotificationExecutorMBean;
     }
 
+    @Managed(description = "Idle off-heap output buffer bytes kept for reuse")
+    public long getOffHeapOutputBufferPooledBytes()
+    {
+        return sqlTaskExecutionFactory.getOutputBufferPool().map(PageBufferPool::getPooledBytes).orElse(0L);
+    }
+
+    @Managed(description = "Off-heap output buffer bytes held by buffered or in flight pages")
+    public long getOffHeapOutputBufferUsedBytes()
+    {
+        return sqlTaskExecutionFactory.getOutputBufferPool().map(PageBufferPool::getUsedBytes).orElse(0L);
+    }
+
     @Managed(description = "Failed tasks counter")
     @Nested
     public CounterStat getFailedTasks()
@@ -452,6 +465,17 @@ public class SqlTaskManager
         return sqlTask.getTaskStatus(currentState);
     }
 
+    @Override
+    public void acknowledgeDynamicFilters(TaskId taskId, long dynamicFiltersVersion, String expectedTaskInstanceId)
+    {
+        requireNonNull(taskId, "taskId is null");
+
+        SqlTask sqlTask = getTaskOrCreate(expectedTaskInstanceId, taskId);
+        if (sqlTask != null) {
+            sqlTask.acknowledgeDynamicFilters(dynamicFiltersVersion);
+        }
+    }
+
     @Override
     public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions, Optional<PlanNodeId> consumer, String expectedTaskInstanceId, OptionalInt taskPriority)
     {
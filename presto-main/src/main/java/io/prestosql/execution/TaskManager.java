@@ -78,6 +78,12 @@ public interface TaskManager
      */
     ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, TaskState currentState, String expectedTaskInstanceId);
 
+    /**
+     * Removes the partial dynamic filters the coordinator received in a task status
+     * with a dynamic filters version up to {@code dynamicFiltersVersion}.
+     */
+    void acknowledgeDynamicFilters(TaskId taskId, long dynamicFiltersVersion, String expectedTaskInstanceId);
+
     void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments);
 
     /**
@@ -54,8 +54,15 @@ public class TaskManagerConfig
     private int minDriversPerTask = 3;
     private int maxDriversPerTask = Integer.MAX_VALUE;
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
+    private int ioWorkerThreads;
+    private int ioPrefetchPages = 2;
+    private boolean numaAwareSchedulingEnabled;
+    private String numaTopologyPath = "/sys/devices/system/node";
+    private boolean numaThreadPinningEnabled;
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private boolean sinkOffHeapBufferEnabled;
+    private DataSize sinkOffHeapBufferPoolSize = new DataSize(256, Unit.MEGABYTE);
     private DataSize maxPagePartitioningBufferSize = new DataSize(32, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
@@ -295,6 +302,75 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(0)
+    public int getIoWorkerThreads()
+    {
+        return ioWorkerThreads;
+    }
+
+    @Config("task.io-worker-threads")
+    @ConfigDescription("Number of threads reading page sources with blocking I/O ahead of the split processing threads, 0 disables reading ahead. " +
+            "Record cursors read ahead are processed as pages instead of through compiled cursor processors")
+    public TaskManagerConfig setIoWorkerThreads(int ioWorkerThreads)
+    {
+        this.ioWorkerThreads = ioWorkerThreads;
+        return this;
+    }
+
+    @Min(1)
+    public int getIoPrefetchPages()
+    {
+        return ioPrefetchPages;
+    }
+
+    @Config("task.io-prefetch-pages")
+    @ConfigDescription("Maximum number of pages read ahead for a split with blocking I/O")
+    public TaskManagerConfig setIoPrefetchPages(int ioPrefetchPages)
+    {
+        this.ioPrefetchPages = ioPrefetchPages;
+        return this;
+    }
+
+    public boolean isNumaAwareSchedulingEnabled()
+    {
+        return numaAwareSchedulingEnabled;
+    }
+
+    @Config("task.numa-aware-scheduling-enabled")
+    @ConfigDescription("Bind split processing threads to NUMA nodes and run splits of a task on the node holding its join build side")
+    public TaskManagerConfig setNumaAwareSchedulingEnabled(boolean numaAwareSchedulingEnabled)
+    {
+        this.numaAwareSchedulingEnabled = numaAwareSchedulingEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getNumaTopologyPath()
+    {
+        return numaTopologyPath;
+    }
+
+    @Config("task.numa-topology-path")
+    @ConfigDescription("Directory holding the nodeN/cpulist files describing the NUMA topology")
+    public TaskManagerConfig setNumaTopologyPath(String numaTopologyPath)
+    {
+        this.numaTopologyPath = numaTopologyPath;
+        return this;
+    }
+
+    public boolean isNumaThreadPinningEnabled()
+    {
+        return numaThreadPinningEnabled;
+    }
+
+    @Config("task.numa-thread-pinning-enabled")
+    @ConfigDescription("Restrict split processing threads to the CPUs of their NUMA node using taskset. Threads started by them inherit the restriction")
+    public TaskManagerConfig setNumaThreadPinningEnabled(boolean numaThreadPinningEnabled)
+    {
+        this.numaThreadPinningEnabled = numaThreadPinningEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getSinkMaxBufferSize()
     {
@@ -308,6 +384,33 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isSinkOffHeapBufferEnabled()
+    {
+        return sinkOffHeapBufferEnabled;
+    }
+
+    @Config("sink.off-heap-buffer-enabled")
+    @ConfigDescription("Hold serialized pages of output buffers in pooled off-heap buffers")
+    public TaskManagerConfig setSinkOffHeapBufferEnabled(boolean sinkOffHeapBufferEnabled)
+    {
+        this.sinkOffHeapBufferEnabled = sinkOffHeapBufferEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSinkOffHeapBufferPoolSize()
+    {
+        return sinkOffHeapBufferPoolSize;
+    }
+
+    @Config("sink.off-heap-buffer-pool-size")
+    @ConfigDescription("Maximum size of idle off-heap output buffers kept for reuse")
+    public TaskManagerConfig setSinkOffHeapBufferPoolSize(DataSize sinkOffHeapBufferPoolSize)
+    {
+        this.sinkOffHeapBufferPoolSize = sinkOffHeapBufferPoolSize;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxPagePartitioningBufferSize()
     {
@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
+import io.prestosql.dynamicfilter.TaskDynamicFilters;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import org.joda.time.DateTime;
 
@@ -57,6 +58,8 @@ public class TaskStateMachine
     @GuardedBy("this")
     private final List<TaskFailureListener> sourceTaskFailureListeners = new ArrayList<>();
     private AtomicInteger priority = new AtomicInteger(1);
+    // partial dynamic filters outlive the task execution, until they are reported to the coordinator
+    private final TaskDynamicFilters dynamicFilters = new TaskDynamicFilters();
 
     public TaskStateMachine(TaskId taskId, Executor executor)
     {
@@ -209,4 +212,9 @@ public class TaskStateMachine
     {
         return priority.get();
     }
+
+    public TaskDynamicFilters getDynamicFilters()
+    {
+        return dynamicFilters;
+    }
 }
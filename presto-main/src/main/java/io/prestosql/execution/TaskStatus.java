@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.snapshot.RestoreResult;
 import io.prestosql.snapshot.SnapshotInfo;
 
@@ -85,6 +86,11 @@ public class TaskStatus
 
     private final DataSize peakMemoryReservation;
 
+    // partial dynamic filters of the task which the coordinator has not acknowledged yet,
+    // the coordinator acknowledges them by sending back dynamicFiltersVersion
+    private final long dynamicFiltersVersion;
+    private final Map<String, SerializedDynamicFilter> dynamicFilters;
+
     @JsonCreator
     public TaskStatus(
             @JsonProperty("taskId") TaskId taskId,
@@ -106,7 +112,9 @@ public class TaskStatus
             @JsonProperty("fullGcTime") Duration fullGcTime,
             @JsonProperty("snapshotCaptureResult") Map<Long, SnapshotInfo> snapshotCaptureResult,
             @JsonProperty("snapshotRestoreResult") Optional<RestoreResult> snapshotRestoreResult,
-            @JsonProperty("peakMemoryReservation") DataSize peakMemoryReservation)
+            @JsonProperty("peakMemoryReservation") DataSize peakMemoryReservation,
+            @JsonProperty("dynamicFiltersVersion") long dynamicFiltersVersion,
+            @JsonProperty("dynamicFilters") Map<String, SerializedDynamicFilter> dynamicFilters)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.confirmationInstanceId = requireNonNull(confirmationInstanceId, "confirmationInstanceId is null");
@@ -141,6 +149,10 @@ public class TaskStatus
         this.snapshotRestoreResult = snapshotRestoreResult;
 
         this.peakMemoryReservation = requireNonNull(peakMemoryReservation, "peakMemoryReservation is null");
+
+        checkArgument(dynamicFiltersVersion >= 0, "dynamicFiltersVersion is negative");
+        this.dynamicFiltersVersion = dynamicFiltersVersion;
+        this.dynamicFilters = ImmutableMap.copyOf(requireNonNull(dynamicFilters, "dynamicFilters is null"));
     }
 
     @JsonProperty
@@ -263,6 +275,18 @@ public class TaskStatus
         return peakMemoryReservation;
     }
 
+    @JsonProperty
+    public long getDynamicFiltersVersion()
+    {
+        return dynamicFiltersVersion;
+    }
+
+    @JsonProperty
+    public Map<String, SerializedDynamicFilter> getDynamicFilters()
+    {
+        return dynamicFilters;
+    }
+
     @Override
     public String toString()
     {
@@ -299,7 +323,9 @@ public class TaskStatus
                 new Duration(0, MILLISECONDS),
                 ImmutableMap.of(),
                 Optional.empty(),
-                new DataSize(0, BYTE));
+                new DataSize(0, BYTE),
+                0,
+                ImmutableMap.of());
     }
 
     public static TaskStatus failWith(TaskStatus taskStatus, TaskState state, List<ExecutionFailureInfo> exceptions)
@@ -324,6 +350,8 @@ public class TaskStatus
                 taskStatus.getFullGcTime(),
                 taskStatus.snapshotCaptureResult,
                 taskStatus.snapshotRestoreResult,
-                taskStatus.getPeakMemoryReservation());
+                taskStatus.getPeakMemoryReservation(),
+                taskStatus.getDynamicFiltersVersion(),
+                taskStatus.getDynamicFilters());
     }
 }
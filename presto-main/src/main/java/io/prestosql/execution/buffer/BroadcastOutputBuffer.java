@@ -208,6 +208,8 @@ public class BroadcastOutputBuffer
         // ignore pages after "no more pages" is set
         // this can happen with a limit query
         if (!stateMachine.getState().canAddPages()) {
+            // the pages will never be buffered, so return any pooled buffers now
+            pages.forEach(SerializedPage::release);
             return;
         }
 
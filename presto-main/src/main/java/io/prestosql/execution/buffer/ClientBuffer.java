@@ -298,7 +298,10 @@ class ClientBuffer
         }
 
         BufferResult bufferResult = processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize());
-        pendingRead.getResultFuture().set(bufferResult);
+        if (!pendingRead.getResultFuture().set(bufferResult)) {
+            // the read was cancelled or timed out concurrently, so nobody will send these pages
+            bufferResult.getSerializedPages().forEach(SerializedPage::release);
+        }
     }
 
     /**
@@ -360,6 +363,9 @@ class ClientBuffer
             }
             result.add(page.getSerializedPage());
         }
+        // pooled pages stay valid until the response carrying them has been written, even if they are acknowledged or
+        // the buffer is destroyed in the meantime; the page is still referenced by this buffer while the lock is held
+        result.forEach(SerializedPage::retain);
         return new BufferResult(sequenceId, sequenceId + result.size(), false, result);
     }
 
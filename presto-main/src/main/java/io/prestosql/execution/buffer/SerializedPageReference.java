@@ -66,6 +66,8 @@ class SerializedPageReference
         checkState(remainingReferences >= 0, "Page reference count is negative");
 
         if (remainingReferences == 0) {
+            // the page is no longer buffered, so a pooled buffer can be reused once in flight responses release it too
+            serializedPage.release();
             onDereference.run();
         }
     }
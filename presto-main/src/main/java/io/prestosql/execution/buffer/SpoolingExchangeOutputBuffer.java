@@ -218,6 +218,8 @@ public class SpoolingExchangeOutputBuffer
     {
         requireNonNull(pages, "pages is null");
         if (!stateMachine.getState().canAddPages()) {
+            // the pages will never be written to the sink, so return any pooled buffers now
+            pages.forEach(SerializedPage::release);
             return;
         }
         ExchangeSink sink = exchangeSink;
@@ -228,6 +230,8 @@ public class SpoolingExchangeOutputBuffer
             SerializedPageSerde.serialize(output, page);
             sink.add(partition, Slices.wrappedBuffer(output.getBuffer()));
             totalRowsAdded.addAndGet(getSerializedPagePositionCount(page.getSlice()));
+            // the page has been copied into the sink
+            page.release();
         }
         updateMemoryUsage(sink.getMemoryUsage());
         totalPagesAdded.addAndGet(pages.size());
@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.concurrent.ThreadPoolExecutorMBean;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskManagerConfig;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Bounded thread pool reading page sources with blocking I/O ahead of the split processing threads of
+ * the {@link TaskExecutor}. The split of such a page source is blocked while no page has been read,
+ * instead of waiting for the read on a task processor thread, so the {@link MultilevelSplitQueue} only
+ * schedules the split when there is a page to process and only the processing counts as its scheduled time.
+ */
+@ThreadSafe
+public class IoSplitLane
+{
+    private final int ioThreads;
+    private final int prefetchPages;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutorMBean executorMBean;
+
+    private final AtomicInteger activeReads = new AtomicInteger();
+    private final AtomicInteger prefetchingSplits = new AtomicInteger();
+
+    private final TimeStat readQueuedTime = new TimeStat(MICROSECONDS);
+    private final TimeStat readTime = new TimeStat(MICROSECONDS);
+    private final TimeStat splitBlockedTime = new TimeStat(MICROSECONDS);
+    private final CounterStat prefetchedPages = new CounterStat();
+
+    @Inject
+    public IoSplitLane(TaskManagerConfig config)
+    {
+        this(config.getIoWorkerThreads(), config.getIoPrefetchPages());
+    }
+
+    @VisibleForTesting
+    public IoSplitLane(int ioThreads, int prefetchPages)
+    {
+        checkArgument(ioThreads >= 0, "ioThreads is negative");
+        checkArgument(prefetchPages > 0, "prefetchPages must be at least 1");
+        this.ioThreads = ioThreads;
+        this.prefetchPages = prefetchPages;
+        // threads are only started for the reads, so a disabled lane does not create any
+        this.executor = new ThreadPoolExecutor(max(ioThreads, 1), max(ioThreads, 1), 60, SECONDS, new LinkedBlockingQueue<>(), daemonThreadsNamed("task-io-%s"));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executorMBean = new ThreadPoolExecutorMBean(executor);
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns a page source reading the given one ahead on this lane if it declares blocking I/O,
+     * otherwise returns the given page source
+     */
+    public ConnectorPageSource prefetch(ConnectorPageSource pageSource)
+    {
+        if (ioThreads == 0 || !pageSource.hasBlockingIo()) {
+            return pageSource;
+        }
+        return new PrefetchingPageSource(pageSource, this, prefetchPages);
+    }
+
+    void submitRead(Runnable read)
+    {
+        long submittedNanos = System.nanoTime();
+        executor.execute(() -> {
+            readQueuedTime.add(Duration.nanosSince(submittedNanos));
+            activeReads.incrementAndGet();
+            try {
+                read.run();
+            }
+            finally {
+                activeReads.decrementAndGet();
+            }
+        });
+    }
+
+    void recordRead(long readNanos, boolean producedPage)
+    {
+        readTime.add(Duration.succinctNanos(readNanos));
+        if (producedPage) {
+            prefetchedPages.update(1);
+        }
+    }
+
+    void recordSplitBlocked(long blockedNanos)
+    {
+        splitBlockedTime.add(Duration.succinctNanos(blockedNanos));
+    }
+
+    void splitStarted()
+    {
+        prefetchingSplits.incrementAndGet();
+    }
+
+    void splitFinished()
+    {
+        prefetchingSplits.decrementAndGet();
+    }
+
+    @Managed
+    public int getIoThreads()
+    {
+        return ioThreads;
+    }
+
+    @Managed
+    public int getActiveReads()
+    {
+        return activeReads.get();
+    }
+
+    @Managed
+    public int getQueuedReads()
+    {
+        return executor.getQueue().size();
+    }
+
+    @Managed
+    public int getPrefetchingSplits()
+    {
+        return prefetchingSplits.get();
+    }
+
+    @Managed(description = "Fraction of the I/O threads currently reading")
+    public double getUtilization()
+    {
+        if (ioThreads == 0) {
+            return 0;
+        }
+        return (double) activeReads.get() / ioThreads;
+    }
+
+    @Managed(description = "Time a read waited for an I/O thread")
+    @Nested
+    public TimeStat getReadQueuedTime()
+    {
+        return readQueuedTime;
+    }
+
+    @Managed(description = "Wall time of the reads on the I/O threads")
+    @Nested
+    public TimeStat getReadTime()
+    {
+        return readTime;
+    }
+
+    @Managed(description = "Time a split waited for a page read ahead")
+    @Nested
+    public TimeStat getSplitBlockedTime()
+    {
+        return splitBlockedTime;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPrefetchedPages()
+    {
+        return prefetchedPages;
+    }
+
+    @Managed(description = "I/O lane executor")
+    @Nested
+    public ThreadPoolExecutorMBean getIoExecutor()
+    {
+        return executorMBean;
+    }
+}
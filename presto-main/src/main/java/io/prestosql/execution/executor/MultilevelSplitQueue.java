@@ -26,8 +26,10 @@ import javax.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -44,7 +46,10 @@ public class MultilevelSplitQueue
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
     @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final List<TreeSet<PrioritizedSplitRunner>> levelWaitingSplits;
+    // the waiting splits of each level keyed by the NUMA node their task preferred when they were offered (-1 for none)
+    @GuardedBy("lock")
+    private final List<Map<Integer, TreeSet<PrioritizedSplitRunner>>> levelNodeWaitingSplits;
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
@@ -66,12 +71,14 @@ public class MultilevelSplitQueue
     {
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
         this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+        this.levelNodeWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplits.add(new TreeSet<>());
+            levelNodeWaitingSplits.add(new HashMap<>());
             counters.add(new CounterStat());
         }
 
@@ -114,7 +121,8 @@ public class MultilevelSplitQueue
                 levelScheduledTime[level].addAndGet(delta);
             }
 
-            levelWaitingSplits.get(level).offer(split);
+            levelWaitingSplits.get(level).add(split);
+            levelNodeWaitingSplits.get(level).computeIfAbsent(split.getTaskHandle().getPreferredNumaNode(), node -> new TreeSet<>()).add(split);
             notEmpty.signal();
         }
         finally {
@@ -124,12 +132,29 @@ public class MultilevelSplitQueue
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
+    {
+        return take(-1);
+    }
+
+    /**
+     * Takes the next split for a runner thread bound to the given NUMA node. The level is
+     * chosen exactly as in {@link #take()}, so cross-level fairness is unaffected; within
+     * that level the lowest priority split of a task preferring {@code numaNode} (or having
+     * no preference) is returned. When the level only holds splits preferring other nodes
+     * the head of the level is stolen so that no runner thread idles while work is queued.
+     * Splits are indexed by the preference of their task at the time they were offered; as
+     * splits are offered again after every quantum, a changed preference is picked up quickly.
+     *
+     * @param numaNode the node of the calling runner thread, or -1 to take any split
+     */
+    public PrioritizedSplitRunner take(int numaNode)
+            throws InterruptedException
     {
         while (true) {
             lock.lockInterruptibly();
             try {
                 PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
+                while ((result = pollSplit(numaNode)) == null) {
                     notEmpty.await();
                 }
 
@@ -159,7 +184,7 @@ public class MultilevelSplitQueue
      * we pick the split with the lowest priority.
      */
     @GuardedBy("lock")
-    private PrioritizedSplitRunner pollSplit()
+    private PrioritizedSplitRunner pollSplit(int numaNode)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
@@ -181,12 +206,56 @@ public class MultilevelSplitQueue
             return null;
         }
 
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
+        TreeSet<PrioritizedSplitRunner> levelSplits = levelWaitingSplits.get(selectedLevel);
+        checkState(!levelSplits.isEmpty(), "pollSplit cannot return null");
+        PrioritizedSplitRunner result = levelSplits.first();
 
+        if (numaNode >= 0 && !isPreferredOn(result, numaNode)) {
+            Map<Integer, TreeSet<PrioritizedSplitRunner>> nodeSplits = levelNodeWaitingSplits.get(selectedLevel);
+            PrioritizedSplitRunner local = lowest(first(nodeSplits.get(numaNode)), first(nodeSplits.get(-1)));
+            if (local != null) {
+                result = local;
+            }
+        }
+
+        levelSplits.remove(result);
+        removeFromNodeIndex(selectedLevel, result);
         return result;
     }
 
+    private static boolean isPreferredOn(PrioritizedSplitRunner split, int numaNode)
+    {
+        int preferredNode = split.getTaskHandle().getPreferredNumaNode();
+        return preferredNode < 0 || preferredNode == numaNode;
+    }
+
+    private static PrioritizedSplitRunner first(TreeSet<PrioritizedSplitRunner> splits)
+    {
+        return splits == null || splits.isEmpty() ? null : splits.first();
+    }
+
+    private static PrioritizedSplitRunner lowest(PrioritizedSplitRunner left, PrioritizedSplitRunner right)
+    {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        return left.compareTo(right) <= 0 ? left : right;
+    }
+
+    @GuardedBy("lock")
+    private void removeFromNodeIndex(int level, PrioritizedSplitRunner split)
+    {
+        // the preference of the task may have changed since the split was offered
+        for (TreeSet<PrioritizedSplitRunner> nodeSplits : levelNodeWaitingSplits.get(level).values()) {
+            if (nodeSplits.remove(split)) {
+                return;
+            }
+        }
+    }
+
     @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
@@ -250,8 +319,10 @@ public class MultilevelSplitQueue
         checkArgument(split != null, "split is null");
         lock.lock();
         try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                if (levelWaitingSplits.get(level).remove(split)) {
+                    removeFromNodeIndex(level, split);
+                }
             }
         }
         finally {
@@ -263,8 +334,11 @@ public class MultilevelSplitQueue
     {
         lock.lock();
         try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                levelWaitingSplits.get(level).removeAll(splits);
+                for (TreeSet<PrioritizedSplitRunner> nodeSplits : levelNodeWaitingSplits.get(level).values()) {
+                    nodeSplits.removeAll(splits);
+                }
             }
         }
         finally {
@@ -283,7 +357,7 @@ public class MultilevelSplitQueue
         lock.lock();
         try {
             int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
+            for (TreeSet<PrioritizedSplitRunner> level : levelWaitingSplits) {
                 total += level.size();
             }
             return total;
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import io.airlift.log.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * NUMA layout of the machine as exposed by Linux under {@code /sys/devices/system/node}.
+ * The topology is read from a directory containing {@code nodeN/cpulist} files so that tests
+ * can point it at a simulated layout. Machines without that directory are treated as a
+ * single node holding every available processor.
+ */
+public final class NumaTopology
+{
+    private static final Logger log = Logger.get(NumaTopology.class);
+
+    public static final String DEFAULT_NODES_PATH = "/sys/devices/system/node";
+
+    private static final Pattern NODE_DIRECTORY = Pattern.compile("node(\\d+)");
+    private static final ThreadLocal<Integer> CURRENT_NODE = new ThreadLocal<>();
+
+    private final List<SortedSet<Integer>> nodeCpus;
+
+    public NumaTopology(List<SortedSet<Integer>> nodeCpus)
+    {
+        requireNonNull(nodeCpus, "nodeCpus is null");
+        checkArgument(!nodeCpus.isEmpty(), "nodeCpus is empty");
+        this.nodeCpus = ImmutableList.copyOf(nodeCpus);
+    }
+
+    public static NumaTopology singleNode()
+    {
+        ImmutableSortedSet.Builder<Integer> cpus = ImmutableSortedSet.naturalOrder();
+        for (int cpu = 0; cpu < Runtime.getRuntime().availableProcessors(); cpu++) {
+            cpus.add(cpu);
+        }
+        return new NumaTopology(ImmutableList.of(cpus.build()));
+    }
+
+    public static NumaTopology load(Path nodesDirectory)
+    {
+        requireNonNull(nodesDirectory, "nodesDirectory is null");
+        if (!Files.isDirectory(nodesDirectory)) {
+            return singleNode();
+        }
+
+        Map<Integer, SortedSet<Integer>> nodes = new TreeMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(nodesDirectory)) {
+            for (Path entry : entries) {
+                Matcher matcher = NODE_DIRECTORY.matcher(entry.getFileName().toString());
+                Path cpuList = entry.resolve("cpulist");
+                if (matcher.matches() && Files.isRegularFile(cpuList)) {
+                    SortedSet<Integer> cpus = parseCpuList(new String(Files.readAllBytes(cpuList), UTF_8));
+                    if (!cpus.isEmpty()) {
+                        nodes.put(parseInt(matcher.group(1)), cpus);
+                    }
+                }
+            }
+        }
+        catch (IOException | IllegalArgumentException e) {
+            log.warn(e, "Failed to read NUMA topology from %s, assuming a single node", nodesDirectory);
+            return singleNode();
+        }
+
+        if (nodes.isEmpty()) {
+            return singleNode();
+        }
+        // node ids may be sparse (e.g. memory-only nodes are skipped), so renumber them densely
+        return new NumaTopology(ImmutableList.copyOf(nodes.values()));
+    }
+
+    /**
+     * Parses the Linux cpu list format, e.g. {@code 0-3,8-11}.
+     */
+    @VisibleForTesting
+    static SortedSet<Integer> parseCpuList(String cpuList)
+    {
+        ImmutableSortedSet.Builder<Integer> cpus = ImmutableSortedSet.naturalOrder();
+        for (String range : cpuList.trim().split(",")) {
+            if (range.isEmpty()) {
+                continue;
+            }
+            int dash = range.indexOf('-');
+            try {
+                if (dash < 0) {
+                    cpus.add(parseInt(range));
+                }
+                else {
+                    int first = parseInt(range.substring(0, dash));
+                    int last = parseInt(range.substring(dash + 1));
+                    checkArgument(first <= last, "Invalid cpu range: %s", range);
+                    for (int cpu = first; cpu <= last; cpu++) {
+                        cpus.add(cpu);
+                    }
+                }
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cpu list: " + cpuList, e);
+            }
+        }
+        return cpus.build();
+    }
+
+    public int getNodeCount()
+    {
+        return nodeCpus.size();
+    }
+
+    public SortedSet<Integer> getCpus(int node)
+    {
+        return nodeCpus.get(node);
+    }
+
+    /**
+     * Restricts the calling thread to the processors of the given node. The JDK has no
+     * affinity API, so this relies on {@code taskset} being installed; failures are logged
+     * and leave the thread unpinned. Note that Linux threads inherit the affinity of the
+     * thread creating them.
+     */
+    public boolean pinCurrentThread(int node)
+    {
+        String cpus = Joiner.on(',').join(getCpus(node));
+        try {
+            // /proc/thread-self links to /proc/<pid>/task/<tid>
+            String threadId = Files.readSymbolicLink(Paths.get("/proc/thread-self")).getFileName().toString();
+            Process process = new ProcessBuilder("taskset", "-p", "-c", cpus, threadId)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.to(new File("/dev/null")))
+                    .start();
+            if (process.waitFor() == 0) {
+                return true;
+            }
+            log.warn("taskset exited with %s while pinning thread %s to NUMA node %s", process.exitValue(), threadId, node);
+        }
+        catch (IOException | UnsupportedOperationException e) {
+            log.warn("Unable to pin thread to NUMA node %s: %s", node, e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    static void setCurrentThreadNode(int node)
+    {
+        CURRENT_NODE.set(node);
+    }
+
+    static void clearCurrentThreadNode()
+    {
+        CURRENT_NODE.remove();
+    }
+
+    /**
+     * Returns the NUMA node the calling runner thread is bound to, or -1 if the thread is
+     * not a node-bound runner thread.
+     */
+    public static int getCurrentThreadNode()
+    {
+        Integer node = CURRENT_NODE.get();
+        return node == null ? -1 : node;
+    }
+}
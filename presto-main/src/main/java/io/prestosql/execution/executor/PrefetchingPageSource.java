@@ -0,0 +1,348 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import io.airlift.log.Logger;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
+import io.prestosql.spi.metrics.Metrics;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the pages of a page source with blocking I/O on the {@link IoSplitLane} into a small queue.
+ * The split processing threads only take the pages which were read already, and are blocked on
+ * {@link #isBlocked()} while the queue is empty.
+ * <p>
+ * The delegate is only used by the lane while a read is in progress. Its memory usage is sampled
+ * by the reads, and dynamic filters are handed to it by the next read.
+ */
+@ThreadSafe
+class PrefetchingPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(PrefetchingPageSource.class);
+
+    private final ConnectorPageSource delegate;
+    private final IoSplitLane ioLane;
+    private final int maxBufferedPages;
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    // a read is running or waiting on the lane, only that read may use the delegate
+    @GuardedBy("this")
+    private boolean reading;
+    @GuardedBy("this")
+    private boolean delegateFinished;
+    @GuardedBy("this")
+    private boolean closed;
+    @GuardedBy("this")
+    private Throwable failure;
+    @GuardedBy("this")
+    private CompletableFuture<?> pagesAvailable = CompletableFuture.completedFuture(null);
+    @GuardedBy("this")
+    private long blockedSinceNanos;
+    // set until the next read applies it to the delegate
+    @GuardedBy("this")
+    private Optional<DynamicFilterSupplier> pendingDynamicFilter;
+    @GuardedBy("this")
+    private long delegateMemoryUsage;
+    @GuardedBy("this")
+    private long delegateSystemMemoryUsage;
+
+    PrefetchingPageSource(ConnectorPageSource delegate, IoSplitLane ioLane, int maxBufferedPages)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.ioLane = requireNonNull(ioLane, "ioLane is null");
+        this.maxBufferedPages = maxBufferedPages;
+        ioLane.splitStarted();
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public OptionalLong getCompletedPositions()
+    {
+        return delegate.getCompletedPositions();
+    }
+
+    @Override
+    public OptionalLong getCompletedPositionCount()
+    {
+        return delegate.getCompletedPositionCount();
+    }
+
+    @Override
+    public synchronized boolean isFinished()
+    {
+        throwIfFailed();
+        return closed || (delegateFinished && pages.isEmpty());
+    }
+
+    @Override
+    public synchronized Page getNextPage()
+    {
+        throwIfFailed();
+        Page page = pages.poll();
+        if (page != null) {
+            bufferedBytes -= page.getRetainedSizeInBytes();
+        }
+        startReadIfNecessary();
+        return page;
+    }
+
+    @Override
+    public synchronized CompletableFuture<?> isBlocked()
+    {
+        if (closed || failure != null || delegateFinished || !pages.isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        startReadIfNecessary();
+        if (pagesAvailable.isDone()) {
+            pagesAvailable = new CompletableFuture<>();
+            blockedSinceNanos = System.nanoTime();
+        }
+        return pagesAvailable;
+    }
+
+    @Override
+    public synchronized long getMemoryUsage()
+    {
+        return delegateMemoryUsage + bufferedBytes;
+    }
+
+    @Override
+    public synchronized long getSystemMemoryUsage()
+    {
+        return delegateSystemMemoryUsage + bufferedBytes;
+    }
+
+    @Override
+    public boolean needMergingForPages()
+    {
+        return delegate.needMergingForPages();
+    }
+
+    @Override
+    public Metrics getMetrics()
+    {
+        return delegate.getMetrics();
+    }
+
+    @Override
+    public synchronized void setDynamicFilter(Optional<DynamicFilterSupplier> dynamicFilterSupplier)
+    {
+        pendingDynamicFilter = requireNonNull(dynamicFilterSupplier, "dynamicFilterSupplier is null");
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        boolean closeDelegate;
+        CompletableFuture<?> blocked;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pages.clear();
+            bufferedBytes = 0;
+            // a running read closes the delegate when it returns
+            closeDelegate = !reading;
+            blocked = pagesAvailable;
+        }
+        blocked.complete(null);
+        ioLane.splitFinished();
+        if (closeDelegate) {
+            delegate.close();
+        }
+    }
+
+    @GuardedBy("this")
+    private void startReadIfNecessary()
+    {
+        if (reading || closed || failure != null || delegateFinished || pages.size() >= maxBufferedPages) {
+            return;
+        }
+        reading = true;
+        try {
+            ioLane.submitRead(this::read);
+        }
+        catch (RejectedExecutionException e) {
+            reading = false;
+            failure = e;
+        }
+    }
+
+    private void read()
+    {
+        while (true) {
+            Optional<DynamicFilterSupplier> dynamicFilter;
+            synchronized (this) {
+                if (closed) {
+                    reading = false;
+                    break;
+                }
+                if (pages.size() >= maxBufferedPages) {
+                    reading = false;
+                    return;
+                }
+                dynamicFilter = pendingDynamicFilter;
+                pendingDynamicFilter = null;
+            }
+
+            CompletableFuture<?> delegateBlocked;
+            try {
+                if (dynamicFilter != null) {
+                    delegate.setDynamicFilter(dynamicFilter);
+                }
+                delegateBlocked = delegate.isBlocked();
+            }
+            catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            if (!delegateBlocked.isDone()) {
+                // the read stays in progress and continues on the lane once the delegate is unblocked
+                delegateBlocked.whenComplete((ignored, throwable) -> resumeRead());
+                return;
+            }
+
+            Page page;
+            boolean finished;
+            long memoryUsage;
+            long systemMemoryUsage;
+            long start = System.nanoTime();
+            try {
+                page = delegate.getNextPage();
+                if (page != null) {
+                    // load lazy blocks here, they may read from the same source
+                    page = page.getLoadedPage();
+                }
+                finished = delegate.isFinished();
+                memoryUsage = delegate.getMemoryUsage();
+                systemMemoryUsage = delegate.getSystemMemoryUsage();
+            }
+            catch (Throwable t) {
+                fail(t);
+                return;
+            }
+            ioLane.recordRead(System.nanoTime() - start, page != null);
+
+            CompletableFuture<?> unblocked = null;
+            synchronized (this) {
+                if (closed) {
+                    reading = false;
+                    break;
+                }
+                if (page != null) {
+                    pages.add(page);
+                    bufferedBytes += page.getRetainedSizeInBytes();
+                }
+                delegateFinished = finished;
+                delegateMemoryUsage = memoryUsage;
+                delegateSystemMemoryUsage = systemMemoryUsage;
+                if ((page != null || finished) && !pagesAvailable.isDone()) {
+                    unblocked = pagesAvailable;
+                    ioLane.recordSplitBlocked(System.nanoTime() - blockedSinceNanos);
+                }
+                if (finished) {
+                    reading = false;
+                }
+            }
+            // complete outside of the lock, the listeners schedule the split again
+            if (unblocked != null) {
+                unblocked.complete(null);
+            }
+            if (finished) {
+                return;
+            }
+        }
+        closeDelegate();
+    }
+
+    private void resumeRead()
+    {
+        try {
+            ioLane.submitRead(this::read);
+        }
+        catch (RejectedExecutionException e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Throwable throwable)
+    {
+        CompletableFuture<?> blocked;
+        boolean closeDelegate;
+        synchronized (this) {
+            reading = false;
+            failure = throwable;
+            blocked = pagesAvailable;
+            closeDelegate = closed;
+        }
+        // the failure is thrown to the split the next time it reads
+        blocked.complete(null);
+        if (closeDelegate) {
+            closeDelegate();
+        }
+    }
+
+    private void closeDelegate()
+    {
+        try {
+            delegate.close();
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn(e, "Error closing page source");
+        }
+    }
+
+    @GuardedBy("this")
+    private void throwIfFailed()
+    {
+        if (failure != null) {
+            throwIfUnchecked(failure);
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, failure);
+        }
+    }
+}
@@ -39,6 +39,7 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -56,9 +57,11 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -69,11 +72,14 @@ import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.prestosql.execution.executor.MultilevelSplitQueue.computeLevel;
 import static io.prestosql.util.MoreMath.min;
 import static java.lang.String.format;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.IntStream.range;
 
 @ThreadSafe
 public class TaskExecutor
@@ -96,6 +102,12 @@ public class TaskExecutor
 
     private final Ticker ticker;
 
+    private final NumaTopology numaTopology;
+    private final boolean numaThreadPinningEnabled;
+    private final AtomicIntegerArray runningSplitsPerNode;
+    private final CounterStat numaLocalSplits = new CounterStat();
+    private final CounterStat numaRemoteSplits = new CounterStat();
+
     private final ScheduledExecutorService splitMonitorExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("TaskExecutor"));
     private final SortedSet<RunningSplitInfo> runningSplitInfos = new ConcurrentSkipListSet<>();
 
@@ -171,7 +183,9 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
-                Ticker.systemTicker());
+                Ticker.systemTicker(),
+                config.isNumaAwareSchedulingEnabled() ? NumaTopology.load(Paths.get(config.getNumaTopologyPath())) : NumaTopology.singleNode(),
+                config.isNumaAwareSchedulingEnabled() && config.isNumaThreadPinningEnabled());
     }
 
     @VisibleForTesting
@@ -195,6 +209,21 @@ public class TaskExecutor
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
             Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, embedVersion, splitQueue, ticker, NumaTopology.singleNode(), false);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(
+            int runnerThreads,
+            int minDrivers,
+            int guaranteedNumberOfDriversPerTask,
+            int maximumNumberOfDriversPerTask,
+            EmbedVersion embedVersion,
+            MultilevelSplitQueue splitQueue,
+            Ticker ticker,
+            NumaTopology numaTopology,
+            boolean numaThreadPinningEnabled)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
         checkArgument(guaranteedNumberOfDriversPerTask > 0, "guaranteedNumberOfDriversPerTask must be at least 1");
@@ -215,6 +244,9 @@ public class TaskExecutor
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
         this.tasks = new LinkedList<>();
         this.suspendedTasks = new LinkedList<>();
+        this.numaTopology = requireNonNull(numaTopology, "numaTopology is null");
+        this.numaThreadPinningEnabled = numaThreadPinningEnabled;
+        this.runningSplitsPerNode = new AtomicIntegerArray(numaTopology.getNodeCount());
     }
 
     @PostConstruct
@@ -222,7 +254,8 @@ public class TaskExecutor
     {
         checkState(!closed, "TaskExecutor is closed");
         for (int i = 0; i < runnerThreads; i++) {
-            addRunnerThread();
+            // spread runner threads evenly across the NUMA nodes
+            addRunnerThread(i % numaTopology.getNodeCount());
         }
     }
 
@@ -247,10 +280,10 @@ public class TaskExecutor
                 .toString();
     }
 
-    private synchronized void addRunnerThread()
+    private synchronized void addRunnerThread(int numaNode)
     {
         try {
-            executor.execute(embedVersion.embedVersion(new TaskRunner()));
+            executor.execute(embedVersion.embedVersion(new TaskRunner(numaNode)));
         }
         catch (RejectedExecutionException ignored) {
         }
@@ -263,6 +296,18 @@ public class TaskExecutor
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask,
             int queryPriorityTag)
+    {
+        return addTask(taskId, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, queryPriorityTag, () -> -1);
+    }
+
+    public synchronized TaskHandle addTask(
+            TaskId taskId,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            OptionalInt maxDriversPerTask,
+            int queryPriorityTag,
+            IntSupplier preferredNumaNodeSupplier)
     {
         requireNonNull(taskId, "taskId is null");
         requireNonNull(utilizationSupplier, "utilizationSupplier is null");
@@ -271,7 +316,7 @@ public class TaskExecutor
 
         log.debug("Task scheduled " + taskId);
 
-        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, queryPriorityTag);
+        TaskHandle taskHandle = new TaskHandle(taskId, waitingSplits, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, queryPriorityTag, preferredNumaNodeSupplier);
 
         tasks.add(taskHandle);
         return taskHandle;
@@ -526,27 +571,54 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        private final int numaNode;
+        private final boolean numaAware;
+
+        private TaskRunner(int numaNode)
+        {
+            this.numaNode = numaNode;
+            this.numaAware = numaTopology.getNodeCount() > 1;
+        }
 
         @Override
         public void run()
         {
             try (SetThreadName runnerName = new SetThreadName("SplitRunner-%s", runnerId)) {
+                if (numaAware) {
+                    NumaTopology.setCurrentThreadNode(numaNode);
+                    if (numaThreadPinningEnabled) {
+                        // threads lazily started from this thread, e.g. by shared pools, inherit the affinity
+                        numaTopology.pinCurrentThread(numaNode);
+                    }
+                }
+
                 while (!closed && !Thread.currentThread().isInterrupted()) {
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = numaAware ? waitingSplits.take(numaNode) : waitingSplits.take();
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                         return;
                     }
 
+                    if (numaAware) {
+                        int preferredNode = split.getTaskHandle().getPreferredNumaNode();
+                        if (preferredNode == numaNode) {
+                            numaLocalSplits.update(1);
+                        }
+                        else if (preferredNode >= 0) {
+                            numaRemoteSplits.update(1);
+                        }
+                    }
+
                     String threadId = split.getTaskHandle().getTaskId() + "-" + split.getSplitId();
                     try (SetThreadName splitName = new SetThreadName(threadId)) {
                         RunningSplitInfo splitInfo = new RunningSplitInfo(ticker.read(), threadId, Thread.currentThread());
                         runningSplitInfos.add(splitInfo);
                         runningSplits.add(split);
+                        runningSplitsPerNode.incrementAndGet(numaNode);
 
                         ListenableFuture<?> blocked;
                         try {
@@ -555,6 +627,7 @@ public class TaskExecutor
                         finally {
                             runningSplitInfos.remove(splitInfo);
                             runningSplits.remove(split);
+                            runningSplitsPerNode.decrementAndGet(numaNode);
                         }
 
                         if (split.isFinished()) {
@@ -594,9 +667,11 @@ public class TaskExecutor
                 }
             }
             finally {
+                // pooled threads are reused for blocked split listeners, which are not bound to a node
+                NumaTopology.clearCurrentThreadNode();
                 // unless we have been closed, we need to replace this thread
                 if (!closed) {
-                    addRunnerThread();
+                    addRunnerThread(numaNode);
                 }
             }
         }
@@ -654,6 +729,48 @@ public class TaskExecutor
         return blockedSplits.size();
     }
 
+    @Managed(description = "Fraction of the runner threads currently processing a split")
+    public double getRunnerUtilization()
+    {
+        return (double) runningSplits.size() / runnerThreads;
+    }
+
+    @Managed
+    public int getNumaNodes()
+    {
+        return numaTopology.getNodeCount();
+    }
+
+    @Managed(description = "Fraction of the runner threads of each NUMA node currently processing a split")
+    public String getNumaNodeUtilization()
+    {
+        int nodes = numaTopology.getNodeCount();
+        return range(0, nodes)
+                .mapToObj(node -> format(ENGLISH, "%s=%.2f", node, (double) runningSplitsPerNode.get(node) / getNodeRunnerThreads(node)))
+                .collect(joining(", "));
+    }
+
+    private int getNodeRunnerThreads(int numaNode)
+    {
+        // runner threads are assigned round-robin, so the first nodes may have one more thread
+        int nodes = numaTopology.getNodeCount();
+        return Math.max(1, runnerThreads / nodes + (numaNode < runnerThreads % nodes ? 1 : 0));
+    }
+
+    @Managed(description = "Split quanta run on the NUMA node preferred by their task")
+    @Nested
+    public CounterStat getNumaLocalSplits()
+    {
+        return numaLocalSplits;
+    }
+
+    @Managed(description = "Split quanta run away from the NUMA node preferred by their task")
+    @Nested
+    public CounterStat getNumaRemoteSplits()
+    {
+        return numaRemoteSplits;
+    }
+
     @Managed
     public long getCompletedTasksLevel0()
     {
@@ -30,6 +30,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
@@ -64,6 +65,9 @@ public class TaskHandle
 
     private int queryPriorityTag;
 
+    // NUMA node this task's splits prefer to run on, or -1 when it has no preference
+    private final IntSupplier preferredNumaNodeSupplier;
+
     public TaskHandle(
             TaskId taskId,
             MultilevelSplitQueue splitQueue,
@@ -72,6 +76,19 @@ public class TaskHandle
             Duration splitConcurrencyAdjustFrequency,
             OptionalInt maxDriversPerTask,
             int queryPriorityTag)
+    {
+        this(taskId, splitQueue, utilizationSupplier, initialSplitConcurrency, splitConcurrencyAdjustFrequency, maxDriversPerTask, queryPriorityTag, () -> -1);
+    }
+
+    public TaskHandle(
+            TaskId taskId,
+            MultilevelSplitQueue splitQueue,
+            DoubleSupplier utilizationSupplier,
+            int initialSplitConcurrency,
+            Duration splitConcurrencyAdjustFrequency,
+            OptionalInt maxDriversPerTask,
+            int queryPriorityTag,
+            IntSupplier preferredNumaNodeSupplier)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.splitQueue = requireNonNull(splitQueue, "splitQueue is null");
@@ -81,6 +98,7 @@ public class TaskHandle
                 initialSplitConcurrency,
                 requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null"));
         this.queryPriorityTag = queryPriorityTag;
+        this.preferredNumaNodeSupplier = requireNonNull(preferredNumaNodeSupplier, "preferredNumaNodeSupplier is null");
     }
 
     public synchronized Priority addScheduledNanos(long durationNanos)
@@ -121,6 +139,11 @@ public class TaskHandle
         return taskId;
     }
 
+    public int getPreferredNumaNode()
+    {
+        return preferredNumaNodeSupplier.getAsInt();
+    }
+
     public OptionalInt getMaxDriversPerTask()
     {
         return maxDriversPerTask;
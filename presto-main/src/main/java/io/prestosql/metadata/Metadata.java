@@ -53,6 +53,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.function.LongSupplier;
@@ -631,6 +632,11 @@ public interface Metadata
 
     PartialAndFinalAggregationType validateAndGetSortAggregationType(Session session, TableHandle tableHandle, List<String> keyNames);
 
+    /**
+     * Returns the bucket count of the table if each of its buckets is read as a single split sorted ascending on the given columns.
+     */
+    OptionalInt getSortedBucketCount(Session session, TableHandle tableHandle, List<String> columnNames);
+
     void refreshMetadataCache(Session session, Optional<String> catalogName);
 
     default BeginTableExecuteResult<TableExecuteHandle, TableHandle> beginTableExecute(Session session, TableExecuteHandle handle, TableHandle updatedSourceTableHandle)
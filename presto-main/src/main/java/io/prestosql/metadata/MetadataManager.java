@@ -97,6 +97,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -1700,6 +1701,14 @@ public final class MetadataManager
         return metadata.validateAndGetSortAggregationType(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), keyNames);
     }
 
+    @Override
+    public OptionalInt getSortedBucketCount(Session session, TableHandle tableHandle, List<String> columnNames)
+    {
+        CatalogName catalogName = tableHandle.getCatalogName();
+        ConnectorMetadata metadata = getMetadata(session, catalogName);
+        return metadata.getSortedBucketCount(session.toConnectorSession(catalogName), tableHandle.getConnectorHandle(), columnNames);
+    }
+
     @Override
     public void refreshMetadataCache(Session session, Optional<String> catalogName)
     {
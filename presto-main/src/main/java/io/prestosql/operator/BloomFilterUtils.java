@@ -14,7 +14,6 @@
  */
 package io.prestosql.operator;
 
-import com.google.common.primitives.Booleans;
 import io.airlift.log.Logger;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
 import io.prestosql.spi.Page;
@@ -29,10 +28,9 @@ import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.statestore.StateStoreProvider;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -75,7 +73,7 @@ public class BloomFilterUtils
                                          Optional<TableScanNode> tableScanNodeOptional,
                                          Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional,
                                          Map<String, byte[]> bloomFiltersBackup,
-                                         Map<Integer, BloomFilter> bloomFilters)
+                                         Map<Integer, SplitBlockBloomFilter> bloomFilters)
     {
         if (!queryIdOptional.isPresent() || !stateStoreProviderOptional.isPresent() || !tableScanNodeOptional.isPresent() || !dynamicFilterCacheManagerOptional.isPresent()) {
             return;
@@ -115,8 +113,8 @@ public class BloomFilterUtils
                 continue;
             }
             // put the bloom filter into bloomFilters
-            try (ByteArrayInputStream input = new ByteArrayInputStream(bloomFiltersBackup.get(entry.getKey()))) {
-                bloomFilters.put(index, BloomFilter.readFrom(input));
+            try {
+                bloomFilters.put(index, SplitBlockBloomFilter.fromByteArray(bloomFiltersBackup.get(entry.getKey())));
             }
             catch (IOException e) {
                 // ignore the bloomFilter if broken
@@ -185,27 +183,32 @@ public class BloomFilterUtils
     }
 
     /**
-     * filter page by BloomFilter
+     * filter page by BloomFilter, each column is only tested at the positions that passed the previous columns
      *
      * @param page source data page
      * @param bloomFilterMap bloom filter map
      * @return return filtered page
      */
-    public static Page filter(Page page, Map<Integer, BloomFilter> bloomFilterMap)
+    public static Page filter(Page page, Map<Integer, SplitBlockBloomFilter> bloomFilterMap)
     {
-        boolean[] result = new boolean[page.getPositionCount()];
-        Arrays.fill(result, Boolean.TRUE);
-        for (Map.Entry<Integer, BloomFilter> entry : bloomFilterMap.entrySet()) {
+        int positionCount = page.getPositionCount();
+        int[] rowsToKeep = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            rowsToKeep[i] = i;
+        }
+        for (Map.Entry<Integer, SplitBlockBloomFilter> entry : bloomFilterMap.entrySet()) {
             int columnIndex = entry.getKey();
             Block block = page.getBlock(columnIndex).getLoadedBlock();
-            block.filter(entry.getValue(), result);
+            // matched positions are a prefix of the tested positions, so they can be written in place
+            positionCount = entry.getValue().test(block, rowsToKeep, positionCount, rowsToKeep);
         }
 
-        Block[] adaptedBlocks = new Block[page.getChannelCount()];
-        int[] rowsToKeep = toPositions(result);
-        if (rowsToKeep.length == page.getPositionCount()) {
+        if (positionCount == page.getPositionCount()) {
             return page;
         }
+        rowsToKeep = Arrays.copyOf(rowsToKeep, positionCount);
+
+        Block[] adaptedBlocks = new Block[page.getChannelCount()];
 
         for (int i = 0; i < adaptedBlocks.length; i++) {
             Block block = page.getBlock(i);
@@ -219,26 +222,6 @@ public class BloomFilterUtils
         return new Page(rowsToKeep.length, adaptedBlocks);
     }
 
-    /**
-     * Is position 0-based? extract the "true" value positions
-     *
-     * @param keep
-     * @return
-     */
-    private static int[] toPositions(boolean[] keep)
-    {
-        int size = Booleans.countTrue(keep);
-        int[] result = new int[size];
-        int idx = 0;
-        for (int i = 0; i < keep.length; i++) {
-            if (keep[i]) {
-                result[idx] = i; //position is 0-based
-                idx++;
-            }
-        }
-        return result;
-    }
-
     private static final class RowFilterLazyBlockLoader<T>
             implements LazyBlockLoader<T>
     {
@@ -0,0 +1,425 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.SortOrder;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.Restorable;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.operator.SyntheticAddress.encodeSyntheticAddress;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds the top N rows without a heap. Rows are appended to a buffer that holds up to twice N rows,
+ * and the buffer is cut down to the best N rows with a partial sort whenever it fills up.
+ * The worst row kept by the last cut is a threshold: input pages are filtered against it one sort key
+ * at a time, and only the rows that are better than the threshold are copied into the buffer.
+ */
+@RestorableConfig(uncapturedFields = {"types", "sortChannels", "sortOrders", "sortTypes", "candidates", "ties", "selected"})
+public class BoundedTopNBuilder
+        implements Restorable
+{
+    private static final long INSTANCE_SIZE = ClassLayout.parseClass(BoundedTopNBuilder.class).instanceSize();
+
+    private final List<Type> types;
+    private final int topN;
+    private final int[] sortChannels;
+    private final SortOrder[] sortOrders;
+    private final Type[] sortTypes;
+    private final int capacity;
+
+    // buffered rows, as synthetic addresses into pages
+    private final List<Page> pages = new ArrayList<>();
+    private long[] addresses = new long[0];
+    private int rowCount;
+    private long pagesSizeInBytes;
+
+    // single row page with the worst row kept by the last cut, null until the buffer is first cut
+    private Page thresholdPage;
+
+    // scratch position arrays for filtering input pages
+    private int[] candidates = new int[0];
+    private int[] ties = new int[0];
+    private int[] selected = new int[0];
+
+    public BoundedTopNBuilder(List<Type> types, int topN, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(topN > 0, "topN must be > 0");
+        this.topN = topN;
+        requireNonNull(sortChannels, "sortChannels is null");
+        requireNonNull(sortOrders, "sortOrders is null");
+        checkArgument(sortChannels.size() == sortOrders.size(), "sortChannels and sortOrders must have the same size");
+        this.sortChannels = sortChannels.stream().mapToInt(Integer::intValue).toArray();
+        this.sortOrders = sortOrders.toArray(new SortOrder[0]);
+        this.sortTypes = sortChannels.stream().map(types::get).toArray(Type[]::new);
+        this.capacity = (int) Math.min(2L * topN, Integer.MAX_VALUE - 8);
+    }
+
+    public void processPage(Page page)
+    {
+        requireNonNull(page, "page is null");
+        int selectedCount = filter(page);
+        if (selectedCount == 0) {
+            return;
+        }
+
+        Page selectedPage;
+        if (selectedCount == page.getPositionCount()) {
+            selectedPage = page.getLoadedPage();
+        }
+        else {
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = page.getBlock(channel).copyPositions(selected, 0, selectedCount);
+            }
+            selectedPage = new Page(selectedCount, blocks);
+        }
+
+        int pageIndex = pages.size();
+        pages.add(selectedPage);
+        pagesSizeInBytes += selectedPage.getRetainedSizeInBytes();
+        ensureAddressCapacity(rowCount + selectedCount);
+        for (int position = 0; position < selectedCount; position++) {
+            addresses[rowCount++] = encodeSyntheticAddress(pageIndex, position);
+        }
+
+        if (rowCount >= capacity) {
+            truncate();
+        }
+    }
+
+    public Iterator<Page> buildResult()
+    {
+        truncate();
+        LongArrays.quickSort(addresses, 0, rowCount, this::compare);
+        return new ResultIterator();
+    }
+
+    public long getEstimatedSizeInBytes()
+    {
+        return INSTANCE_SIZE +
+                pagesSizeInBytes +
+                sizeOf(addresses) +
+                (thresholdPage == null ? 0 : thresholdPage.getRetainedSizeInBytes()) +
+                sizeOf(candidates) +
+                sizeOf(ties) +
+                sizeOf(selected);
+    }
+
+    @VisibleForTesting
+    int getBufferedRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Collects the positions of the page that are better than the threshold into {@code selected}, and returns their count.
+     * Each sort key is compared for all remaining positions before moving on to the next key,
+     * and only the positions that tie with the threshold on all previous keys reach the next key.
+     */
+    private int filter(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        if (selected.length < positionCount) {
+            candidates = new int[positionCount];
+            ties = new int[positionCount];
+            selected = new int[positionCount];
+        }
+
+        if (thresholdPage == null) {
+            for (int position = 0; position < positionCount; position++) {
+                selected[position] = position;
+            }
+            return positionCount;
+        }
+        for (int position = 0; position < positionCount; position++) {
+            candidates[position] = position;
+        }
+
+        int candidateCount = positionCount;
+        int selectedCount = 0;
+        for (int key = 0; key < sortChannels.length && candidateCount > 0; key++) {
+            Block block = page.getBlock(sortChannels[key]);
+            Block thresholdBlock = thresholdPage.getBlock(sortChannels[key]);
+            SortOrder sortOrder = sortOrders[key];
+            Type type = sortTypes[key];
+
+            int tieCount = 0;
+            for (int i = 0; i < candidateCount; i++) {
+                int position = candidates[i];
+                int compare = sortOrder.compareBlockValue(type, block, position, thresholdBlock, 0);
+                if (compare < 0) {
+                    selected[selectedCount++] = position;
+                }
+                else if (compare == 0) {
+                    ties[tieCount++] = position;
+                }
+            }
+
+            int[] swap = candidates;
+            candidates = ties;
+            ties = swap;
+            candidateCount = tieCount;
+        }
+        // rows equal to the threshold on all keys are dropped, the buffer already holds N rows that are at least as good
+
+        // keep the input order, so that the copied blocks are read sequentially
+        Arrays.sort(selected, 0, selectedCount);
+        return selectedCount;
+    }
+
+    /**
+     * Keeps only the best N buffered rows, copies them into new pages and makes the worst of them the threshold.
+     */
+    private void truncate()
+    {
+        if (rowCount > topN) {
+            select(topN - 1);
+            rowCount = topN;
+
+            long worst = addresses[topN - 1];
+            Page page = pages.get(decodeSliceIndex(worst));
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = page.getBlock(channel).copyRegion(decodePosition(worst), 1);
+            }
+            thresholdPage = new Page(1, blocks);
+            compact();
+        }
+    }
+
+    /**
+     * Partially sorts the buffered rows so that the row at index k is in its sorted place,
+     * and no row before it is worse than it. Equal rows are grouped, so duplicate keys do not degrade the selection.
+     */
+    private void select(int k)
+    {
+        int left = 0;
+        int right = rowCount - 1;
+        while (right > left) {
+            long pivot = addresses[medianOfThree(left, left + (right - left) / 2, right)];
+            int lessThan = left;
+            int greaterThan = right;
+            int i = left;
+            while (i <= greaterThan) {
+                int compare = compare(addresses[i], pivot);
+                if (compare < 0) {
+                    swap(lessThan++, i++);
+                }
+                else if (compare > 0) {
+                    swap(i, greaterThan--);
+                }
+                else {
+                    i++;
+                }
+            }
+
+            if (k < lessThan) {
+                right = lessThan - 1;
+            }
+            else if (k > greaterThan) {
+                left = greaterThan + 1;
+            }
+            else {
+                return;
+            }
+        }
+    }
+
+    private int medianOfThree(int a, int b, int c)
+    {
+        int ab = compare(addresses[a], addresses[b]);
+        int ac = compare(addresses[a], addresses[c]);
+        int bc = compare(addresses[b], addresses[c]);
+        if (ab < 0) {
+            return bc < 0 ? b : (ac < 0 ? c : a);
+        }
+        return bc > 0 ? b : (ac > 0 ? c : a);
+    }
+
+    private void swap(int a, int b)
+    {
+        long address = addresses[a];
+        addresses[a] = addresses[b];
+        addresses[b] = address;
+    }
+
+    private void compact()
+    {
+        List<Page> compactedPages = new ArrayList<>();
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int i = 0; i < rowCount; i++) {
+            long address = addresses[i];
+            Page page = pages.get(decodeSliceIndex(address));
+            int position = decodePosition(address);
+
+            if (pageBuilder.isFull()) {
+                compactedPages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+            addresses[i] = encodeSyntheticAddress(compactedPages.size(), pageBuilder.getPositionCount() - 1);
+        }
+        if (!pageBuilder.isEmpty()) {
+            compactedPages.add(pageBuilder.build());
+        }
+
+        pages.clear();
+        pages.addAll(compactedPages);
+        pagesSizeInBytes = 0;
+        for (Page page : pages) {
+            pagesSizeInBytes += page.getRetainedSizeInBytes();
+        }
+        if (addresses.length > capacity) {
+            addresses = Arrays.copyOf(addresses, capacity);
+        }
+    }
+
+    private int compare(long leftAddress, long rightAddress)
+    {
+        Page leftPage = pages.get(decodeSliceIndex(leftAddress));
+        int leftPosition = decodePosition(leftAddress);
+        Page rightPage = pages.get(decodeSliceIndex(rightAddress));
+        int rightPosition = decodePosition(rightAddress);
+        for (int key = 0; key < sortChannels.length; key++) {
+            int compare = sortOrders[key].compareBlockValue(
+                    sortTypes[key],
+                    leftPage.getBlock(sortChannels[key]),
+                    leftPosition,
+                    rightPage.getBlock(sortChannels[key]),
+                    rightPosition);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    private void ensureAddressCapacity(int count)
+    {
+        if (addresses.length < count) {
+            addresses = Arrays.copyOf(addresses, Math.max(count, Math.min(capacity, Math.max(16, addresses.length * 2))));
+        }
+    }
+
+    private class ResultIterator
+            extends AbstractIterator<Page>
+    {
+        private final PageBuilder pageBuilder = new PageBuilder(types);
+        private int currentRow;
+
+        @Override
+        protected Page computeNext()
+        {
+            pageBuilder.reset();
+            while (!pageBuilder.isFull() && currentRow < rowCount) {
+                long address = addresses[currentRow];
+                Page page = pages.get(decodeSliceIndex(address));
+                int position = decodePosition(address);
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < types.size(); channel++) {
+                    types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+                }
+                currentRow++;
+            }
+
+            if (currentRow == rowCount) {
+                // all rows are in the page builder, release the buffered pages
+                pages.clear();
+                pagesSizeInBytes = 0;
+                addresses = new long[0];
+                rowCount = 0;
+                currentRow = 0;
+                if (pageBuilder.isEmpty()) {
+                    return endOfData();
+                }
+            }
+            return pageBuilder.build();
+        }
+    }
+
+    @Override
+    public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        BoundedTopNBuilderState myState = new BoundedTopNBuilderState();
+        PagesSerde pagesSerde = (PagesSerde) serdeProvider;
+        myState.pages = new Object[pages.size()];
+        for (int i = 0; i < pages.size(); i++) {
+            myState.pages[i] = pagesSerde.serialize(pages.get(i)).capture(serdeProvider);
+        }
+        myState.addresses = Arrays.copyOf(addresses, rowCount);
+        myState.rowCount = rowCount;
+        myState.pagesSizeInBytes = pagesSizeInBytes;
+        if (thresholdPage != null) {
+            myState.thresholdPage = pagesSerde.serialize(thresholdPage).capture(serdeProvider);
+        }
+        return myState;
+    }
+
+    @Override
+    public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        BoundedTopNBuilderState myState = (BoundedTopNBuilderState) state;
+        PagesSerde pagesSerde = (PagesSerde) serdeProvider;
+        this.pages.clear();
+        for (Object page : myState.pages) {
+            this.pages.add(pagesSerde.deserialize(SerializedPage.restoreSerializedPage(page)));
+        }
+        this.addresses = Arrays.copyOf(myState.addresses, myState.addresses.length);
+        this.rowCount = myState.rowCount;
+        this.pagesSizeInBytes = myState.pagesSizeInBytes;
+        if (myState.thresholdPage != null) {
+            this.thresholdPage = pagesSerde.deserialize(SerializedPage.restoreSerializedPage(myState.thresholdPage));
+        }
+        else {
+            this.thresholdPage = null;
+        }
+    }
+
+    private static class BoundedTopNBuilderState
+            implements Serializable
+    {
+        private Object[] pages;
+        private long[] addresses;
+        private int rowCount;
+        private long pagesSizeInBytes;
+        private Object thresholdPage;
+    }
+}
@@ -225,6 +225,10 @@ public final class DefaultPagesHash
 
     public int[] getAddressIndex(int[] positions, Page hashChannelsPage)
     {
+        if (positions.length == 0) {
+            return new int[0];
+        }
+
         long[] hashes = new long[positions[positions.length - 1] + 1];
         for (int i = 0; i < positions.length; i++) {
             hashes[positions[i]] = pagesHashStrategy.hashRow(positions[i], hashChannelsPage);
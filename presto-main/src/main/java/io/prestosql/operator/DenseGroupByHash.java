@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Group by hash for one or two BOOLEAN, TINYINT or SMALLINT channels whose combined domain is small
+ * enough to be indexed directly. Each key maps to a slot of a dense array without hashing, probing
+ * or rehashing; the null value of each channel has its own slot.
+ */
+@RestorableConfig(uncapturedFields = {"hashTypes", "keyKinds", "hashChannels", "minValues", "domainSizes", "strides"})
+public class DenseGroupByHash
+        extends FixedWidthGroupBy implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DenseGroupByHash.class).instanceSize();
+
+    @VisibleForTesting
+    static final int MAX_DENSE_SIZE = 1 << 17;
+
+    private final long[] minValues;
+    private final int[] domainSizes;
+    private final int[] strides;
+
+    // the dense table from key index to groupId
+    private int[] groupIdsByIndex;
+
+    // reverse index from the groupId back to the key index
+    private int[] indexesByGroupId;
+
+    public DenseGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, boolean outputRawHash, int expectedSize)
+    {
+        super(hashTypes, hashChannels, outputRawHash);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+        checkArgument(isSupported(hashTypes), "unsupported hash types: %s", hashTypes);
+
+        minValues = new long[keyKinds.length];
+        domainSizes = new int[keyKinds.length];
+        strides = new int[keyKinds.length];
+        int size = 1;
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            minValues[channel] = getMinValue(keyKinds[channel]);
+            domainSizes[channel] = getDomainSize(keyKinds[channel]);
+            strides[channel] = size;
+            size *= domainSizes[channel];
+        }
+
+        groupIdsByIndex = new int[size];
+        Arrays.fill(groupIdsByIndex, -1);
+        indexesByGroupId = new int[Math.min(expectedSize, size)];
+    }
+
+    /**
+     * Whether the keys of these types fit in a dense table
+     */
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (!FixedWidthGroupBy.isSupported(hashTypes)) {
+            return false;
+        }
+        long size = 1;
+        for (int kind : getKeyKinds(hashTypes)) {
+            if (kind == INT_KEY) {
+                return false;
+            }
+            size *= getDomainSize(kind);
+        }
+        return size <= MAX_DENSE_SIZE;
+    }
+
+    private static int getDomainSize(int kind)
+    {
+        // one more slot for null
+        return (1 << getKeyBits(kind)) + 1;
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE + sizeOf(groupIdsByIndex) + sizeOf(indexesByGroupId);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        return groupIdsByIndex[getIndex(position, page, hashChannels)] != -1;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return groupIdsByIndex.length;
+    }
+
+    @Override
+    public boolean needMoreCapacity()
+    {
+        // every key has its slot already
+        return false;
+    }
+
+    @Override
+    public boolean tryToIncreaseCapacity()
+    {
+        return true;
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page)
+    {
+        int index = getIndex(position, page, hashChannels);
+        int groupId = groupIdsByIndex[index];
+        if (groupId != -1) {
+            return groupId;
+        }
+
+        groupId = nextGroupId++;
+        groupIdsByIndex[index] = groupId;
+        if (groupId == indexesByGroupId.length) {
+            indexesByGroupId = Arrays.copyOf(indexesByGroupId, Math.min(groupId * 2, groupIdsByIndex.length));
+        }
+        indexesByGroupId[groupId] = index;
+        return groupId;
+    }
+
+    private int getIndex(int position, Page page, int[] channels)
+    {
+        int index = 0;
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            Block block = page.getBlock(channels[channel]);
+            if (!block.isNull(position)) {
+                // index 0 of each channel is the null value
+                index += (int) (readKeyValue(channel, block, position) - minValues[channel] + 1) * strides[channel];
+            }
+        }
+        return index;
+    }
+
+    private int getDigit(int groupId, int channel)
+    {
+        return indexesByGroupId[groupId] / strides[channel] % domainSizes[channel];
+    }
+
+    @Override
+    protected boolean isKeyNull(int groupId, int channel)
+    {
+        return getDigit(groupId, channel) == 0;
+    }
+
+    @Override
+    protected long getKeyValue(int groupId, int channel)
+    {
+        return getDigit(groupId, channel) - 1 + minValues[channel];
+    }
+
+    @Override
+    public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        DenseGroupByHashState myState = new DenseGroupByHashState();
+        myState.groupIdsByIndex = groupIdsByIndex.clone();
+        myState.indexesByGroupId = Arrays.copyOf(indexesByGroupId, nextGroupId);
+        myState.nextGroupId = nextGroupId;
+        myState.currentPageSizeInBytes = currentPageSizeInBytes;
+        return myState;
+    }
+
+    @Override
+    public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        DenseGroupByHashState myState = (DenseGroupByHashState) state;
+        this.groupIdsByIndex = myState.groupIdsByIndex.clone();
+        this.indexesByGroupId = Arrays.copyOf(myState.indexesByGroupId, Math.max(myState.indexesByGroupId.length, 1));
+        this.nextGroupId = myState.nextGroupId;
+        this.currentPageSizeInBytes = myState.currentPageSizeInBytes;
+    }
+
+    private static class DenseGroupByHashState
+            implements Serializable
+    {
+        private int[] groupIdsByIndex;
+        private int[] indexesByGroupId;
+        private int nextGroupId;
+        private long currentPageSizeInBytes;
+    }
+}
@@ -23,6 +23,7 @@ import io.airlift.units.Duration;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.Session;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.TaskId;
 import io.prestosql.memory.QueryContextVisitor;
@@ -86,8 +87,10 @@ public class DriverContext
     private final int driverId;
 
     private PagesSerde serde;
+    private PagesSerde outputSerde;
     private PagesSerde kryoSerde;
     private PagesSerde javaSerde;
+    private PagesSerde columnarSerde;
 
     public DriverContext(
             PipelineContext pipelineContext,
@@ -526,6 +529,17 @@ public class DriverContext
         return serde;
     }
 
+    /**
+     * Serde for pages enqueued into output buffers, which may place them in pooled off-heap buffers.
+     */
+    public PagesSerde getOutputSerde()
+    {
+        if (outputSerde == null) {
+            outputSerde = pipelineContext.getTaskContext().getSerdeFactory().createOutputPagesSerde();
+        }
+        return outputSerde;
+    }
+
     public PagesSerde getJavaSerde()
     {
         if (javaSerde == null) {
@@ -543,4 +557,26 @@ public class DriverContext
         }
         return kryoSerde;
     }
+
+    public PagesSerde getColumnarSerde()
+    {
+        if (columnarSerde == null) {
+            columnarSerde = pipelineContext.getTaskContext().getSerdeFactory().createColumnarPagesSerde();
+        }
+        return columnarSerde;
+    }
+
+    public PagesSerde getDirectSerde(DirectSerialisationType serialisationType)
+    {
+        switch (serialisationType) {
+            case JAVA:
+                return getJavaSerde();
+            case KRYO:
+                return getKryoSerde();
+            case COLUMNAR:
+                return getColumnarSerde();
+            default:
+                throw new IllegalArgumentException("Unsupported direct serialisation type: " + serialisationType);
+        }
+    }
 }
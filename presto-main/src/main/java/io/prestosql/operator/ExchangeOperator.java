@@ -257,7 +257,7 @@ public class ExchangeOperator
         DirectSerialisationType directSerialisationType = exchangeDataSource.getDirectSerialisationType();
         if (exchangeDataSource.isSpoolingExchangeSource() && directSerialisationType != DirectSerialisationType.OFF) {
             Page page;
-            PagesSerde directSerde = (directSerialisationType == DirectSerialisationType.JAVA) ? operatorContext.getDriverContext().getJavaSerde() : operatorContext.getDriverContext().getKryoSerde();
+            PagesSerde directSerde = operatorContext.getDriverContext().getDirectSerde(directSerialisationType);
             page = exchangeDataSource.pollPageDirect(id, directSerde);
             if (page == null) {
                 return null;
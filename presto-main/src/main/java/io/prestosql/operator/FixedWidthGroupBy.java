@@ -0,0 +1,319 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.AbstractIntType;
+import io.prestosql.spi.type.BooleanType;
+import io.prestosql.spi.type.DateType;
+import io.prestosql.spi.type.IntegerType;
+import io.prestosql.spi.type.SmallintType;
+import io.prestosql.spi.type.TinyintType;
+import io.prestosql.spi.type.Type;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.operator.scalar.CombineHashFunction.getHash;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
+import static io.prestosql.type.TypeUtils.NULL_HASH_CODE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Base of the group by hashes specialized for one or two BOOLEAN, TINYINT, SMALLINT, INTEGER or DATE
+ * channels. Key values are handled as sign extended longs (0 or 1 for booleans) and the raw hashes
+ * match the ones of {@link InterpretedHashGenerator}, so the hash channel of the output can be used
+ * by the final aggregation.
+ */
+public abstract class FixedWidthGroupBy
+{
+    protected static final int UNSUPPORTED_KEY = -1;
+    protected static final int BOOLEAN_KEY = 0;
+    protected static final int TINYINT_KEY = 1;
+    protected static final int SMALLINT_KEY = 2;
+    protected static final int INT_KEY = 3;
+
+    protected static final int MAX_CHANNELS = 2;
+
+    protected final List<Type> hashTypes;
+    protected final int[] keyKinds;
+    protected final int[] hashChannels;
+    protected final boolean outputRawHash;
+    private final List<Type> types;
+
+    protected int nextGroupId;
+    protected long currentPageSizeInBytes;
+
+    protected FixedWidthGroupBy(List<? extends Type> hashTypes, int[] hashChannels, boolean outputRawHash)
+    {
+        requireNonNull(hashTypes, "hashTypes is null");
+        requireNonNull(hashChannels, "hashChannels is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkArgument(hashChannels.length > 0 && hashChannels.length <= MAX_CHANNELS, "expected one or two hash channels");
+        this.hashTypes = ImmutableList.copyOf(hashTypes);
+        this.keyKinds = getKeyKinds(hashTypes);
+        for (int keyKind : keyKinds) {
+            checkArgument(keyKind != UNSUPPORTED_KEY, "unsupported hash types: %s", hashTypes);
+        }
+        this.hashChannels = hashChannels.clone();
+        this.outputRawHash = outputRawHash;
+
+        ImmutableList.Builder<Type> typesBuilder = ImmutableList.<Type>builder().addAll(hashTypes);
+        if (outputRawHash) {
+            typesBuilder.add(BIGINT);
+        }
+        this.types = typesBuilder.build();
+    }
+
+    public static int getKeyKind(Type type)
+    {
+        if (type instanceof BooleanType) {
+            return BOOLEAN_KEY;
+        }
+        if (type instanceof TinyintType) {
+            return TINYINT_KEY;
+        }
+        if (type instanceof SmallintType) {
+            return SMALLINT_KEY;
+        }
+        if (type instanceof IntegerType || type instanceof DateType) {
+            return INT_KEY;
+        }
+        return UNSUPPORTED_KEY;
+    }
+
+    public static int[] getKeyKinds(List<? extends Type> types)
+    {
+        int[] kinds = new int[types.size()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = getKeyKind(types.get(i));
+        }
+        return kinds;
+    }
+
+    public static boolean isSupported(List<? extends Type> types)
+    {
+        if (types.isEmpty() || types.size() > MAX_CHANNELS) {
+            return false;
+        }
+        for (int kind : getKeyKinds(types)) {
+            if (kind == UNSUPPORTED_KEY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static int getKeyBits(int kind)
+    {
+        switch (kind) {
+            case BOOLEAN_KEY:
+                return 1;
+            case TINYINT_KEY:
+                return Byte.SIZE;
+            case SMALLINT_KEY:
+                return Short.SIZE;
+            case INT_KEY:
+                return Integer.SIZE;
+            default:
+                throw new IllegalArgumentException("Unsupported key kind: " + kind);
+        }
+    }
+
+    protected static long getMinValue(int kind)
+    {
+        return kind == BOOLEAN_KEY ? 0 : -(1L << (getKeyBits(kind) - 1));
+    }
+
+    /**
+     * Value of a non-null position
+     */
+    protected final long readKeyValue(int channel, Block block, int position)
+    {
+        if (keyKinds[channel] == BOOLEAN_KEY) {
+            return hashTypes.get(channel).getBoolean(block, position) ? 1 : 0;
+        }
+        return hashTypes.get(channel).getLong(block, position);
+    }
+
+    private static long hashKeyValue(int kind, long value)
+    {
+        switch (kind) {
+            case BOOLEAN_KEY:
+                return value != 0 ? 1231 : 1237;
+            case TINYINT_KEY:
+                return TinyintType.hash((byte) value);
+            case SMALLINT_KEY:
+                return SmallintType.hash((short) value);
+            case INT_KEY:
+                return AbstractIntType.hash((int) value);
+            default:
+                throw new IllegalArgumentException("Unsupported key kind: " + kind);
+        }
+    }
+
+    protected abstract boolean isKeyNull(int groupId, int channel);
+
+    protected abstract long getKeyValue(int groupId, int channel);
+
+    public abstract boolean needMoreCapacity();
+
+    public abstract boolean tryToIncreaseCapacity();
+
+    public abstract int putIfAbsent(int position, Page page);
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + channel);
+            if (isKeyNull(groupId, channel)) {
+                blockBuilder.appendNull();
+            }
+            else if (keyKinds[channel] == BOOLEAN_KEY) {
+                hashTypes.get(channel).writeBoolean(blockBuilder, getKeyValue(groupId, channel) != 0);
+            }
+            else {
+                hashTypes.get(channel).writeLong(blockBuilder, getKeyValue(groupId, channel));
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + keyKinds.length), getRawHash(groupId));
+        }
+    }
+
+    public long getRawHash(int groupId)
+    {
+        long result = INITIAL_HASH_VALUE;
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            long hash = isKeyNull(groupId, channel) ? NULL_HASH_CODE : hashKeyValue(keyKinds[channel], getKeyValue(groupId, channel));
+            result = getHash(result, hash);
+        }
+        return result;
+    }
+
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(page);
+    }
+
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(page);
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Page page;
+
+        private int lastPosition;
+
+        public AddPageWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needMoreCapacity() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryToIncreaseCapacity() successfully did a rehash.
+            if (needMoreCapacity() && !tryToIncreaseCapacity()) {
+                return false;
+            }
+
+            while (lastPosition < positionCount && !needMoreCapacity()) {
+                putIfAbsent(lastPosition, page);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Page page;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Page page)
+        {
+            this.page = requireNonNull(page, "page is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = page.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needMoreCapacity() == true indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryToIncreaseCapacity() successfully did a rehash.
+            if (needMoreCapacity() && !tryToIncreaseCapacity()) {
+                return false;
+            }
+
+            while (lastPosition < positionCount && !needMoreCapacity()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, page));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == page.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
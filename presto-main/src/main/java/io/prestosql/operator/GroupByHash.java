@@ -50,6 +50,12 @@ public interface GroupByHash
         if (hashTypes.size() == 1 && hashTypes.get(0).equals(BIGINT) && hashChannels.length == 1) {
             return new BigintGroupByHash(hashChannels[0], inputHashChannel.isPresent(), expectedSize, updateMemory);
         }
+        if (DenseGroupByHash.isSupported(hashTypes)) {
+            return new DenseGroupByHash(hashTypes, hashChannels, inputHashChannel.isPresent(), expectedSize);
+        }
+        if (PackedLongGroupByHash.isSupported(hashTypes)) {
+            return new PackedLongGroupByHash(hashTypes, hashChannels, inputHashChannel.isPresent(), expectedSize, updateMemory);
+        }
         return new MultiChannelGroupByHash(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler, updateMemory);
     }
 }
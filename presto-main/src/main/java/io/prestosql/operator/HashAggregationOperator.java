@@ -18,7 +18,10 @@ import io.airlift.units.DataSize;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
 import io.prestosql.operator.aggregation.builder.SpillableHashAggregationBuilder;
+import io.prestosql.operator.aggregation.partial.HeavyHitterAggregationBuilder;
 import io.prestosql.operator.aggregation.partial.PartialAggregationController;
+import io.prestosql.operator.aggregation.partial.PartialAggregationController.Decision;
+import io.prestosql.operator.aggregation.partial.PartialAggregationInfo;
 import io.prestosql.operator.aggregation.partial.SkipAggregationBuilder;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.plan.AggregationNode.Step;
@@ -226,6 +229,14 @@ public class HashAggregationOperator
         }
     }
 
+    // counters reported by PartialAggregationInfo
+    private long rowsAggregated;
+    private long heavyHitterRowsAggregated;
+    private long rowsPassedThrough;
+    private long disableDecisions;
+    private long reenableDecisions;
+    private long resampleDecisions;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -266,7 +277,12 @@ public class HashAggregationOperator
                 partialAggregationController);
 
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
-        operatorContext.setInfoSupplier(hashCollisionsCounter);
+        if (partialAggregationController.isPresent()) {
+            operatorContext.setInfoSupplier(this::getPartialAggregationInfo);
+        }
+        else {
+            operatorContext.setInfoSupplier(hashCollisionsCounter);
+        }
     }
 
     @Override
@@ -312,7 +328,12 @@ public class HashAggregationOperator
                 .map(PartialAggregationController::isPartialAggregationDisabled)
                 .orElse(false);
         if (step.isOutputPartial() && partialAggregationDisabled) {
-            aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, memoryContext);
+            if (partialAggregationController.get().isHeavyHittersEnabled() && !groupByChannels.isEmpty()) {
+                aggregationBuilder = new HeavyHitterAggregationBuilder(groupByTypes, groupByChannels, hashChannel, accumulatorFactories, maxPartialMemory, joinCompiler, memoryContext);
+            }
+            else {
+                aggregationBuilder = new SkipAggregationBuilder(groupByChannels, hashChannel, accumulatorFactories, memoryContext);
+            }
         }
         else if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause or DISTINCT because they are not yet implemented for spilling.
@@ -398,6 +419,9 @@ public class HashAggregationOperator
                 return null;
             }
 
+            if (finishing && aggregationBuilder instanceof HeavyHitterAggregationBuilder) {
+                ((HeavyHitterAggregationBuilder) aggregationBuilder).flushHeavyHitters();
+            }
             outputPages = aggregationBuilder.buildResult();
         }
 
@@ -406,7 +430,9 @@ public class HashAggregationOperator
         }
 
         if (outputPages.isFinished()) {
-            closeAggregationBuilder();
+            if (!keepHeavyHitterAggregationBuilder()) {
+                closeAggregationBuilder();
+            }
             return null;
         }
 
@@ -424,9 +450,47 @@ public class HashAggregationOperator
         }
     }
 
+    /**
+     * The heavy hitters keep being aggregated across pages while only the rows passed through are flushed.
+     * The flush is still reported to the {@link PartialAggregationController}, which might re-enable partial
+     * aggregation, in which case the heavy hitters are output before the builder is closed.
+     */
+    private boolean keepHeavyHitterAggregationBuilder()
+    {
+        if (!(aggregationBuilder instanceof HeavyHitterAggregationBuilder)) {
+            return false;
+        }
+        HeavyHitterAggregationBuilder heavyHitterAggregationBuilder = (HeavyHitterAggregationBuilder) aggregationBuilder;
+        if (heavyHitterAggregationBuilder.isHeavyHittersFlushed()) {
+            return false;
+        }
+
+        reportFlush();
+        if (partialAggregationController.get().isPartialAggregationDisabled()) {
+            outputPages = null;
+            // release the rows passed through from the memory accounting
+            heavyHitterAggregationBuilder.updateMemory();
+        }
+        else {
+            heavyHitterAggregationBuilder.flushHeavyHitters();
+            outputPages = heavyHitterAggregationBuilder.buildResult();
+        }
+        return true;
+    }
+
     protected void closeAggregationBuilder()
     {
         outputPages = null;
+        if (aggregationBuilder instanceof HeavyHitterAggregationBuilder) {
+            heavyHitterRowsAggregated += ((HeavyHitterAggregationBuilder) aggregationBuilder).getHeavyHitterRows();
+            rowsPassedThrough += ((HeavyHitterAggregationBuilder) aggregationBuilder).getPassThroughRows();
+        }
+        else if (aggregationBuilder instanceof SkipAggregationBuilder) {
+            rowsPassedThrough += numberOfInputRowsProcessed;
+        }
+        else {
+            rowsAggregated += numberOfInputRowsProcessed;
+        }
         if (aggregationBuilder != null) {
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
@@ -435,9 +499,40 @@ public class HashAggregationOperator
             aggregationBuilder = null;
         }
         memoryContext.setBytes(0);
-        partialAggregationController.ifPresent(
-                controller -> controller.onFlush(numberOfInputRowsProcessed, numberOfUniqueRowsProduced));
+        reportFlush();
+    }
+
+    private void reportFlush()
+    {
+        if (partialAggregationController.isPresent()) {
+            Decision decision = partialAggregationController.get().onFlush(numberOfInputRowsProcessed, numberOfUniqueRowsProduced);
+            switch (decision) {
+                case DISABLE:
+                    disableDecisions++;
+                    break;
+                case REENABLE:
+                    reenableDecisions++;
+                    break;
+                case RESAMPLE:
+                    resampleDecisions++;
+                    break;
+                case NONE:
+                    break;
+            }
+        }
         numberOfInputRowsProcessed = 0;
         numberOfUniqueRowsProduced = 0;
     }
+
+    private PartialAggregationInfo getPartialAggregationInfo()
+    {
+        return new PartialAggregationInfo(
+                hashCollisionsCounter.get(),
+                rowsAggregated,
+                heavyHitterRowsAggregated,
+                rowsPassedThrough,
+                disableDecisions,
+                reenableDecisions,
+                resampleDecisions);
+    }
 }
@@ -20,6 +20,7 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.execution.Lifespan;
+import io.prestosql.execution.executor.NumaTopology;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.snapshot.Spillable;
@@ -702,6 +703,8 @@ public class HashBuilderOperator
             localUserMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
         }
         lookupSourceNotNeeded = Optional.of(lookupSourceFactory.lendPartitionLookupSource(partitionIndex, partition));
+        // the lookup source memory was touched by this thread, so let the probe side follow it
+        operatorContext.getDriverContext().getPipelineContext().getTaskContext().recordJoinBridgeNumaNode(NumaTopology.getCurrentThreadNode());
 
         state = State.LOOKUP_SOURCE_BUILT;
     }
@@ -113,6 +113,12 @@ public final class JoinHash
         return positionLinks.next(toIntExact(currentJoinPosition), probePosition, allProbeChannelsPage);
     }
 
+    @Override
+    public boolean isJoinPositionAlwaysEligible()
+    {
+        return filterFunction == null;
+    }
+
     @Override
     public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -125,6 +131,45 @@ public final class JoinHash
         pagesHash.appendTo(toIntExact(position), pageBuilder, outputChannelOffset);
     }
 
+    @Override
+    public void appendTo(long[] positions, int length, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        for (int i = 0; i < length; i++) {
+            pagesHash.appendTo(toIntExact(positions[i]), pageBuilder, outputChannelOffset);
+        }
+    }
+
+    @Override
+    public int getJoinPositions(int probePosition, long joinPosition, long[] firstJoinPositions, Page allProbeChannelsPage, int[] probeOutput, long[] buildOutput)
+    {
+        int count = 0;
+        int maxCount = probeOutput.length;
+        int position = probePosition;
+        int currentJoinPosition = toIntExact(joinPosition);
+        while (true) {
+            while (currentJoinPosition >= 0) {
+                if (filterFunction == null || filterFunction.filter(currentJoinPosition, position, allProbeChannelsPage)) {
+                    probeOutput[count] = position;
+                    buildOutput[count] = currentJoinPosition;
+                    count++;
+                    if (count == maxCount) {
+                        return count;
+                    }
+                }
+                if (positionLinks == null) {
+                    break;
+                }
+                currentJoinPosition = positionLinks.next(currentJoinPosition, position, allProbeChannelsPage);
+            }
+
+            position++;
+            if (position >= firstJoinPositions.length) {
+                return count;
+            }
+            currentJoinPosition = toIntExact(firstJoinPositions[position]);
+        }
+    }
+
     @Override
     public void close()
     {
@@ -27,6 +27,7 @@ import java.util.OptionalInt;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.SystemSessionProperties.isFastInequalityJoin;
+import static io.prestosql.SystemSessionProperties.isJoinRadixPartitioningEnabled;
 import static io.prestosql.operator.JoinUtils.channelsToPages;
 import static java.util.Objects.requireNonNull;
 
@@ -51,7 +52,8 @@ public class JoinHashSupplier
             Optional<JoinFilterFunctionFactory> filterFunctionFactory,
             Optional<Integer> sortChannel,
             List<JoinFilterFunctionFactory> searchFunctionFactories,
-            OptionalInt singleBigintJoinChannel)
+            OptionalInt singleBigintJoinChannel,
+            Optional<PackedJoinKeys> packedJoinKeys)
     {
         this.session = requireNonNull(session, "session is null");
         this.addresses = requireNonNull(addresses, "addresses is null");
@@ -75,9 +77,15 @@ public class JoinHashSupplier
 
         this.pages = channelsToPages(channels);
 
-        if (singleBigintJoinChannel.isPresent() && addresses.size() <= THRESHOLD_50) {
+        if (isJoinRadixPartitioningEnabled(session) && RadixPartitionedPagesHash.getRadixBits(addresses.size()) > 0) {
+            this.pagesHash = new RadixPartitionedPagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder);
+        }
+        else if (singleBigintJoinChannel.isPresent() && addresses.size() <= THRESHOLD_50) {
             this.pagesHash = new BigintPagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder, pages, singleBigintJoinChannel.getAsInt());
         }
+        else if (!singleBigintJoinChannel.isPresent() && packedJoinKeys.isPresent() && packedJoinKeys.get().fits(pages)) {
+            this.pagesHash = new PackedKeysPagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder, pages, packedJoinKeys.get());
+        }
         else {
             this.pagesHash = new DefaultPagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder);
         }
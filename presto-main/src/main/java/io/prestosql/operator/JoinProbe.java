@@ -40,7 +40,7 @@ public class JoinProbe
         public JoinProbe createJoinProbe(Page page, boolean isSpilled, LookupSourceProvider lookupSourceProvider)
         {
             LookupSource lookupSource = lookupSourceProvider.withLease((lookupSourceLease -> lookupSourceLease.getLookupSource()));
-            if (isSpilled || !(lookupSource instanceof JoinHash || lookupSource instanceof OuterLookupSource)) {
+            if (isSpilled || !(isJoinHash(lookupSource) || lookupSource instanceof OuterLookupSource)) {
                 return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel);
             }
             else {
@@ -53,6 +53,12 @@ public class JoinProbe
         {
             return new JoinProbe(probeOutputChannels, page, probeJoinChannels, probeHashChannel);
         }
+
+        private static boolean isJoinHash(LookupSource lookupSource)
+        {
+            // JoinHash is loaded by an isolated class loader for each join (see JoinCompiler), instanceof doesn't match it
+            return lookupSource.getClass().getName().equals(JoinHash.class.getName());
+        }
     }
 
     private final int[] probeOutputChannels;
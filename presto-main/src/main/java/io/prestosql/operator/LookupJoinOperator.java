@@ -79,14 +79,18 @@ import static java.util.Objects.requireNonNull;
 // - currentPartition: only set after finishing becomes true (when unspilling is true)
 // - unspilledLookupSource: only set after finishing becomes true (when unspilling is true)
 // - unspilledInputPages: only set after finishing becomes true (when unspilling is true)
+// - batchProbePositions, batchJoinPositions: scratch arrays, only hold data within processProbeInBatches
 @RestorableConfig(uncapturedFields = {"probeTypes", "joinProbeFactory", "afterClose", "hashGenerator", "lookupSourceFactory",
         "partitioningSpillerFactory", "lookupSourceProviderFuture", "lookupSourceProvider", "probe", "outputPage",
         "partitionGenerator", "spillInProgress", "unspilling", "currentPartition",
         "unspilledLookupSource", "unspilledInputPages", "snapshotState", "afterMemOpFinish", "backUpRestoredPages", "isSpillerRestored",
-        "restoredPartition", "backUpUnspilledMemoryPartitions", "spilledPartitionsList", "unspilledMemoryPartitions"})
+        "restoredPartition", "backUpUnspilledMemoryPartitions", "spilledPartitionsList", "unspilledMemoryPartitions",
+        "batchProbePositions", "batchJoinPositions"})
 public class LookupJoinOperator
         implements Operator, Spillable
 {
+    private static final int PROBE_BATCH_SIZE = 1024;
+
     private final OperatorContext operatorContext;
     // Snapshot: if forked (in a pipeline that starts with a LookupOuterOperator),
     // then don't forward marker to LookupOuter that corresponds to this operator.
@@ -103,6 +107,9 @@ public class LookupJoinOperator
     private final JoinStatisticsCounter statisticsCounter;
 
     private final LookupJoinPageBuilder pageBuilder;
+    // (probe position, join position) pairs of a batch, see processProbeInBatches
+    private final int[] batchProbePositions = new int[PROBE_BATCH_SIZE];
+    private final long[] batchJoinPositions = new long[PROBE_BATCH_SIZE];
 
     private final boolean probeOnOuterSide;
     private final boolean spillBypassEnabled;
@@ -700,6 +707,10 @@ public class LookupJoinOperator
         verify(probe != null);
 
         DriverYieldSignal yieldSignal = operatorContext.getDriverContext().getYieldSignal();
+        if (probe instanceof UnSpilledJoinProbe && !probeOnOuterSide && lookupSource.isJoinPositionAlwaysEligible()) {
+            processProbeInBatches(lookupSource, (UnSpilledJoinProbe) probe, yieldSignal);
+            return;
+        }
         while (!yieldSignal.isSet()) {
             if (probe.getPosition() >= 0) {
                 if (!joinCurrentPosition(lookupSource, yieldSignal)) {
@@ -721,6 +732,62 @@ public class LookupJoinOperator
         }
     }
 
+    /**
+     * Joins the probe page in batches of (probe position, join position) pairs, which are then copied to the output
+     * in bulk. Only used for inner joins without a join filter: every join position is a match, and there are no
+     * filter evaluations to yield in between.
+     */
+    private void processProbeInBatches(LookupSource lookupSource, UnSpilledJoinProbe unSpilledProbe, DriverYieldSignal yieldSignal)
+    {
+        if (unSpilledProbe.getPosition() < 0) {
+            currentProbePositionProducedRow = false;
+            if (!advanceProbePosition(lookupSource)) {
+                return;
+            }
+            statisticsCounter.recordProbe(joinSourcePositions);
+            joinSourcePositions = 0;
+        }
+
+        Page page = unSpilledProbe.getPage();
+        long[] firstJoinPositions = unSpilledProbe.getJoinPositions();
+        while (!yieldSignal.isSet()) {
+            int position = unSpilledProbe.getPosition();
+            int count = lookupSource.getJoinPositions(position, joinPosition, firstJoinPositions, page, batchProbePositions, batchJoinPositions);
+            for (int i = 0; i < count; i++) {
+                while (position < batchProbePositions[i]) {
+                    statisticsCounter.recordProbe(joinSourcePositions);
+                    joinSourcePositions = 0;
+                    position++;
+                }
+                joinSourcePositions++;
+            }
+            pageBuilder.appendRows(unSpilledProbe, lookupSource, batchProbePositions, batchJoinPositions, count);
+
+            if (count < PROBE_BATCH_SIZE) {
+                // all rows of the page are joined
+                int lastPosition = page.getPositionCount() - 1;
+                while (position < lastPosition) {
+                    statisticsCounter.recordProbe(joinSourcePositions);
+                    joinSourcePositions = 0;
+                    position++;
+                }
+                unSpilledProbe.advanceToPosition(lastPosition);
+                joinPosition = -1;
+                currentProbePositionProducedRow = false;
+                verify(!advanceProbePosition(lookupSource));
+                return;
+            }
+
+            // resume after the last pair of the batch
+            unSpilledProbe.advanceToPosition(position);
+            joinPosition = lookupSource.getNextJoinPosition(batchJoinPositions[count - 1], position, page);
+            currentProbePositionProducedRow = true;
+            if (tryBuildPage()) {
+                return;
+            }
+        }
+    }
+
     private void restoreProbe(Page probePage, long joinPosition, boolean currentProbePositionProducedRow, int joinSourcePositions, SpillInfoSnapshot spillInfoSnapshot)
     {
         verify(probe == null);
@@ -82,6 +82,37 @@ public class LookupJoinPageBuilder
         lookupSource.appendTo(joinPosition, buildPageBuilder, 0);
     }
 
+    /**
+     * append the indices for the probe and copy the rows for the build of the first `length` (probe position, join position) pairs
+     */
+    public void appendRows(JoinProbe probe, LookupSource lookupSource, int[] probePositions, long[] joinPositions, int length)
+    {
+        // probe side
+        for (int i = 0; i < length; i++) {
+            appendProbeIndex(probe, probePositions[i]);
+        }
+
+        // build side
+        buildPageBuilder.declarePositions(length);
+        lookupSource.appendTo(joinPositions, length, buildPageBuilder, 0);
+    }
+
+    /**
+     * append the index for the probe and copy the row of each lookup source for the build,
+     * the columns of lookup source i start at build channel `outputChannelOffsets[i]`
+     */
+    public void appendRow(JoinProbe probe, int probePosition, LookupSource[] lookupSources, long[] joinPositions, int[] outputChannelOffsets)
+    {
+        // probe side
+        appendProbeIndex(probe, probePosition);
+
+        // build side
+        buildPageBuilder.declarePosition();
+        for (int i = 0; i < lookupSources.length; i++) {
+            lookupSources[i].appendTo(joinPositions[i], buildPageBuilder, outputChannelOffsets[i]);
+        }
+    }
+
     /**
      * append the index for the probe and append nulls for the build
      */
@@ -142,7 +173,11 @@ public class LookupJoinPageBuilder
 
     private void appendProbeIndex(JoinProbe probe)
     {
-        int position = probe.getPosition();
+        appendProbeIndex(probe, probe.getPosition());
+    }
+
+    private void appendProbeIndex(JoinProbe probe, int position)
+    {
         verify(position >= 0);
         int previousPosition = probeIndexBuilder.isEmpty() ? -1 : probeIndexBuilder.get(probeIndexBuilder.size() - 1);
         // positions to be appended should be in ascending order
@@ -44,6 +44,14 @@ public interface LookupSource
 
     boolean isEmpty();
 
+    /**
+     * Whether {@link #isJoinPositionEligible} returns true for every join position, i.e. there is no join filter to evaluate.
+     */
+    default boolean isJoinPositionAlwaysEligible()
+    {
+        return false;
+    }
+
     @Override
     void close();
 
@@ -68,4 +76,45 @@ public interface LookupSource
             result[positions[i]] = getJoinPosition(positions[i], hashChannelsPage, allChannelsPage);
         }
     }
+
+    /**
+     * Collects the eligible (probe position, join position) pairs of the page into `probeOutput` and `buildOutput`,
+     * starting with `joinPosition` of `probePosition` and going on with the following probe positions, whose first join
+     * positions are in `firstJoinPositions`. Stops when the output arrays are full, in which case the last collected
+     * pair is where the collection stopped.
+     *
+     * @return the number of collected pairs
+     */
+    default int getJoinPositions(int probePosition, long joinPosition, long[] firstJoinPositions, Page allProbeChannelsPage, int[] probeOutput, long[] buildOutput)
+    {
+        int count = 0;
+        long currentJoinPosition = joinPosition;
+        for (int position = probePosition; position < firstJoinPositions.length; position++) {
+            if (position > probePosition) {
+                currentJoinPosition = firstJoinPositions[position];
+            }
+            while (currentJoinPosition >= 0) {
+                if (isJoinPositionEligible(currentJoinPosition, position, allProbeChannelsPage)) {
+                    probeOutput[count] = position;
+                    buildOutput[count] = currentJoinPosition;
+                    count++;
+                    if (count == probeOutput.length) {
+                        return count;
+                    }
+                }
+                currentJoinPosition = getNextJoinPosition(currentJoinPosition, position, allProbeChannelsPage);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends the rows of the first `length` join positions, the caller declares the positions on the page builder.
+     */
+    default void appendTo(long[] positions, int length, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        for (int i = 0; i < length; i++) {
+            appendTo(positions[i], pageBuilder, outputChannelOffset);
+        }
+    }
 }
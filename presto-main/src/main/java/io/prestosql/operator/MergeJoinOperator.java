@@ -0,0 +1,534 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inner equi-join of two inputs that are both sorted ascending on the join keys.
+ * The build side is streamed from a {@link MergeJoinSource}, and only the build rows
+ * sharing the key of the current probe row are kept in memory.
+ * Rows with a null key never match and are skipped.
+ */
+@RestorableConfig(unsupported = true)
+public class MergeJoinOperator
+        implements Operator, Closeable
+{
+    public static class MergeJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinBridgeManager<MergeJoinSource> joinBridgeManager;
+        private final List<Type> probeTypes;
+        private final List<Integer> probeJoinChannels;
+        private final List<Integer> buildJoinChannels;
+        private boolean closed;
+
+        public MergeJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager,
+                List<Type> probeTypes,
+                List<Integer> probeJoinChannels,
+                List<Integer> buildJoinChannels)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.joinBridgeManager = requireNonNull(mergeJoinSourceManager, "mergeJoinSourceManager is null");
+            this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+            this.probeJoinChannels = ImmutableList.copyOf(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+            this.buildJoinChannels = ImmutableList.copyOf(requireNonNull(buildJoinChannels, "buildJoinChannels is null"));
+            checkArgument(!probeJoinChannels.isEmpty(), "probeJoinChannels is empty");
+            checkArgument(probeJoinChannels.size() == buildJoinChannels.size(), "probeJoinChannels and buildJoinChannels must have the same size");
+            this.joinBridgeManager.incrementProbeFactoryCount();
+        }
+
+        private MergeJoinOperatorFactory(MergeJoinOperatorFactory other)
+        {
+            requireNonNull(other, "other is null");
+            this.operatorId = other.operatorId;
+            this.planNodeId = other.planNodeId;
+            this.joinBridgeManager = other.joinBridgeManager;
+            this.probeTypes = other.probeTypes;
+            this.probeJoinChannels = other.probeJoinChannels;
+            this.buildJoinChannels = other.buildJoinChannels;
+
+            // closed is intentionally not copied
+            closed = false;
+
+            joinBridgeManager.incrementProbeFactoryCount();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            MergeJoinSource mergeJoinSource = joinBridgeManager.getJoinBridge(driverContext.getLifespan());
+            mergeJoinSource.registerConsumer();
+
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinOperator.class.getSimpleName());
+
+            joinBridgeManager.probeOperatorCreated(driverContext.getLifespan());
+            return new MergeJoinOperator(
+                    operatorContext,
+                    mergeJoinSource,
+                    probeTypes,
+                    joinBridgeManager.getBuildOutputTypes(),
+                    probeJoinChannels,
+                    buildJoinChannels,
+                    () -> joinBridgeManager.probeOperatorClosed(driverContext.getLifespan()));
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            joinBridgeManager.probeOperatorFactoryClosedForAllLifespans();
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            joinBridgeManager.getJoinBridge(lifespan).noMoreConsumers();
+            joinBridgeManager.probeOperatorFactoryClosed(lifespan);
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new MergeJoinOperatorFactory(this);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinSource mergeJoinSource;
+    private final List<Type> probeTypes;
+    private final List<Type> buildTypes;
+    private final int[] probeJoinChannels;
+    private final int[] buildJoinChannels;
+    private final List<Type> keyTypes;
+    private final Runnable afterClose;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final PageBuilder pageBuilder;
+
+    private Page probePage;
+    private int probePosition;
+    private Page lastProbePage;
+    private int lastProbePosition;
+
+    // next build row that is not part of the current run
+    private Page buildPage;
+    private int buildPosition;
+    private boolean buildPositionChecked;
+    private Page lastBuildPage;
+    private int lastBuildPosition;
+
+    // build rows sharing one key, as ranges of build pages
+    private final List<Page> runPages = new ArrayList<>();
+    private final List<int[]> runRanges = new ArrayList<>();
+    private boolean runComplete;
+    // position of the next build row of the run to join with the current probe row
+    private int outputRange;
+    private int outputPosition = -1;
+
+    private boolean waitingForBuild;
+    private boolean finishing;
+    private boolean finished;
+    private boolean closed;
+
+    private MergeJoinOperator(
+            OperatorContext operatorContext,
+            MergeJoinSource mergeJoinSource,
+            List<Type> probeTypes,
+            List<Type> buildTypes,
+            List<Integer> probeJoinChannels,
+            List<Integer> buildJoinChannels,
+            Runnable afterClose)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinSource = requireNonNull(mergeJoinSource, "mergeJoinSource is null");
+        this.probeTypes = ImmutableList.copyOf(requireNonNull(probeTypes, "probeTypes is null"));
+        this.buildTypes = ImmutableList.copyOf(requireNonNull(buildTypes, "buildTypes is null"));
+        this.probeJoinChannels = Ints.toArray(requireNonNull(probeJoinChannels, "probeJoinChannels is null"));
+        this.buildJoinChannels = Ints.toArray(requireNonNull(buildJoinChannels, "buildJoinChannels is null"));
+        ImmutableList.Builder<Type> keyTypes = ImmutableList.builder();
+        for (int channel : this.probeJoinChannels) {
+            keyTypes.add(probeTypes.get(channel));
+        }
+        this.keyTypes = keyTypes.build();
+        this.afterClose = requireNonNull(afterClose, "afterClose is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.pageBuilder = new PageBuilder(ImmutableList.<Type>builder()
+                .addAll(probeTypes)
+                .addAll(buildTypes)
+                .build());
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        boolean isFinished = (finished || (finishing && probePage == null)) && pageBuilder.isEmpty();
+        if (isFinished) {
+            close();
+        }
+        return isFinished;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (waitingForBuild) {
+            return mergeJoinSource.whenPageAvailable();
+        }
+        return NOT_BLOCKED;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && !finished && probePage == null;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(needsInput(), "Operator does not need input");
+
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+        probePage = page;
+        probePosition = 0;
+        updateMemoryUsage();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (!finished && probePage != null) {
+            processProbe();
+        }
+
+        if (pageBuilder.isFull() || (!pageBuilder.isEmpty() && (probePage == null || finished))) {
+            Page output = pageBuilder.build();
+            pageBuilder.reset();
+            return output;
+        }
+        return null;
+    }
+
+    private void processProbe()
+    {
+        waitingForBuild = false;
+        while (!pageBuilder.isFull()) {
+            if (outputPosition >= 0) {
+                appendRun();
+                continue;
+            }
+
+            if (probePosition == probePage.getPositionCount()) {
+                probePage = null;
+                updateMemoryUsage();
+                return;
+            }
+
+            if (hasNullKey(probePage, probeJoinChannels, probePosition)) {
+                probePosition++;
+                continue;
+            }
+            checkProbeSorted();
+
+            if (!prepareRun()) {
+                waitingForBuild = true;
+                updateMemoryUsage();
+                return;
+            }
+            if (runPages.isEmpty()) {
+                // build side is exhausted, no other probe row can match
+                finishEarly();
+                return;
+            }
+
+            int comparison = compareKeys(probePage, probeJoinChannels, probePosition, runPages.get(0), buildJoinChannels, runRanges.get(0)[0]);
+            if (comparison < 0) {
+                probePosition++;
+            }
+            else {
+                // prepareRun only returns runs with a key not less than the probe key
+                checkState(comparison == 0, "Merge join run is behind the probe key");
+                outputRange = 0;
+                outputPosition = runRanges.get(0)[0];
+            }
+        }
+        updateMemoryUsage();
+    }
+
+    /**
+     * Joins the current probe row with the remaining rows of the current run.
+     */
+    private void appendRun()
+    {
+        Page runPage = runPages.get(outputRange);
+        int[] range = runRanges.get(outputRange);
+        while (outputPosition < range[1]) {
+            if (pageBuilder.isFull()) {
+                return;
+            }
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < probeTypes.size(); channel++) {
+                probeTypes.get(channel).appendTo(probePage.getBlock(channel), probePosition, pageBuilder.getBlockBuilder(channel));
+            }
+            int offset = probeTypes.size();
+            for (int channel = 0; channel < buildTypes.size(); channel++) {
+                buildTypes.get(channel).appendTo(runPage.getBlock(channel), outputPosition, pageBuilder.getBlockBuilder(offset + channel));
+            }
+            outputPosition++;
+        }
+
+        outputRange++;
+        if (outputRange < runRanges.size()) {
+            outputPosition = runRanges.get(outputRange)[0];
+        }
+        else {
+            outputPosition = -1;
+            probePosition++;
+        }
+    }
+
+    /**
+     * Positions the current run on the first build key that is not less than the key of the current probe row.
+     * Returns false if more build pages are needed. On return, an empty run means the build side is exhausted.
+     */
+    private boolean prepareRun()
+    {
+        while (true) {
+            if (!runPages.isEmpty()) {
+                if (!runComplete) {
+                    if (!extendRun()) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (compareKeys(probePage, probeJoinChannels, probePosition, runPages.get(0), buildJoinChannels, runRanges.get(0)[0]) <= 0) {
+                    return true;
+                }
+                clearRun();
+            }
+
+            if (!nextBuildRow()) {
+                return mergeJoinSource.isExhausted();
+            }
+            if (compareKeys(buildPage, buildJoinChannels, buildPosition, probePage, probeJoinChannels, probePosition) < 0) {
+                // no probe row left can match this build row
+                buildPosition++;
+                buildPositionChecked = false;
+                continue;
+            }
+
+            runPages.add(buildPage);
+            runRanges.add(new int[] {buildPosition, buildPosition + 1});
+            buildPosition++;
+            buildPositionChecked = false;
+            runComplete = false;
+        }
+    }
+
+    /**
+     * Adds the following build rows with the key of the run. Returns false if more build pages are needed.
+     */
+    private boolean extendRun()
+    {
+        Page keyPage = runPages.get(0);
+        int keyPosition = runRanges.get(0)[0];
+        while (true) {
+            if (!nextBuildRow()) {
+                if (mergeJoinSource.isExhausted()) {
+                    runComplete = true;
+                    return true;
+                }
+                return false;
+            }
+            if (compareKeys(buildPage, buildJoinChannels, buildPosition, keyPage, buildJoinChannels, keyPosition) != 0) {
+                runComplete = true;
+                return true;
+            }
+
+            int[] lastRange = runRanges.get(runRanges.size() - 1);
+            if (runPages.get(runPages.size() - 1) == buildPage && lastRange[1] == buildPosition) {
+                lastRange[1]++;
+            }
+            else {
+                runPages.add(buildPage);
+                runRanges.add(new int[] {buildPosition, buildPosition + 1});
+            }
+            buildPosition++;
+            buildPositionChecked = false;
+        }
+    }
+
+    /**
+     * Moves the build cursor to the next build row with a non-null key. Returns false if no such row is available yet.
+     */
+    private boolean nextBuildRow()
+    {
+        while (true) {
+            if (buildPage == null || buildPosition == buildPage.getPositionCount()) {
+                buildPage = mergeJoinSource.pollPage();
+                buildPosition = 0;
+                buildPositionChecked = false;
+                if (buildPage == null) {
+                    return false;
+                }
+                continue;
+            }
+            if (hasNullKey(buildPage, buildJoinChannels, buildPosition)) {
+                buildPosition++;
+                continue;
+            }
+            if (!buildPositionChecked) {
+                if (lastBuildPage != null && compareKeys(lastBuildPage, buildJoinChannels, lastBuildPosition, buildPage, buildJoinChannels, buildPosition) > 0) {
+                    throw notSorted("build");
+                }
+                lastBuildPage = buildPage;
+                lastBuildPosition = buildPosition;
+                buildPositionChecked = true;
+            }
+            return true;
+        }
+    }
+
+    private void checkProbeSorted()
+    {
+        if (lastProbePage != null && (lastProbePage != probePage || lastProbePosition != probePosition)) {
+            if (compareKeys(lastProbePage, probeJoinChannels, lastProbePosition, probePage, probeJoinChannels, probePosition) > 0) {
+                throw notSorted("probe");
+            }
+        }
+        lastProbePage = probePage;
+        lastProbePosition = probePosition;
+    }
+
+    private void clearRun()
+    {
+        runPages.clear();
+        runRanges.clear();
+        runComplete = false;
+    }
+
+    private void finishEarly()
+    {
+        finished = true;
+        probePage = null;
+        mergeJoinSource.finishConsumer();
+        updateMemoryUsage();
+    }
+
+    private int compareKeys(Page left, int[] leftChannels, int leftPosition, Page right, int[] rightChannels, int rightPosition)
+    {
+        for (int i = 0; i < keyTypes.size(); i++) {
+            Block leftBlock = left.getBlock(leftChannels[i]);
+            Block rightBlock = right.getBlock(rightChannels[i]);
+            int comparison = keyTypes.get(i).compareTo(leftBlock, leftPosition, rightBlock, rightPosition);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasNullKey(Page page, int[] channels, int position)
+    {
+        for (int channel : channels) {
+            if (page.getBlock(channel).isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updateMemoryUsage()
+    {
+        long bytes = probePage == null ? 0 : probePage.getRetainedSizeInBytes();
+        Page previous = null;
+        for (Page page : runPages) {
+            // ranges of one page are adjacent in the run
+            if (page != previous) {
+                bytes += page.getRetainedSizeInBytes();
+            }
+            previous = page;
+        }
+        localUserMemoryContext.setBytes(bytes);
+    }
+
+    private static PrestoException notSorted(String side)
+    {
+        return new PrestoException(NOT_SUPPORTED, "Merge join input on the " + side + " side is not sorted on the join keys, set merge_join_enabled to false to run this query");
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        probePage = null;
+        lastProbePage = null;
+        buildPage = null;
+        lastBuildPage = null;
+        runPages.clear();
+        runRanges.clear();
+        localUserMemoryContext.setBytes(0);
+        mergeJoinSource.finishConsumer();
+        // `afterClose` must be run last.
+        afterClose.run();
+    }
+}
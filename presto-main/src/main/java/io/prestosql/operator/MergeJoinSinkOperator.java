@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.RestorableConfig;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Feeds the sorted build side of a merge join into the {@link MergeJoinSource} of its driver group.
+ */
+@RestorableConfig(unsupported = true)
+public class MergeJoinSinkOperator
+        implements SinkOperator
+{
+    public static class MergeJoinSinkOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager;
+
+        private boolean closed;
+
+        public MergeJoinSinkOperatorFactory(int operatorId, PlanNodeId planNodeId, JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.mergeJoinSourceManager = requireNonNull(mergeJoinSourceManager, "mergeJoinSourceManager is null");
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            MergeJoinSource mergeJoinSource = mergeJoinSourceManager.getJoinBridge(driverContext.getLifespan());
+            mergeJoinSource.registerProducer();
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MergeJoinSinkOperator.class.getSimpleName());
+            return new MergeJoinSinkOperator(operatorContext, mergeJoinSource);
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            closed = true;
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            mergeJoinSourceManager.getJoinBridge(lifespan).noMoreProducers();
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new MergeJoinSinkOperatorFactory(operatorId, planNodeId, mergeJoinSourceManager);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final MergeJoinSource mergeJoinSource;
+    private final LocalMemoryContext localUserMemoryContext;
+
+    private boolean finishing;
+
+    public MergeJoinSinkOperator(OperatorContext operatorContext, MergeJoinSource mergeJoinSource)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.mergeJoinSource = requireNonNull(mergeJoinSource, "mergeJoinSource is null");
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finishing) {
+            return;
+        }
+        finishing = true;
+        mergeJoinSource.finishProducer();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        // buffered pages are accounted to this operator until the probe side has taken them
+        localUserMemoryContext.setBytes(mergeJoinSource.getBufferedBytes());
+        return finishing && mergeJoinSource.isDrained();
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        return finishing ? mergeJoinSource.whenDrained() : mergeJoinSource.whenNotFull();
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing && !mergeJoinSource.isFull();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(!finishing, "Operator is finishing");
+
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+
+        mergeJoinSource.addPage(page);
+        localUserMemoryContext.setBytes(mergeJoinSource.getBufferedBytes());
+        operatorContext.recordOutput(page.getSizeInBytes(), page.getPositionCount());
+    }
+
+    @Override
+    public void close()
+    {
+        localUserMemoryContext.setBytes(0);
+    }
+}
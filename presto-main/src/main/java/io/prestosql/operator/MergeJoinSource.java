@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hands the sorted pages of the build side of a merge join over to the probe side of the same driver group.
+ * Only a few pages are buffered at a time, so the build driver is blocked until the probe catches up.
+ * Both sides must be produced by a single driver, otherwise the order of the rows would be lost.
+ */
+public final class MergeJoinSource
+        implements JoinBridge
+{
+    private static final int MAX_BUFFERED_PAGES = 4;
+
+    private final SettableFuture<?> buildFinished = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final Queue<Page> pages = new ArrayDeque<>();
+    @GuardedBy("this")
+    private long bufferedBytes;
+    @GuardedBy("this")
+    private SettableFuture<?> pagesAvailable = SettableFuture.create();
+    @GuardedBy("this")
+    private SettableFuture<?> pagesConsumed = SettableFuture.create();
+
+    @GuardedBy("this")
+    private int producers;
+    @GuardedBy("this")
+    private boolean producerFinished;
+    @GuardedBy("this")
+    private int consumers;
+    @GuardedBy("this")
+    private boolean consumerFinished;
+
+    public synchronized void registerProducer()
+    {
+        producers++;
+        if (producers > 1) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join requires a single sorted split per bucket on the build side, set merge_join_enabled to false to run this query");
+        }
+    }
+
+    public synchronized void registerConsumer()
+    {
+        consumers++;
+        if (consumers > 1) {
+            throw new PrestoException(NOT_SUPPORTED, "Merge join requires a single sorted split per bucket on the probe side, set merge_join_enabled to false to run this query");
+        }
+    }
+
+    /**
+     * Called when no more build operators will be created for the driver group.
+     */
+    public void noMoreProducers()
+    {
+        synchronized (this) {
+            if (producers > 0) {
+                return;
+            }
+        }
+        finishProducer();
+    }
+
+    /**
+     * Called when no more probe operators will be created for the driver group.
+     */
+    public void noMoreConsumers()
+    {
+        synchronized (this) {
+            if (consumers > 0) {
+                return;
+            }
+        }
+        finishConsumer();
+    }
+
+    public synchronized boolean isFull()
+    {
+        return !consumerFinished && pages.size() >= MAX_BUFFERED_PAGES;
+    }
+
+    /**
+     * Future that completes when the build side may add more pages.
+     */
+    public synchronized ListenableFuture<?> whenNotFull()
+    {
+        if (!isFull()) {
+            return NOT_BLOCKED;
+        }
+        return pagesConsumed;
+    }
+
+    /**
+     * Future that completes when all pages handed over by the build side have been taken by the probe side.
+     */
+    public synchronized ListenableFuture<?> whenDrained()
+    {
+        if (consumerFinished || pages.isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        return pagesConsumed;
+    }
+
+    public synchronized boolean isDrained()
+    {
+        return consumerFinished || pages.isEmpty();
+    }
+
+    public synchronized long getBufferedBytes()
+    {
+        return bufferedBytes;
+    }
+
+    public void addPage(Page page)
+    {
+        requireNonNull(page, "page is null");
+        SettableFuture<?> available;
+        synchronized (this) {
+            checkState(!producerFinished, "Build side is already finished");
+            if (consumerFinished) {
+                return;
+            }
+            pages.add(page);
+            bufferedBytes += page.getRetainedSizeInBytes();
+            available = pagesAvailable;
+            pagesAvailable = SettableFuture.create();
+        }
+        available.set(null);
+    }
+
+    /**
+     * Future that completes when a page can be polled or the build side is finished.
+     */
+    public synchronized ListenableFuture<?> whenPageAvailable()
+    {
+        if (!pages.isEmpty() || producerFinished) {
+            return NOT_BLOCKED;
+        }
+        return pagesAvailable;
+    }
+
+    /**
+     * Returns the next build page, or null if no page is buffered at the moment.
+     */
+    public Page pollPage()
+    {
+        Page page;
+        SettableFuture<?> consumed;
+        synchronized (this) {
+            page = pages.poll();
+            if (page == null) {
+                return null;
+            }
+            bufferedBytes -= page.getRetainedSizeInBytes();
+            consumed = pagesConsumed;
+            pagesConsumed = SettableFuture.create();
+        }
+        consumed.set(null);
+        return page;
+    }
+
+    /**
+     * Returns true if the build side is finished and all its pages have been polled.
+     */
+    public synchronized boolean isExhausted()
+    {
+        return producerFinished && pages.isEmpty();
+    }
+
+    public void finishProducer()
+    {
+        SettableFuture<?> available;
+        synchronized (this) {
+            if (producerFinished) {
+                return;
+            }
+            producerFinished = true;
+            available = pagesAvailable;
+        }
+        available.set(null);
+        buildFinished.set(null);
+    }
+
+    /**
+     * Called by the probe side once it does not need any more build pages.
+     * Pages added afterwards are dropped, so the build side can finish without blocking.
+     */
+    public void finishConsumer()
+    {
+        SettableFuture<?> consumed;
+        synchronized (this) {
+            if (consumerFinished) {
+                return;
+            }
+            consumerFinished = true;
+            pages.clear();
+            bufferedBytes = 0;
+            consumed = pagesConsumed;
+        }
+        consumed.set(null);
+    }
+
+    @Override
+    public OuterPositionIterator getOuterPositionIterator()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ListenableFuture<?> whenBuildFinishes()
+    {
+        return buildFinished;
+    }
+
+    @Override
+    public ListenableFuture<?> whenMemProbeFinishes()
+    {
+        return NOT_BLOCKED;
+    }
+
+    @Override
+    public void destroy()
+    {
+        finishConsumer();
+    }
+}
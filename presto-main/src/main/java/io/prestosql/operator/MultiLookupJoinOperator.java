@@ -0,0 +1,466 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.JoinProbe.JoinProbeFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Inner joins of one probe input with several lookup sources, for a chain of inner joins without join filters
+ * whose probe keys all come from the input of the bottom join, such as a fact table joined with its dimension tables.
+ * Each probe page is looked up in all the lookup sources before any output is produced, so probe rows missing one
+ * of the joins are dropped without building the intermediate join results, and only the probe and build columns
+ * used above the chain are copied to the output.
+ */
+@RestorableConfig(unsupported = true)
+public class MultiLookupJoinOperator
+        implements Operator, Closeable
+{
+    public static class MultiLookupJoinOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final PlanNodeId planNodeId;
+        private final List<JoinBridgeManager<? extends LookupSourceFactory>> joinBridgeManagers;
+        private final List<Integer> probeOutputChannels;
+        private final List<List<Integer>> probeJoinChannels;
+        private final List<OptionalInt> probeHashChannels;
+        private boolean closed;
+
+        public MultiLookupJoinOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<JoinBridgeManager<? extends LookupSourceFactory>> lookupSourceFactoryManagers,
+                List<Integer> probeOutputChannels,
+                List<List<Integer>> probeJoinChannels,
+                List<OptionalInt> probeHashChannels)
+        {
+            this.operatorId = operatorId;
+            this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
+            this.joinBridgeManagers = ImmutableList.copyOf(requireNonNull(lookupSourceFactoryManagers, "lookupSourceFactoryManagers is null"));
+            this.probeOutputChannels = ImmutableList.copyOf(requireNonNull(probeOutputChannels, "probeOutputChannels is null"));
+            this.probeJoinChannels = requireNonNull(probeJoinChannels, "probeJoinChannels is null").stream()
+                    .map(ImmutableList::copyOf)
+                    .collect(toImmutableList());
+            this.probeHashChannels = ImmutableList.copyOf(requireNonNull(probeHashChannels, "probeHashChannels is null"));
+            checkArgument(!joinBridgeManagers.isEmpty(), "lookupSourceFactoryManagers is empty");
+            checkArgument(joinBridgeManagers.size() == this.probeJoinChannels.size(), "probeJoinChannels must have one entry per lookup source");
+            checkArgument(joinBridgeManagers.size() == this.probeHashChannels.size(), "probeHashChannels must have one entry per lookup source");
+            joinBridgeManagers.forEach(JoinBridgeManager::incrementProbeFactoryCount);
+        }
+
+        private MultiLookupJoinOperatorFactory(MultiLookupJoinOperatorFactory other)
+        {
+            requireNonNull(other, "other is null");
+            checkArgument(!other.closed, "cannot duplicated closed OperatorFactory");
+            this.operatorId = other.operatorId;
+            this.planNodeId = other.planNodeId;
+            this.joinBridgeManagers = other.joinBridgeManagers;
+            this.probeOutputChannels = other.probeOutputChannels;
+            this.probeJoinChannels = other.probeJoinChannels;
+            this.probeHashChannels = other.probeHashChannels;
+
+            // closed is intentionally not copied
+            closed = false;
+
+            joinBridgeManagers.forEach(JoinBridgeManager::incrementProbeFactoryCount);
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            Lifespan lifespan = driverContext.getLifespan();
+            ImmutableList.Builder<LookupSourceFactory> lookupSourceFactories = ImmutableList.builder();
+            for (JoinBridgeManager<? extends LookupSourceFactory> joinBridgeManager : joinBridgeManagers) {
+                LookupSourceFactory lookupSourceFactory = joinBridgeManager.getJoinBridge(lifespan);
+                lookupSourceFactory.setTaskContext(driverContext.getPipelineContext().getTaskContext());
+                lookupSourceFactories.add(lookupSourceFactory);
+            }
+
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MultiLookupJoinOperator.class.getSimpleName());
+
+            joinBridgeManagers.forEach(joinBridgeManager -> joinBridgeManager.probeOperatorCreated(lifespan));
+            return new MultiLookupJoinOperator(
+                    operatorContext,
+                    lookupSourceFactories.build(),
+                    joinBridgeManagers.stream()
+                            .map(JoinBridgeManager::getBuildOutputTypes)
+                            .collect(toImmutableList()),
+                    probeOutputChannels,
+                    probeJoinChannels,
+                    probeHashChannels,
+                    () -> joinBridgeManagers.forEach(joinBridgeManager -> joinBridgeManager.probeOperatorFinished(lifespan)),
+                    () -> joinBridgeManagers.forEach(joinBridgeManager -> joinBridgeManager.probeOperatorClosed(lifespan)));
+        }
+
+        @Override
+        public void noMoreOperators()
+        {
+            checkState(!closed);
+            closed = true;
+            joinBridgeManagers.forEach(JoinBridgeManager::probeOperatorFactoryClosedForAllLifespans);
+        }
+
+        @Override
+        public void noMoreOperators(Lifespan lifespan)
+        {
+            joinBridgeManagers.forEach(joinBridgeManager -> joinBridgeManager.probeOperatorFactoryClosed(lifespan));
+        }
+
+        @Override
+        public OperatorFactory duplicate()
+        {
+            return new MultiLookupJoinOperatorFactory(this);
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final List<ListenableFuture<LookupSourceProvider>> lookupSourceProviderFutures;
+    private final ListenableFuture<List<LookupSourceProvider>> lookupSourceProvidersFuture;
+    private final JoinProbeFactory joinProbeFactory;
+    private final int[][] probeJoinChannels;
+    private final int[] probeHashChannels;
+    private final int[] buildOutputChannelOffsets;
+    // for each lookup source, the first join positions of the rows of the probe page
+    private final long[][] firstJoinPositions;
+    private final LookupJoinPageBuilder pageBuilder;
+    private final LocalMemoryContext localUserMemoryContext;
+    private final Runnable afterClose;
+
+    private Runnable afterMemOpFinish;
+
+    private List<LookupSourceProvider> lookupSourceProviders;
+    private LookupSource[] lookupSources;
+
+    private JoinProbe probe;
+    // rows of the probe page that match every lookup source, in ascending order
+    private int[] matchedPositions;
+    private int matchedCount;
+    // index in matchedPositions of the row being joined
+    private int matchIndex;
+    // combination of join positions to append next for the row being joined, null if the row is not started
+    private long[] joinPositions;
+
+    private boolean finishing;
+    private boolean closed;
+
+    private MultiLookupJoinOperator(
+            OperatorContext operatorContext,
+            List<LookupSourceFactory> lookupSourceFactories,
+            List<List<Type>> buildOutputTypes,
+            List<Integer> probeOutputChannels,
+            List<List<Integer>> probeJoinChannels,
+            List<OptionalInt> probeHashChannels,
+            Runnable afterMemOpFinish,
+            Runnable afterClose)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.lookupSourceProviderFutures = requireNonNull(lookupSourceFactories, "lookupSourceFactories is null").stream()
+                .map(LookupSourceFactory::createLookupSourceProvider)
+                .collect(toImmutableList());
+        this.lookupSourceProvidersFuture = Futures.allAsList(lookupSourceProviderFutures);
+        this.joinProbeFactory = new JoinProbeFactory(Ints.toArray(probeOutputChannels), ImmutableList.of(), OptionalInt.empty());
+        this.probeJoinChannels = probeJoinChannels.stream()
+                .map(Ints::toArray)
+                .toArray(int[][]::new);
+        this.probeHashChannels = probeHashChannels.stream()
+                .mapToInt(channel -> channel.orElse(-1))
+                .toArray();
+
+        this.buildOutputChannelOffsets = new int[buildOutputTypes.size()];
+        ImmutableList.Builder<Type> outputTypes = ImmutableList.builder();
+        int offset = 0;
+        for (int i = 0; i < buildOutputTypes.size(); i++) {
+            buildOutputChannelOffsets[i] = offset;
+            outputTypes.addAll(buildOutputTypes.get(i));
+            offset += buildOutputTypes.get(i).size();
+        }
+        this.pageBuilder = new LookupJoinPageBuilder(outputTypes.build());
+        this.firstJoinPositions = new long[lookupSourceFactories.size()][];
+
+        this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.afterMemOpFinish = requireNonNull(afterMemOpFinish, "afterMemOpFinish is null");
+        this.afterClose = requireNonNull(afterClose, "afterClose is null");
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public void finish()
+    {
+        finishing = true;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        boolean finished = finishing && probe == null;
+        if (finished) {
+            close();
+        }
+        return finished;
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (finishing) {
+            return NOT_BLOCKED;
+        }
+        return lookupSourceProvidersFuture;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finishing
+                && probe == null
+                && lookupSourceProvidersFuture.isDone();
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        requireNonNull(page, "page is null");
+        checkState(needsInput(), "Operator does not need input");
+        checkState(tryFetchLookupSources(), "Not ready to handle input yet");
+
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+        probe = joinProbeFactory.createJoinProbe(page);
+        lookupPage(page);
+        matchIndex = 0;
+        joinPositions = null;
+        updateMemoryUsage();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        if (probe == null) {
+            return null;
+        }
+
+        while (matchIndex < matchedCount && !pageBuilder.isFull()) {
+            joinCurrentRow();
+        }
+
+        Page output = null;
+        if (!pageBuilder.isEmpty()) {
+            output = pageBuilder.build(probe);
+            pageBuilder.reset();
+        }
+        if (matchIndex == matchedCount) {
+            clearProbe();
+        }
+        return output;
+    }
+
+    private boolean tryFetchLookupSources()
+    {
+        if (lookupSources == null) {
+            if (!lookupSourceProvidersFuture.isDone()) {
+                return false;
+            }
+            lookupSourceProviders = getDone(lookupSourceProvidersFuture);
+            // spilling is not supported, so the lookup sources do not change while the operator runs
+            lookupSources = lookupSourceProviders.stream()
+                    .map(provider -> provider.withLease(lookupSourceLease -> lookupSourceLease.getLookupSource()))
+                    .toArray(LookupSource[]::new);
+        }
+        return true;
+    }
+
+    /**
+     * Looks up the rows of the page in each lookup source in turn, only the rows that matched all the previous
+     * lookup sources are looked up in the next one.
+     */
+    private void lookupPage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        int[] positions = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            positions[position] = position;
+        }
+        int count = positionCount;
+
+        for (int join = 0; join < lookupSources.length && count > 0; join++) {
+            int[] channels = probeJoinChannels[join];
+            // rows with a null key never match
+            int selectedCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (!hasNullKey(page, channels, positions[i])) {
+                    positions[selectedCount++] = positions[i];
+                }
+            }
+            if (selectedCount == 0) {
+                count = 0;
+                break;
+            }
+            int[] selectedPositions = selectedCount == positionCount ? positions : Arrays.copyOf(positions, selectedCount);
+
+            long[] result = new long[positionCount];
+            Page hashChannelsPage = page.getLoadedPage(channels);
+            if (probeHashChannels[join] >= 0) {
+                Block hashBlock = page.getBlock(probeHashChannels[join]);
+                long[] rawHashes = new long[positionCount];
+                for (int position : selectedPositions) {
+                    rawHashes[position] = BIGINT.getLong(hashBlock, position);
+                }
+                lookupSources[join].getJoinPosition(selectedPositions, hashChannelsPage, page, rawHashes, result);
+            }
+            else {
+                lookupSources[join].getJoinPosition(selectedPositions, hashChannelsPage, page, result);
+            }
+            firstJoinPositions[join] = result;
+
+            count = 0;
+            for (int i = 0; i < selectedCount; i++) {
+                if (result[positions[i]] >= 0) {
+                    positions[count++] = positions[i];
+                }
+            }
+        }
+
+        matchedPositions = positions;
+        matchedCount = count;
+    }
+
+    /**
+     * Appends the combinations of the join positions of the current row until all are appended or the page is full.
+     */
+    private void joinCurrentRow()
+    {
+        int position = matchedPositions[matchIndex];
+        if (joinPositions == null) {
+            joinPositions = new long[lookupSources.length];
+            for (int join = 0; join < lookupSources.length; join++) {
+                joinPositions[join] = firstJoinPositions[join][position];
+            }
+        }
+
+        while (!pageBuilder.isFull()) {
+            pageBuilder.appendRow(probe, position, lookupSources, joinPositions, buildOutputChannelOffsets);
+            if (!advanceJoinPositions(position)) {
+                joinPositions = null;
+                matchIndex++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next combination of join positions, iterating the last lookup source fastest.
+     * Returns false once all combinations were visited.
+     */
+    private boolean advanceJoinPositions(int position)
+    {
+        Page page = probe.getPage();
+        for (int join = lookupSources.length - 1; join >= 0; join--) {
+            long next = lookupSources[join].getNextJoinPosition(joinPositions[join], position, page);
+            if (next >= 0) {
+                joinPositions[join] = next;
+                return true;
+            }
+            joinPositions[join] = firstJoinPositions[join][position];
+        }
+        return false;
+    }
+
+    private static boolean hasNullKey(Page page, int[] channels, int position)
+    {
+        for (int channel : channels) {
+            if (page.getBlock(channel).isNull(position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearProbe()
+    {
+        probe = null;
+        matchedPositions = null;
+        matchedCount = 0;
+        matchIndex = 0;
+        joinPositions = null;
+        Arrays.fill(firstJoinPositions, null);
+        updateMemoryUsage();
+    }
+
+    private void updateMemoryUsage()
+    {
+        long bytes = 0;
+        if (probe != null) {
+            bytes += probe.getPage().getRetainedSizeInBytes();
+            bytes += (long) probe.getPage().getPositionCount() * (Integer.BYTES + (long) Long.BYTES * lookupSources.length);
+        }
+        localUserMemoryContext.setBytes(bytes);
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        probe = null;
+        matchedPositions = null;
+        Arrays.fill(firstJoinPositions, null);
+        pageBuilder.reset();
+        localUserMemoryContext.setBytes(0);
+
+        if (lookupSourceProviders != null) {
+            lookupSourceProviders.forEach(LookupSourceProvider::close);
+        }
+        else {
+            // We are no longer interested in the build sides
+            lookupSourceProviderFutures.forEach(future -> addSuccessCallback(future, LookupSourceProvider::close));
+        }
+        afterMemOpFinish.run();
+        afterMemOpFinish = () -> {};
+        // `afterClose` must be run last.
+        afterClose.run();
+    }
+}
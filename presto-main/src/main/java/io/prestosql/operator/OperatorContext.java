@@ -15,10 +15,12 @@ package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
 import io.prestosql.exchange.RetryPolicy;
@@ -41,7 +43,9 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -576,6 +580,7 @@ public class OperatorContext
 
                 new Duration(spillContext.getSpillReadTime(), MILLISECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(spillContext.getSpillWriteTime(), MILLISECONDS).convertToMostSuccinctTimeUnit(),
+                spillContext.getSpillCompressionCodecs(),
                 memoryFuture.get().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
                 info);
     }
@@ -630,6 +635,7 @@ public class OperatorContext
         private final AtomicLong spilledBytes = new AtomicLong();
         private final AtomicLong spillWriteTime = new AtomicLong();
         private final AtomicLong spillReadTime = new AtomicLong();
+        private final Map<String, Long> spillCompressionCodecs = new ConcurrentHashMap<>();
 
         public OperatorSpillContext(DriverContext driverContext)
         {
@@ -666,11 +672,22 @@ public class OperatorContext
             }
         }
 
+        @Override
+        public void updateCompressionCodec(PageCompressionCodec codec)
+        {
+            spillCompressionCodecs.merge(codec.name(), 1L, Long::sum);
+        }
+
         public long getSpilledBytes()
         {
             return spilledBytes.longValue();
         }
 
+        public Map<String, Long> getSpillCompressionCodecs()
+        {
+            return ImmutableMap.copyOf(spillCompressionCodecs);
+        }
+
         public long getSpillWriteTime()
         {
             return spillWriteTime.longValue();
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import io.prestosql.operator.TableWriterOperator.TableWriterInfo;
+import io.prestosql.operator.aggregation.partial.PartialAggregationInfo;
 import io.prestosql.operator.exchange.LocalExchangeBufferInfo;
 import io.prestosql.operator.output.PartitionedOutputOperator.PartitionedOutputInfo;
 
@@ -32,6 +33,7 @@ import io.prestosql.operator.output.PartitionedOutputOperator.PartitionedOutputI
         @JsonSubTypes.Type(value = PartitionedOutputInfo.class, name = "partitionedOutput"),
         @JsonSubTypes.Type(value = JoinOperatorInfo.class, name = "joinOperatorInfo"),
         @JsonSubTypes.Type(value = WindowInfo.class, name = "windowInfo"),
+        @JsonSubTypes.Type(value = PartialAggregationInfo.class, name = "partialAggregationInfo"),
         @JsonSubTypes.Type(value = TableWriterInfo.class, name = "tableWriter")})
 public interface OperatorInfo
 {
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -24,6 +25,8 @@ import io.prestosql.util.Mergeable;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -80,6 +83,7 @@ public class OperatorStats
     private final DataSize spilledDataSize;
     private final Duration spillReadTime;
     private final Duration spillWriteTime;
+    private final Map<String, Long> spillCompressionCodecs;
 
     private final Optional<BlockedReason> blockedReason;
 
@@ -132,6 +136,7 @@ public class OperatorStats
             @JsonProperty("spilledDataSize") DataSize spilledDataSize,
             @JsonProperty("spillReadTime") Duration spillReadTime,
             @JsonProperty("spillWriteTime") Duration spillWriteTime,
+            @JsonProperty("spillCompressionCodecs") Map<String, Long> spillCompressionCodecs,
 
             @JsonProperty("blockedReason") Optional<BlockedReason> blockedReason,
 
@@ -187,6 +192,7 @@ public class OperatorStats
         this.spilledDataSize = requireNonNull(spilledDataSize, "spilledDataSize is null");
         this.spillReadTime = requireNonNull(spillReadTime, "spillReadTime is null");
         this.spillWriteTime = requireNonNull(spillWriteTime, "spillWriteTime is null");
+        this.spillCompressionCodecs = ImmutableMap.copyOf(requireNonNull(spillCompressionCodecs, "spillCompressionCodecs is null"));
 
         this.blockedReason = blockedReason;
 
@@ -415,6 +421,15 @@ public class OperatorStats
         return spillWriteTime;
     }
 
+    /**
+     * Number of spills per compression codec selected by adaptive spill compression.
+     */
+    @JsonProperty
+    public Map<String, Long> getSpillCompressionCodecs()
+    {
+        return spillCompressionCodecs;
+    }
+
     @JsonProperty
     public Optional<BlockedReason> getBlockedReason()
     {
@@ -474,6 +489,7 @@ public class OperatorStats
         long currentSpilledDataSize = this.spilledDataSize.toBytes();
         long spillRead = this.spillReadTime.roundTo(NANOSECONDS);
         long spillWrite = this.spillWriteTime.roundTo(NANOSECONDS);
+        Map<String, Long> compressionCodecs = new HashMap<>(this.spillCompressionCodecs);
 
         Optional<BlockedReason> blockedReasonOptional = this.blockedReason;
 
@@ -521,6 +537,7 @@ public class OperatorStats
             currentSpilledDataSize += operator.getSpilledDataSize().toBytes();
             spillRead += operator.getSpillReadTime().roundTo(NANOSECONDS);
             spillWrite += operator.getSpillWriteTime().roundTo(NANOSECONDS);
+            operator.getSpillCompressionCodecs().forEach((codec, spills) -> compressionCodecs.merge(codec, spills, Long::sum));
 
             if (operator.getBlockedReason().isPresent()) {
                 blockedReasonOptional = operator.getBlockedReason();
@@ -578,6 +595,7 @@ public class OperatorStats
                 succinctBytes(currentSpilledDataSize),
                 new Duration(spillRead, NANOSECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(spillWrite, NANOSECONDS).convertToMostSuccinctTimeUnit(),
+                compressionCodecs,
                 blockedReasonOptional,
 
                 (OperatorInfo) base);
@@ -639,6 +657,7 @@ public class OperatorStats
                 spilledDataSize,
                 spillReadTime,
                 spillWriteTime,
+                spillCompressionCodecs,
                 blockedReason,
                 (info != null && info.isFinal()) ? info : null);
     }
@@ -94,6 +94,12 @@ public final class OuterLookupSource
         return lookupSource.getNextJoinPosition(currentJoinPosition, probePosition, allProbeChannelsPage);
     }
 
+    @Override
+    public boolean isJoinPositionAlwaysEligible()
+    {
+        return lookupSource.isJoinPositionAlwaysEligible();
+    }
+
     @Override
     public boolean isJoinPositionEligible(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -107,6 +113,21 @@ public final class OuterLookupSource
         outerPositionTracker.positionVisited(position);
     }
 
+    @Override
+    public int getJoinPositions(int probePosition, long joinPosition, long[] firstJoinPositions, Page allProbeChannelsPage, int[] probeOutput, long[] buildOutput)
+    {
+        return lookupSource.getJoinPositions(probePosition, joinPosition, firstJoinPositions, allProbeChannelsPage, probeOutput, buildOutput);
+    }
+
+    @Override
+    public void appendTo(long[] positions, int length, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        lookupSource.appendTo(positions, length, pageBuilder, outputChannelOffset);
+        for (int i = 0; i < length; i++) {
+            outerPositionTracker.positionVisited(positions[i]);
+        }
+    }
+
     @Override
     public void close()
     {
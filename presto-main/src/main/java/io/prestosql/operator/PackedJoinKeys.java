@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.BigintType;
+import io.prestosql.spi.type.BooleanType;
+import io.prestosql.spi.type.CharType;
+import io.prestosql.spi.type.DateType;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.IntegerType;
+import io.prestosql.spi.type.SmallintType;
+import io.prestosql.spi.type.TimestampType;
+import io.prestosql.spi.type.TinyintType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Layout of join keys whose values can be packed, bit for bit, into one or two longs.
+ * Two keys are equal exactly when their packed longs are equal, which lets
+ * {@link PackedKeysPagesHash} compare keys without calling the {@link PagesHashStrategy}.
+ * <p>
+ * Fixed width types take as many bits as their values, bounded varchar and char keys take
+ * their max length in bytes plus the bits needed for the actual length.
+ */
+public final class PackedJoinKeys
+{
+    public static final int MAX_BITS = 2 * Long.SIZE;
+
+    public static final int LONG_KEY = 0;
+    public static final int INT_KEY = 1;
+    public static final int SHORT_KEY = 2;
+    public static final int BYTE_KEY = 3;
+    public static final int BOOLEAN_KEY = 4;
+    public static final int SLICE_KEY = 5;
+
+    private final List<Integer> joinChannels;
+    private final int[] kinds;
+    private final int[] bitOffsets;
+    private final int[] bitWidths;
+    private final int[] maxLengths;
+    private final int wordCount;
+
+    private PackedJoinKeys(List<Integer> joinChannels, int[] kinds, int[] bitWidths, int[] maxLengths)
+    {
+        this.joinChannels = ImmutableList.copyOf(requireNonNull(joinChannels, "joinChannels is null"));
+        this.kinds = kinds;
+        this.bitWidths = bitWidths;
+        this.maxLengths = maxLengths;
+
+        bitOffsets = new int[kinds.length];
+        int totalBits = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            bitOffsets[i] = totalBits;
+            totalBits += bitWidths[i];
+        }
+        checkArgument(totalBits <= MAX_BITS, "join keys take more than %s bits", MAX_BITS);
+        wordCount = totalBits <= Long.SIZE ? 1 : 2;
+    }
+
+    /**
+     * Returns the layout of the join keys, or empty if any of the key types can't be packed
+     * or the keys don't fit in two longs.
+     */
+    public static Optional<PackedJoinKeys> create(List<? extends Type> types, List<Integer> joinChannels)
+    {
+        int keyCount = joinChannels.size();
+        int[] kinds = new int[keyCount];
+        int[] bitWidths = new int[keyCount];
+        int[] maxLengths = new int[keyCount];
+        int totalBits = 0;
+        for (int i = 0; i < keyCount; i++) {
+            Type type = types.get(joinChannels.get(i));
+            if (type instanceof BigintType || type instanceof TimestampType || (type instanceof DecimalType && ((DecimalType) type).isShort())) {
+                kinds[i] = LONG_KEY;
+                bitWidths[i] = Long.SIZE;
+            }
+            else if (type instanceof IntegerType || type instanceof DateType) {
+                kinds[i] = INT_KEY;
+                bitWidths[i] = Integer.SIZE;
+            }
+            else if (type instanceof SmallintType) {
+                kinds[i] = SHORT_KEY;
+                bitWidths[i] = Short.SIZE;
+            }
+            else if (type instanceof TinyintType) {
+                kinds[i] = BYTE_KEY;
+                bitWidths[i] = Byte.SIZE;
+            }
+            else if (type instanceof BooleanType) {
+                kinds[i] = BOOLEAN_KEY;
+                bitWidths[i] = 1;
+            }
+            else if ((type instanceof VarcharType && !((VarcharType) type).isUnbounded()) || type instanceof CharType) {
+                int length = type instanceof VarcharType ? ((VarcharType) type).getBoundedLength() : ((CharType) type).getLength();
+                if (length > MAX_BITS / Byte.SIZE) {
+                    return Optional.empty();
+                }
+                // a code point takes up to 4 bytes in UTF-8
+                kinds[i] = SLICE_KEY;
+                maxLengths[i] = length * 4;
+                bitWidths[i] = maxLengths[i] * Byte.SIZE + lengthBits(maxLengths[i]);
+            }
+            else {
+                return Optional.empty();
+            }
+            totalBits += bitWidths[i];
+            if (totalBits > MAX_BITS) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new PackedJoinKeys(joinChannels, kinds, bitWidths, maxLengths));
+    }
+
+    /**
+     * Number of bits needed to store a length between 0 and maxLength.
+     */
+    public static int lengthBits(int maxLength)
+    {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(maxLength);
+    }
+
+    /**
+     * Checks that the varchar and char values of the build side stay within their max length.
+     * A connector could return longer values than its declared type allows, those can't be packed.
+     */
+    public boolean fits(List<Page> pages)
+    {
+        for (int key = 0; key < kinds.length; key++) {
+            if (kinds[key] != SLICE_KEY) {
+                continue;
+            }
+            for (Page page : pages) {
+                Block block = page.getBlock(joinChannels.get(key));
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    if (!block.isNull(position) && block.getSliceLength(position) > maxLengths[key]) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    public List<Integer> getJoinChannels()
+    {
+        return joinChannels;
+    }
+
+    public int getKeyCount()
+    {
+        return kinds.length;
+    }
+
+    public int getWordCount()
+    {
+        return wordCount;
+    }
+
+    public int getKind(int key)
+    {
+        return kinds[key];
+    }
+
+    public int getBitOffset(int key)
+    {
+        return bitOffsets[key];
+    }
+
+    public int getBitWidth(int key)
+    {
+        return bitWidths[key];
+    }
+
+    public int getMaxLength(int key)
+    {
+        return maxLengths[key];
+    }
+}
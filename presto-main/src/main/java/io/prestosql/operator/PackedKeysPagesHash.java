@@ -0,0 +1,349 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.operator.PackedJoinKeys.BOOLEAN_KEY;
+import static io.prestosql.operator.PackedJoinKeys.BYTE_KEY;
+import static io.prestosql.operator.PackedJoinKeys.INT_KEY;
+import static io.prestosql.operator.PackedJoinKeys.LONG_KEY;
+import static io.prestosql.operator.PackedJoinKeys.SHORT_KEY;
+import static io.prestosql.operator.PackedJoinKeys.SLICE_KEY;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * This implementation assumes:
+ * -The join channels can be packed into one or two longs, as described by {@link PackedJoinKeys}
+ * -arrays used in the hash are always a power of 2.
+ * <p>
+ * Keys are compared by their packed longs, the {@link PagesHashStrategy} is only used to output rows.
+ */
+public final class PackedKeysPagesHash
+        implements IPagesHash
+{
+    private static final int INSTANCE_SIZE = toIntExact(ClassLayout.parseClass(PackedKeysPagesHash.class).instanceSize());
+    private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
+    private static final long WORD_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final LongArrayList addresses;
+    private final PagesHashStrategy pagesHashStrategy;
+
+    private final int[] kinds;
+    private final int[] bitOffsets;
+    private final int[] bitWidths;
+    private final int[] lengthBits;
+    private final int[] maxLengths;
+    private final boolean hasSliceKeys;
+    private final int wordCount;
+
+    private final int mask;
+    private final int[] keys;
+    private final long[] values;
+    private final long size;
+
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+    private final int channelCount;
+
+    public PackedKeysPagesHash(
+            LongArrayList addresses,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            List<Page> pages,
+            PackedJoinKeys packedJoinKeys)
+    {
+        this.addresses = requireNonNull(addresses, "addresses is null");
+        this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.channelCount = pagesHashStrategy.getChannelCount();
+        requireNonNull(pages, "pages is null");
+        requireNonNull(packedJoinKeys, "packedJoinKeys is null");
+
+        int keyCount = packedJoinKeys.getKeyCount();
+        kinds = new int[keyCount];
+        bitOffsets = new int[keyCount];
+        bitWidths = new int[keyCount];
+        lengthBits = new int[keyCount];
+        maxLengths = new int[keyCount];
+        boolean sliceKeys = false;
+        for (int key = 0; key < keyCount; key++) {
+            kinds[key] = packedJoinKeys.getKind(key);
+            bitOffsets[key] = packedJoinKeys.getBitOffset(key);
+            bitWidths[key] = packedJoinKeys.getBitWidth(key);
+            maxLengths[key] = packedJoinKeys.getMaxLength(key);
+            lengthBits[key] = PackedJoinKeys.lengthBits(maxLengths[key]);
+            sliceKeys |= kinds[key] == SLICE_KEY;
+        }
+        hasSliceKeys = sliceKeys;
+        wordCount = packedJoinKeys.getWordCount();
+
+        // pages of the join channels only, laid out like the probe side pages
+        ImmutableList.Builder<Page> keyPagesBuilder = ImmutableList.builder();
+        for (Page page : pages) {
+            Block[] keyBlocks = new Block[keyCount];
+            for (int key = 0; key < keyCount; key++) {
+                keyBlocks[key] = page.getBlock(packedJoinKeys.getJoinChannels().get(key));
+            }
+            keyPagesBuilder.add(new Page(page.getPositionCount(), keyBlocks));
+        }
+        List<Page> keyPages = keyPagesBuilder.build();
+
+        // reserve memory for the arrays
+        int hashSize = HashCommon.arraySize(addresses.size(), 0.75f);
+
+        mask = hashSize - 1;
+        keys = new int[hashSize];
+        values = new long[addresses.size() * wordCount];
+        Arrays.fill(keys, -1);
+
+        // We will process addresses in batches, to improve spatial and temporal memory locality
+        int positionsInStep = Math.min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
+        long hashCollisionsLocal = 0;
+
+        for (int step = 0; step * positionsInStep <= addresses.size(); step++) {
+            int stepBeginPosition = step * positionsInStep;
+            int stepEndPosition = Math.min((step + 1) * positionsInStep, addresses.size());
+            int stepSize = stepEndPosition - stepBeginPosition;
+
+            // index pages
+            for (int batchIndex = 0; batchIndex < stepSize; batchIndex++) {
+                int addressIndex = batchIndex + stepBeginPosition;
+                long address = addresses.getLong(addressIndex);
+                int blockIndex = decodeSliceIndex(address);
+                int blockPosition = decodePosition(address);
+                if (pagesHashStrategy.isPositionNull(blockIndex, blockPosition)) {
+                    continue;
+                }
+
+                Page keyPage = keyPages.get(blockIndex);
+                long word0 = packWord(keyPage, blockPosition, 0);
+                long word1 = wordCount == 1 ? 0 : packWord(keyPage, blockPosition, 1);
+
+                int pos = getHashPosition(hashWords(word0, word1), mask);
+
+                // look for an empty slot or a slot containing this key
+                while (keys[pos] != -1) {
+                    int currentKey = keys[pos];
+                    if (valueEquals(currentKey, word0, word1)) {
+                        // found a slot for this key
+                        // link the new key position to the current key position
+                        addressIndex = positionLinks.link(addressIndex, currentKey);
+
+                        // key[pos] updated outside of this loop
+                        break;
+                    }
+                    // increment position and mask to handler wrap around
+                    pos = (pos + 1) & mask;
+                    hashCollisionsLocal++;
+                }
+
+                keys[pos] = addressIndex;
+                values[addressIndex * wordCount] = word0;
+                if (wordCount == 2) {
+                    values[addressIndex * wordCount + 1] = word1;
+                }
+            }
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(keys) + sizeOf(values);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return addresses.size();
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE + size;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    @Override
+    public int getAddressIndex(int position, Page hashChannelsPage, long rawHash)
+    {
+        return getAddressIndex(position, hashChannelsPage);
+    }
+
+    @Override
+    public int getAddressIndex(int position, Page hashChannelsPage)
+    {
+        if (hasSliceKeys && !fits(hashChannelsPage, position)) {
+            // longer than any value of the build side
+            return -1;
+        }
+
+        long word0 = packWord(hashChannelsPage, position, 0);
+        long word1 = wordCount == 1 ? 0 : packWord(hashChannelsPage, position, 1);
+        int pos = getHashPosition(hashWords(word0, word1), mask);
+
+        while (keys[pos] != -1) {
+            if (valueEquals(keys[pos], word0, word1)) {
+                return keys[pos];
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long pageAddress = addresses.getLong(toIntExact(position));
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
+    }
+
+    private boolean valueEquals(int addressIndex, long word0, long word1)
+    {
+        if (wordCount == 1) {
+            return values[addressIndex] == word0;
+        }
+        return values[addressIndex * 2] == word0 && values[addressIndex * 2 + 1] == word1;
+    }
+
+    private static long hashWords(long word0, long word1)
+    {
+        return word0 ^ (word1 * WORD_MULTIPLIER);
+    }
+
+    private boolean fits(Page keyPage, int position)
+    {
+        for (int key = 0; key < kinds.length; key++) {
+            if (kinds[key] == SLICE_KEY && keyPage.getBlock(key).getSliceLength(position) > maxLengths[key]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packs the bits of the keys that fall into the given word, keys can straddle both words.
+     */
+    private long packWord(Page keyPage, int position, int word)
+    {
+        long packed = 0;
+        for (int key = 0; key < kinds.length; key++) {
+            int shift = bitOffsets[key] - word * Long.SIZE;
+            if (shift >= Long.SIZE || shift + bitWidths[key] <= 0) {
+                continue;
+            }
+            Block block = keyPage.getBlock(key);
+            switch (kinds[key]) {
+                case LONG_KEY:
+                    packed |= place(block.getLong(position, 0), shift);
+                    break;
+                case INT_KEY:
+                    packed |= place(block.getInt(position, 0) & 0xFFFF_FFFFL, shift);
+                    break;
+                case SHORT_KEY:
+                    packed |= place(block.getShort(position, 0) & 0xFFFFL, shift);
+                    break;
+                case BYTE_KEY:
+                    packed |= place(block.getByte(position, 0) & 0xFFL, shift);
+                    break;
+                case BOOLEAN_KEY:
+                    packed |= place(block.getByte(position, 0) != 0 ? 1 : 0, shift);
+                    break;
+                case SLICE_KEY:
+                    packed |= packSlice(block, position, shift + lengthBits[key], shift);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown key kind " + kinds[key]);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Packs the length of the value followed by its bytes. Bytes past the length are left zero,
+     * so values of different lengths never pack to the same bits.
+     */
+    private static long packSlice(Block block, int position, int bytesShift, int lengthShift)
+    {
+        int length = block.getSliceLength(position);
+        long packed = place(length, lengthShift);
+        for (int offset = 0; offset < length; offset += Long.BYTES) {
+            int chunkShift = bytesShift + offset * Byte.SIZE;
+            if (chunkShift >= Long.SIZE) {
+                break;
+            }
+            if (chunkShift + Long.SIZE <= 0) {
+                continue;
+            }
+            long chunk;
+            if (length - offset >= Long.BYTES) {
+                chunk = block.getLong(position, offset);
+            }
+            else {
+                chunk = 0;
+                for (int i = 0; i < length - offset; i++) {
+                    chunk |= (block.getByte(position, offset + i) & 0xFFL) << (i * Byte.SIZE);
+                }
+            }
+            packed |= place(chunk, chunkShift);
+        }
+        return packed;
+    }
+
+    /**
+     * Moves value bits to their position in the word, a negative shift keeps the bits
+     * that spill over from the previous word.
+     */
+    private static long place(long value, int shift)
+    {
+        return shift >= 0 ? value << shift : value >>> -shift;
+    }
+}
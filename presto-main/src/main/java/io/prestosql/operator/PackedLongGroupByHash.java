@@ -0,0 +1,384 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.prestosql.array.ByteBigArray;
+import io.prestosql.array.IntBigArray;
+import io.prestosql.array.LongBigArray;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.operator.BigintGroupBy.calculateMaxFill;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash for one or two BOOLEAN, TINYINT, SMALLINT, INTEGER or DATE channels. The keys of a row
+ * are packed into a single long plus a byte of null flags, so that probing compares primitives
+ * instead of going through the generic {@link PagesHashStrategy} of {@link MultiChannelGroupByHash}.
+ */
+@RestorableConfig(uncapturedFields = {"hashTypes", "keyKinds", "hashChannels", "shifts", "masks", "updateMemory"})
+public class PackedLongGroupByHash
+        extends FixedWidthGroupBy implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(PackedLongGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+
+    private final int[] shifts;
+    private final long[] masks;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from packed keys to groupIds
+    private LongBigArray keys;
+    private ByteBigArray nullFlags;
+    private IntBigArray groupIds;
+
+    // reverse index from the groupId back to the packed keys
+    private final LongBigArray keysByGroupId;
+    private final ByteBigArray nullFlagsByGroupId;
+
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+
+    public PackedLongGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    {
+        super(hashTypes, hashChannels, outputRawHash);
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+        checkArgument(isSupported(hashTypes), "unsupported hash types: %s", hashTypes);
+
+        shifts = new int[keyKinds.length];
+        masks = new long[keyKinds.length];
+        int shift = 0;
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            int bits = getKeyBits(keyKinds[channel]);
+            shifts[channel] = shift;
+            masks[channel] = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+            shift += bits;
+        }
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        keys = new LongBigArray();
+        keys.ensureCapacity(hashCapacity);
+        nullFlags = new ByteBigArray();
+        nullFlags.ensureCapacity(hashCapacity);
+        groupIds = new IntBigArray(-1);
+        groupIds.ensureCapacity(hashCapacity);
+
+        keysByGroupId = new LongBigArray();
+        keysByGroupId.ensureCapacity(maxFill);
+        nullFlagsByGroupId = new ByteBigArray();
+        nullFlagsByGroupId.ensureCapacity(maxFill);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    /**
+     * Whether the keys of these types fit in a single long
+     */
+    public static boolean isSupported(List<? extends Type> hashTypes)
+    {
+        if (!FixedWidthGroupBy.isSupported(hashTypes)) {
+            return false;
+        }
+        int bits = 0;
+        for (int kind : getKeyKinds(hashTypes)) {
+            bits += getKeyBits(kind);
+        }
+        return bits <= Long.SIZE;
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                keys.sizeOf() +
+                nullFlags.sizeOf() +
+                groupIds.sizeOf() +
+                keysByGroupId.sizeOf() +
+                nullFlagsByGroupId.sizeOf() +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        byte rowNullFlags = getNullFlags(position, page, hashChannels);
+        long key = getKey(position, page, hashChannels, rowNullFlags);
+        long hashPosition = getHashPosition(key, rowNullFlags, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (groupIds.get(hashPosition) != -1) {
+            if (key == keys.get(hashPosition) && rowNullFlags == nullFlags.get(hashPosition)) {
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return false;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    @Override
+    public boolean needMoreCapacity()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page)
+    {
+        byte rowNullFlags = getNullFlags(position, page, hashChannels);
+        long key = getKey(position, page, hashChannels, rowNullFlags);
+        long hashPosition = getHashPosition(key, rowNullFlags, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIds.get(hashPosition);
+            if (groupId == -1) {
+                break;
+            }
+            if (key == keys.get(hashPosition) && rowNullFlags == nullFlags.get(hashPosition)) {
+                return groupId;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, key, rowNullFlags);
+    }
+
+    private int addNewGroup(long hashPosition, long key, byte rowNullFlags)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        keys.set(hashPosition, key);
+        nullFlags.set(hashPosition, rowNullFlags);
+        groupIds.set(hashPosition, groupId);
+        keysByGroupId.set(groupId, key);
+        nullFlagsByGroupId.set(groupId, rowNullFlags);
+
+        // increase capacity, if necessary
+        if (needMoreCapacity()) {
+            tryToIncreaseCapacity();
+        }
+        return groupId;
+    }
+
+    @Override
+    public boolean tryToIncreaseCapacity()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new capacity for keys, nullFlags, groupIds and the reverse index as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) (Long.BYTES + Byte.BYTES + Integer.BYTES) + (calculateMaxFill(newCapacity) - maxFill) * (long) (Long.BYTES + Byte.BYTES) + currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        LongBigArray newKeys = new LongBigArray();
+        newKeys.ensureCapacity(newCapacity);
+        ByteBigArray newNullFlags = new ByteBigArray();
+        newNullFlags.ensureCapacity(newCapacity);
+        IntBigArray newGroupIds = new IntBigArray(-1);
+        newGroupIds.ensureCapacity(newCapacity);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long key = keysByGroupId.get(groupId);
+            byte groupNullFlags = nullFlagsByGroupId.get(groupId);
+
+            // find an empty slot for the key
+            long hashPosition = getHashPosition(key, groupNullFlags, newMask);
+            while (newGroupIds.get(hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            newKeys.set(hashPosition, key);
+            newNullFlags.set(hashPosition, groupNullFlags);
+            newGroupIds.set(hashPosition, groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        keys = newKeys;
+        nullFlags = newNullFlags;
+        groupIds = newGroupIds;
+
+        keysByGroupId.ensureCapacity(maxFill);
+        nullFlagsByGroupId.ensureCapacity(maxFill);
+        return true;
+    }
+
+    private static byte getNullFlags(int position, Page page, int[] channels)
+    {
+        byte rowNullFlags = 0;
+        for (int channel = 0; channel < channels.length; channel++) {
+            if (page.getBlock(channels[channel]).isNull(position)) {
+                rowNullFlags |= 1 << channel;
+            }
+        }
+        return rowNullFlags;
+    }
+
+    private long getKey(int position, Page page, int[] channels, byte rowNullFlags)
+    {
+        long key = 0;
+        for (int channel = 0; channel < keyKinds.length; channel++) {
+            // null keys are packed as zero and told apart by the null flags
+            if ((rowNullFlags & (1 << channel)) == 0) {
+                Block block = page.getBlock(channels[channel]);
+                key |= (readKeyValue(channel, block, position) & masks[channel]) << shifts[channel];
+            }
+        }
+        return key;
+    }
+
+    private static long getHashPosition(long key, byte rowNullFlags, int mask)
+    {
+        return murmurHash3(key + rowNullFlags) & mask;
+    }
+
+    @Override
+    protected boolean isKeyNull(int groupId, int channel)
+    {
+        return (nullFlagsByGroupId.get(groupId) & (1 << channel)) != 0;
+    }
+
+    @Override
+    protected long getKeyValue(int groupId, int channel)
+    {
+        long value = (keysByGroupId.get(groupId) >>> shifts[channel]) & masks[channel];
+        if (keyKinds[channel] == BOOLEAN_KEY) {
+            return value;
+        }
+        // sign extend
+        int unusedBits = Long.SIZE - getKeyBits(keyKinds[channel]);
+        return (value << unusedBits) >> unusedBits;
+    }
+
+    @Override
+    public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        PackedLongGroupByHashState myState = new PackedLongGroupByHashState();
+        myState.hashCapacity = hashCapacity;
+        myState.maxFill = maxFill;
+        myState.mask = mask;
+        myState.keys = keys.capture(serdeProvider);
+        myState.nullFlags = nullFlags.capture(serdeProvider);
+        myState.groupIds = groupIds.capture(serdeProvider);
+        myState.keysByGroupId = keysByGroupId.capture(serdeProvider);
+        myState.nullFlagsByGroupId = nullFlagsByGroupId.capture(serdeProvider);
+        myState.nextGroupId = nextGroupId;
+        myState.hashCollisions = hashCollisions;
+        myState.expectedHashCollisions = expectedHashCollisions;
+        myState.preallocatedMemoryInBytes = preallocatedMemoryInBytes;
+        myState.currentPageSizeInBytes = currentPageSizeInBytes;
+        return myState;
+    }
+
+    @Override
+    public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        PackedLongGroupByHashState myState = (PackedLongGroupByHashState) state;
+        this.hashCapacity = myState.hashCapacity;
+        this.maxFill = myState.maxFill;
+        this.mask = myState.mask;
+        this.keys.restore(myState.keys, serdeProvider);
+        this.nullFlags.restore(myState.nullFlags, serdeProvider);
+        this.groupIds.restore(myState.groupIds, serdeProvider);
+        this.keysByGroupId.restore(myState.keysByGroupId, serdeProvider);
+        this.nullFlagsByGroupId.restore(myState.nullFlagsByGroupId, serdeProvider);
+        this.nextGroupId = myState.nextGroupId;
+        this.hashCollisions = myState.hashCollisions;
+        this.expectedHashCollisions = myState.expectedHashCollisions;
+        this.preallocatedMemoryInBytes = myState.preallocatedMemoryInBytes;
+        this.currentPageSizeInBytes = myState.currentPageSizeInBytes;
+    }
+
+    private static class PackedLongGroupByHashState
+            implements Serializable
+    {
+        private int hashCapacity;
+        private int maxFill;
+        private int mask;
+        private Object keys;
+        private Object nullFlags;
+        private Object groupIds;
+        private Object keysByGroupId;
+        private Object nullFlagsByGroupId;
+        private int nextGroupId;
+        private long hashCollisions;
+        private double expectedHashCollisions;
+        private long preallocatedMemoryInBytes;
+        private long currentPageSizeInBytes;
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.units.DataSize;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash table split into sub-tables by the top bits of the row hashes, so that each sub-table
+ * fits in the CPU caches. The sub-tables are built one at a time, and batches of probe rows
+ * are grouped by sub-table so that the lookups of a group hit the same cache resident table.
+ * <p>
+ * This implementation assumes arrays used in the hash are always a power of 2.
+ */
+public final class RadixPartitionedPagesHash
+        implements IPagesHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(RadixPartitionedPagesHash.class).instanceSize();
+    private static final DataSize PARTITION_CACHE_SIZE = new DataSize(256, KILOBYTE);
+    // rows of a sub-table whose key array fills the cache size at the 0.75 load factor
+    private static final int ROWS_PER_PARTITION = (int) (PARTITION_CACHE_SIZE.toBytes() / Integer.BYTES * 3 / 4);
+    // more partitions than that would leave too few probe rows of a batch per partition
+    private static final int MAX_RADIX_BITS = 8;
+
+    private final LongArrayList addresses;
+    private final PagesHashStrategy pagesHashStrategy;
+
+    private final int channelCount;
+    private final int radixBits;
+    private final int[] partitionOffsets;
+    private final int[] partitionMasks;
+    private final int[] key;
+    private final long size;
+
+    // Native array of hashes for faster collisions resolution compared
+    // to accessing values in blocks. We use bytes to reduce memory foot print
+    // and there is no performance gain from storing full hashes
+    private final byte[] positionToHashes;
+    private final long hashCollisions;
+    private final double expectedHashCollisions;
+
+    /**
+     * Number of hash bits used to pick the sub-table for a build side of the given size,
+     * zero when the whole table already fits in a single sub-table.
+     */
+    public static int getRadixBits(int positionCount)
+    {
+        if (positionCount <= ROWS_PER_PARTITION) {
+            return 0;
+        }
+        int partitions = (positionCount - 1) / ROWS_PER_PARTITION + 1;
+        return Math.min(MAX_RADIX_BITS, Integer.SIZE - Integer.numberOfLeadingZeros(partitions - 1));
+    }
+
+    public RadixPartitionedPagesHash(
+            LongArrayList addresses,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks)
+    {
+        this(addresses, pagesHashStrategy, positionLinks, getRadixBits(addresses.size()));
+    }
+
+    @VisibleForTesting
+    RadixPartitionedPagesHash(
+            LongArrayList addresses,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            int radixBits)
+    {
+        checkArgument(radixBits > 0 && radixBits <= MAX_RADIX_BITS, "radixBits must be between 1 and %s", MAX_RADIX_BITS);
+        this.addresses = requireNonNull(addresses, "addresses is null");
+        this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.channelCount = pagesHashStrategy.getChannelCount();
+
+        this.radixBits = radixBits;
+        int positionCount = addresses.size();
+        int partitionCount = 1 << radixBits;
+
+        positionToHashes = new byte[positionCount];
+
+        // The mixed hashes and the order of the rows by partition are only needed while building
+        int[] mixedHashes = new int[positionCount];
+        int[] partitionSizes = new int[partitionCount];
+        for (int position = 0; position < positionCount; position++) {
+            long hash = readHashPosition(position);
+            positionToHashes[position] = (byte) hash;
+            mixedHashes[position] = (int) HashCommon.murmurHash3(hash);
+            if (!isPositionNull(position)) {
+                partitionSizes[getPartition(mixedHashes[position])]++;
+            }
+        }
+
+        partitionOffsets = new int[partitionCount];
+        partitionMasks = new int[partitionCount];
+        int[] partitionStarts = new int[partitionCount + 1];
+        int hashSize = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int partitionHashSize = HashCommon.arraySize(Math.max(partitionSizes[partition], 1), 0.75f);
+            partitionOffsets[partition] = hashSize;
+            partitionMasks[partition] = partitionHashSize - 1;
+            hashSize += partitionHashSize;
+            partitionStarts[partition + 1] = partitionStarts[partition] + partitionSizes[partition];
+        }
+        key = new int[hashSize];
+        Arrays.fill(key, -1);
+
+        // counting sort of the rows by partition, stable so that rows of a partition stay in position order
+        int[] orderedPositions = new int[partitionStarts[partitionCount]];
+        int[] nextInPartition = Arrays.copyOf(partitionStarts, partitionCount);
+        for (int position = 0; position < positionCount; position++) {
+            if (!isPositionNull(position)) {
+                orderedPositions[nextInPartition[getPartition(mixedHashes[position])]++] = position;
+            }
+        }
+
+        // index pages one sub-table at a time
+        long hashCollisionsLocal = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            int offset = partitionOffsets[partition];
+            int mask = partitionMasks[partition];
+            for (int i = partitionStarts[partition]; i < partitionStarts[partition + 1]; i++) {
+                int realPosition = orderedPositions[i];
+                int pos = mixedHashes[realPosition] & mask;
+
+                // look for an empty slot or a slot containing this key
+                while (key[offset + pos] != -1) {
+                    int currentKey = key[offset + pos];
+                    if (positionToHashes[realPosition] == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
+                        // found a slot for this key
+                        // link the new key position to the current key position
+                        realPosition = positionLinks.link(realPosition, currentKey);
+
+                        // key[pos] updated outside of this loop
+                        break;
+                    }
+                    // increment position and mask to handler wrap around
+                    pos = (pos + 1) & mask;
+                    hashCollisionsLocal++;
+                }
+
+                key[offset + pos] = realPosition;
+            }
+        }
+
+        size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
+                sizeOf(key) + sizeOf(positionToHashes) + sizeOf(partitionOffsets) + sizeOf(partitionMasks);
+        hashCollisions = hashCollisionsLocal;
+        expectedHashCollisions = estimateNumberOfHashCollisions(positionCount, hashSize);
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return channelCount;
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return addresses.size();
+    }
+
+    @Override
+    public long getInMemorySizeInBytes()
+    {
+        return INSTANCE_SIZE + size;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions;
+    }
+
+    @Override
+    public int getAddressIndex(int position, Page hashChannelsPage)
+    {
+        return getAddressIndex(position, hashChannelsPage, pagesHashStrategy.hashRow(position, hashChannelsPage));
+    }
+
+    @Override
+    public int getAddressIndex(int rightPosition, Page hashChannelsPage, long rawHash)
+    {
+        int mixedHash = (int) HashCommon.murmurHash3(rawHash);
+        int partition = getPartition(mixedHash);
+        int offset = partitionOffsets[partition];
+        int mask = partitionMasks[partition];
+        int pos = mixedHash & mask;
+
+        while (key[offset + pos] != -1) {
+            if (positionEqualsCurrentRowIgnoreNulls(key[offset + pos], (byte) rawHash, rightPosition, hashChannelsPage)) {
+                return key[offset + pos];
+            }
+            // increment position and mask to handler wrap around
+            pos = (pos + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public int[] getAddressIndex(int[] positions, Page hashChannelsPage)
+    {
+        if (positions.length == 0) {
+            return new int[0];
+        }
+
+        long[] hashes = new long[positions[positions.length - 1] + 1];
+        for (int i = 0; i < positions.length; i++) {
+            hashes[positions[i]] = pagesHashStrategy.hashRow(positions[i], hashChannelsPage);
+        }
+
+        return getAddressIndex(positions, hashChannelsPage, hashes);
+    }
+
+    @Override
+    public int[] getAddressIndex(int[] positions, Page hashChannelsPage, long[] rawHashes)
+    {
+        int positionCount = positions.length;
+        int partitionCount = partitionOffsets.length;
+        int[] mixedHashes = new int[positionCount];
+        int[] partitionStarts = new int[partitionCount + 1];
+        for (int i = 0; i < positionCount; i++) {
+            mixedHashes[i] = (int) HashCommon.murmurHash3(rawHashes[positions[i]]);
+            partitionStarts[getPartition(mixedHashes[i]) + 1]++;
+        }
+        for (int partition = 0; partition < partitionCount; partition++) {
+            partitionStarts[partition + 1] += partitionStarts[partition];
+        }
+
+        // Group the probe rows by partition, the lookups of a group then all go to the same sub-table
+        int[] grouped = new int[positionCount];
+        int[] hashPositions = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            int partition = getPartition(mixedHashes[i]);
+            int index = partitionStarts[partition]++;
+            grouped[index] = i;
+            hashPositions[index] = partitionOffsets[partition] + (mixedHashes[i] & partitionMasks[partition]);
+        }
+
+        int[] result = new int[positionCount];
+        Arrays.fill(result, -1);
+        int[] foundKeys = new int[positionCount];
+
+        // Search for positions in the hash array. This is the most CPU-consuming part as
+        // it relies on random memory accesses, which now stay within one sub-table at a time
+        for (int i = 0; i < positionCount; i++) {
+            foundKeys[i] = key[hashPositions[i]];
+        }
+
+        // At this step we determine if the found keys were indeed the proper ones or it is a hash collision.
+        // The result array is updated for the found ones, while the collisions land into `remaining` array.
+        int[] remaining = new int[positionCount];
+        int remainingCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (foundKeys[i] == -1) {
+                continue;
+            }
+            int index = grouped[i];
+            if (positionEqualsCurrentRowIgnoreNulls(foundKeys[i], (byte) rawHashes[positions[index]], positions[index], hashChannelsPage)) {
+                result[index] = foundKeys[i];
+            }
+            else {
+                remaining[remainingCount++] = i;
+            }
+        }
+
+        // At this point for any reasonable load factor of a hash array (< .75), there is no more than
+        // 10 - 15% of positions left. We search for them in a sequential order and update the result array.
+        for (int i = 0; i < remainingCount; i++) {
+            int index = grouped[remaining[i]];
+            int partition = getPartition(mixedHashes[index]);
+            int offset = partitionOffsets[partition];
+            int mask = partitionMasks[partition];
+            int pos = (hashPositions[remaining[i]] - offset + 1) & mask; // hashPositions[index] position has already been checked
+
+            while (key[offset + pos] != -1) {
+                if (positionEqualsCurrentRowIgnoreNulls(key[offset + pos], (byte) rawHashes[positions[index]], positions[index], hashChannelsPage)) {
+                    result[index] = key[offset + pos];
+                    break;
+                }
+                // increment position and mask to handler wrap around
+                pos = (pos + 1) & mask;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long pageAddress = addresses.getLong(toIntExact(position));
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
+    }
+
+    private int getPartition(int mixedHash)
+    {
+        return mixedHash >>> (Integer.SIZE - radixBits);
+    }
+
+    private boolean isPositionNull(int position)
+    {
+        long pageAddress = addresses.getLong(position);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.isPositionNull(blockIndex, blockPosition);
+    }
+
+    private long readHashPosition(int position)
+    {
+        long pageAddress = addresses.getLong(position);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.hashPosition(blockIndex, blockPosition);
+    }
+
+    private boolean positionEqualsCurrentRowIgnoreNulls(int leftPosition, byte rawHash, int rightPosition, Page rightPage)
+    {
+        if (positionToHashes[leftPosition] != rawHash) {
+            return false;
+        }
+
+        long pageAddress = addresses.getLong(leftPosition);
+        int blockIndex = decodeSliceIndex(pageAddress);
+        int blockPosition = decodePosition(pageAddress);
+
+        return pagesHashStrategy.positionEqualsRowIgnoreNulls(blockIndex, blockPosition, rightPosition, rightPage);
+    }
+
+    private boolean positionEqualsPositionIgnoreNulls(int leftPosition, int rightPosition)
+    {
+        long leftPageAddress = addresses.getLong(leftPosition);
+        int leftBlockIndex = decodeSliceIndex(leftPageAddress);
+        int leftBlockPosition = decodePosition(leftPageAddress);
+
+        long rightPageAddress = addresses.getLong(rightPosition);
+        int rightBlockIndex = decodeSliceIndex(rightPageAddress);
+        int rightBlockPosition = decodePosition(rightPageAddress);
+
+        return pagesHashStrategy.positionEqualsPositionIgnoreNulls(leftBlockIndex, leftBlockPosition, rightBlockIndex, rightBlockPosition);
+    }
+}
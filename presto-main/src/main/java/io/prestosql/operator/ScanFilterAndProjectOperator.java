@@ -46,7 +46,7 @@ import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.split.EmptySplit;
 import io.prestosql.split.EmptySplitPageSource;
@@ -330,7 +330,7 @@ public class ScanFilterAndProjectOperator
         final Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
         final Optional<Metadata> metadataOptional;
         Map<String, byte[]> bloomFiltersBackup = new HashMap<>();
-        Map<Integer, BloomFilter> bloomFilters = new ConcurrentHashMap<>();
+        Map<Integer, SplitBlockBloomFilter> bloomFilters = new ConcurrentHashMap<>();
         boolean existsCrossFilter;
         boolean isDcTable;
 
@@ -440,7 +440,7 @@ public class ScanFilterAndProjectOperator
         final Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
         final Optional<Metadata> metadataOptional;
         Map<String, byte[]> bloomFiltersBackup = new HashMap<>();
-        Map<Integer, BloomFilter> bloomFilters = new ConcurrentHashMap<>();
+        Map<Integer, SplitBlockBloomFilter> bloomFilters = new ConcurrentHashMap<>();
         boolean existsCrossFilter;
         boolean isDcTable;
 
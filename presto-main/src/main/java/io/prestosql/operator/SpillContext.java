@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator;
 
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.spiller.LocalSpillContext;
 
 import java.io.Closeable;
@@ -33,6 +34,14 @@ public interface SpillContext
         /* do nothing */
     }
 
+    /**
+     * Records the compression codec a spill selected after sampling its first pages.
+     */
+    default void updateCompressionCodec(PageCompressionCodec codec)
+    {
+        /* do nothing */
+    }
+
     default SpillContext newLocalSpillContext()
     {
         return new LocalSpillContext(this);
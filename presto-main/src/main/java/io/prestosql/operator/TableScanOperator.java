@@ -39,7 +39,7 @@ import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.spiller.Spiller;
 import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.split.EmptySplit;
@@ -276,7 +276,7 @@ public class TableScanOperator
     Optional<StateStoreProvider> stateStoreProviderOptional;
     Optional<QueryId> queryIdOptional;
     Map<String, byte[]> bloomFiltersBackup = new HashMap<>();
-    Map<Integer, BloomFilter> bloomFilters = new ConcurrentHashMap<>();
+    Map<Integer, SplitBlockBloomFilter> bloomFilters = new ConcurrentHashMap<>();
     Optional<Metadata> metadataOptional;
     Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
     boolean existsCrossFilter;
@@ -36,7 +36,7 @@ import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.split.EmptySplit;
 import io.prestosql.split.EmptySplitPageSource;
 import io.prestosql.split.PageSourceProvider;
@@ -323,7 +323,7 @@ public class TableScanWorkProcessorOperator
         final Optional<QueryId> queryIdOptional;
         final Optional<DynamicFilterCacheManager> dynamicFilterCacheManagerOptional;
         Map<String, byte[]> bloomFiltersBackup = new HashMap<>();
-        Map<Integer, BloomFilter> bloomFilters = new ConcurrentHashMap<>();
+        Map<Integer, SplitBlockBloomFilter> bloomFilters = new ConcurrentHashMap<>();
         boolean existsCrossFilter;
         boolean isDcTable;
 
@@ -49,6 +49,7 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -93,6 +94,9 @@ public class TaskContext
 
     private final Set<Lifespan> completedDriverGroups = newConcurrentHashSet();
 
+    // NUMA node of the runner thread that built the first join lookup source, or -1
+    private final AtomicInteger joinBridgeNumaNode = new AtomicInteger(-1);
+
     private final List<PipelineContext> pipelineContexts = new CopyOnWriteArrayList<>();
 
     private final boolean perOperatorCpuTimerEnabled;
@@ -225,6 +229,18 @@ public class TaskContext
         return pipelineContext;
     }
 
+    public void recordJoinBridgeNumaNode(int numaNode)
+    {
+        if (numaNode >= 0) {
+            joinBridgeNumaNode.compareAndSet(-1, numaNode);
+        }
+    }
+
+    public int getJoinBridgeNumaNode()
+    {
+        return joinBridgeNumaNode.get();
+    }
+
     public Session getSession()
     {
         return session;
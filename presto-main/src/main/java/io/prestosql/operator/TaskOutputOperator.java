@@ -131,7 +131,7 @@ public class TaskOutputOperator
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
-        this.serde = requireNonNull(operatorContext.getDriverContext().getSerde(), "serde is null");
+        this.serde = requireNonNull(operatorContext.getDriverContext().getOutputSerde(), "serde is null");
         this.snapshotState = operatorContext.isSnapshotEnabled() ? SingleInputSnapshotState.forOperator(this, operatorContext) : null;
         this.isStage0 = operatorContext.getDriverContext().getPipelineContext().getTaskContext().getTaskId().getStageId().getId() == 0;
     }
@@ -193,7 +193,7 @@ public class TaskOutputOperator
 
         DirectSerialisationType serialisationType = outputBuffer.getExchangeDirectSerialisationType();
         if (outputBuffer.isSpoolingOutputBuffer() && serialisationType != DirectSerialisationType.OFF) {
-            PagesSerde directSerde = (serialisationType == DirectSerialisationType.JAVA) ? operatorContext.getDriverContext().getJavaSerde() : operatorContext.getDriverContext().getKryoSerde();
+            PagesSerde directSerde = operatorContext.getDriverContext().getDirectSerde(serialisationType);
             List<Page> pages = splitPage(inputPage, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
             outputBuffer.enqueuePages(0, pages, id, directSerde);
         }
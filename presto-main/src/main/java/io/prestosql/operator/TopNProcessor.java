@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.annotations.VisibleForTesting;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.Page;
@@ -40,10 +41,16 @@ import static java.util.Objects.requireNonNull;
 public class TopNProcessor
         implements Restorable
 {
+    // from this N on, the top rows are found by partial sorts of a bounded buffer instead of a heap
+    @VisibleForTesting
+    static final int BOUNDED_SELECTION_MIN_TOP_N = 1000;
+
     private final LocalMemoryContext localUserMemoryContext;
 
     @Nullable
     private GroupedTopNBuilder topNBuilder;
+    @Nullable
+    private BoundedTopNBuilder boundedTopNBuilder;
     private Iterator<Page> outputIterator;
 
     public TopNProcessor(
@@ -60,6 +67,9 @@ public class TopNProcessor
         if (n == 0) {
             outputIterator = emptyIterator();
         }
+        else if (n >= BOUNDED_SELECTION_MIN_TOP_N) {
+            boundedTopNBuilder = new BoundedTopNBuilder(types, n, sortChannels, sortOrders);
+        }
         else {
             topNBuilder = new GroupedTopNBuilder(
                     types,
@@ -73,6 +83,11 @@ public class TopNProcessor
 
     public void addInput(Page page)
     {
+        if (boundedTopNBuilder != null) {
+            boundedTopNBuilder.processPage(requireNonNull(page, "page is null"));
+            updateMemoryReservation();
+            return;
+        }
         requireNonNull(topNBuilder, "topNBuilder is null");
         boolean done = topNBuilder.processPage(requireNonNull(page, "page is null")).process();
         // there is no grouping so work will always be done
@@ -84,7 +99,7 @@ public class TopNProcessor
     {
         if (outputIterator == null) {
             // start flushing
-            outputIterator = topNBuilder.buildResult();
+            outputIterator = boundedTopNBuilder != null ? boundedTopNBuilder.buildResult() : topNBuilder.buildResult();
         }
 
         Page output = null;
@@ -105,6 +120,10 @@ public class TopNProcessor
 
     private void updateMemoryReservation()
     {
+        if (boundedTopNBuilder != null) {
+            localUserMemoryContext.setBytes(boundedTopNBuilder.getEstimatedSizeInBytes());
+            return;
+        }
         requireNonNull(topNBuilder, "topNBuilder is null");
         localUserMemoryContext.setBytes(topNBuilder.getEstimatedSizeInBytes());
     }
@@ -117,6 +136,9 @@ public class TopNProcessor
         if (topNBuilder != null) {
             myState.topNBuilder = topNBuilder.capture(serdeProvider);
         }
+        else if (boundedTopNBuilder != null) {
+            myState.boundedTopNBuilder = boundedTopNBuilder.capture(serdeProvider);
+        }
         else {
             myState.outputIterator = true;
         }
@@ -131,6 +153,10 @@ public class TopNProcessor
         if (myState.outputIterator) {
             this.outputIterator = emptyIterator();
             this.topNBuilder = null;
+            this.boundedTopNBuilder = null;
+        }
+        else if (this.boundedTopNBuilder != null) {
+            this.boundedTopNBuilder.restore(myState.boundedTopNBuilder, serdeProvider);
         }
         else {
             checkState(this.topNBuilder != null);
@@ -143,6 +169,7 @@ public class TopNProcessor
     {
         private long localUserMemoryContext;
         private Object topNBuilder;
+        private Object boundedTopNBuilder;
         private boolean outputIterator;
     }
 }
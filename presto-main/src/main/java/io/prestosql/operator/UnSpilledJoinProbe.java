@@ -79,6 +79,23 @@ public class UnSpilledJoinProbe
         return position;
     }
 
+    /**
+     * Moves forward to the given position, the rows in between are considered processed
+     */
+    public void advanceToPosition(int newPosition)
+    {
+        verify(newPosition >= position && newPosition < page.getPositionCount(), "invalid position %s", newPosition);
+        position = newPosition;
+    }
+
+    /**
+     * First join positions of all rows of the page, -1 for rows without a match
+     */
+    public long[] getJoinPositions()
+    {
+        return joinPositionCache;
+    }
+
     public Page getPage()
     {
         return page;
@@ -101,6 +118,10 @@ public class UnSpilledJoinProbe
             Arrays.fill(joinPositionsCache, -1);
             boolean[] isNull = new boolean[positionCount];
             int nonNullCount = getIsNull(nullableBlocks, positionCount, isNull);
+            if (nonNullCount == 0) {
+                // no row can match
+                return joinPositionsCache;
+            }
             if (nonNullCount < positionCount) {
                 // We only store positions that are not null
                 int[] positions = new int[nonNullCount];
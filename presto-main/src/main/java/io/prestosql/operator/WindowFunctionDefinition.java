@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.window.FrameInfo;
 import io.prestosql.operator.window.WindowFunctionSupplier;
 import io.prestosql.spi.function.WindowFunction;
@@ -74,8 +75,8 @@ public class WindowFunctionDefinition
         return argumentChannels;
     }
 
-    public WindowFunction createWindowFunction()
+    public WindowFunction createWindowFunction(LocalMemoryContext memoryContext)
     {
-        return functionSupplier.createWindowFunction(argumentChannels);
+        return functionSupplier.createWindowFunction(argumentChannels, frameInfo, memoryContext);
     }
 }
@@ -260,7 +260,9 @@ public class WindowOperator
         this.operatorContext = operatorContext;
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
-                .map(functionDefinition -> new FramedWindowFunction(functionDefinition.createWindowFunction(), functionDefinition.getFrameInfo()))
+                .map(functionDefinition -> new FramedWindowFunction(
+                        functionDefinition.createWindowFunction(operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(WindowOperator.class.getSimpleName())),
+                        functionDefinition.getFrameInfo()))
                 .collect(toImmutableList());
 
         this.outputTypes = Stream.concat(
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.aggregation.partial;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+
+/**
+ * Count-min sketch estimating how often a hash was added. Counters are halved once
+ * {@link #sampleSize} hashes were added since the last halving, so the estimates follow
+ * the recent input and keys that stopped being frequent fade out.
+ */
+public class FrequencySketch
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FrequencySketch.class).instanceSize();
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x97cb3127L, 0xb7db5c46L, 0xc8f39a3bL, 0x5bd1e995L};
+
+    private final int[] counters;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private final int[] indexes = new int[DEPTH];
+
+    private int size;
+
+    public FrequencySketch(int width, int sampleSize)
+    {
+        checkArgument(Integer.bitCount(width) == 1, "width must be a power of two");
+        checkArgument(sampleSize > 0, "sampleSize must be greater than zero");
+        this.counters = new int[DEPTH * width];
+        this.width = width;
+        this.mask = width - 1;
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Adds one occurrence of the hash and returns its estimated count, including this occurrence.
+     */
+    public int add(long hash)
+    {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            indexes[row] = row * width + (int) (murmurHash3(hash ^ SEEDS[row]) & mask);
+            min = Math.min(min, counters[indexes[row]]);
+        }
+        // conservative update: only the counters holding the estimate are increased
+        for (int row = 0; row < DEPTH; row++) {
+            if (counters[indexes[row]] == min) {
+                counters[indexes[row]]++;
+            }
+        }
+
+        size++;
+        if (size >= sampleSize) {
+            age();
+        }
+        return min + 1;
+    }
+
+    /**
+     * Number of hashes the estimates currently account for
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(counters);
+    }
+
+    private void age()
+    {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>>= 1;
+        }
+        size >>>= 1;
+    }
+}
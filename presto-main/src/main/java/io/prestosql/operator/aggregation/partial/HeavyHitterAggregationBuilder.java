@@ -0,0 +1,274 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.aggregation.partial;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.CompletedWork;
+import io.prestosql.operator.GroupByHash;
+import io.prestosql.operator.GroupByIdBlock;
+import io.prestosql.operator.HashCollisionsCounter;
+import io.prestosql.operator.HashGenerator;
+import io.prestosql.operator.InterpretedHashGenerator;
+import io.prestosql.operator.PrecomputedHashGenerator;
+import io.prestosql.operator.Work;
+import io.prestosql.operator.WorkProcessor;
+import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.operator.aggregation.GroupedAccumulator;
+import io.prestosql.operator.aggregation.builder.AggregationBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.gen.JoinCompiler;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.operator.GroupByHash.createGroupByHash;
+import static io.prestosql.operator.UpdateMemory.NOOP;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link AggregationBuilder} used at the partial aggregation step once {@link PartialAggregationController}
+ * disabled partial aggregation. The keys estimated by a {@link FrequencySketch} to be frequent in the recent input
+ * (heavy hitters) keep being aggregated in a small hash table, every other row is passed through the same way
+ * {@link SkipAggregationBuilder} does.
+ * <p>
+ * Unlike the other builders it lives across input pages: {@link #buildResult()} only returns the rows passed through,
+ * until {@link #flushHeavyHitters()} was called or the heavy hitters outgrew {@link #maxPartialMemory}.
+ */
+public class HeavyHitterAggregationBuilder
+        implements AggregationBuilder
+{
+    private static final int MAX_HEAVY_HITTERS = 1024;
+    private static final int MIN_HEAVY_HITTER_COUNT = 16;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int SKETCH_SAMPLE_SIZE = 16 * SKETCH_WIDTH;
+
+    private final List<Integer> groupByChannels;
+    private final int[] groupByChannelArray;
+    private final Optional<Integer> inputHashChannel;
+    private final List<AccumulatorFactory> accumulatorFactories;
+    private final Optional<DataSize> maxPartialMemory;
+    private final LocalMemoryContext memoryContext;
+
+    private final HashGenerator hashGenerator;
+    private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH, SKETCH_SAMPLE_SIZE);
+    private final GroupByHash groupByHash;
+    private final List<GroupedAccumulator> groupedAccumulators;
+
+    @Nullable
+    private Page passThroughPage;
+    private boolean flushHeavyHitters;
+
+    private long heavyHitterRows;
+    private long passThroughRows;
+
+    public HeavyHitterAggregationBuilder(
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Optional<Integer> inputHashChannel,
+            List<AccumulatorFactory> accumulatorFactories,
+            Optional<DataSize> maxPartialMemory,
+            JoinCompiler joinCompiler,
+            LocalMemoryContext memoryContext)
+    {
+        checkArgument(!groupByChannels.isEmpty(), "groupByChannels is empty");
+        requireNonNull(groupByTypes, "groupByTypes is null");
+        this.groupByChannels = ImmutableList.copyOf(requireNonNull(groupByChannels, "groupByChannels is null"));
+        this.groupByChannelArray = Ints.toArray(groupByChannels);
+        this.inputHashChannel = requireNonNull(inputHashChannel, "inputHashChannel is null");
+        this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
+        this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+
+        this.hashGenerator = inputHashChannel.isPresent()
+                ? new PrecomputedHashGenerator(inputHashChannel.get())
+                : new InterpretedHashGenerator(groupByTypes, groupByChannelArray);
+        this.groupByHash = createGroupByHash(groupByTypes, groupByChannelArray, inputHashChannel, MAX_HEAVY_HITTERS, false, joinCompiler, NOOP);
+        this.groupedAccumulators = this.accumulatorFactories.stream()
+                .map(AccumulatorFactory::createGroupedAccumulator)
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public Work<?> processPage(Page page)
+    {
+        checkArgument(passThroughPage == null, "rows passed through were not flushed");
+        int positionCount = page.getPositionCount();
+        int[] heavyHitterPositions = new int[positionCount];
+        int heavyHitterCount = 0;
+        int[] passThroughPositions = new int[positionCount];
+        int passThroughCount = 0;
+
+        // rows that may add a group, counting every such row keeps the table within about MAX_HEAVY_HITTERS groups
+        int newGroupRows = 0;
+        for (int position = 0; position < positionCount; position++) {
+            int estimate = sketch.add(hashGenerator.hashPosition(position, page));
+            if (groupByHash.contains(position, page, groupByChannelArray)) {
+                heavyHitterPositions[heavyHitterCount++] = position;
+            }
+            else if (groupByHash.getGroupCount() + newGroupRows < MAX_HEAVY_HITTERS && isHeavyHitter(estimate)) {
+                heavyHitterPositions[heavyHitterCount++] = position;
+                newGroupRows++;
+            }
+            else {
+                passThroughPositions[passThroughCount++] = position;
+            }
+        }
+
+        if (heavyHitterCount > 0) {
+            Page heavyHitterPage = heavyHitterCount == positionCount ? page : page.getPositions(heavyHitterPositions, 0, heavyHitterCount);
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(heavyHitterPage);
+            // the hash table never waits for memory
+            verify(work.process());
+            GroupByIdBlock groupIds = work.getResult();
+            for (GroupedAccumulator groupedAccumulator : groupedAccumulators) {
+                groupedAccumulator.addInput(groupIds, heavyHitterPage);
+            }
+        }
+        if (passThroughCount > 0) {
+            Page rowsPassedThrough = passThroughCount == positionCount ? page : page.getPositions(passThroughPositions, 0, passThroughCount);
+            SkipAggregationBuilder skipAggregationBuilder = new SkipAggregationBuilder(groupByChannels, inputHashChannel, accumulatorFactories, memoryContext);
+            skipAggregationBuilder.processPage(rowsPassedThrough);
+            WorkProcessor<Page> result = skipAggregationBuilder.buildResult();
+            verify(result.process() && !result.isFinished());
+            passThroughPage = result.getResult();
+        }
+
+        heavyHitterRows += heavyHitterCount;
+        passThroughRows += passThroughCount;
+        return new CompletedWork<>();
+    }
+
+    private boolean isHeavyHitter(int estimate)
+    {
+        // the key makes at least 1 / MAX_HEAVY_HITTERS of the rows the sketch accounts for
+        return estimate >= MIN_HEAVY_HITTER_COUNT && (long) estimate * MAX_HEAVY_HITTERS >= sketch.getSize();
+    }
+
+    /**
+     * Makes the next {@link #buildResult()} also output the aggregated heavy hitters.
+     */
+    public void flushHeavyHitters()
+    {
+        flushHeavyHitters = true;
+    }
+
+    public boolean isHeavyHittersFlushed()
+    {
+        return flushHeavyHitters;
+    }
+
+    @Override
+    public WorkProcessor<Page> buildResult()
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        if (passThroughPage != null) {
+            pages.add(passThroughPage);
+            passThroughPage = null;
+        }
+        if (flushHeavyHitters) {
+            pages.addAll(buildHeavyHitterPages());
+        }
+        return WorkProcessor.fromIterable(pages.build());
+    }
+
+    private List<Page> buildHeavyHitterPages()
+    {
+        ImmutableList.Builder<Type> types = ImmutableList.<Type>builder().addAll(groupByHash.getTypes());
+        for (GroupedAccumulator groupedAccumulator : groupedAccumulators) {
+            types.add(groupedAccumulator.getIntermediateType());
+        }
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(types.build());
+        int channelOffset = groupByHash.getTypes().size();
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            for (int i = 0; i < groupedAccumulators.size(); i++) {
+                groupedAccumulators.get(i).evaluateIntermediate(groupId, pageBuilder.getBlockBuilder(channelOffset + i));
+            }
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            pages.add(pageBuilder.build());
+        }
+        return pages.build();
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        return passThroughPage != null || flushHeavyHitters;
+    }
+
+    @Override
+    public void updateMemory()
+    {
+        long heavyHittersSize = sketch.getRetainedSizeInBytes() + groupByHash.getEstimatedSize();
+        for (GroupedAccumulator groupedAccumulator : groupedAccumulators) {
+            heavyHittersSize += groupedAccumulator.getEstimatedSize();
+        }
+        if (maxPartialMemory.isPresent() && heavyHittersSize > maxPartialMemory.get().toBytes()) {
+            flushHeavyHitters = true;
+        }
+        memoryContext.setBytes(heavyHittersSize + (passThroughPage == null ? 0 : passThroughPage.getSizeInBytes()));
+    }
+
+    @Override
+    public void recordHashCollisions(HashCollisionsCounter hashCollisionsCounter)
+    {
+        hashCollisionsCounter.recordHashCollision(groupByHash.getHashCollisions(), groupByHash.getExpectedHashCollisions());
+    }
+
+    public long getHeavyHitterRows()
+    {
+        return heavyHitterRows;
+    }
+
+    public long getPassThroughRows()
+    {
+        return passThroughRows;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    @Override
+    public ListenableFuture<Void> startMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("startMemoryRevoke not supported for HeavyHitterAggregationBuilder");
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        throw new UnsupportedOperationException("finishMemoryRevoke not supported for HeavyHitterAggregationBuilder");
+    }
+}
@@ -20,7 +20,11 @@ import io.prestosql.operator.HashAggregationOperator;
  * for a particular plan node on a single node.
  * Partial aggregation is disabled once enough rows has been processed ({@link #minNumberOfRowsProcessed})
  * and the ratio between output(unique) and input rows is too high (> {@link #uniqueRowsRatioThreshold}).
- * TODO https://github.com/trinodb/trino/issues/11361 add support to adaptively re-enable partial aggregation.
+ * <p>
+ * When {@link #heavyHittersEnabled} is set, disabled partial aggregation still aggregates the most frequent keys
+ * (see {@link HeavyHitterAggregationBuilder}) and is adaptively re-enabled: as soon as the rows passed through
+ * drop below the unique rows ratio, meaning the heavy hitters now cover most of the input, or after
+ * {@link #RESAMPLE_INTERVAL_MULTIPLIER} times {@link #minNumberOfRowsProcessed} rows, to sample the data again.
  * <p>
  * The class is thread safe and objects of this class are used potentially by multiple threads/drivers simultaneously.
  * Different threads either:
@@ -29,17 +33,35 @@ import io.prestosql.operator.HashAggregationOperator;
  */
 public class PartialAggregationController
 {
+    private static final int RESAMPLE_INTERVAL_MULTIPLIER = 10;
+
+    public enum Decision
+    {
+        NONE,
+        DISABLE,
+        REENABLE,
+        RESAMPLE,
+    }
+
     private final long minNumberOfRowsProcessed;
     private final double uniqueRowsRatioThreshold;
+    private final boolean heavyHittersEnabled;
 
     private volatile boolean partialAggregationDisabled;
     private long totalRowProcessed;
     private long totalUniqueRowsProduced;
+    private long rowsProcessedWhileDisabled;
 
     public PartialAggregationController(long minNumberOfRowsProcessedToDisable, double uniqueRowsRatioThreshold)
+    {
+        this(minNumberOfRowsProcessedToDisable, uniqueRowsRatioThreshold, false);
+    }
+
+    public PartialAggregationController(long minNumberOfRowsProcessedToDisable, double uniqueRowsRatioThreshold, boolean heavyHittersEnabled)
     {
         this.minNumberOfRowsProcessed = minNumberOfRowsProcessedToDisable;
         this.uniqueRowsRatioThreshold = uniqueRowsRatioThreshold;
+        this.heavyHittersEnabled = heavyHittersEnabled;
     }
 
     public boolean isPartialAggregationDisabled()
@@ -47,27 +69,68 @@ public class PartialAggregationController
         return partialAggregationDisabled;
     }
 
-    public synchronized void onFlush(long rowsProcessed, long uniqueRowsProduced)
+    public boolean isHeavyHittersEnabled()
+    {
+        return heavyHittersEnabled;
+    }
+
+    public synchronized Decision onFlush(long rowsProcessed, long uniqueRowsProduced)
     {
         if (partialAggregationDisabled) {
-            return;
+            if (!heavyHittersEnabled) {
+                return Decision.NONE;
+            }
+            return onFlushWhileDisabled(rowsProcessed, uniqueRowsProduced);
         }
 
         totalRowProcessed += rowsProcessed;
         totalUniqueRowsProduced += uniqueRowsProduced;
         if (shouldDisablePartialAggregation()) {
             partialAggregationDisabled = true;
+            resetCounters();
+            return Decision.DISABLE;
         }
+        return Decision.NONE;
+    }
+
+    private Decision onFlushWhileDisabled(long rowsProcessed, long rowsProduced)
+    {
+        totalRowProcessed += rowsProcessed;
+        totalUniqueRowsProduced += rowsProduced;
+        rowsProcessedWhileDisabled += rowsProcessed;
+        if (totalRowProcessed >= minNumberOfRowsProcessed && !isUniqueRowsRatioAboveThreshold()) {
+            // the heavy hitters absorb most of the input, the distribution became worth aggregating
+            partialAggregationDisabled = false;
+            resetCounters();
+            return Decision.REENABLE;
+        }
+        if (rowsProcessedWhileDisabled >= minNumberOfRowsProcessed * RESAMPLE_INTERVAL_MULTIPLIER) {
+            partialAggregationDisabled = false;
+            resetCounters();
+            return Decision.RESAMPLE;
+        }
+        return Decision.NONE;
     }
 
     private boolean shouldDisablePartialAggregation()
     {
-        return totalRowProcessed >= minNumberOfRowsProcessed
-                && ((double) totalUniqueRowsProduced / totalRowProcessed) > uniqueRowsRatioThreshold;
+        return totalRowProcessed >= minNumberOfRowsProcessed && isUniqueRowsRatioAboveThreshold();
+    }
+
+    private boolean isUniqueRowsRatioAboveThreshold()
+    {
+        return ((double) totalUniqueRowsProduced / totalRowProcessed) > uniqueRowsRatioThreshold;
+    }
+
+    private void resetCounters()
+    {
+        totalRowProcessed = 0;
+        totalUniqueRowsProduced = 0;
+        rowsProcessedWhileDisabled = 0;
     }
 
     public PartialAggregationController duplicate()
     {
-        return new PartialAggregationController(minNumberOfRowsProcessed, uniqueRowsRatioThreshold);
+        return new PartialAggregationController(minNumberOfRowsProcessed, uniqueRowsRatioThreshold, heavyHittersEnabled);
     }
 }
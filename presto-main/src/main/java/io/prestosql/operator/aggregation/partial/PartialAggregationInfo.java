@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.aggregation.partial;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.prestosql.operator.HashCollisionsInfo;
+import io.prestosql.operator.OperatorInfo;
+import io.prestosql.util.Mergeable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Info of a partial {@link io.prestosql.operator.HashAggregationOperator} using a {@link PartialAggregationController}:
+ * how its input rows were handled and which decisions of the controller its flushes triggered.
+ */
+public class PartialAggregationInfo
+        implements Mergeable<PartialAggregationInfo>, OperatorInfo
+{
+    private final HashCollisionsInfo hashCollisionsInfo;
+    private final long rowsAggregated;
+    private final long heavyHitterRowsAggregated;
+    private final long rowsPassedThrough;
+    private final long disableDecisions;
+    private final long reenableDecisions;
+    private final long resampleDecisions;
+
+    @JsonCreator
+    public PartialAggregationInfo(
+            @JsonProperty("hashCollisionsInfo") HashCollisionsInfo hashCollisionsInfo,
+            @JsonProperty("rowsAggregated") long rowsAggregated,
+            @JsonProperty("heavyHitterRowsAggregated") long heavyHitterRowsAggregated,
+            @JsonProperty("rowsPassedThrough") long rowsPassedThrough,
+            @JsonProperty("disableDecisions") long disableDecisions,
+            @JsonProperty("reenableDecisions") long reenableDecisions,
+            @JsonProperty("resampleDecisions") long resampleDecisions)
+    {
+        this.hashCollisionsInfo = requireNonNull(hashCollisionsInfo, "hashCollisionsInfo is null");
+        this.rowsAggregated = rowsAggregated;
+        this.heavyHitterRowsAggregated = heavyHitterRowsAggregated;
+        this.rowsPassedThrough = rowsPassedThrough;
+        this.disableDecisions = disableDecisions;
+        this.reenableDecisions = reenableDecisions;
+        this.resampleDecisions = resampleDecisions;
+    }
+
+    @JsonProperty
+    public HashCollisionsInfo getHashCollisionsInfo()
+    {
+        return hashCollisionsInfo;
+    }
+
+    @JsonProperty
+    public long getRowsAggregated()
+    {
+        return rowsAggregated;
+    }
+
+    @JsonProperty
+    public long getHeavyHitterRowsAggregated()
+    {
+        return heavyHitterRowsAggregated;
+    }
+
+    @JsonProperty
+    public long getRowsPassedThrough()
+    {
+        return rowsPassedThrough;
+    }
+
+    @JsonProperty
+    public long getDisableDecisions()
+    {
+        return disableDecisions;
+    }
+
+    @JsonProperty
+    public long getReenableDecisions()
+    {
+        return reenableDecisions;
+    }
+
+    @JsonProperty
+    public long getResampleDecisions()
+    {
+        return resampleDecisions;
+    }
+
+    @Override
+    public PartialAggregationInfo mergeWith(PartialAggregationInfo other)
+    {
+        return new PartialAggregationInfo(
+                hashCollisionsInfo.mergeWith(other.getHashCollisionsInfo()),
+                rowsAggregated + other.getRowsAggregated(),
+                heavyHitterRowsAggregated + other.getHeavyHitterRowsAggregated(),
+                rowsPassedThrough + other.getRowsPassedThrough(),
+                disableDecisions + other.getDisableDecisions(),
+                reenableDecisions + other.getReenableDecisions(),
+                resampleDecisions + other.getResampleDecisions());
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("rowsAggregated", rowsAggregated)
+                .add("heavyHitterRowsAggregated", heavyHitterRowsAggregated)
+                .add("rowsPassedThrough", rowsPassedThrough)
+                .add("disableDecisions", disableDecisions)
+                .add("reenableDecisions", reenableDecisions)
+                .add("resampleDecisions", resampleDecisions)
+                .toString();
+    }
+}
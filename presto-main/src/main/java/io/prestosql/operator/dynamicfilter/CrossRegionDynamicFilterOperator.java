@@ -26,7 +26,7 @@ import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.planner.TypeProvider;
 
 import java.io.ByteArrayInputStream;
@@ -51,7 +51,7 @@ public class CrossRegionDynamicFilterOperator
     private final List<String> columns;
     private boolean finished;
     private Page currentPage;
-    private final Map<Integer, BloomFilter> bloomFilterMap = new HashMap<>();
+    private final Map<Integer, SplitBlockBloomFilter> bloomFilterMap = new HashMap<>();
     private final List<Symbol> outputNodeSybmols;
     private final Map<String, Integer> columnToSymbolMapping = new HashMap<>();
     private boolean enabledDynamicFilter = true;
@@ -182,7 +182,7 @@ public class CrossRegionDynamicFilterOperator
                 if (bloomFilters.containsKey(columnName) && !bloomFilterMap.containsKey(columnToSymbolMapping.get(columnName))) {
                     // Deserialize new bloomfilters
                     try (ByteArrayInputStream input = new ByteArrayInputStream(bloomFilters.get(columnName))) {
-                        bloomFilterMap.put(columnToSymbolMapping.get(columnName), BloomFilter.readFrom(input));
+                        bloomFilterMap.put(columnToSymbolMapping.get(columnName), SplitBlockBloomFilter.readFrom(input));
                     }
                     catch (IOException e) {
                         // ignore the bloomfilter if broken
@@ -225,7 +225,7 @@ public class CrossRegionDynamicFilterOperator
             implements Serializable
     {
         private Object operatorContext;
-        private Map<Integer, BloomFilter> bloomFilterMap;
+        private Map<Integer, SplitBlockBloomFilter> bloomFilterMap;
     }
 
     public static class CrossRegionDynamicFilterOperatorFactory
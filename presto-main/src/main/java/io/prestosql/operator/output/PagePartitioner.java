@@ -457,13 +457,13 @@ public class PagePartitioner
 
                 FileSystemExchangeConfig.DirectSerialisationType serialisationType = outputBuffer.getExchangeDirectSerialisationType();
                 if (outputBuffer.isSpoolingOutputBuffer() && serialisationType != FileSystemExchangeConfig.DirectSerialisationType.OFF) {
-                    PagesSerde directSerde = (serialisationType == FileSystemExchangeConfig.DirectSerialisationType.JAVA) ? operatorContext.getDriverContext().getJavaSerde() : operatorContext.getDriverContext().getKryoSerde();
+                    PagesSerde directSerde = operatorContext.getDriverContext().getDirectSerde(serialisationType);
                     List<Page> pages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
                     outputBuffer.enqueuePages(partition, pages, id, directSerde);
                 }
                 else {
                     List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
-                            .map(page -> operatorContext.getDriverContext().getSerde().serialize(page))
+                            .map(page -> operatorContext.getDriverContext().getOutputSerde().serialize(page))
                             .collect(toImmutableList());
 
                     outputBuffer.enqueue(partition, serializedPages, id);
@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.window;
 
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.function.Signature;
 import io.prestosql.spi.function.WindowFunction;
 
@@ -47,6 +48,21 @@ public abstract class AbstractWindowFunctionSupplier
 
     @Override
     public final WindowFunction createWindowFunction(List<Integer> argumentChannels)
+    {
+        checkArguments(argumentChannels);
+        return newWindowFunction(argumentChannels);
+    }
+
+    @Override
+    public final WindowFunction createWindowFunction(List<Integer> argumentChannels, FrameInfo frameInfo, LocalMemoryContext memoryContext)
+    {
+        checkArguments(argumentChannels);
+        requireNonNull(frameInfo, "frameInfo is null");
+        requireNonNull(memoryContext, "memoryContext is null");
+        return newWindowFunction(argumentChannels, frameInfo, memoryContext);
+    }
+
+    private void checkArguments(List<Integer> argumentChannels)
     {
         requireNonNull(argumentChannels, "inputs is null");
         checkArgument(argumentChannels.size() == signature.getArgumentTypes().size(),
@@ -54,8 +70,6 @@ public abstract class AbstractWindowFunctionSupplier
                 signature.getArgumentTypes().size(),
                 signature.getName(),
                 argumentChannels.size());
-
-        return newWindowFunction(argumentChannels);
     }
 
     /**
@@ -63,4 +77,13 @@ public abstract class AbstractWindowFunctionSupplier
      * inputs have already validated.
      */
     protected abstract WindowFunction newWindowFunction(List<Integer> inputs);
+
+    /**
+     * Create window function instance for the given frame using the supplied arguments.
+     * The inputs have already validated.
+     */
+    protected WindowFunction newWindowFunction(List<Integer> inputs, FrameInfo frameInfo, LocalMemoryContext memoryContext)
+    {
+        return newWindowFunction(inputs);
+    }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.operator.window;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.aggregation.Accumulator;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
@@ -23,38 +24,56 @@ import io.prestosql.spi.function.WindowFunction;
 import io.prestosql.spi.function.WindowIndex;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.MapType;
+import io.prestosql.spi.type.RowType;
+import io.prestosql.spi.type.Type;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.UNBOUNDED_PRECEDING;
 import static java.util.Objects.requireNonNull;
 
-@RestorableConfig(uncapturedFields = {"argumentChannels", "windowIndex", "accumulatorFactory"})
+@RestorableConfig(uncapturedFields = {"argumentChannels", "windowIndex", "accumulatorFactory", "segmentTree", "memoryContext"})
 public class AggregateWindowFunction
         implements WindowFunction
 {
+    // frames up to this size are aggregated row by row, without building a segment tree
+    private static final int SEGMENT_TREE_MIN_FRAME_SIZE = 32;
+
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean segmentTreeEnabled;
+    // reports the segment tree of the current partition
+    private final LocalMemoryContext memoryContext;
 
     // Snapshot: all windowIndex operations revolves around pagesIndex which is passed in and captured/restored outside
     // windowIndex fields in all window functions are reset when WindowPartition is created(see WindowPartition line 71)
     // so it doesn't need to be captured.
     private WindowIndex windowIndex;
+    // built from windowIndex on the first large frame that does not extend the previous one, so it is not captured either
+    private AggregationSegmentTree segmentTree;
     private Accumulator accumulator;
     private int currentStart;
     private int currentEnd;
 
-    private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels)
+    private AggregateWindowFunction(InternalAggregationFunction function, List<Integer> argumentChannels, boolean segmentTreeEnabled, LocalMemoryContext memoryContext)
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        this.segmentTreeEnabled = segmentTreeEnabled;
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
+        memoryContext.setBytes(0);
         resetAccumulator();
     }
 
@@ -70,6 +89,18 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (segmentTreeEnabled && frameEnd - frameStart >= SEGMENT_TREE_MIN_FRAME_SIZE) {
+            // sliding frame, combine the precomputed states covering the frame instead of all its rows
+            if (segmentTree == null) {
+                segmentTree = AggregationSegmentTree.build(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = accumulatorFactory.createAccumulator();
+            segmentTree.aggregate(accumulator, frameStart, frameEnd);
+            // levels of the tree are built as frames need them
+            memoryContext.setBytes(segmentTree.getRetainedSizeInBytes());
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
@@ -103,11 +134,42 @@ public class AggregateWindowFunction
             @Override
             protected WindowFunction newWindowFunction(List<Integer> inputs)
             {
-                return new AggregateWindowFunction(function, inputs);
+                return new AggregateWindowFunction(function, inputs, false, newSimpleAggregatedMemoryContext().newLocalMemoryContext(AggregateWindowFunction.class.getSimpleName()));
+            }
+
+            @Override
+            protected WindowFunction newWindowFunction(List<Integer> inputs, FrameInfo frameInfo, LocalMemoryContext memoryContext)
+            {
+                // frames that start at the partition start only grow, and are aggregated incrementally anyway
+                boolean slidingFrame = frameInfo.getStartType() != UNBOUNDED_PRECEDING;
+                return new AggregateWindowFunction(function, inputs, slidingFrame && isSegmentTreeSupported(function), memoryContext);
             }
         };
     }
 
+    /**
+     * Segment tree states are combined with the intermediate form of the aggregation,
+     * so it must be decomposable, and its states must not grow with the number of rows they cover.
+     */
+    private static boolean isSegmentTreeSupported(InternalAggregationFunction function)
+    {
+        return function.isDecomposable()
+                && !function.isOrderSensitive()
+                && function.getLambdaInterfaces().isEmpty()
+                && isBoundedSize(function.getIntermediateType());
+    }
+
+    private static boolean isBoundedSize(Type type)
+    {
+        if (type instanceof ArrayType || type instanceof MapType) {
+            return false;
+        }
+        if (type instanceof RowType) {
+            return type.getTypeParameters().stream().allMatch(AggregateWindowFunction::isBoundedSize);
+        }
+        return true;
+    }
+
     private static List<Integer> createArgs(InternalAggregationFunction function)
     {
         ImmutableList.Builder<Integer> list = ImmutableList.builder();
@@ -142,6 +204,8 @@ public class AggregateWindowFunction
             }
             this.accumulator.restore(myState.accumulator, serdeProvider);
         }
+        this.segmentTree = null;
+        memoryContext.setBytes(0);
         this.currentStart = myState.currentStart;
         this.currentEnd = myState.currentEnd;
     }
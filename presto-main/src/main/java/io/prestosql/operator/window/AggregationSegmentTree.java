@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.window;
+
+import io.prestosql.operator.aggregation.Accumulator;
+import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.function.WindowIndex;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Intermediate aggregation states of the rows of a window partition, for ranges of 1, 2, 4, ... rows.
+ * The state of level k at position p covers the rows [p * 2^k, (p + 1) * 2^k), so any frame is
+ * the combination of at most two states per level, instead of all the rows in the frame.
+ * States are combined in row order, so the result does not depend on how the frame is split.
+ * <p>
+ * A level is only built when a frame first needs it, so ranges larger than the largest frame are never
+ * combined. A state whose combination overflows is not kept, frames covering it combine its two halves
+ * instead and only fail if the frame itself overflows.
+ */
+final class AggregationSegmentTree
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(AggregationSegmentTree.class).instanceSize();
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final Type intermediateType;
+    private final List<Block> levels = new ArrayList<>();
+    private final List<boolean[]> overflowedLevels = new ArrayList<>();
+    private long retainedSizeInBytes = INSTANCE_SIZE;
+
+    private AggregationSegmentTree(AccumulatorFactory accumulatorFactory, Type intermediateType, Block leaves)
+    {
+        this.accumulatorFactory = accumulatorFactory;
+        this.intermediateType = intermediateType;
+        addLevel(leaves, new boolean[leaves.getPositionCount()]);
+    }
+
+    public static AggregationSegmentTree build(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        requireNonNull(windowIndex, "windowIndex is null");
+        int rowCount = windowIndex.size();
+        checkArgument(rowCount > 0, "windowIndex is empty");
+
+        Type intermediateType = accumulatorFactory.createAccumulator().getIntermediateType();
+        BlockBuilder leaves = intermediateType.createBlockBuilder(null, rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator();
+            accumulator.addInput(windowIndex, argumentChannels, row, row);
+            accumulator.evaluateIntermediate(leaves);
+        }
+        return new AggregationSegmentTree(accumulatorFactory, intermediateType, leaves.build());
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    /**
+     * Adds the rows from start to end inclusive to the accumulator.
+     */
+    public void aggregate(Accumulator accumulator, int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < levels.get(0).getPositionCount(), "invalid frame [%s, %s]", start, end);
+
+        // states on the right side of the frame are found from the end backwards, so they are added last
+        List<int[]> rightStates = new ArrayList<>();
+        int left = start;
+        int right = end + 1;
+        for (int level = 0; left < right; level++) {
+            buildLevel(level);
+            if ((left & 1) == 1) {
+                addState(accumulator, level, left);
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                rightStates.add(new int[] {level, right});
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+        for (int i = rightStates.size() - 1; i >= 0; i--) {
+            addState(accumulator, rightStates.get(i)[0], rightStates.get(i)[1]);
+        }
+    }
+
+    private void addState(Accumulator accumulator, int level, int position)
+    {
+        if (overflowedLevels.get(level)[position]) {
+            // leaves never overflow, so the recursion ends at the latest on level 0
+            addState(accumulator, level - 1, position * 2);
+            if (position * 2 + 1 < levels.get(level - 1).getPositionCount()) {
+                addState(accumulator, level - 1, position * 2 + 1);
+            }
+            return;
+        }
+        accumulator.addIntermediate(levels.get(level).getRegion(position, 1));
+    }
+
+    private void buildLevel(int level)
+    {
+        while (levels.size() <= level) {
+            Block children = levels.get(levels.size() - 1);
+            boolean[] childrenOverflowed = overflowedLevels.get(overflowedLevels.size() - 1);
+            int positionCount = (children.getPositionCount() + 1) / 2;
+            BlockBuilder parents = intermediateType.createBlockBuilder(null, positionCount);
+            boolean[] overflowed = new boolean[positionCount];
+            for (int position = 0; position < positionCount; position++) {
+                int childStart = position * 2;
+                int childCount = Math.min(2, children.getPositionCount() - childStart);
+                if (childrenOverflowed[childStart] || (childCount == 2 && childrenOverflowed[childStart + 1])) {
+                    overflowed[position] = true;
+                    parents.appendNull();
+                    continue;
+                }
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                try {
+                    accumulator.addIntermediate(children.getRegion(childStart, childCount));
+                }
+                catch (RuntimeException e) {
+                    if (!isOverflow(e)) {
+                        throw e;
+                    }
+                    overflowed[position] = true;
+                    parents.appendNull();
+                    continue;
+                }
+                accumulator.evaluateIntermediate(parents);
+            }
+            addLevel(parents.build(), overflowed);
+        }
+    }
+
+    private void addLevel(Block states, boolean[] overflowed)
+    {
+        levels.add(states);
+        overflowedLevels.add(overflowed);
+        retainedSizeInBytes += states.getRetainedSizeInBytes() + sizeOf(overflowed);
+    }
+
+    private static boolean isOverflow(RuntimeException e)
+    {
+        return e instanceof ArithmeticException
+                || (e instanceof PrestoException && NUMERIC_VALUE_OUT_OF_RANGE.toErrorCode().equals(((PrestoException) e).getErrorCode()));
+    }
+}
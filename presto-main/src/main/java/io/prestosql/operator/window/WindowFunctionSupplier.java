@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.window;
 
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.spi.function.Signature;
 import io.prestosql.spi.function.WindowFunction;
 
@@ -25,4 +26,14 @@ public interface WindowFunctionSupplier
     String getDescription();
 
     WindowFunction createWindowFunction(List<Integer> argumentChannels);
+
+    /**
+     * Create a window function that is only evaluated over frames of the given kind,
+     * so that an implementation suited to the frame can be chosen. Memory the function holds
+     * besides its output is reported to the given memory context.
+     */
+    default WindowFunction createWindowFunction(List<Integer> argumentChannels, FrameInfo frameInfo, LocalMemoryContext memoryContext)
+    {
+        return createWindowFunction(argumentChannels);
+    }
 }
@@ -389,6 +389,7 @@ public class Execution
                 zeroDuration,
                 zeroDuration,
                 zeroDuration,
+                zeroDuration,
                 zeroDuration);
     }
 }
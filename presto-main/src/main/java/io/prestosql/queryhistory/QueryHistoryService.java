@@ -316,6 +316,7 @@ public class QueryHistoryService
                 ZERO_MILLIS,
                 ZERO_MILLIS,
                 ZERO_MILLIS,
+                ZERO_MILLIS,
                 ZERO_MILLIS);
 
         return new QueryInfo(
@@ -20,6 +20,7 @@ import io.airlift.http.client.HttpClient;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
+import io.prestosql.dynamicfilter.DynamicFilterService;
 import io.prestosql.execution.LocationFactory;
 import io.prestosql.execution.NodeTaskMap.PartitionedSplitCountTracker;
 import io.prestosql.execution.QueryManagerConfig;
@@ -78,6 +79,7 @@ public class HttpRemoteTaskFactory
     private final ScheduledExecutorService errorScheduledExecutor;
     private final RemoteTaskStats stats;
     private final boolean isBinaryEncoding;
+    private final DynamicFilterService dynamicFilterService;
 
     @Inject
     public HttpRemoteTaskFactory(QueryManagerConfig config,
@@ -91,7 +93,8 @@ public class HttpRemoteTaskFactory
             JsonCodec<TaskUpdateRequest> taskUpdateRequestJsonCodec,
             SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec,
             JsonCodec<FailTaskRequest> failTaskRequestCodec,
-            RemoteTaskStats stats, InternalCommunicationConfig internalCommunicationConfig)
+            RemoteTaskStats stats, InternalCommunicationConfig internalCommunicationConfig,
+            DynamicFilterService dynamicFilterService)
     {
         this.httpClient = httpClient;
         this.locationFactory = locationFactory;
@@ -118,6 +121,7 @@ public class HttpRemoteTaskFactory
         }
 
         this.failTaskRequestCodec = failTaskRequestCodec;
+        this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
 
         this.updateScheduledExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("task-info-update-scheduler-%s"));
         this.errorScheduledExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("remote-task-error-delay-%s"));
@@ -179,6 +183,7 @@ public class HttpRemoteTaskFactory
                 parent,
                 snapshotManager,
                 failTaskRequestCodec,
-                taskPriority);
+                taskPriority,
+                dynamicFilterService);
     }
 }
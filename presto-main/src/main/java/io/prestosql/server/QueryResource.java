@@ -494,6 +494,7 @@ public class QueryResource
                 ZERO_MILLIS,
                 ZERO_MILLIS,
                 ZERO_MILLIS,
+                ZERO_MILLIS,
                 ZERO_MILLIS);
 
         return new QueryInfo(
@@ -67,6 +67,7 @@ import io.prestosql.execution.TaskManagementExecutor;
 import io.prestosql.execution.TaskManager;
 import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.TaskStatus;
+import io.prestosql.execution.executor.IoSplitLane;
 import io.prestosql.execution.executor.MultilevelSplitQueue;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.execution.scheduler.FlatNetworkTopology;
@@ -371,6 +372,8 @@ public class ServerMainModule
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
         binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
+        binder.bind(IoSplitLane.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(IoSplitLane.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
         binder.bind(ExpressionCompiler.class).in(Scopes.SINGLETON);
@@ -491,6 +494,7 @@ public class ServerMainModule
 
         binder.bind(QueryIdGenerator.class).in(Scopes.SINGLETON);
         binder.bind(CacheStorageMonitor.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(CacheStorageMonitor.class).withGeneratedName();
         binder.bind(CachedDataManager.class).in(Scopes.SINGLETON);
 
         // system connector
@@ -582,6 +586,8 @@ public class ServerMainModule
         binder.bind(PartitioningSpillerFactory.class).to(GenericPartitioningSpillerFactory.class).in(Scopes.SINGLETON);
         binder.bind(SpillerStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(SpillerFactory.class).withGeneratedName();
+        newExporter(binder).export(SpillerStats.class).withGeneratedName();
+        newExporter(binder).export(SingleStreamSpillerFactory.class).withGeneratedName();
         binder.bind(LocalSpillManager.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(NodeSpillConfig.class);
 
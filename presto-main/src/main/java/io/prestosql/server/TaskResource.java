@@ -23,6 +23,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.Session;
+import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.execution.TaskManager;
@@ -71,11 +72,13 @@ import static io.airlift.jaxrs.AsyncResponseHandler.bindAsyncResponse;
 import static io.prestosql.PrestoMediaTypes.PRESTO_PAGES;
 import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CURRENT_STATE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_WAIT;
 import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static io.prestosql.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
+import static io.prestosql.dynamicfilter.DynamicFilterCacheManager.createCacheKey;
 import static io.prestosql.execution.TaskStatus.initialTaskStatus;
 import static io.prestosql.protocol.SmileHeader.APPLICATION_JACKSON_SMILE;
 import static java.util.Objects.requireNonNull;
@@ -93,6 +96,7 @@ public class TaskResource
 
     private final TaskManager taskManager;
     private final SessionPropertyManager sessionPropertyManager;
+    private final DynamicFilterCacheManager dynamicFilterCacheManager;
     private final Executor responseExecutor;
     private final ScheduledExecutorService timeoutExecutor;
     private final TimeStat readFromOutputBufferTime = new TimeStat();
@@ -102,11 +106,13 @@ public class TaskResource
     public TaskResource(
             TaskManager taskManager,
             SessionPropertyManager sessionPropertyManager,
+            DynamicFilterCacheManager dynamicFilterCacheManager,
             @ForAsyncHttp BoundedExecutor responseExecutor,
             @ForAsyncHttp ScheduledExecutorService timeoutExecutor)
     {
         this.taskManager = requireNonNull(taskManager, "taskManager is null");
         this.sessionPropertyManager = requireNonNull(sessionPropertyManager, "sessionPropertyManager is null");
+        this.dynamicFilterCacheManager = requireNonNull(dynamicFilterCacheManager, "dynamicFilterCacheManager is null");
         this.responseExecutor = requireNonNull(responseExecutor, "responseExecutor is null");
         this.timeoutExecutor = requireNonNull(timeoutExecutor, "timeoutExecutor is null");
     }
@@ -138,6 +144,9 @@ public class TaskResource
             return Response.status(Status.BAD_REQUEST).build();
         }
         Session session = taskUpdateRequest.getSession().toSession(sessionPropertyManager, taskUpdateRequest.getExtraCredentials());
+        // merged dynamic filters pushed by the coordinator, cached before the update so that new splits can already use them
+        taskUpdateRequest.getDynamicFilters().forEach((filterId, filter) ->
+                dynamicFilterCacheManager.cacheDynamicFilter(createCacheKey(filterId, taskId.getQueryId().getId()), filter.toDynamicFilter(filterId)));
         TaskInfo taskInfo = taskManager.updateTask(session,
                 taskId,
                 taskUpdateRequest.getFragment(),
@@ -219,11 +228,17 @@ public class TaskResource
             @HeaderParam(PRESTO_CURRENT_STATE) TaskState currentState,
             @HeaderParam(PRESTO_MAX_WAIT) Duration maxWait,
             @HeaderParam(PRESTO_TASK_INSTANCE_ID) String taskInstanceId,
+            @HeaderParam(PRESTO_DYNAMIC_FILTERS_VERSION) Long dynamicFiltersVersion,
             @Context UriInfo uriInfo,
             @Suspended AsyncResponse asyncResponse)
     {
         SecurityRequireNonNull.requireNonNull(taskId, "taskId is null");
 
+        if (dynamicFiltersVersion != null) {
+            // the coordinator received the partial dynamic filters up to this version, so they are not sent again
+            taskManager.acknowledgeDynamicFilters(taskId, dynamicFiltersVersion, taskInstanceId);
+        }
+
         if (currentState == null || maxWait == null) {
             asyncResponse.resume(tryGetTaskStatus(uriInfo, taskId, taskInstanceId));
             return;
@@ -414,8 +429,13 @@ public class TaskResource
                 waitTime,
                 timeoutExecutor);
 
+        // the pages must outlive the write of the response, which may never happen if the request times out first
+        ResultPagesReleaser pagesReleaser = new ResultPagesReleaser();
+        asyncResponse.register((CompletionCallback) throwable -> pagesReleaser.responseCompleted());
+
         ListenableFuture<Response> responseFuture = Futures.transform(bufferResultFuture, result -> {
             List<SerializedPage> serializedPages = result.getSerializedPages();
+            pagesReleaser.setPages(serializedPages);
 
             GenericEntity<?> entity = null;
             Status status;
@@ -504,6 +524,36 @@ public class TaskResource
         return new Duration(halfWaitMillis + ThreadLocalRandom.current().nextLong(halfWaitMillis), MILLISECONDS);
     }
 
+    /**
+     * Drops the references taken when result pages were read from the client buffer,
+     * once the pages are known and the response carrying them has completed or been abandoned.
+     */
+    private static class ResultPagesReleaser
+    {
+        private List<SerializedPage> pages;
+        private boolean responseCompleted;
+
+        public synchronized void setPages(List<SerializedPage> pages)
+        {
+            this.pages = pages;
+            releaseIfDone();
+        }
+
+        public synchronized void responseCompleted()
+        {
+            responseCompleted = true;
+            releaseIfDone();
+        }
+
+        private void releaseIfDone()
+        {
+            if (responseCompleted && pages != null) {
+                pages.forEach(SerializedPage::release);
+                pages = null;
+            }
+        }
+    }
+
     // Snapshot: Request includes an invalid task instance id. Return "aborted" result to indicate the task doesn't exist (anymore).
     private TaskStatus createAbortedTaskStatus(TaskId taskId, URI uri)
     {
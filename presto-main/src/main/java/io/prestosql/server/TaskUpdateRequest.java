@@ -16,7 +16,9 @@ package io.prestosql.server;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.prestosql.SessionRepresentation;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.execution.TaskSource;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -44,6 +46,9 @@ public class TaskUpdateRequest
 
     private final OptionalInt taskPriority;
 
+    // merged dynamic filters for the probe side of the task
+    private final Map<String, SerializedDynamicFilter> dynamicFilters;
+
     @JsonCreator
     public TaskUpdateRequest(
             @JsonProperty("taskInstanceId") String taskInstanceId,
@@ -54,7 +59,8 @@ public class TaskUpdateRequest
             @JsonProperty("outputIds") OutputBuffers outputIds,
             @JsonProperty("totalPartitions") OptionalInt totalPartitions,
             @JsonProperty("consumerId")Optional<PlanNodeId> consumerPlanNodeId,
-            @JsonProperty("taskPriority") OptionalInt taskPriority)
+            @JsonProperty("taskPriority") OptionalInt taskPriority,
+            @JsonProperty("dynamicFilters") Map<String, SerializedDynamicFilter> dynamicFilters)
     {
         requireNonNull(session, "session is null");
         requireNonNull(extraCredentials, "credentials is null");
@@ -62,6 +68,7 @@ public class TaskUpdateRequest
         requireNonNull(sources, "sources is null");
         requireNonNull(outputIds, "outputIds is null");
         requireNonNull(totalPartitions, "totalPartitions is null");
+        requireNonNull(dynamicFilters, "dynamicFilters is null");
 
         this.taskInstanceId = taskInstanceId;
         this.session = session;
@@ -72,6 +79,7 @@ public class TaskUpdateRequest
         this.totalPartitions = totalPartitions;
         this.consumerId = consumerPlanNodeId;
         this.taskPriority = taskPriority;
+        this.dynamicFilters = ImmutableMap.copyOf(dynamicFilters);
     }
 
     @JsonProperty
@@ -128,6 +136,12 @@ public class TaskUpdateRequest
         return taskPriority;
     }
 
+    @JsonProperty
+    public Map<String, SerializedDynamicFilter> getDynamicFilters()
+    {
+        return dynamicFilters;
+    }
+
     @Override
     public String toString()
     {
@@ -139,6 +153,7 @@ public class TaskUpdateRequest
                 .add("sources", sources)
                 .add("outputIds", outputIds)
                 .add("totalPartitions", totalPartitions)
+                .add("dynamicFilters", dynamicFilters.keySet())
                 .toString();
     }
 }
@@ -21,6 +21,7 @@ import io.airlift.http.client.Request;
 import io.airlift.http.client.ResponseHandler;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
+import io.prestosql.dynamicfilter.DynamicFilterService;
 import io.prestosql.execution.StateMachine;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskStatus;
@@ -46,6 +47,7 @@ import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.units.Duration.nanosSince;
 import static io.prestosql.client.PrestoHeaders.PRESTO_CURRENT_STATE;
+import static io.prestosql.client.PrestoHeaders.PRESTO_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_WAIT;
 import static io.prestosql.client.PrestoHeaders.PRESTO_TASK_INSTANCE_ID;
 import static io.prestosql.protocol.AdaptingJsonResponseHandler.createAdaptingJsonResponseHandler;
@@ -76,6 +78,8 @@ class ContinuousTaskStatusFetcher
     private final boolean isBinaryEncoding;
 
     private final AtomicLong currentRequestStartNanos = new AtomicLong();
+    // latest version of the partial dynamic filters received from the task, sent back as acknowledgement
+    private final AtomicLong dynamicFiltersVersion = new AtomicLong();
 
     @GuardedBy("this")
     private boolean running;
@@ -86,6 +90,7 @@ class ContinuousTaskStatusFetcher
     private String expectedConfirmationInstanceId;
 
     private final QuerySnapshotManager snapshotManager;
+    private final DynamicFilterService dynamicFilterService;
 
     public ContinuousTaskStatusFetcher(
             Consumer<Throwable> onFail,
@@ -99,7 +104,8 @@ class ContinuousTaskStatusFetcher
             ScheduledExecutorService errorScheduledExecutor,
             RemoteTaskStats stats,
             boolean isBinaryEncoding,
-            QuerySnapshotManager snapshotManager)
+            QuerySnapshotManager snapshotManager,
+            DynamicFilterService dynamicFilterService)
     {
         requireNonNull(initialTaskStatus, "initialTaskStatus is null");
 
@@ -119,6 +125,7 @@ class ContinuousTaskStatusFetcher
         this.isBinaryEncoding = isBinaryEncoding;
 
         this.snapshotManager = requireNonNull(snapshotManager, "snapshotManager is null");
+        this.dynamicFilterService = requireNonNull(dynamicFilterService, "dynamicFilterService is null");
     }
 
     public synchronized void start()
@@ -162,12 +169,16 @@ class ContinuousTaskStatusFetcher
             return;
         }
 
-        Request request = addInstanceIdHeader(setContentTypeHeaders(isBinaryEncoding, prepareGet()))
+        Request.Builder requestBuilder = addInstanceIdHeader(setContentTypeHeaders(isBinaryEncoding, prepareGet()))
                 .setUri(uriBuilderFrom(tmpTaskStatus.getSelf()).appendPath("status").build())
                 .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
                 .setHeader(PRESTO_CURRENT_STATE, tmpTaskStatus.getState().toString())
-                .setHeader(PRESTO_MAX_WAIT, refreshMaxWait.toString())
-                .build();
+                .setHeader(PRESTO_MAX_WAIT, refreshMaxWait.toString());
+        long acknowledgedDynamicFiltersVersion = dynamicFiltersVersion.get();
+        if (acknowledgedDynamicFiltersVersion > 0) {
+            requestBuilder.setHeader(PRESTO_DYNAMIC_FILTERS_VERSION, String.valueOf(acknowledgedDynamicFiltersVersion));
+        }
+        Request request = requestBuilder.build();
 
         ResponseHandler responseHandler;
         if (isBinaryEncoding) {
@@ -252,6 +263,13 @@ class ContinuousTaskStatusFetcher
 
     void updateTaskStatus(TaskStatus newValue)
     {
+        // partial dynamic filters are collected from every response, even from one with an outdated version,
+        // the dynamic filter service ignores the ones it has already received from this task
+        if (!newValue.getDynamicFilters().isEmpty()) {
+            dynamicFilterService.addTaskDynamicFilters(taskId, newValue.getDynamicFilters());
+        }
+        dynamicFiltersVersion.accumulateAndGet(newValue.getDynamicFiltersVersion(), Math::max);
+
         // change to new value if old value is not changed and new value has a newer version
         if (taskStatus.setIf(newValue, oldValue -> {
             if (oldValue.getState().isDone()) {
@@ -17,6 +17,7 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Ticker;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
@@ -37,6 +38,8 @@ import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.SystemSessionProperties;
+import io.prestosql.dynamicfilter.DynamicFilterService;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.execution.ExecutionFailureInfo;
 import io.prestosql.execution.FutureStateChange;
 import io.prestosql.execution.Lifespan;
@@ -161,6 +164,9 @@ public final class HttpRemoteTask
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
     private final FutureStateChange<?> whenSplitQueueHasSpace = new FutureStateChange<>();
     @GuardedBy("this")
+    // merged dynamic filters which are not delivered to the worker yet
+    private final Map<String, SerializedDynamicFilter> pendingDynamicFilters = new HashMap<>();
+    @GuardedBy("this")
     private boolean splitQueueHasSpace = true;
     @GuardedBy("this")
     private OptionalInt whenSplitQueueHasSpaceThreshold = OptionalInt.empty();
@@ -218,7 +224,8 @@ public final class HttpRemoteTask
                           Optional<PlanNodeId> parent,
                           QuerySnapshotManager snapshotManager,
                           JsonCodec<FailTaskRequest> failTaskRequestCodec,
-                          OptionalInt taskPriority)
+                          OptionalInt taskPriority,
+                          DynamicFilterService dynamicFilterService)
     {
         requireNonNull(session, "session is null");
         requireNonNull(taskId, "taskId is null");
@@ -287,7 +294,8 @@ public final class HttpRemoteTask
                     errorScheduledExecutor,
                     stats,
                     isBinaryEncoding,
-                    snapshotManager);
+                    snapshotManager,
+                    dynamicFilterService);
 
             this.taskInfoFetcher = new TaskInfoFetcher(
                     this::failTask,
@@ -420,6 +428,18 @@ public final class HttpRemoteTask
         }
     }
 
+    @Override
+    public synchronized void addDynamicFilters(Map<String, SerializedDynamicFilter> dynamicFilters)
+    {
+        if (dynamicFilters.isEmpty() || getTaskStatus().getState().isDone()) {
+            return;
+        }
+
+        pendingDynamicFilters.putAll(dynamicFilters);
+        needsUpdate.set(true);
+        scheduleUpdate();
+    }
+
     @Override
     public synchronized void setOutputBuffers(OutputBuffers newOutputBuffers)
     {
@@ -565,6 +585,7 @@ public final class HttpRemoteTask
         }
 
         List<TaskSource> sources = getSources();
+        Map<String, SerializedDynamicFilter> dynamicFilters = ImmutableMap.copyOf(pendingDynamicFilters);
 
         Optional<PlanFragment> fragment = sendPlan.get() ? Optional.of(planFragment) : Optional.empty();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(
@@ -578,7 +599,8 @@ public final class HttpRemoteTask
                 outputBuffers.get(),
                 totalPartitions,
                 parent,
-                taskPriority);
+                taskPriority,
+                dynamicFilters);
         byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toBytes(updateRequest);
         if (fragment.isPresent()) {
             stats.updateWithPlanBytes(taskUpdateRequestJson.length);
@@ -606,7 +628,7 @@ public final class HttpRemoteTask
         // and does so without grabbing the instance lock.
         needsUpdate.set(false);
 
-        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources), request.getUri(), stats), executor);
+        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources, dynamicFilters), request.getUri(), stats), executor);
     }
 
     private synchronized List<TaskSource> getSources()
@@ -1082,10 +1104,12 @@ public final class HttpRemoteTask
             implements SimpleHttpResponseCallback<TaskInfo>
     {
         private final List<TaskSource> sources;
+        private final Map<String, SerializedDynamicFilter> dynamicFilters;
 
-        private UpdateResponseHandler(List<TaskSource> sources)
+        private UpdateResponseHandler(List<TaskSource> sources, Map<String, SerializedDynamicFilter> dynamicFilters)
         {
             this.sources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+            this.dynamicFilters = requireNonNull(dynamicFilters, "dynamicFilters is null");
         }
 
         @Override
@@ -1098,6 +1122,7 @@ public final class HttpRemoteTask
                         currentRequest = null;
                         sendPlan.set(value.isNeedsPlan());
                         tmpCurrentRequestStartNanos = HttpRemoteTask.this.currentRequestStartNanos;
+                        dynamicFilters.forEach(pendingDynamicFilters::remove);
                     }
                     updateStats(tmpCurrentRequestStartNanos);
                     processTaskUpdate(value, sources);
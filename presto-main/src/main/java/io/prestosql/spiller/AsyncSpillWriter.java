@@ -0,0 +1,281 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.lang.Math.min;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Shared write engine for local spill files. Each stream opened through this writer
+ * serializes into one direct buffer while the previously filled buffer is written
+ * by the I/O executor, so page serialization and disk writes overlap and the file
+ * system only sees large sequential writes. Direct buffers are pooled across all
+ * spillers of the node.
+ */
+@ThreadSafe
+public class AsyncSpillWriter
+{
+    private final ListeningExecutorService ioExecutor;
+    private final SpillerStats spillerStats;
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final boolean syncOnClose;
+    private final Queue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    public AsyncSpillWriter(ListeningExecutorService ioExecutor, SpillerStats spillerStats, int bufferSize, int maxPooledBuffers, boolean syncOnClose)
+    {
+        checkArgument(bufferSize > 0, "bufferSize must be positive");
+        checkArgument(maxPooledBuffers >= 0, "maxPooledBuffers is negative");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.syncOnClose = syncOnClose;
+    }
+
+    /**
+     * Memory retained by a single open stream (two buffers, one filling and one in flight).
+     */
+    public int getRetainedBytesPerStream()
+    {
+        return 2 * bufferSize;
+    }
+
+    public OutputStream newOutputStream(Path file)
+            throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, WRITE, APPEND);
+        return new BatchedSpillOutputStream(channel, borrowBuffer(), borrowBuffer());
+    }
+
+    public void shutdown()
+    {
+        ioExecutor.shutdownNow();
+        bufferPool.clear();
+    }
+
+    @VisibleForTesting
+    int getPooledBuffers()
+    {
+        return pooledBuffers.get();
+    }
+
+    private ByteBuffer borrowBuffer()
+    {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooledBuffers.decrementAndGet();
+        return buffer;
+    }
+
+    private void returnBuffer(ByteBuffer buffer)
+    {
+        buffer.clear();
+        if (pooledBuffers.incrementAndGet() <= maxPooledBuffers) {
+            bufferPool.add(buffer);
+        }
+        else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+
+    @NotThreadSafe
+    private class BatchedSpillOutputStream
+            extends OutputStream
+    {
+        private final FileChannel channel;
+        private ByteBuffer fillBuffer;
+        private ByteBuffer flushBuffer;
+        private ListenableFuture<?> pendingWrite = Futures.immediateFuture(null);
+        // set on close so that a batch still queued on the I/O executor is skipped
+        private final AtomicBoolean abandoned = new AtomicBoolean();
+        private boolean closed;
+
+        BatchedSpillOutputStream(FileChannel channel, ByteBuffer fillBuffer, ByteBuffer flushBuffer)
+        {
+            this.channel = requireNonNull(channel, "channel is null");
+            this.fillBuffer = requireNonNull(fillBuffer, "fillBuffer is null");
+            this.flushBuffer = requireNonNull(flushBuffer, "flushBuffer is null");
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            checkState(!closed, "stream is closed");
+            if (!fillBuffer.hasRemaining()) {
+                submitBatch();
+            }
+            fillBuffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length)
+                throws IOException
+        {
+            checkState(!closed, "stream is closed");
+            int position = offset;
+            int remaining = length;
+            while (remaining > 0) {
+                if (!fillBuffer.hasRemaining()) {
+                    submitBatch();
+                }
+                int chunk = min(remaining, fillBuffer.remaining());
+                fillBuffer.put(bytes, position, chunk);
+                position += chunk;
+                remaining -= chunk;
+            }
+        }
+
+        @Override
+        public void flush()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            if (fillBuffer.position() > 0) {
+                submitBatch();
+            }
+            awaitPendingWrite();
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+                if (syncOnClose) {
+                    channel.force(false);
+                }
+            }
+            finally {
+                closed = true;
+                if (pendingWrite.isDone()) {
+                    release();
+                }
+                else {
+                    // Waiting for the in-flight batch was interrupted, so it may still use the channel and the flush buffer.
+                    // Skip it if it has not started yet and release both once it is drained.
+                    abandoned.set(true);
+                    pendingWrite.addListener(() -> {
+                        try {
+                            release();
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, directExecutor());
+                }
+            }
+        }
+
+        private void release()
+                throws IOException
+        {
+            try {
+                channel.close();
+            }
+            finally {
+                returnBuffer(fillBuffer);
+                returnBuffer(flushBuffer);
+            }
+        }
+
+        private void submitBatch()
+                throws IOException
+        {
+            // wait for the in-flight buffer before reusing it as the next fill buffer
+            awaitPendingWrite();
+            ByteBuffer batch = fillBuffer;
+            fillBuffer = flushBuffer;
+            flushBuffer = batch;
+            batch.flip();
+
+            spillerStats.addQueuedWrite();
+            long queuedAt = System.nanoTime();
+            pendingWrite = ioExecutor.submit(() -> {
+                try {
+                    if (abandoned.get()) {
+                        return;
+                    }
+                    int bytes = batch.remaining();
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+                    spillerStats.recordWrite(bytes, System.nanoTime() - queuedAt, NANOSECONDS);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                finally {
+                    batch.clear();
+                    spillerStats.removeQueuedWrite();
+                }
+            });
+        }
+
+        private void awaitPendingWrite()
+                throws IOException
+        {
+            try {
+                pendingWrite.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for spill write");
+            }
+            catch (ExecutionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw new IOException("Failed to write spill batch", e.getCause());
+            }
+        }
+    }
+}
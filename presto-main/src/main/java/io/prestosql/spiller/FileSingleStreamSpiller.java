@@ -28,6 +28,9 @@ import io.airlift.compress.snappy.SnappyFramedOutputStream;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.hetu.core.transport.execution.buffer.AdaptiveCompressionPagesSerde;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -54,6 +57,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
@@ -69,14 +75,16 @@ import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.getFileSystem;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 
 @RestorableConfig(uncapturedFields = {"closer", "serde",
         "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress", "cipherIV", "spillCipher", "fileSystemClientManager", "fileSystemClient",
-        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde"})
+        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde", "spillPathTiers", "bytesOnSpillPath", "spillPathReleased", "mmapReadEnabled", "asyncSpillWriter", "compressionCodecReported"})
 public class FileSingleStreamSpiller
         extends FileSingleSessionStreamSpiller
         implements SingleStreamSpiller
@@ -114,6 +122,13 @@ public class FileSingleStreamSpiller
     private boolean isSingleSessionSpiller;
     private long targetFileSize = Long.MAX_VALUE;
     private final boolean isSnapshotEnabled;
+    // present when the spill path was placed by SpillPathTiers, which is then told about writes and the close of this spiller
+    private final Optional<SpillPathTiers> spillPathTiers;
+    private long bytesOnSpillPath;
+    private boolean spillPathReleased;
+    private final boolean mmapReadEnabled;
+    private final Optional<AsyncSpillWriter> asyncSpillWriter;
+    private boolean compressionCodecReported;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -133,6 +148,32 @@ public class FileSingleStreamSpiller
             boolean isSingleSessionSpiller,
             boolean isSnapshotEnabled,
             String queryId)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, compressionEnabled, useDirectSerde, spillPrefetchReadPages,
+                useKryo, spillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId, Optional.empty(), false, Optional.empty());
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            boolean compressionEnabled,
+            boolean useDirectSerde,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            boolean isSingleSessionSpiller,
+            boolean isSnapshotEnabled,
+            String queryId,
+            Optional<SpillPathTiers> spillPathTiers,
+            boolean mmapReadEnabled,
+            Optional<AsyncSpillWriter> asyncSpillWriter)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -162,7 +203,10 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        this.spillPathTiers = requireNonNull(spillPathTiers, "spillPathTiers is null");
+        this.mmapReadEnabled = mmapReadEnabled;
+        this.asyncSpillWriter = requireNonNull(asyncSpillWriter, "asyncSpillWriter is null");
+        this.memoryContext.setBytes(BUFFER_SIZE + asyncSpillWriter.map(AsyncSpillWriter::getRetainedBytesPerStream).orElse(0));
         try {
             this.fileSystemClient = getFileSystem(spillPath, spillToHdfs, spillProfile, fileSystemClientManager);
         }
@@ -234,6 +278,29 @@ public class FileSingleStreamSpiller
         spillerStats.addToTotalSpilledBytes(stats.getTotalSpilledBytes());
         pageSizeList.addAll(stats.getPageSizesList());
         localSpillContext.updateWriteTime(stats.getTotalWriteTime());
+        recordSpillPathWrite(stats.getTotalBytesWritten(), stats.getTotalWriteTime());
+        recordCompressionCodec();
+    }
+
+    private void recordCompressionCodec()
+    {
+        if (compressionCodecReported || !(serde instanceof AdaptiveCompressionPagesSerde)) {
+            return;
+        }
+        Optional<PageCompressionCodec> codec = ((AdaptiveCompressionPagesSerde) serde).getSelectedCodec();
+        if (codec.isPresent()) {
+            compressionCodecReported = true;
+            spillerStats.recordCompressionCodec(codec.get());
+            localSpillContext.updateCompressionCodec(codec.get());
+        }
+    }
+
+    private void recordSpillPathWrite(long bytes, long writeTimeMillis)
+    {
+        if (spillPathTiers.isPresent()) {
+            bytesOnSpillPath += bytes;
+            spillPathTiers.get().recordWrite(spillPath, bytes, writeTimeMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
@@ -258,8 +325,9 @@ public class FileSingleStreamSpiller
     void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        long bytesWritten = 0;
+        Stopwatch timer = Stopwatch.createStarted();
         try (SliceOutput output = new OutputStreamSliceOutput(getOutputStreamBasedOnSpillLocation(), BUFFER_SIZE)) {
-            Stopwatch timer = Stopwatch.createStarted();
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -268,14 +336,18 @@ public class FileSingleStreamSpiller
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
                 pageSizeList.add(pageSize);
+                bytesWritten += pageSize;
                 writeSerializedPage(output, serializedPage);
             }
-            timer.stop();
-            localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        // the output is closed, and therefore flushed, before the write time is taken
+        timer.stop();
+        localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
+        recordSpillPathWrite(bytesWritten, timer.elapsed(TimeUnit.MILLISECONDS));
+        recordCompressionCodec();
     }
 
     protected OutputStream getStreamForWriting(OutputStream outputStream, int bufferSize) throws IOException
@@ -302,8 +374,9 @@ public class FileSingleStreamSpiller
     private void writePagesDirect(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        long bytesWritten = 0;
+        Stopwatch timer = Stopwatch.createStarted();
         try (OutputStream output = getStreamForWriting(getOutputStreamBasedOnSpillLocation(), BUFFER_SIZE)) {
-            Stopwatch timer = Stopwatch.createStarted();
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 long pageSize = page.getSizeInBytes();
@@ -311,14 +384,17 @@ public class FileSingleStreamSpiller
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
                 pageSizeList.add(pageSize);
+                bytesWritten += pageSize;
                 serde.serialize(output, page);
             }
-            timer.stop();
-            localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        timer.stop();
+        localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
+        recordSpillPathWrite(bytesWritten, timer.elapsed(TimeUnit.MILLISECONDS));
+        recordCompressionCodec();
     }
 
     private InputStream getStreamForReading(InputStream inputStream, int bufferSize) throws IOException
@@ -367,6 +443,14 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
+            if (mmapReadEnabled && !useDirectSerde && !spillToHdfs) {
+                long fileSize = Files.size(targetFile.getFilePath());
+                // a mapping is addressed by an int, larger files are streamed
+                if (fileSize <= Integer.MAX_VALUE) {
+                    return readMappedPages(targetFile.getFilePath(), fileSize);
+                }
+            }
+
             InputStream input = closer.register(targetFile.newInputStream());
             Iterator<Page> pages;
 
@@ -393,11 +477,29 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private Iterator<Page> readMappedPages(Path path, long fileSize)
+            throws IOException
+    {
+        MappedByteBuffer mappedFile;
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            mappedFile = channel.map(READ_ONLY, 0, fileSize);
+        }
+        // Serialized pages are sliced out of the mapping, so uncompressed blocks are deserialized without being copied to the heap.
+        // Every slice references the mapping, so it is released only once the last page using it is garbage collected.
+        // The mapping is backed by the page cache rather than the heap, so it is not reserved as operator memory.
+        Iterator<Page> pages = PagesSerdeUtil.readPages(serde, Slices.wrappedBuffer(mappedFile).getInput(), spillPrefetchReadPages);
+        return closeWhenExhausted(pages, () -> {}, localSpillContext);
+    }
+
     @Override
     public void close()
     {
         closer.register(localSpillContext);
         closer.register(() -> memoryContext.setBytes(0));
+        if (spillPathTiers.isPresent() && !spillPathReleased) {
+            spillPathReleased = true;
+            closer.register(() -> spillPathTiers.get().spillClosed(spillPath, bytesOnSpillPath));
+        }
         try {
             closer.close();
             cipherIV = null;
@@ -485,6 +587,9 @@ public class FileSingleStreamSpiller
         if (spillToHdfs) {
             return targetFile.newOutputStream();
         }
+        else if (asyncSpillWriter.isPresent()) {
+            return asyncSpillWriter.get().newOutputStream(targetFile.getFilePath());
+        }
         else {
             return targetFile.newOutputStream(APPEND);
         }
@@ -31,6 +31,8 @@ import io.prestosql.spi.filesystem.HetuFileSystemClient;
 import io.prestosql.spi.spiller.SpillCipher;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.FeaturesConfig;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.annotation.PreDestroy;
 
@@ -45,6 +47,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -69,12 +72,15 @@ public class FileSingleStreamSpillerFactory
     private final boolean spillDirectSerdeEnabled;
     private final boolean useKryo;
     private final boolean spillCompressionEnabled;
-    private int roundRobinIndex;
     private int spillPrefetchReadPages;
     private boolean spillToHdfs;
     private String spillProfile;
     private FileSystemClientManager fileSystemClientManager;
     private boolean spillDirectoriesCreated;
+    private final SpillPathTiers spillPathTiers;
+    private final boolean spillMmapReadEnabled;
+    private final boolean spillAdaptiveCompressionEnabled;
+    private final Optional<AsyncSpillWriter> asyncSpillWriter;
 
     @Inject
     public FileSingleStreamSpillerFactory(Metadata metadata, SpillerStats spillerStats, FeaturesConfig featuresConfig, NodeSpillConfig nodeSpillConfig, FileSystemClientManager fileSystemClientManager)
@@ -94,7 +100,26 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillUseKryoSerialization(),
                 requireNonNull(featuresConfig, "featuresConfig is null").isSpillToHdfs(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillProfile(),
-                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"));
+                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"),
+                new SpillPathTiers(featuresConfig.getSpillerSpillPaths(), nodeSpillConfig.getSpillPathTiers(), nodeSpillConfig.getSpillPathBandwidths()),
+                nodeSpillConfig.isSpillMmapReadEnabled(),
+                nodeSpillConfig.isSpillAdaptiveCompressionEnabled(),
+                createAsyncSpillWriter(nodeSpillConfig, spillerStats));
+    }
+
+    private static Optional<AsyncSpillWriter> createAsyncSpillWriter(NodeSpillConfig nodeSpillConfig, SpillerStats spillerStats)
+    {
+        if (!nodeSpillConfig.isSpillAsyncWriteEnabled()) {
+            return Optional.empty();
+        }
+        int ioThreads = nodeSpillConfig.getSpillIoThreads();
+        return Optional.of(new AsyncSpillWriter(
+                listeningDecorator(newFixedThreadPool(ioThreads, daemonThreadsNamed("spill-io-%s"))),
+                spillerStats,
+                toIntExact(nodeSpillConfig.getSpillWriteBufferSize().toBytes()),
+                // keep enough buffers around for every I/O thread to have a batch in flight while the next one fills
+                4 * ioThreads,
+                nodeSpillConfig.isSpillWriteSyncEnabled()));
     }
 
     @VisibleForTesting
@@ -132,6 +157,31 @@ public class FileSingleStreamSpillerFactory
             boolean spillToHdfs,
             String spillProfile,
             FileSystemClientManager fileSystemClientManager)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold,
+                spillCompressionEnabled, spillEncryptionEnabled, spillDirectSerdeEnabled,
+                spillPrefetchReadPages, useKryo, spillToHdfs, spillProfile, fileSystemClientManager, new SpillPathTiers(spillPaths), false, false, Optional.empty());
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillDirectSerdeEnabled,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            SpillPathTiers spillPathTiers,
+            boolean spillMmapReadEnabled,
+            boolean spillAdaptiveCompressionEnabled,
+            Optional<AsyncSpillWriter> asyncSpillWriter)
     {
         checkArgument(!(blockEncodingSerde instanceof KryoBlockEncodingSerde)
                         || (blockEncodingSerde instanceof KryoBlockEncodingSerde && spillDirectSerdeEnabled),
@@ -146,12 +196,15 @@ public class FileSingleStreamSpillerFactory
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
         this.spillCompressionEnabled = spillCompressionEnabled;
-        this.roundRobinIndex = 0;
         this.spillDirectSerdeEnabled = spillDirectSerdeEnabled;
         this.spillPrefetchReadPages = spillPrefetchReadPages;
         this.useKryo = useKryo;
         this.fileSystemClientManager = fileSystemClientManager;
         this.spillPaths = ImmutableList.copyOf(spillPaths);
+        this.spillPathTiers = requireNonNull(spillPathTiers, "spillPathTiers is null");
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        this.spillAdaptiveCompressionEnabled = spillAdaptiveCompressionEnabled;
+        this.asyncSpillWriter = requireNonNull(asyncSpillWriter, "asyncSpillWriter is null");
     }
 
     public synchronized void cleanupOldSpillFiles()
@@ -163,6 +216,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        asyncSpillWriter.ifPresent(AsyncSpillWriter::shutdown);
     }
 
     private synchronized void cleanupOldSpillFiles(Path path, boolean spillToHdfs, String spillProfile, FileSystemClientManager fileSystemClientManager)
@@ -197,15 +251,27 @@ public class FileSingleStreamSpillerFactory
         if (spillEncryptionEnabled) {
             spillCipher = Optional.of(new AesSpillCipher());
         }
-        PagesSerde serde = serdeFactory.createDirectPagesSerde(spillCipher, spillDirectSerdeEnabled, useKryo);
+        PagesSerde serde;
+        if (spillCompressionEnabled && spillAdaptiveCompressionEnabled && !spillDirectSerdeEnabled) {
+            serde = serdeFactory.createAdaptiveCompressionPagesSerde(spillCipher);
+        }
+        else {
+            serde = serdeFactory.createDirectPagesSerde(spillCipher, spillDirectSerdeEnabled, useKryo);
+        }
         Path spillPath;
+        Optional<SpillPathTiers> placement = Optional.empty();
         if (spillToHdfsPath != null) {
             spillPath = getHdfsSpillPath(spillToHdfsPath);
         }
+        else if (isSpillToHdfs) {
+            spillPath = Paths.get("/tmp/hetu/snapshot");
+        }
         else {
-            spillPath = isSpillToHdfs ? Paths.get("/tmp/hetu/snapshot") : getNextSpillPath();
+            spillPath = getNextSpillPath();
+            placement = Optional.of(spillPathTiers);
         }
-        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId);
+        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId,
+                placement, spillMmapReadEnabled, isSpillToHdfs ? Optional.empty() : asyncSpillWriter);
     }
 
     private synchronized Path getHdfsSpillPath(Path spillToHdfsPath)
@@ -218,19 +284,18 @@ public class FileSingleStreamSpillerFactory
 
     private synchronized Path getNextSpillPath()
     {
-        int spillPathsCount = spillPaths.size();
-        for (int i = 0; i < spillPathsCount; ++i) {
-            int pathIndex = (roundRobinIndex + i) % spillPathsCount;
-            Path path = spillPaths.get(pathIndex);
-            if (hasEnoughDiskSpace(path)) {
-                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
-                return path;
-            }
-        }
         if (spillPaths.isEmpty()) {
             throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
         }
-        throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+        return spillPathTiers.reserveNextPath(this::hasEnoughDiskSpace)
+                .orElseThrow(() -> new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill"));
+    }
+
+    @Managed
+    @Nested
+    public SpillPathTiers getSpillPathTiers()
+    {
+        return spillPathTiers;
     }
 
     private boolean hasEnoughDiskSpace(Path path)
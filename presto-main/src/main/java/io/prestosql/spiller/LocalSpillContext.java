@@ -13,6 +13,7 @@
  */
 package io.prestosql.spiller;
 
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.operator.SpillContext;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -60,6 +61,12 @@ public final class LocalSpillContext
         }
     }
 
+    @Override
+    public void updateCompressionCodec(PageCompressionCodec codec)
+    {
+        parentSpillContext.updateCompressionCodec(codec);
+    }
+
     @Override
     public synchronized void close()
     {
@@ -13,13 +13,24 @@
  */
 package io.prestosql.spiller;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
 public class NodeSpillConfig
 {
     private DataSize maxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
@@ -33,6 +44,15 @@ public class NodeSpillConfig
     private int spillPrefetchReadPages = 1;
     private boolean spillUseKryoSerialization;
 
+    private boolean spillAsyncWriteEnabled;
+    private DataSize spillWriteBufferSize = new DataSize(1, DataSize.Unit.MEGABYTE);
+    private int spillIoThreads = 2;
+    private boolean spillWriteSyncEnabled;
+    private boolean spillMmapReadEnabled;
+    private Map<Path, Integer> spillPathTiers = ImmutableMap.of();
+    private Map<Path, DataSize> spillPathBandwidths = ImmutableMap.of();
+    private boolean spillAdaptiveCompressionEnabled;
+
     @NotNull
     public DataSize getMaxSpillPerNode()
     {
@@ -120,4 +140,122 @@ public class NodeSpillConfig
         this.spillUseKryoSerialization = spillUseKryoSerialization;
         return this;
     }
+
+    public boolean isSpillAsyncWriteEnabled()
+    {
+        return spillAsyncWriteEnabled;
+    }
+
+    @Config("experimental.spill-async-write-enabled")
+    @ConfigDescription("Write local spill files in large batches on a dedicated I/O thread pool")
+    public NodeSpillConfig setSpillAsyncWriteEnabled(boolean spillAsyncWriteEnabled)
+    {
+        this.spillAsyncWriteEnabled = spillAsyncWriteEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getSpillWriteBufferSize()
+    {
+        return spillWriteBufferSize;
+    }
+
+    @Config("experimental.spill-write-buffer-size")
+    @ConfigDescription("Size of each of the two write buffers used by an asynchronous spill stream")
+    public NodeSpillConfig setSpillWriteBufferSize(DataSize spillWriteBufferSize)
+    {
+        this.spillWriteBufferSize = spillWriteBufferSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getSpillIoThreads()
+    {
+        return spillIoThreads;
+    }
+
+    @Config("experimental.spill-io-threads")
+    @ConfigDescription("Number of threads writing asynchronous spill batches to disk")
+    public NodeSpillConfig setSpillIoThreads(int spillIoThreads)
+    {
+        this.spillIoThreads = spillIoThreads;
+        return this;
+    }
+
+    public boolean isSpillWriteSyncEnabled()
+    {
+        return spillWriteSyncEnabled;
+    }
+
+    @Config("experimental.spill-write-sync-enabled")
+    @ConfigDescription("Force asynchronously written spill files to disk when the stream is closed")
+    public NodeSpillConfig setSpillWriteSyncEnabled(boolean spillWriteSyncEnabled)
+    {
+        this.spillWriteSyncEnabled = spillWriteSyncEnabled;
+        return this;
+    }
+
+    public boolean isSpillMmapReadEnabled()
+    {
+        return spillMmapReadEnabled;
+    }
+
+    @Config("experimental.spill-mmap-read-enabled")
+    @ConfigDescription("Read local spill files through a memory mapping instead of an input stream")
+    public NodeSpillConfig setSpillMmapReadEnabled(boolean spillMmapReadEnabled)
+    {
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        return this;
+    }
+
+    @NotNull
+    public Map<Path, Integer> getSpillPathTiers()
+    {
+        return spillPathTiers;
+    }
+
+    @Config("experimental.spill-path-tiers")
+    @ConfigDescription("Comma separated path=priority pairs; spills go to the lowest priority tier with free space, unlisted paths use priority 0")
+    public NodeSpillConfig setSpillPathTiers(String spillPathTiers)
+    {
+        this.spillPathTiers = parsePathMap(spillPathTiers).entrySet().stream()
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> Integer.parseInt(entry.getValue())));
+        return this;
+    }
+
+    @NotNull
+    public Map<Path, DataSize> getSpillPathBandwidths()
+    {
+        return spillPathBandwidths;
+    }
+
+    @Config("experimental.spill-path-bandwidths")
+    @ConfigDescription("Comma separated path=bandwidth pairs (bytes per second) used to balance spills between the paths of one tier")
+    public NodeSpillConfig setSpillPathBandwidths(String spillPathBandwidths)
+    {
+        this.spillPathBandwidths = parsePathMap(spillPathBandwidths).entrySet().stream()
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> DataSize.valueOf(entry.getValue())));
+        return this;
+    }
+
+    public boolean isSpillAdaptiveCompressionEnabled()
+    {
+        return spillAdaptiveCompressionEnabled;
+    }
+
+    @Config("experimental.spill-adaptive-compression-enabled")
+    @ConfigDescription("Choose between no compression, LZ4 and ZSTD for each spill by sampling its first pages; requires spill compression")
+    public NodeSpillConfig setSpillAdaptiveCompressionEnabled(boolean spillAdaptiveCompressionEnabled)
+    {
+        this.spillAdaptiveCompressionEnabled = spillAdaptiveCompressionEnabled;
+        return this;
+    }
+
+    private static Map<Path, String> parsePathMap(String value)
+    {
+        return Splitter.on(",").trimResults().omitEmptyStrings().withKeyValueSeparator(Splitter.on("=").trimResults()).split(value).entrySet().stream()
+                .collect(toImmutableMap(entry -> Paths.get(entry.getKey()), Map.Entry::getValue));
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Places spill files on the configured spill paths. Paths are grouped into tiers by priority
+ * (lower is faster), and a new spill goes to the fastest tier that still has a path with
+ * enough free space. Within a tier the path with the lowest number of open spill files per
+ * unit of configured bandwidth is used, ties are broken round robin. Without any tier or
+ * bandwidth configuration the paths are used round robin, as before tiers were added.
+ */
+@ThreadSafe
+public class SpillPathTiers
+{
+    public static final int DEFAULT_TIER = 0;
+    private static final long DEFAULT_BANDWIDTH = 1;
+
+    private final List<List<SpillPath>> tiers;
+    private final boolean balanceByLoad;
+    private final Map<Integer, Integer> roundRobinIndexes = new TreeMap<>();
+
+    public SpillPathTiers(List<Path> spillPaths)
+    {
+        this(spillPaths, ImmutableMap.of(), ImmutableMap.of());
+    }
+
+    public SpillPathTiers(List<Path> spillPaths, Map<Path, Integer> tierByPath, Map<Path, DataSize> bandwidthByPath)
+    {
+        requireNonNull(spillPaths, "spillPaths is null");
+        requireNonNull(tierByPath, "tierByPath is null");
+        requireNonNull(bandwidthByPath, "bandwidthByPath is null");
+        Map<Integer, List<Path>> pathsByTier = spillPaths.stream()
+                .collect(groupingBy(path -> tierByPath.getOrDefault(path, DEFAULT_TIER), TreeMap::new, toList()));
+        ImmutableList.Builder<List<SpillPath>> builder = ImmutableList.builder();
+        pathsByTier.forEach((tier, paths) -> {
+            // paths without a configured bandwidth are assumed to be as fast as the fastest configured path of their tier
+            long defaultBandwidth = paths.stream()
+                    .map(bandwidthByPath::get)
+                    .filter(Objects::nonNull)
+                    .mapToLong(DataSize::toBytes)
+                    .max()
+                    .orElse(DEFAULT_BANDWIDTH);
+            builder.add(paths.stream()
+                    .map(path -> new SpillPath(path, tier, Optional.ofNullable(bandwidthByPath.get(path)).map(DataSize::toBytes).orElse(defaultBandwidth)))
+                    .collect(toImmutableList()));
+        });
+        this.tiers = builder.build();
+        this.balanceByLoad = !tierByPath.isEmpty() || !bandwidthByPath.isEmpty();
+    }
+
+    /**
+     * Returns the path for the next spill file, or empty if no path passes the {@code hasHeadroom} check.
+     * The returned path is accounted as having one more open spill file until {@link #spillClosed} is called.
+     */
+    public synchronized Optional<Path> reserveNextPath(Predicate<Path> hasHeadroom)
+    {
+        for (List<SpillPath> tier : tiers) {
+            int tierPriority = tier.get(0).getTier();
+            int start = roundRobinIndexes.getOrDefault(tierPriority, 0);
+            SpillPath selected = null;
+            int selectedIndex = -1;
+            for (int i = 0; i < tier.size(); i++) {
+                int index = (start + i) % tier.size();
+                SpillPath candidate = tier.get(index);
+                if ((selected == null || candidate.getLoad() < selected.getLoad()) && hasHeadroom.test(candidate.getPath())) {
+                    selected = candidate;
+                    selectedIndex = index;
+                    if (!balanceByLoad) {
+                        break;
+                    }
+                }
+            }
+            if (selected != null) {
+                roundRobinIndexes.put(tierPriority, (selectedIndex + 1) % tier.size());
+                selected.openSpills++;
+                return Optional.of(selected.getPath());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void recordWrite(Path path, long bytes, long duration, TimeUnit unit)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        getSpillPath(path).ifPresent(spillPath -> {
+            spillPath.bytesOnDisk += bytes;
+            spillPath.bytesWritten += bytes;
+            spillPath.writeNanos += unit.toNanos(duration);
+        });
+    }
+
+    public synchronized void spillClosed(Path path, long bytesOnDisk)
+    {
+        getSpillPath(path).ifPresent(spillPath -> {
+            spillPath.openSpills--;
+            spillPath.bytesOnDisk -= bytesOnDisk;
+        });
+    }
+
+    /**
+     * Open spill files per tier, ordered from the fastest tier.
+     */
+    @Managed
+    public synchronized Map<Integer, Long> getOpenSpills()
+    {
+        return summarize(spillPath -> (long) spillPath.openSpills);
+    }
+
+    /**
+     * Bytes held by open spill files per tier, ordered from the fastest tier.
+     */
+    @Managed
+    public synchronized Map<Integer, Long> getBytesOnDisk()
+    {
+        return summarize(spillPath -> spillPath.bytesOnDisk);
+    }
+
+    @Managed
+    public synchronized Map<Integer, Long> getBytesWritten()
+    {
+        return summarize(spillPath -> spillPath.bytesWritten);
+    }
+
+    /**
+     * Observed write throughput per tier in bytes per second.
+     */
+    @Managed
+    public synchronized Map<Integer, Long> getWriteThroughput()
+    {
+        ImmutableMap.Builder<Integer, Long> builder = ImmutableMap.builder();
+        for (List<SpillPath> tier : tiers) {
+            long bytes = tier.stream().mapToLong(spillPath -> spillPath.bytesWritten).sum();
+            long nanos = tier.stream().mapToLong(spillPath -> spillPath.writeNanos).sum();
+            builder.put(tier.get(0).getTier(), nanos == 0 ? 0 : (long) (bytes * (double) TimeUnit.SECONDS.toNanos(1) / nanos));
+        }
+        return builder.build();
+    }
+
+    private Map<Integer, Long> summarize(ToLongFunction<SpillPath> metric)
+    {
+        ImmutableMap.Builder<Integer, Long> builder = ImmutableMap.builder();
+        for (List<SpillPath> tier : tiers) {
+            builder.put(tier.get(0).getTier(), tier.stream().mapToLong(metric).sum());
+        }
+        return builder.build();
+    }
+
+    @GuardedBy("this")
+    private Optional<SpillPath> getSpillPath(Path path)
+    {
+        return tiers.stream()
+                .flatMap(List::stream)
+                .filter(spillPath -> spillPath.getPath().equals(path))
+                .findFirst();
+    }
+
+    private static class SpillPath
+    {
+        private final Path path;
+        private final int tier;
+        private final long bandwidth;
+
+        private int openSpills;
+        private long bytesOnDisk;
+        private long bytesWritten;
+        private long writeNanos;
+
+        SpillPath(Path path, int tier, long bandwidth)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.tier = tier;
+            checkArgument(bandwidth > 0, "bandwidth must be positive");
+            this.bandwidth = bandwidth;
+        }
+
+        Path getPath()
+        {
+            return path;
+        }
+
+        int getTier()
+        {
+            return tier;
+        }
+
+        double getLoad()
+        {
+            return (double) openSpills / bandwidth;
+        }
+    }
+}
@@ -13,13 +13,26 @@
  */
 package io.prestosql.spiller;
 
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    private final AtomicLong queuedWrites = new AtomicLong();
+    private final TimeStat writeLatency = new TimeStat(MILLISECONDS);
+    private final DistributionStat writeBatchSizeInBytes = new DistributionStat();
+    private final AtomicLong uncompressedSpills = new AtomicLong();
+    private final AtomicLong lz4CompressedSpills = new AtomicLong();
+    private final AtomicLong zstdCompressedSpills = new AtomicLong();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +44,78 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    @Managed
+    public long getQueuedWrites()
+    {
+        return queuedWrites.get();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getWriteLatency()
+    {
+        return writeLatency;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getWriteBatchSizeInBytes()
+    {
+        return writeBatchSizeInBytes;
+    }
+
+    public void addQueuedWrite()
+    {
+        queuedWrites.incrementAndGet();
+    }
+
+    public void removeQueuedWrite()
+    {
+        queuedWrites.decrementAndGet();
+    }
+
+    public void recordWrite(long bytes, long latency, TimeUnit unit)
+    {
+        writeBatchSizeInBytes.add(bytes);
+        writeLatency.add(latency, unit);
+    }
+
+    /**
+     * Spills that settled on no compression after sampling their first pages.
+     */
+    @Managed
+    public long getUncompressedSpills()
+    {
+        return uncompressedSpills.get();
+    }
+
+    @Managed
+    public long getLz4CompressedSpills()
+    {
+        return lz4CompressedSpills.get();
+    }
+
+    @Managed
+    public long getZstdCompressedSpills()
+    {
+        return zstdCompressedSpills.get();
+    }
+
+    public void recordCompressionCodec(PageCompressionCodec codec)
+    {
+        switch (codec) {
+            case NONE:
+                uncompressedSpills.incrementAndGet();
+                break;
+            case LZ4:
+                lz4CompressedSpills.incrementAndGet();
+                break;
+            case ZSTD:
+                zstdCompressedSpills.incrementAndGet();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported codec: " + codec);
+        }
+    }
 }
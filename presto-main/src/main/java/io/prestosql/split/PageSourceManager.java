@@ -14,6 +14,7 @@
 package io.prestosql.split;
 
 import io.prestosql.Session;
+import io.prestosql.execution.executor.IoSplitLane;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.connector.CatalogName;
 import io.prestosql.spi.connector.ColumnHandle;
@@ -22,6 +23,8 @@ import io.prestosql.spi.connector.ConnectorPageSourceProvider;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.metadata.TableHandle;
 
+import javax.inject.Inject;
+
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -35,6 +38,18 @@ public class PageSourceManager
         implements PageSourceProvider
 {
     private final ConcurrentMap<CatalogName, ConnectorPageSourceProvider> pageSourceProviders = new ConcurrentHashMap<>();
+    private final Optional<IoSplitLane> ioSplitLane;
+
+    public PageSourceManager()
+    {
+        this.ioSplitLane = Optional.empty();
+    }
+
+    @Inject
+    public PageSourceManager(IoSplitLane ioSplitLane)
+    {
+        this.ioSplitLane = Optional.of(requireNonNull(ioSplitLane, "ioSplitLane is null"));
+    }
 
     public void addConnectorPageSourceProvider(CatalogName catalogName, ConnectorPageSourceProvider pageSourceProvider)
     {
@@ -57,8 +72,9 @@ public class PageSourceManager
 
         ConnectorPageSourceProvider provider = getPageSourceProvider(catalogName);
 
+        ConnectorPageSource pageSource;
         if (!dynamicFilter.isPresent()) {
-            return provider.createPageSource(
+            pageSource = provider.createPageSource(
                     table.getTransaction(),
                     session.toConnectorSession(catalogName),
                     split.getConnectorSplit(),
@@ -66,7 +82,7 @@ public class PageSourceManager
                     columns);
         }
         else {
-            return provider.createPageSource(
+            pageSource = provider.createPageSource(
                     table.getTransaction(),
                     session.toConnectorSession(catalogName),
                     split.getConnectorSplit(),
@@ -74,6 +90,8 @@ public class PageSourceManager
                     columns,
                     dynamicFilter);
         }
+        // page sources waiting for remote I/O are read ahead so that they do not hold the split processing threads
+        return ioSplitLane.map(lane -> lane.prefetch(pageSource)).orElse(pageSource);
     }
 
     @Override
@@ -85,6 +85,8 @@ public class FeaturesConfig
     private int concurrentLifespansPerTask;
     private boolean spatialJoinsEnabled = true;
     private boolean fastInequalityJoins = true;
+    private boolean joinRadixPartitioningEnabled;
+    private boolean multiLookupJoinEnabled;
     private JoinReorderingStrategy joinReorderingStrategy = JoinReorderingStrategy.AUTOMATIC;
     private int maxReorderedJoins = 9;
     private boolean redistributeWrites = true;
@@ -181,6 +183,7 @@ public class FeaturesConfig
     private long cubeMetadataCacheSize = 5;
     private Duration cubeMetadataCacheTtl = new Duration(1, HOURS);
     private boolean sortBasedAggregationEnabled;
+    private boolean mergeJoinEnabled;
     private int prcntDriversForPartialAggr = 5;
     private boolean skipAttachingStatsWithPlan = true;
     private boolean skipNonApplicableRulesEnabled;
@@ -193,6 +196,7 @@ public class FeaturesConfig
     private boolean adaptivePartialAggregationEnabled = true;
     private long adaptivePartialAggregationMinRows = 100_000;
     private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
+    private boolean adaptivePartialAggregationHeavyHittersEnabled;
     private boolean transformSelfJoinToWindow = true;
     private boolean transformSelfJoinAggregateToWindow = true;
     private DataSize cteMaterializationThresholdSize = new DataSize(128, MEGABYTE);
@@ -451,6 +455,32 @@ public class FeaturesConfig
         return fastInequalityJoins;
     }
 
+    @Config("join-radix-partitioning-enabled")
+    @ConfigDescription("Split large join hash tables into cache sized sub-tables by hash bits")
+    public FeaturesConfig setJoinRadixPartitioningEnabled(boolean joinRadixPartitioningEnabled)
+    {
+        this.joinRadixPartitioningEnabled = joinRadixPartitioningEnabled;
+        return this;
+    }
+
+    public boolean isJoinRadixPartitioningEnabled()
+    {
+        return joinRadixPartitioningEnabled;
+    }
+
+    @Config("multi-lookup-join-enabled")
+    @ConfigDescription("Run chains of broadcast inner joins that probe with columns of the same input as a single join operator")
+    public FeaturesConfig setMultiLookupJoinEnabled(boolean multiLookupJoinEnabled)
+    {
+        this.multiLookupJoinEnabled = multiLookupJoinEnabled;
+        return this;
+    }
+
+    public boolean isMultiLookupJoinEnabled()
+    {
+        return multiLookupJoinEnabled;
+    }
+
     public JoinReorderingStrategy getJoinReorderingStrategy()
     {
         return joinReorderingStrategy;
@@ -1505,6 +1535,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isMergeJoinEnabled()
+    {
+        return mergeJoinEnabled;
+    }
+
+    @Config("optimizer.merge-join-enabled")
+    @ConfigDescription("Use sort merge join when both join inputs are bucketed and sorted on the join keys")
+    public FeaturesConfig setMergeJoinEnabled(boolean mergeJoinEnabled)
+    {
+        this.mergeJoinEnabled = mergeJoinEnabled;
+        return this;
+    }
+
     public int getPrcntDriversForPartialAggr()
     {
         return this.prcntDriversForPartialAggr;
@@ -1634,6 +1677,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationHeavyHittersEnabled()
+    {
+        return adaptivePartialAggregationHeavyHittersEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.heavy-hitters-enabled")
+    @ConfigDescription("Keep aggregating the most frequent keys after partial aggregation was adaptively turned off, and periodically re-enable it")
+    public FeaturesConfig setAdaptivePartialAggregationHeavyHittersEnabled(boolean adaptivePartialAggregationHeavyHittersEnabled)
+    {
+        this.adaptivePartialAggregationHeavyHittersEnabled = adaptivePartialAggregationHeavyHittersEnabled;
+        return this;
+    }
+
     @Min(0)
     public long getJoinPartitionedBuildMinRowCount()
     {
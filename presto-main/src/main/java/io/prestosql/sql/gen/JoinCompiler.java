@@ -41,7 +41,10 @@ import io.prestosql.operator.IPagesHash;
 import io.prestosql.operator.JoinHash;
 import io.prestosql.operator.JoinHashSupplier;
 import io.prestosql.operator.LookupSourceSupplier;
+import io.prestosql.operator.PackedJoinKeys;
+import io.prestosql.operator.PackedKeysPagesHash;
 import io.prestosql.operator.PagesHashStrategy;
+import io.prestosql.operator.RadixPartitionedPagesHash;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
@@ -185,6 +188,7 @@ public class JoinCompiler
                 && types.get(getOnlyElement(joinChannels)) == BIGINT) {
             singleBigintJoinChannel = OptionalInt.of(getOnlyElement(joinChannels));
         }
+        Optional<PackedJoinKeys> packedJoinKeys = PackedJoinKeys.create(types, joinChannels);
 
         Class<? extends LookupSourceSupplier> joinHashSupplierClass = IsolatedClass.isolateClass(
                 new DynamicClassLoader(getClass().getClassLoader()),
@@ -193,9 +197,11 @@ public class JoinCompiler
                 JoinHash.class,
                 IPagesHash.class,
                 BigintPagesHash.class,
+                PackedKeysPagesHash.class,
+                RadixPartitionedPagesHash.class,
                 DefaultPagesHash.class);
 
-        return new LookupSourceSupplierFactory(joinHashSupplierClass, new PagesHashStrategyFactory(pagesHashStrategyClass), singleBigintJoinChannel);
+        return new LookupSourceSupplierFactory(joinHashSupplierClass, new PagesHashStrategyFactory(pagesHashStrategyClass), singleBigintJoinChannel, packedJoinKeys);
     }
 
     private static FieldDefinition generateInstanceSize(ClassDefinition definition)
@@ -908,17 +914,19 @@ public class JoinCompiler
         private final Constructor<? extends LookupSourceSupplier> constructor;
         private final PagesHashStrategyFactory pagesHashStrategyFactory;
         private final OptionalInt singleBigintJoinChannel;
+        private final Optional<PackedJoinKeys> packedJoinKeys;
 
-        public LookupSourceSupplierFactory(Class<? extends LookupSourceSupplier> joinHashSupplierClass, PagesHashStrategyFactory pagesHashStrategyFactory, OptionalInt singleBigintJoinChannel)
+        public LookupSourceSupplierFactory(Class<? extends LookupSourceSupplier> joinHashSupplierClass, PagesHashStrategyFactory pagesHashStrategyFactory, OptionalInt singleBigintJoinChannel, Optional<PackedJoinKeys> packedJoinKeys)
         {
             this.pagesHashStrategyFactory = pagesHashStrategyFactory;
             try {
-                constructor = joinHashSupplierClass.getConstructor(Session.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class, Optional.class, List.class, OptionalInt.class);
+                constructor = joinHashSupplierClass.getConstructor(Session.class, PagesHashStrategy.class, LongArrayList.class, List.class, Optional.class, Optional.class, List.class, OptionalInt.class, Optional.class);
             }
             catch (NoSuchMethodException e) {
                 throw new RuntimeException(e);
             }
             this.singleBigintJoinChannel = requireNonNull(singleBigintJoinChannel, "singleBigintJoinChannel is null");
+            this.packedJoinKeys = requireNonNull(packedJoinKeys, "packedJoinKeys is null");
         }
 
         public LookupSourceSupplier createLookupSourceSupplier(
@@ -932,7 +940,7 @@ public class JoinCompiler
         {
             PagesHashStrategy pagesHashStrategy = pagesHashStrategyFactory.createPagesHashStrategy(channels, hashChannel);
             try {
-                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory, sortChannel, searchFunctionFactories, singleBigintJoinChannel);
+                return constructor.newInstance(session, pagesHashStrategy, addresses, channels, filterFunctionFactory, sortChannel, searchFunctionFactories, singleBigintJoinChannel, packedJoinKeys);
             }
             catch (ReflectiveOperationException e) {
                 throw new RuntimeException(e);
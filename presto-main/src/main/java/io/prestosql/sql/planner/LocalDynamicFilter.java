@@ -22,6 +22,8 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
 import io.prestosql.Session;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
+import io.prestosql.dynamicfilter.TaskDynamicFilters;
 import io.prestosql.execution.TaskId;
 import io.prestosql.operator.DynamicFilterSourceOperator;
 import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
@@ -33,13 +35,10 @@ import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.relation.RowExpression;
 import io.prestosql.spi.relation.VariableReferenceExpression;
-import io.prestosql.spi.statestore.StateSet;
-import io.prestosql.spi.statestore.StateStore;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.plan.SemiJoinNode;
-import io.prestosql.statestore.StateStoreProvider;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -55,12 +54,8 @@ import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilte
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
 import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.convertBloomFilterToByteArray;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
-import static io.prestosql.spi.statestore.StateCollection.Type.SET;
 import static io.prestosql.sql.DynamicFilters.Descriptor;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
-import static io.prestosql.utils.DynamicFilterUtils.PARTIALPREFIX;
-import static io.prestosql.utils.DynamicFilterUtils.TASKSPREFIX;
-import static io.prestosql.utils.DynamicFilterUtils.createKey;
 import static io.prestosql.utils.DynamicFilterUtils.findFilterNodeInStage;
 import static io.prestosql.utils.DynamicFilterUtils.getDynamicFilterDataType;
 import static java.util.Objects.requireNonNull;
@@ -86,20 +81,20 @@ public class LocalDynamicFilter
 
     private FeaturesConfig.DynamicFilterDataType dynamicFilterDataType;
     private final double bloomFilterFpp;
-    private final StateStoreProvider stateStoreProvider;
+    private final TaskDynamicFilters taskDynamicFilters;
     private final TaskId taskId;
     private Map<String, DynamicFilterSourceOperator.Channel> channels = new HashMap<>();
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount, DynamicFilter.Type type, Session session,
-            TaskId taskId, StateStoreProvider stateStoreProvider)
+            TaskId taskId, TaskDynamicFilters taskDynamicFilters)
     {
         this(probeSymbols, buildChannels, partitionCount, type, getDynamicFilteringDataType(session),
-                getDynamicFilteringBloomFilterFpp(session), taskId, stateStoreProvider);
+                getDynamicFilteringBloomFilterFpp(session), taskId, taskDynamicFilters);
     }
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
                               DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
-                              double bloomFilterFpp, TaskId taskId, StateStoreProvider stateStoreProvider)
+                              double bloomFilterFpp, TaskId taskId, TaskDynamicFilters taskDynamicFilters)
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
@@ -114,10 +109,10 @@ public class LocalDynamicFilter
         this.dynamicFilterDataType = requireNonNull(dataType, "dynamic filter data type is null");
         this.bloomFilterFpp = bloomFilterFpp;
         this.taskId = requireNonNull(taskId, "taskId is null");
-        this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStore is null");
+        this.taskDynamicFilters = requireNonNull(taskDynamicFilters, "taskDynamicFilters is null");
     }
 
-    public static Optional<LocalDynamicFilter> create(JoinNode planNode, int partitionCount, Session session, TaskId taskId, StateStoreProvider stateStoreProvider)
+    public static Optional<LocalDynamicFilter> create(JoinNode planNode, int partitionCount, Session session, TaskId taskId, TaskDynamicFilters taskDynamicFilters)
     {
         Set<String> joinDynamicFilters = planNode.getDynamicFilters().keySet();
         // Mapping from probe-side dynamic filters' IDs to their matching probe symbols.
@@ -160,10 +155,10 @@ public class LocalDynamicFilter
         if (localBuildChannels.isEmpty()) {
             return Optional.empty();
         }
-        return Optional.of(new LocalDynamicFilter(localProbeSymbols, localBuildChannels, partitionCount, localType, session, taskId, stateStoreProvider));
+        return Optional.of(new LocalDynamicFilter(localProbeSymbols, localBuildChannels, partitionCount, localType, session, taskId, taskDynamicFilters));
     }
 
-    public static Optional<LocalDynamicFilter> create(SemiJoinNode semiJoinNode, Session session, TaskId taskId, StateStoreProvider stateStoreProvider)
+    public static Optional<LocalDynamicFilter> create(SemiJoinNode semiJoinNode, Session session, TaskId taskId, TaskDynamicFilters taskDynamicFilters)
     {
         if (!semiJoinNode.getDynamicFilterId().isPresent()) {
             return Optional.empty();
@@ -179,7 +174,7 @@ public class LocalDynamicFilter
         }
         Multimap<String, Symbol> probeSymbolMultiMap = ImmutableMultimap.of(dynamicFilterId, semiJoinNode.getSourceJoinSymbol());
         Map<String, Integer> localChannels = ImmutableMap.of(dynamicFilterId, semiJoinNode.getFilteringSource().getOutputSymbols().indexOf(semiJoinNode.getFilteringSourceJoinSymbol()));
-        return Optional.of(new LocalDynamicFilter(probeSymbolMultiMap, localChannels, 1, localType, session, taskId, stateStoreProvider));
+        return Optional.of(new LocalDynamicFilter(probeSymbolMultiMap, localChannels, 1, localType, session, taskId, taskDynamicFilters));
     }
 
     private static void mapProbeSymbols(RowExpression predicate, Set<String> joinDynamicFilters, Multimap<String, Symbol> probeSymbols)
@@ -242,47 +237,45 @@ public class LocalDynamicFilter
                     dynamicFilterResult.put(entry.getKey(), entry.getValue());
                 }
                 try {
-                    addPartialFilterToStateStore();
+                    reportPartialFilters();
                 }
                 catch (RuntimeException e) {
-                    log.warn("Cannot add partial filter to state store with following message: " + e.getMessage());
+                    log.warn("Cannot report partial filter to the coordinator with following message: " + e.getMessage());
                 }
             }
             dynamicFilterResultFuture.set(dynamicFilterResult);
         }
     }
 
-    private void addPartialFilterToStateStore()
+    /**
+     * Hands the partial filters of this task to the task status, which reports them to the coordinator for merging
+     */
+    private void reportPartialFilters()
     {
-        StateStore stateStore = stateStoreProvider.getStateStore();
-        if (stateStore == null) {
-            return;
-        }
-
         DynamicFilter.DataType dataType = getDynamicFilterDataType(type, dynamicFilterDataType);
+        Map<String, SerializedDynamicFilter> partialFilters = new HashMap<>();
         for (Map.Entry<String, Set> filter : result.entrySet()) {
             DynamicFilterSourceOperator.Channel channel = channels.get(filter.getKey());
             Set filterValues = filter.getValue();
             String filterId = channel.getFilterId();
-            String key = createKey(PARTIALPREFIX, filterId, channel.getQueryId());
 
             if (dataType == BLOOM_FILTER) {
                 byte[] finalOutput = convertBloomFilterToByteArray(createBloomFilterFromSet(channel, filterValues, bloomFilterFpp));
                 if (finalOutput != null) {
-                    ((StateSet) stateStore.getOrCreateStateCollection(key, SET)).add(finalOutput);
+                    partialFilters.put(filterId, SerializedDynamicFilter.fromBloomFilter(finalOutput));
                 }
             }
             else {
-                ((StateSet) stateStore.getOrCreateStateCollection(key, SET)).add(filterValues);
+                partialFilters.put(filterId, SerializedDynamicFilter.fromValues(channel.getType(), filterValues));
             }
-            ((StateSet) stateStore.getOrCreateStateCollection(createKey(TASKSPREFIX, filterId, channel.getQueryId()), SET)).add(taskId.toString());
-            log.debug("creating new " + dataType + " dynamic filter for size of: " + result.size() + ", key: " + key + ", taskId: " + taskId);
+            log.debug("creating new " + dataType + " dynamic filter for size of: " + filterValues.size() + ", filterId: " + filterId + ", taskId: " + taskId);
         }
+        taskDynamicFilters.addPartialFilters(partialFilters);
     }
 
-    private BloomFilter createBloomFilterFromSet(DynamicFilterSourceOperator.Channel channel, Set values, double bloomFilterFpp)
+    private SplitBlockBloomFilter createBloomFilterFromSet(DynamicFilterSourceOperator.Channel channel, Set values, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        SplitBlockBloomFilter bloomFilter = new SplitBlockBloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
         if (channel.getType().getJavaType() == long.class) {
             for (Object value : values) {
                 long lv = (Long) value;
@@ -29,7 +29,7 @@ import io.prestosql.spi.dynamicfilter.DynamicFilterFactory;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.relation.RowExpression;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.rewrite.DynamicFilterContext;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
@@ -215,7 +215,7 @@ public class LocalDynamicFiltersCollector
                     if (result.keySet().contains(entry.getKey())) {
                         DynamicFilter existsFilter = result.get(entry.getKey());
                         if (existsFilter instanceof BloomFilterDynamicFilter) {
-                            BloomFilter existsBloomFilter = ((BloomFilterDynamicFilter) existsFilter).getBloomFilterDeserialized();
+                            SplitBlockBloomFilter existsBloomFilter = ((BloomFilterDynamicFilter) existsFilter).getBloomFilterDeserialized();
                             existsBloomFilter.merge(newBloomDynamicFilter.getBloomFilterDeserialized());
                             DynamicFilter newDynamicFilter = new BloomFilterDynamicFilter(existsFilter.getFilterId(), columnHandle, existsBloomFilter, GLOBAL);
                             result.put(columnHandle, newDynamicFilter);
@@ -77,7 +77,12 @@ import io.prestosql.operator.LookupJoinOperators;
 import io.prestosql.operator.LookupOuterOperator.LookupOuterOperatorFactory;
 import io.prestosql.operator.LookupSourceFactory;
 import io.prestosql.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
+import io.prestosql.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import io.prestosql.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import io.prestosql.operator.MergeJoinSource;
 import io.prestosql.operator.MergeOperator.MergeOperatorFactory;
+import io.prestosql.operator.MultiLookupJoinOperator;
+import io.prestosql.operator.MultiLookupJoinOperator.MultiLookupJoinOperatorFactory;
 import io.prestosql.operator.NestedLoopJoinBridge;
 import io.prestosql.operator.NestedLoopJoinPagesSupplier;
 import io.prestosql.operator.OperatorFactory;
@@ -287,9 +292,11 @@ import static io.prestosql.SystemSessionProperties.getSpillOperatorThresholdReus
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
 import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationHeavyHittersEnabled;
 import static io.prestosql.SystemSessionProperties.isCTEReuseEnabled;
 import static io.prestosql.SystemSessionProperties.isCrossRegionDynamicFilterEnabled;
 import static io.prestosql.SystemSessionProperties.isEnableDynamicFiltering;
+import static io.prestosql.SystemSessionProperties.isMultiLookupJoinEnabled;
 import static io.prestosql.SystemSessionProperties.isNonBlockingSpillOrderby;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillForOuterJoinEnabled;
@@ -322,6 +329,9 @@ import static io.prestosql.spi.function.OperatorType.LESS_THAN_OR_EQUAL;
 import static io.prestosql.spi.operator.ReuseExchangeOperator.STRATEGY.REUSE_STRATEGY_DEFAULT;
 import static io.prestosql.spi.plan.AggregationNode.Step.FINAL;
 import static io.prestosql.spi.plan.AggregationNode.Step.PARTIAL;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.spi.plan.JoinNode.JoinAlgorithm.HASH;
+import static io.prestosql.spi.plan.JoinNode.JoinAlgorithm.SORT_MERGE;
 import static io.prestosql.spi.plan.JoinNode.Type.FULL;
 import static io.prestosql.spi.plan.JoinNode.Type.INNER;
 import static io.prestosql.spi.plan.JoinNode.Type.RIGHT;
@@ -2290,6 +2300,22 @@ public class LocalExecutionPlanner
             List<Symbol> leftSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getLeft);
             List<Symbol> rightSymbols = Lists.transform(clauses, JoinNode.EquiJoinClause::getRight);
 
+            if (node.getJoinAlgorithm() == SORT_MERGE) {
+                // both sides must be read by a single driver per bucket to keep them sorted, fall back to a hash join otherwise
+                Optional<PlanNode> left = removeLocalExchanges(node.getLeft());
+                Optional<PlanNode> right = removeLocalExchanges(node.getRight());
+                if (left.isPresent() && right.isPresent()) {
+                    return createMergeJoin(node, left.get(), leftSymbols, right.get(), rightSymbols, context);
+                }
+            }
+
+            if (isMultiLookupJoinEnabled(session) && !isSpillEnabled(session) && !SystemSessionProperties.isSnapshotEnabled(session)) {
+                List<JoinNode> joins = getMultiLookupJoinChain(node);
+                if (joins.size() > 1) {
+                    return createMultiLookupJoin(node, joins, context);
+                }
+            }
+
             switch (node.getType()) {
                 case INNER:
                 case LEFT:
@@ -2433,6 +2459,77 @@ public class LocalExecutionPlanner
             return symbols.stream().map(SymbolUtils::toSymbolReference).collect(toImmutableSet());
         }
 
+        /**
+         * Returns the plan without the single source local exchanges between the node and a grouped table scan,
+         * or empty if the node is not such a chain of projections and filters over a grouped table scan.
+         */
+        private Optional<PlanNode> removeLocalExchanges(PlanNode node)
+        {
+            if (node instanceof TableScanNode) {
+                return stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? Optional.of(node) : Optional.empty();
+            }
+            if (node instanceof ExchangeNode) {
+                ExchangeNode exchange = (ExchangeNode) node;
+                if (exchange.getScope() != LOCAL || exchange.getSources().size() != 1 || !exchange.getInputs().get(0).equals(exchange.getOutputSymbols())) {
+                    return Optional.empty();
+                }
+                return removeLocalExchanges(exchange.getSources().get(0));
+            }
+            if (node instanceof ProjectNode || node instanceof FilterNode) {
+                return removeLocalExchanges(getOnlyElement(node.getSources()))
+                        .map(source -> node.replaceChildren(ImmutableList.of(source)));
+            }
+            return Optional.empty();
+        }
+
+        private PhysicalOperation createMergeJoin(JoinNode node, PlanNode left, List<Symbol> leftSymbols, PlanNode right, List<Symbol> rightSymbols, LocalExecutionPlanContext context)
+        {
+            PhysicalOperation probeSource = left.accept(this, context);
+
+            LocalExecutionPlanContext buildContext = context.createSubContext();
+            PhysicalOperation buildSource = right.accept(this, buildContext);
+
+            checkState(
+                    probeSource.getPipelineExecutionStrategy() == GROUPED_EXECUTION && buildSource.getPipelineExecutionStrategy() == GROUPED_EXECUTION,
+                    "Both sources of a merge join are expected to be GROUPED_EXECUTION.");
+
+            JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager = new JoinBridgeManager<>(
+                    false,
+                    probeSource.getPipelineExecutionStrategy(),
+                    buildSource.getPipelineExecutionStrategy(),
+                    lifespan -> new MergeJoinSource(),
+                    buildSource.getTypes());
+
+            context.addDriverFactory(
+                    buildContext.isInputDriver(),
+                    false,
+                    ImmutableList.<OperatorFactory>builder()
+                            .addAll(buildSource.getOperatorFactories())
+                            .add(new MergeJoinSinkOperatorFactory(buildContext.getNextOperatorId(), node.getId(), mergeJoinSourceManager))
+                            .build(),
+                    buildContext.getDriverInstanceCount(),
+                    buildSource.getPipelineExecutionStrategy());
+
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            outputMappings.putAll(probeSource.getLayout());
+
+            // inputs from build side of the join are laid out following the input from the probe side,
+            // so adjust the channel ids but keep the field layouts intact
+            int offset = probeSource.getTypes().size();
+            for (Map.Entry<Symbol, Integer> entry : buildSource.getLayout().entrySet()) {
+                outputMappings.put(entry.getKey(), offset + entry.getValue());
+            }
+
+            OperatorFactory operatorFactory = new MergeJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    mergeJoinSourceManager,
+                    probeSource.getTypes(),
+                    getChannelsForSymbols(leftSymbols, probeSource.getLayout()),
+                    getChannelsForSymbols(rightSymbols, buildSource.getLayout()));
+            return new PhysicalOperation(operatorFactory, outputMappings.build(), context, probeSource);
+        }
+
         protected PhysicalOperation createNestedLoopJoin(JoinNode node, LocalExecutionPlanContext context)
         {
             PhysicalOperation probeSource = node.getLeft().accept(this, context);
@@ -2646,8 +2743,11 @@ public class LocalExecutionPlanner
             boolean spillEnabled = isSpillEnabled(session)
                     && node.isSpillable().orElseThrow(() -> new IllegalArgumentException("spillable not yet set"))
                     && probeSource.getPipelineExecutionStrategy() == UNGROUPED_EXECUTION;
+            List<Symbol> buildOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> node.getRight().getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
             JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactory =
-                    createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource, context, spillEnabled);
+                    createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, buildOutputSymbols, probeSource, context, spillEnabled);
 
             OperatorFactory operator = createLookupJoin(node, probeSource, probeSymbols, probeHashSymbol, lookupSourceFactory, context, spillEnabled);
 
@@ -2661,6 +2761,91 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings.build(), context, probeSource);
         }
 
+        /**
+         * Returns the chain of inner joins starting at the given join and following the probe sides, as long as the joins
+         * can run as one {@link MultiLookupJoinOperator}: broadcast hash joins without a filter whose probe keys all
+         * come from the probe input of the bottom join. The bottom join comes first.
+         */
+        private List<JoinNode> getMultiLookupJoinChain(JoinNode node)
+        {
+            List<JoinNode> joins = new ArrayList<>();
+            PlanNode current = node;
+            while (current instanceof JoinNode && isMultiLookupJoinCandidate((JoinNode) current)) {
+                joins.add((JoinNode) current);
+                current = ((JoinNode) current).getLeft();
+            }
+            Set<Symbol> probeSymbols = ImmutableSet.copyOf(current.getOutputSymbols());
+            for (JoinNode join : joins) {
+                boolean probeKeysFromInput = join.getCriteria().stream()
+                        .map(JoinNode.EquiJoinClause::getLeft)
+                        .allMatch(probeSymbols::contains);
+                if (!probeKeysFromInput || !join.getLeftHashSymbol().map(probeSymbols::contains).orElse(true)) {
+                    // plan the top join as a lookup join, the joins below it may still form a shorter chain
+                    return ImmutableList.of();
+                }
+            }
+            return Lists.reverse(joins);
+        }
+
+        private boolean isMultiLookupJoinCandidate(JoinNode node)
+        {
+            return node.getType() == INNER
+                    && !node.getCriteria().isEmpty()
+                    && !node.getFilter().isPresent()
+                    && node.getDistributionType().equals(Optional.of(REPLICATED))
+                    && node.getJoinAlgorithm() == HASH;
+        }
+
+        private PhysicalOperation createMultiLookupJoin(JoinNode node, List<JoinNode> joins, LocalExecutionPlanContext context)
+        {
+            // Plan probe
+            PlanNode probeNode = joins.get(0).getLeft();
+            PhysicalOperation probeSource = probeNode.accept(this, context);
+
+            List<Symbol> probeOutputSymbols = node.getOutputSymbols().stream()
+                    .filter(symbol -> probeNode.getOutputSymbols().contains(symbol))
+                    .collect(toImmutableList());
+            ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
+            int channel = 0;
+            for (Symbol symbol : probeOutputSymbols) {
+                outputMappings.put(symbol, channel++);
+            }
+
+            // Plan builds, only the build columns used above the chain are output
+            ImmutableList.Builder<JoinBridgeManager<? extends LookupSourceFactory>> lookupSourceFactories = ImmutableList.builder();
+            ImmutableList.Builder<List<Integer>> probeJoinChannels = ImmutableList.builder();
+            ImmutableList.Builder<OptionalInt> probeHashChannels = ImmutableList.builder();
+            for (JoinNode join : joins) {
+                List<Symbol> buildOutputSymbols = node.getOutputSymbols().stream()
+                        .filter(symbol -> join.getRight().getOutputSymbols().contains(symbol))
+                        .collect(toImmutableList());
+                for (Symbol symbol : buildOutputSymbols) {
+                    outputMappings.put(symbol, channel++);
+                }
+                lookupSourceFactories.add(createLookupSourceFactory(
+                        join,
+                        join.getRight(),
+                        Lists.transform(join.getCriteria(), JoinNode.EquiJoinClause::getRight),
+                        join.getRightHashSymbol(),
+                        buildOutputSymbols,
+                        probeSource,
+                        context,
+                        false));
+                probeJoinChannels.add(ImmutableList.copyOf(getChannelsForSymbols(Lists.transform(join.getCriteria(), JoinNode.EquiJoinClause::getLeft), probeSource.getLayout())));
+                probeHashChannels.add(join.getLeftHashSymbol().map(channelGetter(probeSource))
+                        .map(OptionalInt::of).orElse(OptionalInt.empty()));
+            }
+
+            OperatorFactory operator = new MultiLookupJoinOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    lookupSourceFactories.build(),
+                    ImmutableList.copyOf(getChannelsForSymbols(probeOutputSymbols, probeSource.getLayout())),
+                    probeJoinChannels.build(),
+                    probeHashChannels.build());
+            return new PhysicalOperation(operator, outputMappings.build(), context, probeSource);
+        }
+
         protected Optional<LocalDynamicFilter> createDynamicFilter(JoinNode node, LocalExecutionPlanContext context, int partitionCount)
         {
             if (!isEnableDynamicFiltering(context.getSession())) {
@@ -2671,7 +2856,7 @@ public class LocalExecutionPlanner
             }
             LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
             return LocalDynamicFilter
-                    .create(node, partitionCount, context.getSession(), context.taskContext.getTaskId(), stateStoreProvider)
+                    .create(node, partitionCount, context.getSession(), context.taskContext.getTaskId(), context.taskContext.getTaskStateMachine().getDynamicFilters())
                     .map(filter -> {
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
@@ -2687,7 +2872,7 @@ public class LocalExecutionPlanner
             }
             LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
             return LocalDynamicFilter
-                    .create(node, context.getSession(), context.taskContext.getTaskId(), stateStoreProvider)
+                    .create(node, context.getSession(), context.taskContext.getTaskId(), context.taskContext.getTaskStateMachine().getDynamicFilters())
                     .map(filter -> {
                         addSuccessCallback(filter.getDynamicFilterResultFuture(), collector::intersectDynamicFilter);
                         return filter;
@@ -2699,6 +2884,7 @@ public class LocalExecutionPlanner
                 PlanNode buildNode,
                 List<Symbol> buildSymbols,
                 Optional<Symbol> buildHashSymbol,
+                List<Symbol> buildOutputSymbols,
                 PhysicalOperation probeSource,
                 LocalExecutionPlanContext context,
                 boolean spillEnabled)
@@ -2712,9 +2898,6 @@ public class LocalExecutionPlanner
                         "Build execution is GROUPED_EXECUTION. Probe execution is expected be GROUPED_EXECUTION, but is UNGROUPED_EXECUTION.");
             }
 
-            List<Symbol> buildOutputSymbols = node.getOutputSymbols().stream()
-                    .filter(symbol -> node.getRight().getOutputSymbols().contains(symbol))
-                    .collect(toImmutableList());
             List<Integer> buildOutputChannels = ImmutableList.copyOf(getChannelsForSymbols(buildOutputSymbols, buildSource.getLayout()));
             List<Integer> buildChannels = ImmutableList.copyOf(getChannelsForSymbols(buildSymbols, buildSource.getLayout()));
             OptionalInt buildHashChannel = buildHashSymbol.map(channelGetter(buildSource))
@@ -3858,7 +4041,8 @@ public class LocalExecutionPlanner
         return step.isOutputPartial() && isAdaptivePartialAggregationEnabled(session) ?
                 Optional.of(new PartialAggregationController(
                         getAdaptivePartialAggregationMinRows(session),
-                        getAdaptivePartialAggregationUniqueRowsRatioThreshold(session))) :
+                        getAdaptivePartialAggregationUniqueRowsRatioThreshold(session),
+                        isAdaptivePartialAggregationHeavyHittersEnabled(session))) :
                 Optional.empty();
     }
 
@@ -178,6 +178,7 @@ import io.prestosql.sql.planner.iterative.rule.UseNonPartitionedJoinLookupSource
 import io.prestosql.sql.planner.optimizations.AddCacheTableWriterAboveCTEOptimizer;
 import io.prestosql.sql.planner.optimizations.AddExchanges;
 import io.prestosql.sql.planner.optimizations.AddLocalExchanges;
+import io.prestosql.sql.planner.optimizations.AddMergeJoin;
 import io.prestosql.sql.planner.optimizations.AddReuseExchange;
 import io.prestosql.sql.planner.optimizations.AddSortBasedAggregation;
 import io.prestosql.sql.planner.optimizations.AdjustApplicableOptimizationRule;
@@ -792,6 +793,8 @@ public class PlanOptimizers
 
         // Precomputed hashes - this assumes that partitioning will not change
         builder.add(new HashGenerationOptimizer(metadata));
+        // Only changes how the join is executed, so it runs after the plan shape is final
+        builder.add(new AddMergeJoin(metadata));
 
         builder.add(new TableDeleteOptimizer(metadata));
         builder.add(new BeginTableWrite(metadata, hetuConfig.getCachingUserName())); // HACK! see comments in BeginTableWrite
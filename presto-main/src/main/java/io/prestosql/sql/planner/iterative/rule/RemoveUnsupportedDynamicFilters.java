@@ -197,7 +197,8 @@ public class RemoveUnsupportedDynamicFilters
                         node.getRightHashSymbol(),
                         node.getDistributionType(),
                         node.isSpillable(),
-                        dynamicFilters),
+                        dynamicFilters,
+                        node.getJoinAlgorithm()),
                         ImmutableSet.copyOf(consumed));
             }
             return new PlanWithConsumedDynamicFilters(node, ImmutableSet.copyOf(consumed));
@@ -543,7 +544,8 @@ public class RemoveUnsupportedDynamicFilters
                         node.getRightHashSymbol(),
                         node.getDistributionType(),
                         node.isSpillable(),
-                        dynamicFilters);
+                        dynamicFilters,
+                        node.getJoinAlgorithm());
             }
             return node;
         }
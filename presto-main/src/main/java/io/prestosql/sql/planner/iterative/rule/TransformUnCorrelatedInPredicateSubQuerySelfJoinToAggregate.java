@@ -185,7 +185,7 @@ public class TransformUnCorrelatedInPredicateSubQuerySelfJoinToAggregate
                 if (transformResult.isPresent()) {
                     joinNode = new JoinNode(joinNode.getId(), joinNode.getType(), transformResult.get(), joinNode.getRight(), joinNode.getCriteria(),
                             joinNode.getOutputSymbols(), joinNode.getFilter(), joinNode.getLeftHashSymbol(), joinNode.getRightHashSymbol(), joinNode.getDistributionType(),
-                            joinNode.isSpillable(), joinNode.getDynamicFilters());
+                            joinNode.isSpillable(), joinNode.getDynamicFilters(), joinNode.getJoinAlgorithm());
                     changed = true;
                 }
             }
@@ -195,7 +195,7 @@ public class TransformUnCorrelatedInPredicateSubQuerySelfJoinToAggregate
                 if (transformResult.isPresent()) {
                     joinNode = new JoinNode(joinNode.getId(), joinNode.getType(), joinNode.getLeft(), transformResult.get(), joinNode.getCriteria(),
                             joinNode.getOutputSymbols(), joinNode.getFilter(), joinNode.getLeftHashSymbol(), joinNode.getRightHashSymbol(), joinNode.getDistributionType(),
-                            joinNode.isSpillable(), joinNode.getDynamicFilters());
+                            joinNode.isSpillable(), joinNode.getDynamicFilters(), joinNode.getJoinAlgorithm());
                     changed = true;
                 }
             }
@@ -935,7 +935,8 @@ public class AddExchanges
                     node.getRightHashSymbol(),
                     Optional.of(newDistributionType),
                     node.isSpillable(),
-                    node.getDynamicFilters());
+                    node.getDynamicFilters(),
+                    node.getJoinAlgorithm());
 
             return new PlanWithProperties(result, deriveProperties(result, ImmutableList.of(newLeft.getProperties(), newRight.getProperties())));
         }
@@ -0,0 +1,281 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.optimizations;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.execution.warnings.WarningCollector;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.plan.FilterNode;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeIdAllocator;
+import io.prestosql.spi.plan.ProjectNode;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.TableScanNode;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.relation.VariableReferenceExpression;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.DynamicFilters;
+import io.prestosql.sql.planner.PlanSymbolAllocator;
+import io.prestosql.sql.planner.SymbolUtils;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.SimplePlanRewriter;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.SymbolReference;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.expressions.LogicalRowExpressions.and;
+import static io.prestosql.expressions.LogicalRowExpressions.extractAllPredicates;
+import static io.prestosql.expressions.LogicalRowExpressions.extractConjuncts;
+import static io.prestosql.SystemSessionProperties.isMergeJoinEnabled;
+import static io.prestosql.SystemSessionProperties.isSnapshotEnabled;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.JoinAlgorithm.SORT_MERGE;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.DynamicFilters.getDescriptor;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.LOCAL;
+import static io.prestosql.sql.relational.OriginalExpressionUtils.castToExpression;
+import static io.prestosql.sql.relational.OriginalExpressionUtils.isExpression;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Marks partitioned inner joins whose inputs are both table scans sorted on the join keys,
+ * so that they are executed as a merge of the two sorted streams instead of a hash join.
+ * The connector decides whether every bucket of a table is read as a single split sorted on the keys,
+ * joins over any other table keep the hash join. The dynamic filters of a merge join are dropped,
+ * since its build side is only consumed as fast as the probe side advances.
+ */
+public class AddMergeJoin
+        implements PlanOptimizer
+{
+    private final Metadata metadata;
+
+    public AddMergeJoin(Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    @Override
+    public PlanNode optimize(PlanNode plan, Session session, TypeProvider types, PlanSymbolAllocator planSymbolAllocator, PlanNodeIdAllocator idAllocator, WarningCollector warningCollector)
+    {
+        if (!isMergeJoinEnabled(session) || isSnapshotEnabled(session)) {
+            return plan;
+        }
+
+        return SimplePlanRewriter.rewriteWith(new Rewriter(session, metadata, types), plan);
+    }
+
+    private static class Rewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Session session;
+        private final Metadata metadata;
+        private final TypeProvider types;
+
+        private Rewriter(Session session, Metadata metadata, TypeProvider types)
+        {
+            this.session = session;
+            this.metadata = metadata;
+            this.types = types;
+        }
+
+        @Override
+        public PlanNode visitJoin(JoinNode node, RewriteContext<Void> context)
+        {
+            JoinNode rewritten = (JoinNode) context.defaultRewrite(node);
+
+            if (rewritten.getType() != INNER
+                    || rewritten.getCriteria().isEmpty()
+                    || rewritten.getFilter().isPresent()
+                    || rewritten.getDistributionType().orElse(null) != PARTITIONED) {
+                return rewritten;
+            }
+
+            List<Symbol> leftKeys = rewritten.getCriteria().stream()
+                    .map(JoinNode.EquiJoinClause::getLeft)
+                    .collect(toImmutableList());
+            List<Symbol> rightKeys = rewritten.getCriteria().stream()
+                    .map(JoinNode.EquiJoinClause::getRight)
+                    .collect(toImmutableList());
+            for (int i = 0; i < leftKeys.size(); i++) {
+                Type leftType = types.get(leftKeys.get(i));
+                if (!leftType.isOrderable() || !leftType.equals(types.get(rightKeys.get(i)))) {
+                    return rewritten;
+                }
+            }
+
+            OptionalInt leftBucketCount = getSortedBucketCount(rewritten.getLeft(), leftKeys);
+            OptionalInt rightBucketCount = getSortedBucketCount(rewritten.getRight(), rightKeys);
+            if (!leftBucketCount.isPresent() || !leftBucketCount.equals(rightBucketCount)) {
+                return rewritten;
+            }
+
+            if (rewritten.getDynamicFilters().isEmpty()) {
+                return rewritten.withJoinAlgorithm(SORT_MERGE);
+            }
+            // the probe scans would wait for filters that the build side only completes once the probe has consumed it
+            Set<String> dynamicFilterIds = rewritten.getDynamicFilters().keySet();
+            Optional<PlanNode> left = removeDynamicFilters(rewritten.getLeft(), dynamicFilterIds);
+            if (!left.isPresent()) {
+                return rewritten;
+            }
+            return new JoinNode(
+                    rewritten.getId(),
+                    rewritten.getType(),
+                    left.get(),
+                    rewritten.getRight(),
+                    rewritten.getCriteria(),
+                    rewritten.getOutputSymbols(),
+                    rewritten.getFilter(),
+                    rewritten.getLeftHashSymbol(),
+                    rewritten.getRightHashSymbol(),
+                    rewritten.getDistributionType(),
+                    rewritten.isSpillable(),
+                    ImmutableMap.of(),
+                    SORT_MERGE);
+        }
+
+        /**
+         * Removes the given dynamic filters from the filters of a probe side that was accepted by {@link #getSortedBucketCount}.
+         * Returns empty if one of them is consumed anywhere else than as a conjunct of a filter.
+         */
+        private Optional<PlanNode> removeDynamicFilters(PlanNode node, Set<String> dynamicFilterIds)
+        {
+            if (node instanceof FilterNode) {
+                FilterNode filter = (FilterNode) node;
+                Optional<PlanNode> source = removeDynamicFilters(filter.getSource(), dynamicFilterIds);
+                if (!source.isPresent()) {
+                    return Optional.empty();
+                }
+                List<RowExpression> conjuncts = extractConjuncts(filter.getPredicate()).stream()
+                        .filter(conjunct -> !getDescriptor(conjunct).filter(descriptor -> dynamicFilterIds.contains(descriptor.getId())).isPresent())
+                        .collect(toImmutableList());
+                if (references(conjuncts, dynamicFilterIds)) {
+                    return Optional.empty();
+                }
+                if (conjuncts.isEmpty()) {
+                    return source;
+                }
+                return Optional.of(new FilterNode(filter.getId(), source.get(), and(conjuncts)));
+            }
+
+            if (node instanceof TableScanNode) {
+                TableScanNode tableScan = (TableScanNode) node;
+                if (tableScan.getPredicate().isPresent() && references(ImmutableList.of(tableScan.getPredicate().get()), dynamicFilterIds)) {
+                    return Optional.empty();
+                }
+                return Optional.of(node);
+            }
+
+            // projections and local exchanges
+            ImmutableList.Builder<PlanNode> sources = ImmutableList.builder();
+            for (PlanNode source : node.getSources()) {
+                Optional<PlanNode> rewrittenSource = removeDynamicFilters(source, dynamicFilterIds);
+                if (!rewrittenSource.isPresent()) {
+                    return Optional.empty();
+                }
+                sources.add(rewrittenSource.get());
+            }
+            return Optional.of(node.replaceChildren(sources.build()));
+        }
+
+        private static boolean references(List<RowExpression> expressions, Set<String> dynamicFilterIds)
+        {
+            return expressions.stream()
+                    .flatMap(expression -> extractAllPredicates(expression).stream())
+                    .map(DynamicFilters::getDescriptor)
+                    .anyMatch(descriptor -> descriptor.isPresent() && dynamicFilterIds.contains(descriptor.get().getId()));
+        }
+
+        /**
+         * Follows the key symbols through row preserving nodes down to a table scan, and returns the bucket count
+         * of the scanned table if each bucket is read as a single split sorted on the corresponding columns, in the order of the keys.
+         */
+        private OptionalInt getSortedBucketCount(PlanNode node, List<Symbol> keys)
+        {
+            if (node instanceof ProjectNode) {
+                ProjectNode project = (ProjectNode) node;
+                ImmutableList.Builder<Symbol> sourceKeys = ImmutableList.builder();
+                for (Symbol key : keys) {
+                    Optional<Symbol> sourceKey = asSymbol(project.getAssignments().get(key));
+                    if (!sourceKey.isPresent()) {
+                        return OptionalInt.empty();
+                    }
+                    sourceKeys.add(sourceKey.get());
+                }
+                return getSortedBucketCount(project.getSource(), sourceKeys.build());
+            }
+
+            if (node instanceof FilterNode) {
+                return getSortedBucketCount(((FilterNode) node).getSource(), keys);
+            }
+
+            if (node instanceof ExchangeNode) {
+                // a single source local exchange only moves pages between pipelines, it is removed when the merge join is planned
+                ExchangeNode exchange = (ExchangeNode) node;
+                if (exchange.getScope() != LOCAL || exchange.getSources().size() != 1) {
+                    return OptionalInt.empty();
+                }
+                List<Symbol> inputs = exchange.getInputs().get(0);
+                ImmutableList.Builder<Symbol> sourceKeys = ImmutableList.builder();
+                for (Symbol key : keys) {
+                    int index = exchange.getOutputSymbols().indexOf(key);
+                    if (index < 0) {
+                        return OptionalInt.empty();
+                    }
+                    sourceKeys.add(inputs.get(index));
+                }
+                return getSortedBucketCount(exchange.getSources().get(0), sourceKeys.build());
+            }
+
+            if (node instanceof TableScanNode) {
+                TableScanNode tableScan = (TableScanNode) node;
+                ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+                for (Symbol key : keys) {
+                    ColumnHandle column = tableScan.getAssignments().get(key);
+                    if (column == null) {
+                        return OptionalInt.empty();
+                    }
+                    columnNames.add(metadata.getColumnMetadata(session, tableScan.getTable(), column).getName());
+                }
+                return metadata.getSortedBucketCount(session, tableScan.getTable(), columnNames.build());
+            }
+
+            return OptionalInt.empty();
+        }
+
+        private static Optional<Symbol> asSymbol(RowExpression expression)
+        {
+            if (expression instanceof VariableReferenceExpression) {
+                return Optional.of(new Symbol(((VariableReferenceExpression) expression).getName()));
+            }
+            if (expression != null && isExpression(expression)) {
+                Expression original = castToExpression(expression);
+                if (original instanceof SymbolReference) {
+                    return Optional.of(SymbolUtils.from(original));
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
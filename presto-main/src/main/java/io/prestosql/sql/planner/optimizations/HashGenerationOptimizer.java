@@ -407,7 +407,8 @@ public class HashGenerationOptimizer
                             rightHashSymbol,
                             node.getDistributionType(),
                             node.isSpillable(),
-                            node.getDynamicFilters()),
+                            node.getDynamicFilters(),
+                            node.getJoinAlgorithm()),
                     hashSymbolsWithParentPreferences);
         }
 
@@ -255,7 +255,8 @@ public class PruneUnreferencedOutputs
                     node.getRightHashSymbol(),
                     node.getDistributionType(),
                     node.isSpillable(),
-                    node.getDynamicFilters());
+                    node.getDynamicFilters(),
+                    node.getJoinAlgorithm());
         }
 
         @Override
@@ -627,7 +627,8 @@ public class UnaliasSymbolReferences
                     canonicalRightHashSymbol,
                     node.getDistributionType(),
                     node.isSpillable(),
-                    canonicalDynamicFilters);
+                    canonicalDynamicFilters,
+                    node.getJoinAlgorithm());
         }
 
         @Override
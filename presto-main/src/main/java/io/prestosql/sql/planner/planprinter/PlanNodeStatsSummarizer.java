@@ -18,10 +18,12 @@ import io.airlift.units.Duration;
 import io.prestosql.execution.StageInfo;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.operator.HashCollisionsInfo;
+import io.prestosql.operator.OperatorInfo;
 import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.PipelineStats;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.operator.WindowInfo;
+import io.prestosql.operator.aggregation.partial.PartialAggregationInfo;
 import io.prestosql.spi.plan.PlanNodeId;
 
 import java.util.ArrayList;
@@ -121,8 +123,12 @@ public class PlanNodeStatsSummarizer
                                         operatorStats.getSumSquaredInputPositions())),
                         (map1, map2) -> mergeMaps(map1, map2, OperatorInputStats::merge));
 
-                if (operatorStats.getInfo() instanceof HashCollisionsInfo) {
-                    HashCollisionsInfo hashCollisionsInfo = (HashCollisionsInfo) operatorStats.getInfo();
+                OperatorInfo operatorInfo = operatorStats.getInfo();
+                if (operatorInfo instanceof PartialAggregationInfo) {
+                    operatorInfo = ((PartialAggregationInfo) operatorInfo).getHashCollisionsInfo();
+                }
+                if (operatorInfo instanceof HashCollisionsInfo) {
+                    HashCollisionsInfo hashCollisionsInfo = (HashCollisionsInfo) operatorInfo;
                     operatorHashCollisionsStats.merge(planNodeId,
                             ImmutableMap.of(
                                     operatorStats.getOperatorType(),
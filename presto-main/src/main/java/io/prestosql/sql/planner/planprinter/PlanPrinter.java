@@ -456,6 +456,9 @@ public class PlanPrinter
             }
 
             node.getDistributionType().ifPresent(distributionType -> nodeOutput.appendDetailsLine("Distribution: %s", distributionType));
+            if (node.getJoinAlgorithm() != JoinNode.JoinAlgorithm.HASH) {
+                nodeOutput.appendDetailsLine("Algorithm: %s", node.getJoinAlgorithm());
+            }
             if (!node.getDynamicFilters().isEmpty()) {
                 nodeOutput.appendDetails("dynamicFilterAssignments = %s", printDynamicFilterAssignments(node.getDynamicFilters()));
             }
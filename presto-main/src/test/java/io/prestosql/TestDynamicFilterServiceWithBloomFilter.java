@@ -17,15 +17,16 @@ package io.prestosql;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.prestosql.dynamicfilter.DynamicFilterService;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
+import io.prestosql.execution.TaskId;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.relation.VariableReferenceExpression;
 import io.prestosql.spi.statestore.StateMap;
-import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.testing.assertions.Assert;
@@ -46,13 +47,14 @@ import java.util.function.Supplier;
 import static io.prestosql.SystemSessionProperties.DYNAMIC_FILTERING_DATA_TYPE;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
-import static io.prestosql.utils.DynamicFilterUtils.createKey;
+import static io.prestosql.utils.TestDynamicFilterUtil.createTaskId;
 import static io.prestosql.utils.TestDynamicFilterUtil.registerDf;
 import static io.prestosql.utils.TestDynamicFilterUtil.setupMockStateStore;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestDynamicFilterServiceWithBloomFilter
@@ -79,14 +81,14 @@ public class TestDynamicFilterServiceWithBloomFilter
         when(stateStoreProvider.getStateStore()).thenReturn(stateStore);
 
         dynamicFilterService = new DynamicFilterService(stateStoreProvider);
-        dynamicFilterService.start();
     }
 
     @Test
     public void testRegisterAndMergeDynamicFilters()
             throws InterruptedException
     {
-        registerDf(filterId, session, PARTITIONED, dynamicFilterService);
+        // partial filters reported before the tasks are registered are merged on registration
+        mockLocalDynamicFilter(createTaskId(session, 0), filterId, Arrays.asList("1", "2", "3", "4"));
 
         // Test getDynamicFilterSupplier
         VariableReferenceExpression mockExpression = mock(VariableReferenceExpression.class);
@@ -97,11 +99,11 @@ public class TestDynamicFilterServiceWithBloomFilter
                 ImmutableMap.of(new Symbol("name"), mockColumnHandle));
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set when dynamic filters are not available");
 
-        mockLocalDynamicFilter("task1.0", filterId, session.getQueryId().toString(), Arrays.asList("1", "2", "3", "4"));
-        mockLocalDynamicFilter("task1.1", filterId, session.getQueryId().toString(), Arrays.asList("5", "6", "7", "8"));
+        registerDf(filterId, session, PARTITIONED, dynamicFilterService);
+        assertTrue(dynamicFilterSupplier.get().isEmpty(), "dynamic filter should not be merged before all tasks reported");
+        mockLocalDynamicFilter(createTaskId(session, 1), filterId, Arrays.asList("5", "6", "7", "8"));
 
-        Thread.sleep(3000);
-        BloomFilter bf = fetchDynamicFilter(filterId, session.getQueryId().toString());
+        SplitBlockBloomFilter bf = fetchDynamicFilter(filterId, session.getQueryId().toString());
         for (int i = 1; i < 9; i++) {
             assertTrue(bf.test((String.valueOf(i).getBytes(StandardCharsets.UTF_8))));
         }
@@ -127,15 +129,13 @@ public class TestDynamicFilterServiceWithBloomFilter
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set for invalid or non-existing queryId");
 
         String queryId = session.getQueryId().getId();
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 2);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 2);
         dynamicFilterService.clearDynamicFiltersForQuery(queryId);
         Thread.sleep(1000);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 0);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 0);
+        assertNull(((StateMap) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS))
+                .get(DynamicFilterUtils.createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId)));
     }
 
-    private BloomFilter fetchDynamicFilter(String filterId, String queryId)
+    private SplitBlockBloomFilter fetchDynamicFilter(String filterId, String queryId)
     {
         byte[] bloomFilter = (byte[]) ((StateMap) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS))
                 .get(DynamicFilterUtils.createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId));
@@ -144,10 +144,10 @@ public class TestDynamicFilterServiceWithBloomFilter
         return deserializeBloomFilter(bloomFilter);
     }
 
-    private BloomFilter deserializeBloomFilter(byte[] serializedBloomFilter)
+    private SplitBlockBloomFilter deserializeBloomFilter(byte[] serializedBloomFilter)
     {
         try (java.io.ByteArrayInputStream bis = new java.io.ByteArrayInputStream(serializedBloomFilter)) {
-            return BloomFilter.readFrom(bis);
+            return SplitBlockBloomFilter.readFrom(bis);
         }
         catch (IOException e) {
             Assert.fail("Dynamic Filter cannot be created from byte array");
@@ -155,21 +155,17 @@ public class TestDynamicFilterServiceWithBloomFilter
         return null;
     }
 
-    private void mockLocalDynamicFilter(String taskId, String filterId, String queryId, List<String> values)
+    private void mockLocalDynamicFilter(TaskId taskId, String filterId, List<String> values)
     {
-        BloomFilter bloomFilter = new BloomFilter(1024 * 1024, 0.1);
+        SplitBlockBloomFilter bloomFilter = new SplitBlockBloomFilter(1024 * 1024, 0.1);
         for (String val : values) {
             bloomFilter.add(val.getBytes(StandardCharsets.UTF_8));
         }
 
-        String key = DynamicFilterUtils.createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId);
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             bloomFilter.writeTo(out);
-            byte[] finalOutput = out.toByteArray();
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key)).add(finalOutput);
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId))).add(taskId);
+            dynamicFilterService.addTaskDynamicFilters(taskId, ImmutableMap.of(filterId, SerializedDynamicFilter.fromBloomFilter(out.toByteArray())));
         }
-
         catch (IOException e) {
             Assert.fail("could not register finish filter, Exception happened:" + e.getMessage());
         }
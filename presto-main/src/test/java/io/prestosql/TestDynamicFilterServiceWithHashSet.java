@@ -16,7 +16,9 @@ package io.prestosql;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.prestosql.dynamicfilter.DynamicFilterService;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
@@ -24,7 +26,6 @@ import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.relation.VariableReferenceExpression;
 import io.prestosql.spi.statestore.StateMap;
-import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.statestore.StateStoreProvider;
@@ -33,23 +34,25 @@ import io.prestosql.utils.DynamicFilterUtils;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
 import static io.prestosql.SystemSessionProperties.DYNAMIC_FILTERING_DATA_TYPE;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
-import static io.prestosql.utils.DynamicFilterUtils.createKey;
+import static io.prestosql.utils.TestDynamicFilterUtil.createTaskId;
 import static io.prestosql.utils.TestDynamicFilterUtil.registerDf;
 import static io.prestosql.utils.TestDynamicFilterUtil.setupMockStateStore;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestDynamicFilterServiceWithHashSet
@@ -75,7 +78,6 @@ public class TestDynamicFilterServiceWithHashSet
         when(stateStoreProvider.getStateStore()).thenReturn(stateStore);
 
         dynamicFilterService = new DynamicFilterService(stateStoreProvider);
-        dynamicFilterService.start();
     }
 
     @Test
@@ -85,6 +87,10 @@ public class TestDynamicFilterServiceWithHashSet
         setUpHashSet();
         filterId = "df2";
         registerDf(filterId, session, PARTITIONED, dynamicFilterService);
+        String queryId = session.getQueryId().getId();
+
+        Map<String, SerializedDynamicFilter> pushedFilters = new HashMap<>();
+        dynamicFilterService.addDynamicFilterConsumer(queryId, ImmutableSet.of(filterId), pushedFilters::putAll);
 
         // Test getDynamicFilterSupplier
         VariableReferenceExpression mockExpression = mock(VariableReferenceExpression.class);
@@ -95,15 +101,24 @@ public class TestDynamicFilterServiceWithHashSet
                 ImmutableMap.of(new Symbol("name"), mockColumnHandle));
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set when dynamic filters are not available");
 
-        mockLocalDynamicFilterHashSet("task1.0", filterId, session.getQueryId().toString(), Arrays.asList("11", "12", "13", "14"));
-        mockLocalDynamicFilterHashSet("task1.1", filterId, session.getQueryId().toString(), Arrays.asList("15", "16", "17", "18"));
+        dynamicFilterService.addTaskDynamicFilters(createTaskId(session, 0), ImmutableMap.of(filterId, SerializedDynamicFilter.fromValues(BIGINT, ImmutableSet.of(11L, 12L, 13L, 14L))));
+        assertTrue(dynamicFilterSupplier.get().isEmpty(), "dynamic filter should not be merged before all tasks reported");
+        // a task reporting its partial filter again must not change the merged filter
+        dynamicFilterService.addTaskDynamicFilters(createTaskId(session, 0), ImmutableMap.of(filterId, SerializedDynamicFilter.fromValues(BIGINT, ImmutableSet.of(10L))));
+        dynamicFilterService.addTaskDynamicFilters(createTaskId(session, 1), ImmutableMap.of(filterId, SerializedDynamicFilter.fromValues(BIGINT, ImmutableSet.of(15L, 16L, 17L, 18L))));
 
-        Thread.sleep(2000);
-        Set hs = fetchDynamicFilterHashSet(filterId, session.getQueryId().toString());
-        for (int i = 11; i < 19; i++) {
-            Assert.assertEquals(true, hs.contains(i + ""));
+        Set hs = fetchDynamicFilterHashSet(filterId, queryId);
+        for (long i = 11; i < 19; i++) {
+            Assert.assertEquals(true, hs.contains(i));
         }
-        Assert.assertEquals(false, hs.contains("10"));
+        Assert.assertEquals(false, hs.contains(10L));
+
+        // merged filter is pushed to the consumers, also to the ones added after the merge
+        assertEquals(pushedFilters.keySet(), ImmutableSet.of(filterId));
+        assertEquals(pushedFilters.get(filterId).getValueSet(), hs);
+        Map<String, SerializedDynamicFilter> laterPushedFilters = new HashMap<>();
+        dynamicFilterService.addDynamicFilterConsumer(queryId, ImmutableSet.of(filterId, "other"), laterPushedFilters::putAll);
+        assertEquals(laterPushedFilters.get(filterId).getValueSet(), hs);
 
         // Test getDynamicFilterSupplier
         dynamicFilterSupplier = DynamicFilterService.getDynamicFilterSupplier(session.getQueryId(),
@@ -121,13 +136,14 @@ public class TestDynamicFilterServiceWithHashSet
                 ImmutableMap.of(new Symbol("name"), mockColumnHandle));
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set for invalid or non-existing queryId");
 
-        String queryId = session.getQueryId().getId();
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 2);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 2);
         dynamicFilterService.clearDynamicFiltersForQuery(queryId);
         Thread.sleep(1000);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 0);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 0);
+        assertNull(((StateMap) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS))
+                .get(DynamicFilterUtils.createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId)));
+        dynamicFilterSupplier = DynamicFilterService.getDynamicFilterSupplier(session.getQueryId(),
+                ImmutableList.of(ImmutableList.of(new DynamicFilters.Descriptor(filterId, mockExpression))),
+                ImmutableMap.of(new Symbol("name"), mockColumnHandle));
+        assertTrue(dynamicFilterSupplier.get().isEmpty(), "dynamic filters should be removed when the query finished");
     }
 
     private Set fetchDynamicFilterHashSet(String filterId, String queryId)
@@ -138,23 +154,4 @@ public class TestDynamicFilterServiceWithHashSet
 
         return hashSet;
     }
-
-    private void mockLocalDynamicFilterHashSet(String taskId, String filterId, String queryId, List<String> values)
-    {
-        HashSet filter = new HashSet();
-        for (String val : values) {
-            filter.add(val);
-        }
-
-        String key = DynamicFilterUtils.createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId);
-
-        try {
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key)).add(filter);
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId))).add(taskId);
-        }
-
-        catch (Exception e) {
-            Assert.fail("could not register finish filter, Exception happened:" + e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cache;
+
+import io.airlift.units.DataSize;
+import io.prestosql.Session;
+import io.prestosql.cache.elements.CachedDataKey;
+import io.prestosql.cache.elements.CachedDataStorage;
+import io.prestosql.execution.QueryIdGenerator;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.SessionPropertyManager;
+import io.prestosql.security.AllowAllAccessControl;
+import io.prestosql.spi.connector.CatalogSchemaTableName;
+import io.prestosql.sql.analyzer.FeaturesConfig;
+import io.prestosql.transaction.TransactionManager;
+import io.prestosql.utils.HetuConfig;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.transaction.InMemoryTransactionManager.createTestTransactionManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+@Test(singleThreaded = true)
+public class TestCachedDataManager
+{
+    private CacheStorageMonitor monitor;
+    private CachedDataManager cachedDataManager;
+    private Session session;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        HetuConfig hetuConfig = new HetuConfig()
+                .setCteMaterializationEnabled(true)
+                .setExecutionDataCacheMaxSize(new DataSize(1000, BYTE));
+        TransactionManager transactionManager = createTestTransactionManager();
+        Metadata metadata = createTestMetadataManager(transactionManager, new FeaturesConfig());
+        session = TEST_SESSION.beginTransactionId(transactionManager.beginTransaction(false), transactionManager, new AllowAllAccessControl());
+        monitor = new CacheStorageMonitor(hetuConfig, metadata);
+        cachedDataManager = new CachedDataManager(hetuConfig, monitor, metadata, new QueryIdGenerator(), new SessionPropertyManager());
+        cachedDataManager.setReady();
+    }
+
+    @Test
+    public void testEvictsLeastRecomputeTimePerByte()
+    {
+        CachedDataKey expensive = cache("expensive", 1000, 400);
+        CachedDataKey cheap = cache("cheap", 100, 400);
+        assertEquals(cachedDataManager.getCachedDataSize(), 800);
+
+        CachedDataKey large = cache("large", 5000, 400);
+
+        assertNotNull(cachedDataManager.get(expensive));
+        assertNull(cachedDataManager.get(cheap));
+        assertNotNull(cachedDataManager.get(large));
+        assertEquals(cachedDataManager.getCachedDataSize(), 800);
+        assertEquals(monitor.getEvictions(), 1);
+        assertEquals(monitor.getEvictedBytes(), 400);
+    }
+
+    @Test
+    public void testReuseProtectsEntry()
+    {
+        CachedDataKey reused = cache("reused", 100, 400);
+        CachedDataKey other = cache("other", 200, 400);
+        for (int i = 0; i < 3; i++) {
+            CachedDataStorage cds = cachedDataManager.validateAndGet(reused, session);
+            cachedDataManager.done(reused, session, cds.getCreateTime());
+        }
+
+        cache("new", 1000, 400);
+
+        assertNotNull(cachedDataManager.get(reused));
+        assertNull(cachedDataManager.get(other));
+    }
+
+    @Test
+    public void testHitMetrics()
+    {
+        CachedDataKey key = cache("cte", 1000, 400);
+
+        assertNotNull(cachedDataManager.validateAndGet(key, session));
+        assertNull(cachedDataManager.validateAndGet(dataKey("missing"), session));
+
+        assertEquals(monitor.getHits(), 1);
+        assertEquals(monitor.getMisses(), 1);
+        assertEquals(monitor.getHitRatio(), 0.5);
+        assertEquals(monitor.getBytesSaved(), 400);
+        assertEquals(monitor.getRecomputeTimeAvoidedMillis(), 1000);
+    }
+
+    private CachedDataKey cache(String name, long runtime, long dataSize)
+    {
+        CachedDataKey key = dataKey(name);
+        CachedDataStorage cds = new CachedDataStorage(key, new CatalogSchemaTableName("cache", "cache", name), null, null);
+        cachedDataManager.put(key, cds, session);
+        cds.commit(cds.getCreateTime() + runtime, dataSize);
+        cachedDataManager.commit(key, session, cds.getCreateTime());
+        return key;
+    }
+
+    private static CachedDataKey dataKey(String name)
+    {
+        return CachedDataKey.builder()
+                .setName(name)
+                .addRule(name)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.json.ObjectMapperProvider;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.TestingBlockEncodingSerde;
+import io.prestosql.spi.block.TestingBlockJsonSerde;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.type.TestingTypeDeserializer;
+import io.prestosql.spi.type.TestingTypeManager;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSerializedDynamicFilter
+{
+    private final TestingBlockEncodingSerde blockEncodingSerde = new TestingBlockEncodingSerde();
+    private final ObjectMapper mapper = new ObjectMapperProvider().get()
+            .registerModule(new SimpleModule()
+                    .addDeserializer(Type.class, new TestingTypeDeserializer(new TestingTypeManager()))
+                    .addSerializer(Block.class, new TestingBlockJsonSerde.Serializer(blockEncodingSerde))
+                    .addDeserializer(Block.class, new TestingBlockJsonSerde.Deserializer(blockEncodingSerde)));
+
+    @Test
+    public void testValuesRoundTrip()
+            throws IOException
+    {
+        SerializedDynamicFilter filter = roundTrip(SerializedDynamicFilter.fromValues(VARCHAR, ImmutableSet.of(utf8Slice("a"), utf8Slice("b"))));
+        assertFalse(filter.isBloomFilter());
+        assertEquals(filter.getValueSet(), ImmutableSet.of(utf8Slice("a"), utf8Slice("b")));
+
+        DynamicFilter dynamicFilter = roundTrip(SerializedDynamicFilter.fromValues(BIGINT, ImmutableSet.of(3L, 7L))).toDynamicFilter("df");
+        assertTrue(dynamicFilter.contains(3L));
+        assertFalse(dynamicFilter.contains(4L));
+        assertEquals(dynamicFilter.getMin(), 3L);
+        assertEquals(dynamicFilter.getMax(), 7L);
+    }
+
+    @Test
+    public void testBloomFilterRoundTrip()
+            throws IOException
+    {
+        SplitBlockBloomFilter bloomFilter = new SplitBlockBloomFilter(1024, 0.01);
+        bloomFilter.add(42L);
+        byte[] bytes;
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            bloomFilter.writeTo(out);
+            bytes = out.toByteArray();
+        }
+
+        SerializedDynamicFilter filter = roundTrip(SerializedDynamicFilter.fromBloomFilter(bytes));
+        assertTrue(filter.isBloomFilter());
+        assertTrue(Arrays.equals(filter.getBloomFilter().get(), bytes));
+        assertTrue(filter.toDynamicFilter("df").contains(42L));
+    }
+
+    private SerializedDynamicFilter roundTrip(SerializedDynamicFilter filter)
+            throws IOException
+    {
+        return mapper.readValue(mapper.writeValueAsString(filter), SerializedDynamicFilter.class);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.dynamicfilter;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestTaskDynamicFilters
+{
+    @Test
+    public void testAcknowledge()
+    {
+        TaskDynamicFilters taskDynamicFilters = new TaskDynamicFilters();
+        assertEquals(taskDynamicFilters.getVersion(), 0);
+        assertTrue(taskDynamicFilters.getUnacknowledgedFilters().isEmpty());
+
+        taskDynamicFilters.addPartialFilters(ImmutableMap.of("df1", filter(1L)));
+        long firstVersion = taskDynamicFilters.getVersion();
+        taskDynamicFilters.addPartialFilters(ImmutableMap.of("df2", filter(2L)));
+        assertEquals(taskDynamicFilters.getVersion(), firstVersion + 1);
+        assertEquals(taskDynamicFilters.getUnacknowledgedFilters().keySet(), ImmutableSet.of("df1", "df2"));
+
+        // filters added after the acknowledged version must be sent again
+        taskDynamicFilters.acknowledge(firstVersion);
+        assertEquals(taskDynamicFilters.getUnacknowledgedFilters().keySet(), ImmutableSet.of("df2"));
+
+        // an older acknowledgement arriving late has no effect
+        taskDynamicFilters.acknowledge(firstVersion - 1);
+        assertEquals(taskDynamicFilters.getUnacknowledgedFilters().keySet(), ImmutableSet.of("df2"));
+
+        taskDynamicFilters.acknowledge(taskDynamicFilters.getVersion());
+        assertTrue(taskDynamicFilters.getUnacknowledgedFilters().isEmpty());
+    }
+
+    @Test
+    public void testFiltersAvailableFuture()
+    {
+        TaskDynamicFilters taskDynamicFilters = new TaskDynamicFilters();
+        ListenableFuture<?> first = taskDynamicFilters.whenUnacknowledgedFiltersAvailable();
+        ListenableFuture<?> second = taskDynamicFilters.whenUnacknowledgedFiltersAvailable();
+        assertFalse(first.isDone());
+
+        // cancelling one waiter must not affect the others
+        first.cancel(true);
+        assertFalse(second.isDone());
+
+        taskDynamicFilters.addPartialFilters(ImmutableMap.of());
+        assertFalse(second.isDone());
+
+        taskDynamicFilters.addPartialFilters(ImmutableMap.of("df1", filter(1L)));
+        assertTrue(second.isDone());
+        assertTrue(taskDynamicFilters.whenUnacknowledgedFiltersAvailable().isDone());
+
+        taskDynamicFilters.acknowledge(taskDynamicFilters.getVersion());
+        assertFalse(taskDynamicFilters.whenUnacknowledgedFiltersAvailable().isDone());
+    }
+
+    private static SerializedDynamicFilter filter(long value)
+    {
+        return SerializedDynamicFilter.fromValues(BIGINT, ImmutableSet.of(value));
+    }
+}
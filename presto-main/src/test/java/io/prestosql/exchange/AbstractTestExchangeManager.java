@@ -20,7 +20,11 @@ import io.airlift.slice.Slice;
 import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.exchange.FileSystemExchangeConfig.DirectSerialisationType;
+import io.prestosql.spi.Page;
 import io.prestosql.spi.QueryId;
+import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -35,8 +39,10 @@ import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.exchange.ExchangeId.createRandomExchangeId;
 import static io.prestosql.exchange.FileSystemExchangeErrorCode.MAX_OUTPUT_PARTITION_COUNT_EXCEEDED;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.lang.Math.toIntExact;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -55,6 +61,7 @@ public abstract class AbstractTestExchangeManager
     public void destroy()
     {
         if (exchangeManager != null) {
+            exchangeManager.close();
             exchangeManager = null;
         }
     }
@@ -216,6 +223,72 @@ public abstract class AbstractTestExchangeManager
                 .containsExactlyInAnyOrder(smallPage, mediumPage, largePage, maxPage);
     }
 
+    @Test
+    public void testFileRollOver() throws ExecutionException, InterruptedException
+    {
+        ImmutableList.Builder<String> pages = ImmutableList.builder();
+        for (int i = 0; i < 40; i++) {
+            pages.add(i + repeatString("e", toIntExact(new DataSize(100, KILOBYTE).toBytes())));
+        }
+        List<String> expectedPages = pages.build();
+
+        Exchange exchange = exchangeManager.createExchange(new ExchangeContext(new QueryId("query"), createRandomExchangeId()), 1);
+        ExchangeSinkHandle sinkHandle = exchange.addSink(0);
+        exchange.noMoreSinks();
+
+        ExchangeSinkInstanceHandle sinkInstanceHandle = exchange.instantiateSink(sinkHandle, 0);
+        writeData(
+                sinkInstanceHandle,
+                new ImmutableMultimap.Builder<Integer, String>()
+                        .putAll(0, expectedPages)
+                        .build(),
+                true);
+        exchange.sinkFinished(sinkInstanceHandle);
+
+        List<ExchangeSourceHandle> partitionHandles = exchange.getSourceHandles().get();
+        assertThat(partitionHandles).hasSize(1);
+        assertThat(((FileSystemExchangeSourceHandle) partitionHandles.get(0)).getFiles().size()).isGreaterThan(2);
+        assertThat(readData(partitionHandles.get(0)))
+                .containsExactlyInAnyOrder(expectedPages.toArray(new String[0]));
+
+        exchange.close();
+    }
+
+    @Test
+    public void testDirectSerialisation() throws ExecutionException, InterruptedException
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createColumnarPagesSerde();
+        Exchange exchange = exchangeManager.createExchange(new ExchangeContext(new QueryId("query"), createRandomExchangeId()), 2);
+        ExchangeSinkHandle sinkHandle = exchange.addSink(0);
+        exchange.noMoreSinks();
+
+        ExchangeSinkInstanceHandle sinkInstanceHandle = exchange.instantiateSink(sinkHandle, 0);
+        ExchangeSink sink = exchangeManager.createSink(sinkInstanceHandle, DirectSerialisationType.COLUMNAR, false);
+        for (int i = 0; i < 100; i++) {
+            sink.add(i % 2, new Page(createLongSequenceBlock(i * 10, i * 10 + 10)), serde);
+        }
+        getFutureValue(sink.finish());
+        exchange.sinkFinished(sinkInstanceHandle);
+
+        long sum = 0;
+        int positions = 0;
+        try (ExchangeSource source = exchangeManager.createSource(exchange.getSourceHandles().get())) {
+            while (!source.isFinished()) {
+                Page page = source.readPage(serde);
+                if (page != null) {
+                    for (int position = 0; position < page.getPositionCount(); position++) {
+                        sum += BIGINT.getLong(page.getBlock(0), position);
+                    }
+                    positions += page.getPositionCount();
+                }
+            }
+        }
+        assertThat(positions).isEqualTo(1000);
+        assertThat(sum).isEqualTo(999 * 1000 / 2);
+
+        exchange.close();
+    }
+
     @Test
     public void testMaxOutputPartitionCountCheck()
     {
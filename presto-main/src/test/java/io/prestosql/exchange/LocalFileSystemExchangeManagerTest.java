@@ -31,6 +31,10 @@ public class LocalFileSystemExchangeManagerTest
         return new FileSystemExchangeManagerFactory().create(ImmutableMap.of(
                 "exchange.base-directories", baseDirectory1 + "," + baseDirectory2,
                 "exchange.sink-max-file-size", "32MB",
+                "exchange.sink-min-file-size", "1MB",
+                "exchange.sink-files-per-partition", "2",
+                "exchange.sink-writer-threads", "2",
+                "exchange.source-prefetch-files", "2",
                 "exchange.max-page-storage-size", "32MB",
                 "exchange.direct-serialization-type", "OFF"
         ), new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get("/")));
@@ -33,7 +33,13 @@ public class TestFileSystemExchangeConfig
                 .setExchangeSinkBufferPoolMinSize(10)
                 .setExchangeSinkBuffersPerPartition(2)
                 .setExchangeSinkMaxFileSize(new DataSize(1, DataSize.Unit.GIGABYTE))
+                .setExchangeSinkMinFileSize(new DataSize(1, DataSize.Unit.GIGABYTE))
+                .setExchangeSinkFilesPerPartition(1)
+                .setExchangeSinkWriterThreads(0)
                 .setExchangeSourceConcurrentReaders(4)
+                .setExchangeSourcePrefetchFiles(0)
+                .setExchangeLocalCacheDirectory(null)
+                .setExchangeLocalCacheMaxSize(new DataSize(10, DataSize.Unit.GIGABYTE))
                 .setMaxOutputPartitionCount(50)
                 .setExchangeFileListingParallelism(50)
                 .setExchangeFilesystemType("local")
@@ -52,7 +58,13 @@ public class TestFileSystemExchangeConfig
                 .put("exchange.sink-buffer-pool-min-size", "5")
                 .put("exchange.sink-buffers-per-partition", "4")
                 .put("exchange.sink-max-file-size", "2GB")
+                .put("exchange.sink-min-file-size", "128MB")
+                .put("exchange.sink-files-per-partition", "3")
+                .put("exchange.sink-writer-threads", "8")
                 .put("exchange.source-concurrent-readers", "5")
+                .put("exchange.source-prefetch-files", "4")
+                .put("exchange.local-cache-directory", "/ssd/exchange-cache")
+                .put("exchange.local-cache-max-size", "20GB")
                 .put("exchange.max-output-partition-count", "100")
                 .put("exchange.file-listing-parallelism", "60")
                 .put("exchange-filesystem-type", "hdfs")
@@ -68,7 +80,13 @@ public class TestFileSystemExchangeConfig
                 .setExchangeSinkBufferPoolMinSize(5)
                 .setExchangeSinkBuffersPerPartition(4)
                 .setExchangeSinkMaxFileSize(new DataSize(2, DataSize.Unit.GIGABYTE))
+                .setExchangeSinkMinFileSize(new DataSize(128, DataSize.Unit.MEGABYTE))
+                .setExchangeSinkFilesPerPartition(3)
+                .setExchangeSinkWriterThreads(8)
                 .setExchangeSourceConcurrentReaders(5)
+                .setExchangeSourcePrefetchFiles(4)
+                .setExchangeLocalCacheDirectory("/ssd/exchange-cache")
+                .setExchangeLocalCacheMaxSize(new DataSize(20, DataSize.Unit.GIGABYTE))
                 .setMaxOutputPartitionCount(100)
                 .setExchangeFileListingParallelism(60)
                 .setExchangeFilesystemType("hdfs")
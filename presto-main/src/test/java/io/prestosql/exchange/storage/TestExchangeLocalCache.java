@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.exchange.storage;
+
+import com.google.common.io.ByteStreams;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.exchange.FileSystemExchangeStats;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestExchangeLocalCache
+{
+    private Path storageDirectory;
+    private Path cacheDirectory;
+    private HetuLocalFileSystemClient fileSystemClient;
+    private FileSystemExchangeStats stats;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        storageDirectory = Files.createTempDirectory("exchange-storage");
+        cacheDirectory = Files.createTempDirectory("exchange-cache");
+        fileSystemClient = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), storageDirectory);
+        stats = new FileSystemExchangeStats();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(storageDirectory, ALLOW_INSECURE);
+        deleteRecursively(cacheDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadThrough()
+            throws IOException
+    {
+        Path file = createFile("exchange/0_0.data", 100);
+        ExchangeLocalCache cache = createCache(1000);
+
+        assertEquals(read(cache, file), 100);
+        assertEquals(stats.getLocalCacheMisses().getTotalCount(), 1);
+
+        // served from the cached copy even when the stored file is gone
+        Files.delete(file);
+        assertEquals(read(cache, file), 100);
+        assertEquals(stats.getLocalCacheHits().getTotalCount(), 1);
+        assertEquals(cache.getCachedBytes(), 100);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        Path first = createFile("exchange/0_0.data", 400);
+        Path second = createFile("exchange/0_1.data", 400);
+        Path third = createFile("exchange/1_0.data", 400);
+        ExchangeLocalCache cache = createCache(1000);
+
+        read(cache, first);
+        read(cache, second);
+        read(cache, first);
+        read(cache, third);
+
+        // second was the least recently used
+        assertEquals(cache.getCachedFileCount(), 2);
+        assertEquals(cache.getCachedBytes(), 800);
+        assertEquals(countCacheFiles(), 2);
+        read(cache, second);
+        assertEquals(stats.getLocalCacheMisses().getTotalCount(), 4);
+        assertEquals(stats.getLocalCacheHits().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testFileLargerThanCache()
+            throws IOException
+    {
+        Path file = createFile("exchange/0_0.data", 2000);
+        ExchangeLocalCache cache = createCache(1000);
+
+        assertEquals(read(cache, file), 2000);
+        assertEquals(cache.getCachedFileCount(), 0);
+        assertEquals(countCacheFiles(), 0);
+    }
+
+    @Test
+    public void testInvalidate()
+            throws IOException
+    {
+        Path first = createFile("exchange1/0_0.data", 100);
+        Path second = createFile("exchange2/0_0.data", 100);
+        ExchangeLocalCache cache = createCache(1000);
+
+        read(cache, first);
+        read(cache, second);
+        // matched by path even when the directory is given without a scheme
+        cache.invalidate(URI.create(storageDirectory.resolve("exchange1").toString()));
+
+        assertEquals(cache.getCachedFileCount(), 1);
+        assertEquals(cache.getCachedBytes(), 100);
+        assertEquals(countCacheFiles(), 1);
+    }
+
+    @Test
+    public void testSingleCopyPerFile()
+            throws IOException
+    {
+        Path file = createFile("exchange/0_0.data", 100);
+        ExchangeLocalCache cache = createCache(1000);
+
+        // both reads are served from the storage, only the first one copies the file
+        try (InputStream first = cache.open(file, fileSystemClient); InputStream second = cache.open(file, fileSystemClient)) {
+            assertEquals(ByteStreams.toByteArray(second).length, 100);
+            assertEquals(cache.getCachedFileCount(), 0);
+            assertEquals(ByteStreams.toByteArray(first).length, 100);
+        }
+
+        assertEquals(stats.getLocalCacheMisses().getTotalCount(), 2);
+        assertEquals(cache.getCachedFileCount(), 1);
+        assertEquals(countCacheFiles(), 1);
+    }
+
+    @Test
+    public void testPartialRead()
+            throws IOException
+    {
+        Path file = createFile("exchange/0_0.data", 100);
+        ExchangeLocalCache cache = createCache(1000);
+
+        try (InputStream input = cache.open(file, fileSystemClient)) {
+            assertEquals(input.read(new byte[10]), 10);
+        }
+
+        assertEquals(cache.getCachedFileCount(), 0);
+        assertEquals(countCacheFiles(), 0);
+        // the next read copies the file again
+        assertEquals(read(cache, file), 100);
+        assertEquals(cache.getCachedFileCount(), 1);
+    }
+
+    @Test
+    public void testInvalidateDuringCopy()
+            throws IOException
+    {
+        Path file = createFile("exchange/0_0.data", 100);
+        ExchangeLocalCache cache = createCache(1000);
+
+        try (InputStream input = cache.open(file, fileSystemClient)) {
+            assertEquals(input.read(new byte[10]), 10);
+            cache.invalidate(storageDirectory.resolve("exchange").toUri());
+            assertEquals(ByteStreams.toByteArray(input).length, 90);
+        }
+
+        assertEquals(cache.getCachedFileCount(), 0);
+        assertEquals(countCacheFiles(), 0);
+    }
+
+    private ExchangeLocalCache createCache(long maxSizeInBytes)
+    {
+        return new ExchangeLocalCache(cacheDirectory, maxSizeInBytes, stats);
+    }
+
+    private Path createFile(String name, int size)
+            throws IOException
+    {
+        Path file = storageDirectory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        return file;
+    }
+
+    private int read(ExchangeLocalCache cache, Path file)
+            throws IOException
+    {
+        try (InputStream input = cache.open(file, fileSystemClient)) {
+            return ByteStreams.toByteArray(input).length;
+        }
+    }
+
+    private long countCacheFiles()
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.count();
+        }
+    }
+}
@@ -287,7 +287,7 @@ public class MockRemoteTaskFactory
                             0,
                             new Duration(0, MILLISECONDS),
                             ImmutableMap.of(),
-                            Optional.empty(), new DataSize(0, BYTE)),
+                            Optional.empty(), new DataSize(0, BYTE), 0, ImmutableMap.of()),
                     DateTime.now(),
                     outputBuffer.getInfo(),
                     ImmutableSet.of(),
@@ -317,7 +317,7 @@ public class MockRemoteTaskFactory
                     0,
                     new Duration(0, MILLISECONDS),
                     ImmutableMap.of(),
-                    Optional.empty(), new DataSize(0, BYTE));
+                    Optional.empty(), new DataSize(0, BYTE), 0, ImmutableMap.of());
         }
 
         private synchronized void updateSplitQueueSpace()
@@ -344,6 +344,24 @@ public class TestQueryStateMachine
         assertEquals(queryStats.getExecutionTime().toMillis(), 900);
     }
 
+    @Test
+    public void testDynamicFilterAvailabilityTime()
+    {
+        TestingTicker mockTicker = new TestingTicker();
+        QueryStateMachine stateMachine = createQueryStateMachineWithTicker(mockTicker);
+        assertEquals(stateMachine.getQueryInfo(Optional.empty()).getQueryStats().getDynamicFilterAvailabilityTime().toMillis(), 0);
+
+        mockTicker.increment(25, MILLISECONDS);
+        assertTrue(stateMachine.transitionToPlanning());
+        mockTicker.increment(50, MILLISECONDS);
+        stateMachine.recordDynamicFilterAvailable();
+        // only the first merged filter is recorded
+        mockTicker.increment(100, MILLISECONDS);
+        stateMachine.recordDynamicFilterAvailable();
+
+        assertEquals(stateMachine.getQueryInfo(Optional.empty()).getQueryStats().getDynamicFilterAvailabilityTime().toMillis(), 75);
+    }
+
     @Test
     public void testUpdateMemoryUsage()
     {
@@ -14,6 +14,7 @@
 package io.prestosql.execution;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.DataSize;
@@ -76,6 +77,7 @@ public class TestQueryStats
                     succinctBytes(131L),
                     new Duration(133, NANOSECONDS),
                     new Duration(134, NANOSECONDS),
+                    ImmutableMap.of(),
                     Optional.empty(),
                     null),
             new OperatorStats(
@@ -116,6 +118,7 @@ public class TestQueryStats
                     succinctBytes(231L),
                     new Duration(233, NANOSECONDS),
                     new Duration(234, NANOSECONDS),
+                    ImmutableMap.of(),
                     Optional.empty(),
                     null),
             new OperatorStats(
@@ -156,6 +159,7 @@ public class TestQueryStats
                     succinctBytes(331L),
                     new Duration(333, NANOSECONDS),
                     new Duration(334, NANOSECONDS),
+                    ImmutableMap.of(),
                     Optional.empty(),
                     null));
 
@@ -250,7 +254,8 @@ public class TestQueryStats
             new Duration(20, NANOSECONDS),
             new Duration(20, NANOSECONDS),
             new Duration(21, NANOSECONDS),
-            new Duration(21, NANOSECONDS));
+            new Duration(21, NANOSECONDS),
+            new Duration(22, NANOSECONDS));
 
     @Test
     public void testJson()
@@ -306,6 +311,7 @@ public class TestQueryStats
         assertEquals(actual.getTotalScheduledTime(), new Duration(20, NANOSECONDS));
         assertEquals(actual.getTotalCpuTime(), new Duration(21, NANOSECONDS));
         assertEquals(actual.getTotalBlockedTime(), new Duration(23, NANOSECONDS));
+        assertEquals(actual.getDynamicFilterAvailabilityTime(), new Duration(22, NANOSECONDS));
 
         assertEquals(actual.getPhysicalInputDataSize(), new DataSize(241, BYTE));
         assertEquals(actual.getPhysicalInputPositions(), 251);
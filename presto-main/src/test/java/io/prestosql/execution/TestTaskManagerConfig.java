@@ -43,6 +43,11 @@ public class TestTaskManagerConfig
                 .setMinDrivers(Runtime.getRuntime().availableProcessors() * 2 * 2)
                 .setMinDriversPerTask(3)
                 .setMaxDriversPerTask(Integer.MAX_VALUE)
+                .setIoWorkerThreads(0)
+                .setIoPrefetchPages(2)
+                .setNumaAwareSchedulingEnabled(false)
+                .setNumaTopologyPath("/sys/devices/system/node")
+                .setNumaThreadPinningEnabled(false)
                 .setInfoMaxAge(new Duration(15, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(2, TimeUnit.MINUTES))
                 .setMaxIndexMemoryUsage(new DataSize(64, Unit.MEGABYTE))
@@ -50,6 +55,8 @@ public class TestTaskManagerConfig
                 .setMaxPartialAggregationMemoryUsage(new DataSize(16, Unit.MEGABYTE))
                 .setMaxLocalExchangeBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setSinkOffHeapBufferEnabled(false)
+                .setSinkOffHeapBufferPoolSize(new DataSize(256, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setTaskConcurrency(16)
@@ -79,9 +86,16 @@ public class TestTaskManagerConfig
                 .put("task.min-drivers", "2")
                 .put("task.min-drivers-per-task", "5")
                 .put("task.max-drivers-per-task", "13")
+                .put("task.io-worker-threads", "7")
+                .put("task.io-prefetch-pages", "4")
+                .put("task.numa-aware-scheduling-enabled", "true")
+                .put("task.numa-topology-path", "/tmp/node")
+                .put("task.numa-thread-pinning-enabled", "true")
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
+                .put("sink.off-heap-buffer-enabled", "true")
+                .put("sink.off-heap-buffer-pool-size", "64MB")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
                 .put("task.writer-count", "4")
                 .put("task.concurrency", "8")
@@ -108,9 +122,16 @@ public class TestTaskManagerConfig
                 .setMinDrivers(2)
                 .setMinDriversPerTask(5)
                 .setMaxDriversPerTask(13)
+                .setIoWorkerThreads(7)
+                .setIoPrefetchPages(4)
+                .setNumaAwareSchedulingEnabled(true)
+                .setNumaTopologyPath("/tmp/node")
+                .setNumaThreadPinningEnabled(true)
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
+                .setSinkOffHeapBufferEnabled(true)
+                .setSinkOffHeapBufferPoolSize(new DataSize(64, Unit.MEGABYTE))
                 .setMaxPagePartitioningBufferSize(new DataSize(40, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setTaskConcurrency(8)
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.tpch.LineItem;
+import io.airlift.tpch.LineItemGenerator;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.prestosql.metadata.FunctionAndTypeManager;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readPages;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writePages;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+
+/**
+ * Compares the page serdes used for exchanges on TPC-H lineitem pages.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesSerde
+{
+    private static final int TOTAL_POSITIONS = 100_000;
+    private static final int POSITIONS_PER_PAGE = 4096;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT, BIGINT, INTEGER, DOUBLE, DOUBLE, DATE, VARCHAR, VARCHAR, VARCHAR);
+
+    @Param({"SERIALIZED_PAGE", "JAVA", "KRYO", "COLUMNAR"})
+    private String serdeType = "COLUMNAR";
+
+    private List<Page> pages;
+    private PagesSerde serde;
+    private DynamicSliceOutput sliceOutput;
+    private Output kryoOutput;
+
+    @Setup
+    public void setup()
+    {
+        pages = createLineItemPages();
+        FunctionAndTypeManager functionAndTypeManager = createTestMetadataManager().getFunctionAndTypeManager();
+        PagesSerdeFactory serdeFactory = new PagesSerdeFactory(functionAndTypeManager.getBlockEncodingSerde(), false);
+        switch (serdeType) {
+            case "SERIALIZED_PAGE":
+                serde = serdeFactory.createPagesSerde();
+                break;
+            case "JAVA":
+                serde = serdeFactory.createDirectPagesSerde(Optional.empty(), true, false);
+                break;
+            case "KRYO":
+                serde = new PagesSerdeFactory(functionAndTypeManager.getBlockKryoEncodingSerde(), false).createDirectPagesSerde(Optional.empty(), true, true);
+                break;
+            case "COLUMNAR":
+                serde = serdeFactory.createColumnarPagesSerde();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown serde type: " + serdeType);
+        }
+        sliceOutput = new DynamicSliceOutput(64 * 1024 * 1024);
+        kryoOutput = new Output(64 * 1024 * 1024, -1);
+        serialize();
+    }
+
+    @Benchmark
+    public int serialize()
+    {
+        if (serdeType.equals("KRYO")) {
+            kryoOutput.setPosition(0);
+            for (Page page : pages) {
+                serde.serialize(kryoOutput, page);
+            }
+            return kryoOutput.position();
+        }
+        sliceOutput.reset();
+        if (serdeType.equals("SERIALIZED_PAGE")) {
+            writePages(serde, sliceOutput, pages.iterator());
+        }
+        else {
+            for (Page page : pages) {
+                serde.serialize(sliceOutput, page);
+            }
+        }
+        return sliceOutput.size();
+    }
+
+    @Benchmark
+    public int deserialize()
+    {
+        int positions = 0;
+        if (serdeType.equals("KRYO")) {
+            Input input = new Input(kryoOutput.getBuffer(), 0, kryoOutput.position());
+            for (int i = 0; i < pages.size(); i++) {
+                positions += serde.deserialize(input).getPositionCount();
+            }
+            return positions;
+        }
+        SliceInput input = sliceOutput.slice().getInput();
+        if (serdeType.equals("SERIALIZED_PAGE")) {
+            Iterator<Page> iterator = readPages(serde, input);
+            while (iterator.hasNext()) {
+                positions += iterator.next().getPositionCount();
+            }
+            return positions;
+        }
+        for (int i = 0; i < pages.size(); i++) {
+            positions += serde.deserialize(input).getPositionCount();
+        }
+        return positions;
+    }
+
+    private static List<Page> createLineItemPages()
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        Iterator<LineItem> iterator = new LineItemGenerator(1, 1, 1).iterator();
+        for (int i = 0; i < TOTAL_POSITIONS; i++) {
+            pageBuilder.declarePosition();
+
+            LineItem lineItem = iterator.next();
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(0), lineItem.getOrderKey());
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(1), lineItem.getPartKey());
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(2), lineItem.getSupplierKey());
+            INTEGER.writeLong(pageBuilder.getBlockBuilder(3), lineItem.getLineNumber());
+            DOUBLE.writeDouble(pageBuilder.getBlockBuilder(4), lineItem.getQuantity());
+            DOUBLE.writeDouble(pageBuilder.getBlockBuilder(5), lineItem.getExtendedPrice());
+            DATE.writeLong(pageBuilder.getBlockBuilder(6), lineItem.getShipDate());
+            VARCHAR.writeString(pageBuilder.getBlockBuilder(7), lineItem.getReturnFlag());
+            VARCHAR.writeString(pageBuilder.getBlockBuilder(8), lineItem.getShipMode());
+            VARCHAR.writeString(pageBuilder.getBlockBuilder(9), lineItem.getComment());
+
+            if (pageBuilder.getPositionCount() == POSITIONS_PER_PAGE) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        if (!pageBuilder.isEmpty()) {
+            pages.add(pageBuilder.build());
+        }
+        return pages.build();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        for (String serdeType : ImmutableList.of("SERIALIZED_PAGE", "JAVA", "KRYO", "COLUMNAR")) {
+            BenchmarkPagesSerde benchmark = new BenchmarkPagesSerde();
+            benchmark.serdeType = serdeType;
+            benchmark.setup();
+            benchmark.deserialize();
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
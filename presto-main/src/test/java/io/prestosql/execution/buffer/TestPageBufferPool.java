@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import io.hetu.core.transport.execution.buffer.PageBufferPool;
+import io.hetu.core.transport.execution.buffer.PageBufferPool.PooledBuffer;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestPageBufferPool
+{
+    @Test
+    public void testSizeClasses()
+    {
+        PageBufferPool pool = new PageBufferPool(1024 * 1024, 64 * 1024);
+        assertEquals(pool.allocate(0).getCapacity(), 4096);
+        assertEquals(pool.allocate(4096).getCapacity(), 4096);
+        assertEquals(pool.allocate(4097).getCapacity(), 8192);
+        assertEquals(pool.allocate(64 * 1024).getCapacity(), 64 * 1024);
+        // larger than the biggest size class, allocated exactly and never pooled
+        PooledBuffer large = pool.allocate(100_000);
+        assertEquals(large.getCapacity(), 100_000);
+        large.release();
+        assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test
+    public void testReferenceCounting()
+    {
+        PageBufferPool pool = new PageBufferPool(1024 * 1024, 64 * 1024);
+        PooledBuffer buffer = pool.allocate(5000);
+        assertEquals(pool.getUsedBytes(), 8192);
+
+        buffer.retain();
+        buffer.release();
+        assertEquals(pool.getPooledBytes(), 0);
+        assertEquals(pool.getUsedBytes(), 8192);
+
+        buffer.release();
+        assertEquals(pool.getPooledBytes(), 8192);
+        assertEquals(pool.getUsedBytes(), 0);
+
+        PooledBuffer reused = pool.allocate(6000);
+        assertSame(reused.getSlice(), buffer.getSlice());
+        assertEquals(pool.getReuses(), 1);
+        assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testRetainAfterRelease()
+    {
+        PooledBuffer buffer = new PageBufferPool(1024 * 1024, 64 * 1024).allocate(10);
+        buffer.release();
+        buffer.retain();
+    }
+
+    @Test
+    public void testMaxPooledBytes()
+    {
+        PageBufferPool pool = new PageBufferPool(8192, 64 * 1024);
+        PooledBuffer first = pool.allocate(8192);
+        PooledBuffer second = pool.allocate(8192);
+        first.release();
+        second.release();
+        assertEquals(pool.getPooledBytes(), 8192);
+        assertEquals(pool.getUsedBytes(), 0);
+    }
+}
@@ -16,24 +16,45 @@ package io.prestosql.execution.buffer;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.hetu.core.transport.execution.buffer.PageBufferPool;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readPages;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writePages;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static io.prestosql.block.BlockAssertions.createBooleanSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createDateSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createDoubleSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createRLEBlock;
+import static io.prestosql.block.BlockAssertions.createStringDictionaryBlock;
+import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.util.Collections.nCopies;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -61,6 +82,93 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testPooledRoundTrip()
+    {
+        PageBufferPool pool = new PageBufferPool(1024 * 1024, 1024 * 1024);
+        PagesSerde serde = new PagesSerdeFactory(createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(), false, Optional.of(pool))
+                .createOutputPagesSerde();
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 3);
+        VARCHAR.writeString(blockBuilder, "alice");
+        VARCHAR.writeString(blockBuilder, "bob");
+        VARCHAR.writeString(blockBuilder, "charlie");
+        Page expectedPage = new Page(blockBuilder.build());
+        List<Type> types = ImmutableList.of(VARCHAR);
+
+        SerializedPage serializedPage = serde.serialize(expectedPage);
+        assertTrue(serializedPage.isPooled());
+        assertFalse(serializedPage.getSlice().hasByteArray());
+        Page page = serde.deserialize(serializedPage);
+
+        // once released, the buffer is reused by the next page, which must not affect pages deserialized before
+        serializedPage.release();
+        SerializedPage otherPage = serde.serialize(new Page(VARCHAR.createBlockBuilder(null, 1).appendNull().build()));
+        assertEquals(pool.getReuses(), 1);
+        assertPageEquals(types, page, expectedPage);
+        otherPage.release();
+
+        // the serialized bytes can be written and read back like any other page
+        serializedPage = serde.serialize(expectedPage);
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writeSerializedPage(sliceOutput, serializedPage);
+        serializedPage.release();
+        Iterator<Page> pageIterator = readPages(serde, sliceOutput.slice().getInput());
+        assertPageEquals(types, pageIterator.next(), expectedPage);
+        assertFalse(pageIterator.hasNext());
+    }
+
+    @Test
+    public void testColumnarRoundTrip()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createColumnarPagesSerde();
+        BlockBuilder longsWithNulls = BIGINT.createBlockBuilder(null, 100);
+        for (int i = 0; i < 100; i++) {
+            if (i % 7 == 0) {
+                longsWithNulls.appendNull();
+            }
+            else {
+                BIGINT.writeLong(longsWithNulls, i % 2 == 0 ? Long.MIN_VALUE + i : Long.MAX_VALUE - i);
+            }
+        }
+        Page expectedPage = new Page(
+                createLongSequenceBlock(0, 100),
+                longsWithNulls.build(),
+                createDoubleSequenceBlock(0, 100),
+                createDateSequenceBlock(0, 100),
+                createStringSequenceBlock(0, 100),
+                createStringDictionaryBlock(0, 100),
+                createBooleanSequenceBlock(0, 100),
+                createRLEBlock(42L, 100));
+        List<Type> types = ImmutableList.of(BIGINT, BIGINT, DOUBLE, DATE, VARCHAR, VARCHAR, BOOLEAN, BIGINT);
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        serde.serialize(sliceOutput, expectedPage);
+        serde.serialize(sliceOutput, expectedPage);
+
+        SliceInput sliceInput = sliceOutput.slice().getInput();
+        assertPageEquals(types, serde.deserialize(sliceInput), expectedPage);
+        Page actualPage = serde.deserialize(sliceInput);
+        assertPageEquals(types, actualPage, expectedPage);
+        assertTrue(actualPage.getBlock(5) instanceof DictionaryBlock);
+        assertFalse(sliceInput.isReadable());
+    }
+
+    @Test
+    public void testColumnarSerializedSize()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createColumnarPagesSerde();
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+
+        // sorted keys are delta encoded, a constant step takes no bits per value beyond the block header
+        serde.serialize(sliceOutput, new Page(createLongSequenceBlock(0, 1024)));
+        assertTrue(sliceOutput.size() < 50, "sorted longs take " + sliceOutput.size() + " bytes");
+
+        // constant values take no bits per value either
+        sliceOutput.reset();
+        serde.serialize(sliceOutput, new Page(createLongsBlock(nCopies(1024, 5L))));
+        assertTrue(sliceOutput.size() < 50, "constant longs take " + sliceOutput.size() + " bytes");
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -17,6 +17,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PageBufferPool;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.exchange.ExchangeSinkInstanceHandle;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
@@ -67,6 +70,7 @@ import static io.prestosql.execution.buffer.BufferTestUtils.sizeOfPages;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -595,6 +599,25 @@ public class TestPartitionedOutputBuffer
         assertEquals(buffer.getInfo().getTotalPagesSent(), 0);
     }
 
+    @Test
+    public void testAddAfterFinishReleasesPooledPages()
+    {
+        PageBufferPool pool = new PageBufferPool(1024 * 1024, 1024 * 1024);
+        PagesSerde serde = new PagesSerdeFactory(createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(), false, Optional.of(pool))
+                .createOutputPagesSerde();
+        PartitionedOutputBuffer buffer = createPartitionedBuffer(
+                createInitialEmptyOutputBuffers(PARTITIONED)
+                        .withBuffer(FIRST, 0)
+                        .withNoMoreBufferIds(),
+                sizeOfPages(10));
+        buffer.setNoMorePages();
+        SerializedPage page = serde.serialize(createPage(0));
+        assertTrue(page.isPooled());
+        buffer.enqueue(0, ImmutableList.of(page), "id");
+        // the dropped page must go back to the pool
+        assertEquals(pool.getUsedBytes(), 0);
+    }
+
     @Test
     public void testFullBufferBlocksWriter()
     {
@@ -0,0 +1,311 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.FixedPageSource;
+import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestIoSplitLane
+{
+    private IoSplitLane ioSplitLane;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        ioSplitLane = new IoSplitLane(2, 2);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+    {
+        ioSplitLane.stop();
+    }
+
+    @Test
+    public void testOnlyBlockingPageSourcesArePrefetched()
+    {
+        ConnectorPageSource pageSource = new FixedPageSource(ImmutableList.of());
+        assertSame(ioSplitLane.prefetch(pageSource), pageSource);
+
+        ConnectorPageSource blockingPageSource = new BlockingPageSource(pages(1), new CountDownLatch(0));
+        assertTrue(ioSplitLane.prefetch(blockingPageSource) instanceof PrefetchingPageSource);
+
+        IoSplitLane disabled = new IoSplitLane(0, 2);
+        assertSame(disabled.prefetch(blockingPageSource), blockingPageSource);
+        disabled.stop();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testReadAllPages()
+            throws Exception
+    {
+        List<Page> expected = pages(5);
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(new BlockingPageSource(expected, new CountDownLatch(0)));
+
+        List<Page> actual = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get(10, SECONDS);
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                actual.add(page);
+            }
+        }
+        assertEquals(actual, expected);
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+        pageSource.close();
+        assertEquals(ioSplitLane.getPrefetchedPages().getTotalCount(), 5);
+        assertEquals(ioSplitLane.getPrefetchingSplits(), 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testSplitIsBlockedWhileReading()
+            throws Exception
+    {
+        CountDownLatch readAllowed = new CountDownLatch(1);
+        BlockingPageSource delegate = new BlockingPageSource(pages(1), readAllowed);
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(delegate);
+
+        // the read waits on the lane, not on the calling thread
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        assertNull(pageSource.getNextPage());
+        assertFalse(blocked.isDone());
+        assertFalse(pageSource.isFinished());
+
+        readAllowed.countDown();
+        blocked.get(10, SECONDS);
+        assertEquals(pageSource.getNextPage().getPositionCount(), 1);
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get(10, SECONDS);
+        }
+        pageSource.close();
+        assertTrue(delegate.isClosed());
+    }
+
+    @Test(timeOut = 10_000)
+    public void testPrefetchIsBounded()
+            throws Exception
+    {
+        BlockingPageSource delegate = new BlockingPageSource(pages(10), new CountDownLatch(0));
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(delegate);
+        pageSource.isBlocked().get(10, SECONDS);
+
+        // wait for the read to fill the queue
+        while (ioSplitLane.getActiveReads() > 0 || ioSplitLane.getQueuedReads() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(delegate.getPagesRead(), 2);
+        pageSource.close();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCloseWhileReading()
+            throws Exception
+    {
+        CountDownLatch readAllowed = new CountDownLatch(1);
+        BlockingPageSource delegate = new BlockingPageSource(pages(3), readAllowed);
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(delegate);
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        while (ioSplitLane.getActiveReads() == 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        pageSource.close();
+        assertTrue(blocked.isDone());
+        assertTrue(pageSource.isFinished());
+        // the delegate is closed by the read once it returns
+        assertFalse(delegate.isClosed());
+        readAllowed.countDown();
+        while (!delegate.isClosed()) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFailure()
+            throws Exception
+    {
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(new BlockingPageSource(ImmutableList.of(), new CountDownLatch(0))
+        {
+            @Override
+            public Page getNextPage()
+            {
+                throw new IllegalStateException("read failed");
+            }
+        });
+
+        pageSource.isBlocked().get(10, SECONDS);
+        try {
+            pageSource.getNextPage();
+            fail("expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "read failed");
+        }
+        pageSource.close();
+    }
+
+    @Test(timeOut = 10_000)
+    public void testDelegateOnlyUsedByReads()
+            throws Exception
+    {
+        List<String> callingThreads = new CopyOnWriteArrayList<>();
+        AtomicInteger pagesReadWhenFiltered = new AtomicInteger(-1);
+        ConnectorPageSource pageSource = ioSplitLane.prefetch(new BlockingPageSource(pages(2), new CountDownLatch(0))
+        {
+            @Override
+            public void setDynamicFilter(Optional<DynamicFilterSupplier> dynamicFilterSupplier)
+            {
+                callingThreads.add(Thread.currentThread().getName());
+                pagesReadWhenFiltered.set(getPagesRead());
+            }
+
+            @Override
+            public long getSystemMemoryUsage()
+            {
+                callingThreads.add(Thread.currentThread().getName());
+                return 100;
+            }
+        });
+
+        pageSource.setDynamicFilter(Optional.empty());
+        // the memory usage is sampled by the reads, nothing was read yet
+        assertEquals(pageSource.getSystemMemoryUsage(), 0);
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get(10, SECONDS);
+            pageSource.getNextPage();
+        }
+        assertEquals(pageSource.getSystemMemoryUsage(), 100);
+        pageSource.close();
+
+        // the filter is applied before the first page is read
+        assertEquals(pagesReadWhenFiltered.get(), 0);
+        assertFalse(callingThreads.isEmpty());
+        for (String thread : callingThreads) {
+            assertTrue(thread.startsWith("task-io-"), thread);
+        }
+    }
+
+    private static List<Page> pages(int count)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            pages.add(new Page(createLongsBlock(i)));
+        }
+        return pages.build();
+    }
+
+    private static class BlockingPageSource
+            implements ConnectorPageSource
+    {
+        private final List<Page> pages;
+        private final CountDownLatch readAllowed;
+        private volatile int pagesRead;
+        private volatile boolean closed;
+
+        BlockingPageSource(List<Page> pages, CountDownLatch readAllowed)
+        {
+            this.pages = pages;
+            this.readAllowed = readAllowed;
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return closed || pagesRead == pages.size();
+        }
+
+        @Override
+        public Page getNextPage()
+        {
+            try {
+                readAllowed.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            if (isFinished()) {
+                return null;
+            }
+            return pages.get(pagesRead++);
+        }
+
+        @Override
+        public long getSystemMemoryUsage()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean hasBlockingIo()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            closed = true;
+        }
+
+        int getPagesRead()
+        {
+            return pagesRead;
+        }
+
+        boolean isClosed()
+        {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableSortedSet;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+
+public class TestNumaTopology
+{
+    @Test
+    public void testParseCpuList()
+    {
+        assertEquals(NumaTopology.parseCpuList("0"), ImmutableSortedSet.of(0));
+        assertEquals(NumaTopology.parseCpuList("0-3,8-9,12\n"), ImmutableSortedSet.of(0, 1, 2, 3, 8, 9, 12));
+        assertEquals(NumaTopology.parseCpuList("\n"), ImmutableSortedSet.of());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseInvalidCpuList()
+    {
+        NumaTopology.parseCpuList("0-a");
+    }
+
+    @Test
+    public void testLoadSimulatedTopology()
+            throws IOException
+    {
+        Path nodes = Files.createTempDirectory("numa");
+        try {
+            writeCpuList(nodes, "node0", "0-1,4-5");
+            writeCpuList(nodes, "node2", "2-3,6-7");
+            // memory-only node without cpus
+            writeCpuList(nodes, "node3", "\n");
+            Files.write(nodes.resolve("possible"), "0-3\n".getBytes(UTF_8));
+
+            NumaTopology topology = NumaTopology.load(nodes);
+            assertEquals(topology.getNodeCount(), 2);
+            assertEquals(topology.getCpus(0), ImmutableSortedSet.of(0, 1, 4, 5));
+            assertEquals(topology.getCpus(1), ImmutableSortedSet.of(2, 3, 6, 7));
+        }
+        finally {
+            deleteRecursively(nodes, ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testLoadMissingTopology()
+            throws IOException
+    {
+        Path nodes = Files.createTempDirectory("numa");
+        try {
+            assertEquals(NumaTopology.load(nodes.resolve("missing")).getNodeCount(), 1);
+            assertEquals(NumaTopology.load(nodes).getNodeCount(), 1);
+            assertEquals(NumaTopology.load(nodes).getCpus(0).size(), Runtime.getRuntime().availableProcessors());
+        }
+        finally {
+            deleteRecursively(nodes, ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testCurrentThreadNode()
+    {
+        assertEquals(NumaTopology.getCurrentThreadNode(), -1);
+        NumaTopology.setCurrentThreadNode(1);
+        try {
+            assertEquals(NumaTopology.getCurrentThreadNode(), 1);
+        }
+        finally {
+            NumaTopology.clearCurrentThreadNode();
+        }
+        assertEquals(NumaTopology.getCurrentThreadNode(), -1);
+    }
+
+    private static void writeCpuList(Path nodes, String node, String cpuList)
+            throws IOException
+    {
+        Path directory = Files.createDirectory(nodes.resolve(node));
+        Files.write(directory.resolve("cpulist"), cpuList.getBytes(UTF_8));
+    }
+}
@@ -14,13 +14,18 @@
 package io.prestosql.execution.executor;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
+import io.prestosql.server.ServerConfig;
+import io.prestosql.version.EmbedVersion;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
@@ -41,6 +46,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -450,6 +456,73 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testNumaNodePreference()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
+        TaskHandle node0Handle = new TaskHandle(new TaskId("node0", 0, 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty(), 1, () -> 0);
+        TaskHandle node1Handle = new TaskHandle(new TaskId("node1", 0, 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty(), 1, () -> 1);
+        TaskHandle anyNodeHandle = new TaskHandle(new TaskId("any", 0, 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty(), 1);
+
+        // all splits have the same priority, so without a node preference they are taken in creation order
+        PrioritizedSplitRunner node1Split = createSplitRunner(node1Handle, ticker);
+        PrioritizedSplitRunner node0Split = createSplitRunner(node0Handle, ticker);
+        PrioritizedSplitRunner anyNodeSplit = createSplitRunner(anyNodeHandle, ticker);
+        splitQueue.offer(node1Split);
+        splitQueue.offer(node0Split);
+        splitQueue.offer(anyNodeSplit);
+
+        assertSame(splitQueue.take(0), node0Split);
+        assertSame(splitQueue.take(0), anyNodeSplit);
+        // only a split preferring another node is left, so it is stolen
+        assertSame(splitQueue.take(0), node1Split);
+
+        splitQueue.offer(node0Split);
+        splitQueue.offer(node1Split);
+        assertSame(splitQueue.take(1), node1Split);
+        assertSame(splitQueue.take(), node0Split);
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    @Test(timeOut = 30_000)
+    public void testNumaAwareRunnerThreads()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        NumaTopology topology = new NumaTopology(ImmutableList.of(ImmutableSortedSet.of(0, 1), ImmutableSortedSet.of(2, 3)));
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 1, 4, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), ticker, topology, false);
+        taskExecutor.start();
+        try {
+            assertEquals(taskExecutor.getNumaNodes(), 2);
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1, () -> 1);
+
+            NumaNodeRecordingJob job = new NumaNodeRecordingJob();
+            getOnlyElement(taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(job))).get();
+
+            // the split ran on a runner thread bound to one of the simulated nodes
+            assertTrue(job.getNumaNode() == 0 || job.getNumaNode() == 1);
+            assertEquals(taskExecutor.getNumaLocalSplits().getTotalCount() + taskExecutor.getNumaRemoteSplits().getTotalCount(), 1);
+            assertEquals(taskExecutor.getNumaNodeUtilization(), "0=0.00, 1=0.00");
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle taskHandle, TestingTicker ticker)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(),
+                new TimeStat());
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -476,6 +549,41 @@ public class TestTaskExecutor
         }
     }
 
+    private static class NumaNodeRecordingJob
+            implements SplitRunner
+    {
+        private final AtomicInteger numaNode = new AtomicInteger(-2);
+
+        private int getNumaNode()
+        {
+            return numaNode.get();
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            numaNode.set(NumaTopology.getCurrentThreadNode());
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "numa-node-recording-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return numaNode.get() != -2;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
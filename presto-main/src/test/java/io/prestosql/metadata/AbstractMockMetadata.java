@@ -59,6 +59,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 
@@ -704,6 +705,12 @@ public abstract class AbstractMockMetadata
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public OptionalInt getSortedBucketCount(Session session, TableHandle tableHandle, List<String> columnNames)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void refreshMetadataCache(Session session, Optional<String> catalogName)
     {
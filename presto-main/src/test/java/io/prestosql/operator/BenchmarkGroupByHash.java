@@ -56,6 +56,10 @@ import java.util.concurrent.TimeUnit;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 
@@ -136,6 +140,24 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(FixedWidthBenchmarkData data)
+    {
+        GroupByHash groupByHash = data.createGroupByHash();
+        data.getPages().forEach(p -> groupByHash.getGroupIds(p).process());
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pageBuilder.reset();
+            }
+        }
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -385,6 +407,90 @@ public class BenchmarkGroupByHash
         }
     }
 
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class FixedWidthBenchmarkData
+    {
+        @Param({"SMALLINT", "TINYINT_TINYINT", "INTEGER", "DATE_SMALLINT", "INTEGER_INTEGER"})
+        private String keys = "INTEGER_INTEGER";
+
+        @Param({"10000", "1000000"})
+        private int groupCount = 10_000;
+
+        @Param({"multi_channel", "fixed_width"})
+        private String groupByHash = "fixed_width";
+
+        private List<Page> pages;
+        private List<Type> types;
+        private int[] channels;
+
+        @Setup
+        public void setup()
+        {
+            switch (keys) {
+                case "SMALLINT":
+                    types = ImmutableList.of(SMALLINT);
+                    break;
+                case "TINYINT_TINYINT":
+                    types = ImmutableList.of(TINYINT, TINYINT);
+                    break;
+                case "INTEGER":
+                    types = ImmutableList.of(INTEGER);
+                    break;
+                case "DATE_SMALLINT":
+                    types = ImmutableList.of(DATE, SMALLINT);
+                    break;
+                case "INTEGER_INTEGER":
+                    types = ImmutableList.of(INTEGER, INTEGER);
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported keys");
+            }
+            channels = new int[types.size()];
+            for (int i = 0; i < channels.length; i++) {
+                channels[i] = i;
+            }
+
+            ImmutableList.Builder<Page> pagesBuilder = ImmutableList.builder();
+            PageBuilder pageBuilder = new PageBuilder(types);
+            for (int position = 0; position < POSITIONS; position++) {
+                int rand = ThreadLocalRandom.current().nextInt(groupCount);
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < types.size(); channel++) {
+                    Type type = types.get(channel);
+                    // split the group across the channels, each value wrapping around the range of its type
+                    long value = channel == 0 ? rand : rand >> 8;
+                    if (type == TINYINT) {
+                        value = (byte) value;
+                    }
+                    else if (type == SMALLINT) {
+                        value = (short) value;
+                    }
+                    type.writeLong(pageBuilder.getBlockBuilder(channel), value);
+                }
+                if (pageBuilder.isFull()) {
+                    pagesBuilder.add(pageBuilder.build());
+                    pageBuilder.reset();
+                }
+            }
+            pagesBuilder.add(pageBuilder.build());
+            pages = pagesBuilder.build();
+        }
+
+        public GroupByHash createGroupByHash()
+        {
+            if (groupByHash.equals("multi_channel")) {
+                return new MultiChannelGroupByHash(types, channels, Optional.empty(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+            }
+            return GroupByHash.createGroupByHash(types, channels, Optional.empty(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+    }
+
     private static JoinCompiler getJoinCompiler()
     {
         return new JoinCompiler(createTestMetadataManager());
@@ -403,6 +509,10 @@ public class BenchmarkGroupByHash
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
 
+        FixedWidthBenchmarkData fixedWidthBenchmarkData = new FixedWidthBenchmarkData();
+        fixedWidthBenchmarkData.setup();
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(fixedWidthBenchmarkData);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkGroupByHash.class.getSimpleName() + ".*")
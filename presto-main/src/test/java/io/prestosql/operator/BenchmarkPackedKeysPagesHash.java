@@ -0,0 +1,194 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.gen.JoinCompiler;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.SyntheticAddress.encodeSyntheticAddress;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.createVarcharType;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+/**
+ * Compares the generic {@link DefaultPagesHash} with {@link PackedKeysPagesHash} for composite
+ * join keys, see {@link BenchmarkHashBuildAndJoinOperators} for the full build and join operators.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10, time = 2, timeUnit = SECONDS)
+public class BenchmarkPackedKeysPagesHash
+{
+    private static final int ROWS_PER_PAGE = 1024;
+    private static final int BUILD_ROWS_NUMBER = 1_000_000;
+    private static final int PROBE_ROWS_NUMBER = 1_000_000;
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"int_int", "bigint_date", "varchar_int"})
+        protected String keys = "int_int";
+
+        @Param({"default", "packed"})
+        protected String pagesHash = "packed";
+
+        private List<Type> types;
+        private List<Page> buildPages;
+        private List<Page> probePages;
+        private LongArrayList addresses;
+        private PagesHashStrategy pagesHashStrategy;
+        private Optional<PackedJoinKeys> packedJoinKeys;
+        private IPagesHash hash;
+
+        @Setup
+        public void setup()
+        {
+            switch (keys) {
+                case "int_int":
+                    types = ImmutableList.of(INTEGER, INTEGER);
+                    break;
+                case "bigint_date":
+                    types = ImmutableList.of(BIGINT, DATE);
+                    break;
+                case "varchar_int":
+                    types = ImmutableList.of(createVarcharType(2), INTEGER);
+                    break;
+                default:
+                    throw new UnsupportedOperationException(format("Unknown keys value [%s]", keys));
+            }
+            List<Integer> joinChannels = Ints.asList(0, 1);
+
+            buildPages = createPages(BUILD_ROWS_NUMBER, new Random(42));
+            probePages = createPages(PROBE_ROWS_NUMBER, new Random(43));
+
+            addresses = new LongArrayList();
+            List<List<Block>> channels = ImmutableList.of(new ArrayList<>(), new ArrayList<>());
+            for (int pageIndex = 0; pageIndex < buildPages.size(); pageIndex++) {
+                Page page = buildPages.get(pageIndex);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    addresses.add(encodeSyntheticAddress(pageIndex, position));
+                }
+                channels.get(0).add(page.getBlock(0));
+                channels.get(1).add(page.getBlock(1));
+            }
+            pagesHashStrategy = new JoinCompiler(createTestMetadataManager())
+                    .compilePagesHashStrategyFactory(types, joinChannels)
+                    .createPagesHashStrategy(channels, OptionalInt.empty());
+            packedJoinKeys = pagesHash.equals("packed") ? PackedJoinKeys.create(types, joinChannels) : Optional.empty();
+            hash = buildHash();
+        }
+
+        private List<Page> createPages(int rows, Random random)
+        {
+            RowPagesBuilder pagesBuilder = rowPagesBuilder(types);
+            for (int row = 0; row < rows; row++) {
+                int first = random.nextInt(1000);
+                int second = random.nextInt(2000);
+                switch (keys) {
+                    case "int_int":
+                        pagesBuilder.row(first, second);
+                        break;
+                    case "bigint_date":
+                        pagesBuilder.row((long) first << 32, second);
+                        break;
+                    case "varchar_int":
+                        pagesBuilder.row(Integer.toString(first % 100), second);
+                        break;
+                }
+                if (row % ROWS_PER_PAGE == ROWS_PER_PAGE - 1) {
+                    pagesBuilder.pageBreak();
+                }
+            }
+            return pagesBuilder.build();
+        }
+
+        private IPagesHash buildHash()
+        {
+            PositionLinks.FactoryBuilder positionLinks = ArrayPositionLinks.builder(addresses.size());
+            if (packedJoinKeys.isPresent()) {
+                return new PackedKeysPagesHash(addresses, pagesHashStrategy, positionLinks, buildPages, packedJoinKeys.get());
+            }
+            return new DefaultPagesHash(addresses, pagesHashStrategy, positionLinks);
+        }
+    }
+
+    @Benchmark
+    public IPagesHash benchmarkBuild(Context context)
+    {
+        return context.buildHash();
+    }
+
+    @Benchmark
+    public long benchmarkProbe(Context context)
+    {
+        long matches = 0;
+        for (Page page : context.probePages) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                if (context.hash.getAddressIndex(position, page) != -1) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPackedKeysPagesHash.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
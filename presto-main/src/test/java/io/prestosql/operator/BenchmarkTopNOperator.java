@@ -74,7 +74,7 @@ public class BenchmarkTopNOperator
     @State(Scope.Thread)
     public static class BenchmarkContext
     {
-        @Param({"1", "100", "10000"})
+        @Param({"1", "100", "10000", "100000"})
         private String topN = "1";
 
         @Param({"32", "1024"})
@@ -17,9 +17,17 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.operator.window.AggregateWindowFunction;
+import io.prestosql.operator.window.FrameInfo;
+import io.prestosql.operator.window.WindowFunctionSupplier;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.SortOrder;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
+import io.prestosql.spi.function.WindowFunction;
 import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingTaskContext;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -42,17 +50,26 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongRepeatBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.ROWS_PER_PAGE;
 import static io.prestosql.operator.BenchmarkWindowOperator.Context.TOTAL_PAGES;
 import static io.prestosql.operator.TestWindowOperator.ROW_NUMBER;
 import static io.prestosql.operator.TestWindowOperator.createFactoryUnbounded;
+import static io.prestosql.operator.WindowFunctionDefinition.window;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.CURRENT_ROW;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.PRECEDING;
+import static io.prestosql.spi.sql.expression.Types.WindowFrameType.ROWS;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
@@ -227,13 +244,130 @@ public class BenchmarkWindowOperator
         }
     }
 
+    @State(Thread)
+    public static class SlidingFrameContext
+    {
+        public static final int TOTAL_ROWS = 100_000;
+        public static final int ROWS_PER_PAGE = 10_000;
+        private static final Signature LONG_SUM = new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature());
+
+        @Param({"10", "100", "1000", "10000"})
+        public int precedingRows;
+
+        // false evaluates each frame row by row, as before the segment tree
+        @Param({"true", "false"})
+        public boolean segmentTree;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private OperatorFactory operatorFactory;
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            // sum(value) OVER (PARTITION BY partition ORDER BY value ROWS BETWEEN precedingRows PRECEDING AND CURRENT ROW)
+            Metadata metadata = createTestMetadataManager();
+            InternalAggregationFunction sum = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(LONG_SUM);
+            FrameInfo frameInfo = new FrameInfo(ROWS, PRECEDING, Optional.of(2), CURRENT_ROW, Optional.empty());
+            WindowFunctionSupplier supplier = AggregateWindowFunction.supplier(LONG_SUM, sum);
+            if (!segmentTree) {
+                supplier = withoutFrameInfo(supplier);
+            }
+            operatorFactory = createFactoryUnbounded(
+                    ImmutableList.of(BIGINT, BIGINT, BIGINT),
+                    Ints.asList(0, 1),
+                    ImmutableList.of(window(supplier, BIGINT, frameInfo, 1)),
+                    Ints.asList(0),
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    1,
+                    new DummySpillerFactory(),
+                    false);
+
+            RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(BIGINT, BIGINT, BIGINT);
+            for (int start = 0; start < TOTAL_ROWS; start += ROWS_PER_PAGE) {
+                pagesBuilder.addBlocksPage(
+                        createLongRepeatBlock(0, ROWS_PER_PAGE),
+                        createLongSequenceBlock(start, start + ROWS_PER_PAGE),
+                        createLongRepeatBlock(precedingRows, ROWS_PER_PAGE));
+            }
+            pages = pagesBuilder.build();
+        }
+
+        /**
+         * Hides the frame from the given supplier, so that it creates the function it would have created without one
+         */
+        private static WindowFunctionSupplier withoutFrameInfo(WindowFunctionSupplier supplier)
+        {
+            return new WindowFunctionSupplier()
+            {
+                @Override
+                public Signature getSignature()
+                {
+                    return supplier.getSignature();
+                }
+
+                @Override
+                public String getDescription()
+                {
+                    return supplier.getDescription();
+                }
+
+                @Override
+                public WindowFunction createWindowFunction(List<Integer> argumentChannels)
+                {
+                    return supplier.createWindowFunction(argumentChannels);
+                }
+            };
+        }
+
+        @TearDown
+        public void cleanup()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        public TaskContext createTaskContext()
+        {
+            return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(2, GIGABYTE));
+        }
+
+        public OperatorFactory getOperatorFactory()
+        {
+            return operatorFactory;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+    }
+
     @Benchmark
     public List<Page> benchmark(BenchmarkWindowOperator.Context context)
     {
-        DriverContext driverContext = context.createTaskContext().addPipelineContext(0, true, true, false).addDriverContext();
-        Operator operator = context.getOperatorFactory().createOperator(driverContext);
+        return execute(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
 
-        Iterator<Page> input = context.getPages().iterator();
+    @Benchmark
+    public List<Page> benchmarkSlidingFrame(SlidingFrameContext context)
+    {
+        return execute(context.createTaskContext(), context.getOperatorFactory(), context.getPages());
+    }
+
+    private static List<Page> execute(TaskContext taskContext, OperatorFactory operatorFactory, List<Page> pages)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        Iterator<Page> input = pages.iterator();
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
 
         boolean finishing = false;
@@ -306,6 +440,31 @@ public class BenchmarkWindowOperator
         verify(10, 3, true);
     }
 
+    @Test
+    public void verifySlidingFrame()
+    {
+        List<Page> segmentTreeOutput = runSlidingFrame(true);
+        List<Page> rowByRowOutput = runSlidingFrame(false);
+
+        assertEquals(segmentTreeOutput.stream().mapToInt(Page::getPositionCount).sum(), SlidingFrameContext.TOTAL_ROWS);
+        assertEquals(segmentTreeOutput.size(), rowByRowOutput.size());
+        for (int i = 0; i < segmentTreeOutput.size(); i++) {
+            assertPageEquals(ImmutableList.of(BIGINT, BIGINT, BIGINT), segmentTreeOutput.get(i), rowByRowOutput.get(i));
+        }
+    }
+
+    private List<Page> runSlidingFrame(boolean segmentTree)
+    {
+        SlidingFrameContext context = new SlidingFrameContext();
+        context.precedingRows = 1000;
+        context.segmentTree = segmentTree;
+        context.setup();
+
+        List<Page> output = benchmarkSlidingFrame(context);
+        context.cleanup();
+        return output;
+    }
+
     private void verify(
             int numberOfRowsPerPartition,
             int numberOfPreGroupedColumns,
@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_LAST;
+import static io.prestosql.spi.block.SortOrder.DESC_NULLS_LAST;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBoundedTopNBuilder
+{
+    @Test
+    public void testEmptyInput()
+    {
+        BoundedTopNBuilder builder = new BoundedTopNBuilder(ImmutableList.of(BIGINT), 5, ImmutableList.of(0), ImmutableList.of(ASC_NULLS_LAST));
+        assertFalse(builder.buildResult().hasNext());
+    }
+
+    @Test
+    public void testTopN()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DOUBLE);
+        List<Page> input = rowPagesBuilder(types)
+                .row(1L, 0.3)
+                .row(2L, 0.2)
+                .row(3L, 0.9)
+                .row(3L, 0.1)
+                .pageBreak()
+                .row(1L, 0.4)
+                .row(null, 0.8)
+                .pageBreak()
+                .row(1L, 0.5)
+                .row(1L, 0.6)
+                .row(4L, 0.6)
+                .row(2L, 0.8)
+                .row(2L, 0.7)
+                .pageBreak()
+                .row(2L, 0.9)
+                .build();
+
+        BoundedTopNBuilder builder = new BoundedTopNBuilder(types, 3, ImmutableList.of(0, 1), ImmutableList.of(DESC_NULLS_LAST, ASC_NULLS_FIRST));
+        for (Page page : input) {
+            builder.processPage(page);
+            assertTrue(builder.getBufferedRowCount() < 6);
+        }
+
+        Iterator<Page> output = builder.buildResult();
+        assertTrue(output.hasNext());
+        Page expected = rowPagesBuilder(types)
+                .row(4L, 0.6)
+                .row(3L, 0.1)
+                .row(3L, 0.9)
+                .build()
+                .get(0);
+        assertPageEquals(types, output.next(), expected);
+        assertFalse(output.hasNext());
+    }
+
+    @Test
+    public void testThresholdFiltersPages()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        BoundedTopNBuilder builder = new BoundedTopNBuilder(types, 2, ImmutableList.of(0), ImmutableList.of(ASC_NULLS_LAST));
+
+        RowPagesBuilder pages = rowPagesBuilder(types);
+        pages.row(5L).row(3L).row(4L).row(1L);
+        builder.processPage(pages.build().get(0));
+        // the buffer was cut to the best two rows, and 3 is the threshold
+        assertEquals(builder.getBufferedRowCount(), 2);
+
+        // no row is better than the threshold, so nothing is buffered
+        builder.processPage(rowPagesBuilder(types).row(3L).row(7L).row((Object) null).build().get(0));
+        assertEquals(builder.getBufferedRowCount(), 2);
+
+        builder.processPage(rowPagesBuilder(types).row(2L).row(9L).build().get(0));
+        assertEquals(builder.getBufferedRowCount(), 3);
+
+        Iterator<Page> output = builder.buildResult();
+        assertPageEquals(types, output.next(), rowPagesBuilder(types).row(1L).row(2L).build().get(0));
+        assertFalse(output.hasNext());
+    }
+}
@@ -14,18 +14,16 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MultimapBuilder;
 import io.airlift.node.NodeInfo;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
-import io.hetu.core.statestore.hazelcast.HazelcastStateStoreBootstrapper;
-import io.hetu.core.statestore.hazelcast.HazelcastStateStoreFactory;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
+import io.prestosql.dynamicfilter.TaskDynamicFilters;
 import io.prestosql.execution.TaskId;
 import io.prestosql.operator.DynamicFilterSourceOperator.Channel;
 import io.prestosql.operator.DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory;
-import io.prestosql.seedstore.SeedStoreManager;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter;
@@ -33,28 +31,14 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.Symbol;
-import io.prestosql.spi.seedstore.Seed;
-import io.prestosql.spi.seedstore.SeedStore;
-import io.prestosql.spi.seedstore.SeedStoreSubType;
-import io.prestosql.spi.statestore.StateSet;
-import io.prestosql.spi.statestore.StateStore;
-import io.prestosql.spi.statestore.StateStoreBootstrapper;
-import io.prestosql.spi.statestore.StateStoreFactory;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.LocalDynamicFilter;
-import io.prestosql.statestore.LocalStateStoreProvider;
-import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.testing.MaterializedResult;
-import io.prestosql.utils.DynamicFilterUtils;
 import org.testng.annotations.AfterMethod;
-import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
-import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -67,7 +51,6 @@ import java.util.concurrent.ScheduledExecutorService;
 import static com.google.common.base.Strings.repeat;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.Slices.utf8Slice;
-import static io.hetu.core.statestore.hazelcast.HazelcastConstants.DISCOVERY_PORT_CONFIG_NAME;
 import static io.prestosql.SequencePageBuilder.createSequencePage;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
@@ -89,17 +72,12 @@ import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.analyzer.FeaturesConfig.DynamicFilterDataType.BLOOM_FILTER;
 import static io.prestosql.sql.analyzer.FeaturesConfig.DynamicFilterDataType.HASHSET;
-import static io.prestosql.statestore.StateStoreConstants.STATE_STORE_CONFIGURATION_PATH;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
-import static io.prestosql.utils.DynamicFilterUtils.PARTIALPREFIX;
-import static io.prestosql.utils.DynamicFilterUtils.TASKSPREFIX;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.stream.Collectors.toList;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -108,7 +86,7 @@ public class TestDynamicFilterSourceOperator
     private ExecutorService executor;
     private ScheduledExecutorService scheduledExecutor;
     private PipelineContext pipelineContext;
-    private StateStoreProvider stateStoreProvider;
+    private TaskDynamicFilters taskDynamicFilters;
 
     private static Channel channel(int index, Type type, String inputFilterId)
     {
@@ -120,49 +98,6 @@ public class TestDynamicFilterSourceOperator
         return new Channel(filterId, type, index, queryId);
     }
 
-    @BeforeTest
-    private void prepareConfigFiles()
-            throws Exception
-    {
-        File launcherConfigFile = new File(STATE_STORE_CONFIGURATION_PATH);
-        if (launcherConfigFile.exists()) {
-            launcherConfigFile.delete();
-        }
-        launcherConfigFile.createNewFile();
-        FileWriter configWriter = new FileWriter(STATE_STORE_CONFIGURATION_PATH);
-        configWriter.write("state-store.type=hazelcast\n" +
-                "state-store.name=test\n" +
-                "state-store.cluster=test-cluster\n" +
-                "hazelcast.discovery.mode=tcp-ip\n" +
-                "hazelcast.discovery.port=7980\n");
-        configWriter.close();
-        Set<Seed> seeds = new HashSet<>();
-        SeedStore mockSeedStore = mock(SeedStore.class);
-        Seed mockSeed = mock(Seed.class);
-        seeds.add(mockSeed);
-
-        SeedStoreManager mockSeedStoreManager = mock(SeedStoreManager.class);
-        when(mockSeedStoreManager.getSeedStore(SeedStoreSubType.HAZELCAST)).thenReturn(mockSeedStore);
-
-        when(mockSeed.getLocation()).thenReturn("127.0.0.1:6991");
-        when(mockSeedStore.get()).thenReturn(seeds);
-
-        StateStoreFactory factory = new HazelcastStateStoreFactory();
-        stateStoreProvider = new LocalStateStoreProvider(mockSeedStoreManager);
-        stateStoreProvider.addStateStoreFactory(factory);
-        createStateStoreCluster("6991");
-        stateStoreProvider.loadStateStore();
-    }
-
-    @AfterTest
-    private void cleanUp()
-    {
-        File launcherConfigFile = new File(STATE_STORE_CONFIGURATION_PATH);
-        if (launcherConfigFile.exists()) {
-            launcherConfigFile.delete();
-        }
-    }
-
     @BeforeMethod
     public void setUp()
             throws Exception
@@ -173,17 +108,6 @@ public class TestDynamicFilterSourceOperator
                 .addPipelineContext(0, true, true, false);
     }
 
-    private StateStore createStateStoreCluster(String port)
-    {
-        Map<String, String> config = new HashMap<>();
-        config.put("hazelcast.discovery.mode", "tcp-ip");
-        config.put("state-store.cluster", "test-cluster");
-        config.put(DISCOVERY_PORT_CONFIG_NAME, port);
-
-        StateStoreBootstrapper bootstrapper = new HazelcastStateStoreBootstrapper();
-        return bootstrapper.bootstrap(ImmutableSet.of("127.0.0.1:" + port), config);
-    }
-
     @AfterMethod
     public void tearDown()
     {
@@ -209,8 +133,9 @@ public class TestDynamicFilterSourceOperator
         Arrays.stream(buildChannels).map(channel -> probeSymbols.put(channel.getFilterId(), new Symbol(String.valueOf(channel.getIndex()))));
 
         TaskId taskId = new TaskId("test0.0");
+        taskDynamicFilters = new TaskDynamicFilters();
         LocalDynamicFilter localDynamicFilter = new LocalDynamicFilter(probeSymbols,
-                buildChannelMap, partitionCount, dfType, dataType, 0.1D, taskId, stateStoreProvider);
+                buildChannelMap, partitionCount, dfType, dataType, 0.1D, taskId, taskDynamicFilters);
 
         return new DynamicFilterSourceOperatorFactory(
                 0,
@@ -246,11 +171,10 @@ public class TestDynamicFilterSourceOperator
                 new Page(createLongsBlock(2, 3)),
                 new Page(createLongsBlock(1, 4)));
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
         Set<Long> set = new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L));
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals(set, (Set) bfSerialized);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(set, partialFilter.getValueSet());
         }
     }
 
@@ -269,15 +193,13 @@ public class TestDynamicFilterSourceOperator
                 new Page(createLongsBlock(99, 101)),
                 new Page(createLongsBlock(3, 5)));
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            BloomFilterDynamicFilter bfdf = new BloomFilterDynamicFilter(filterId, null, (byte[]) bfSerialized, GLOBAL);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            BloomFilterDynamicFilter bfdf = new BloomFilterDynamicFilter(filterId, null, partialFilter.getBloomFilter().get(), GLOBAL);
             assertTrue(bfdf.contains(101L));
             assertEquals(bfdf.getSize(), 6);
         }
-        assertEquals((stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils
-                .createKey(TASKSPREFIX, filterId, TEST_SESSION.getQueryId().toString()))).size(), 1);
+        assertTrue(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId));
     }
 
     @Test
@@ -295,16 +217,14 @@ public class TestDynamicFilterSourceOperator
                 new Page(createSlicesBlock(utf8Slice("test2"))),
                 new Page(createSlicesBlock(utf8Slice("test3"))));
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            BloomFilterDynamicFilter bfdf = new BloomFilterDynamicFilter(filterId, null, (byte[]) bfSerialized, GLOBAL);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            BloomFilterDynamicFilter bfdf = new BloomFilterDynamicFilter(filterId, null, partialFilter.getBloomFilter().get(), GLOBAL);
             Slice slice = Slices.utf8Slice("test1");
             assertEquals(bfdf.getSize(), 3);
             assertTrue(bfdf.contains(slice));
         }
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils
-                .createKey(TASKSPREFIX, filterId, TEST_SESSION.getQueryId().toString())).size(), 1);
+        assertTrue(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId));
     }
 
     @Test
@@ -323,16 +243,13 @@ public class TestDynamicFilterSourceOperator
                 new Page(createLongsBlock(13, 22)),
                 new Page(createLongsBlock(3, 5)));
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            HashSetDynamicFilter bfdf = new HashSetDynamicFilter(filterId, null, (Set) bfSerialized, GLOBAL);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            HashSetDynamicFilter bfdf = new HashSetDynamicFilter(filterId, null, partialFilter.getValueSet(), GLOBAL);
             assertTrue(bfdf.contains(22L));
             assertEquals(bfdf.getSize(), 8);
         }
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils
-                .createKey(TASKSPREFIX, filterId, TEST_SESSION.getQueryId().toString())).size(), 1);
+        assertTrue(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId));
     }
 
     @Test
@@ -347,18 +264,16 @@ public class TestDynamicFilterSourceOperator
                 new Page(createBooleansBlock(false, 1), createDoublesBlock(4.5)));
         operatorFactory.noMoreOperators();
 
-        String key1 = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId1, TEST_SESSION.getQueryId().toString());
         Set<Boolean> set1 = new HashSet<>(Arrays.asList(true, false));
-        StateSet states1 = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key1));
-        for (Object bfSerialized : states1.getAll()) {
-            assertEquals((Set) bfSerialized, set1);
+        List<SerializedDynamicFilter> states1 = getPartialFilters(filterId1);
+        for (SerializedDynamicFilter partialFilter : states1) {
+            assertEquals(partialFilter.getValueSet(), set1);
         }
 
-        String key2 = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId2, TEST_SESSION.getQueryId().toString());
         Set<Double> set2 = new HashSet<>(Arrays.asList(1.5, 3.0, 4.5));
-        StateSet states2 = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key2));
-        for (Object bfSerialized : states2.getAll()) {
-            assertEquals((Set) bfSerialized, set2);
+        List<SerializedDynamicFilter> states2 = getPartialFilters(filterId2);
+        for (SerializedDynamicFilter partialFilter : states2) {
+            assertEquals(partialFilter.getValueSet(), set2);
         }
     }
 
@@ -373,11 +288,10 @@ public class TestDynamicFilterSourceOperator
                 new Page(createBooleansBlock(false, 1), createDoublesBlock(4.5)));
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
         Set<Boolean> set = new HashSet<>(Arrays.asList(true, false));
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals((Set) bfSerialized, set);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(partialFilter.getValueSet(), set);
         }
     }
 
@@ -392,11 +306,10 @@ public class TestDynamicFilterSourceOperator
                 new Page(createBooleansBlock(false, 1), createDoublesBlock(4.5)));
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
         Set<Double> set = new HashSet<>(Arrays.asList(1.5, 3.0, 4.5));
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals((Set) bfSerialized, set);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(partialFilter.getValueSet(), set);
         }
     }
 
@@ -418,11 +331,10 @@ public class TestDynamicFilterSourceOperator
                 new Page(createLongsBlock(4, 5)));
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
         Set<Long> set = new HashSet<>(Arrays.asList(1L, 2L, 3L, 4L, 5L));
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals((Set) bfSerialized, set);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(partialFilter.getValueSet(), set);
         }
     }
 
@@ -445,10 +357,9 @@ public class TestDynamicFilterSourceOperator
                 ImmutableList.of(BIGINT));
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals((Set) bfSerialized, new HashSet()); // should be empty
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(partialFilter.getValueSet(), new HashSet()); // should be empty
         }
     }
 
@@ -465,8 +376,7 @@ public class TestDynamicFilterSourceOperator
                 largePage);
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-        assertNull(stateStoreProvider.getStateStore().getStateCollection(key));
+        assertFalse(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId));
     }
 
     @Test
@@ -481,8 +391,7 @@ public class TestDynamicFilterSourceOperator
                 ImmutableList.of(VARCHAR),
                 largePage);
         operatorFactory.noMoreOperators();
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
-        assertNull(stateStoreProvider.getStateStore().getStateCollection(key));
+        assertFalse(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId));
     }
 
     @Test
@@ -501,11 +410,8 @@ public class TestDynamicFilterSourceOperator
                 largePage);
         operatorFactory.noMoreOperators();
 
-        String key1 = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId1, TEST_SESSION.getQueryId().toString());
-        assertNull(stateStoreProvider.getStateStore().getStateCollection(key1));
-
-        String key2 = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId2, TEST_SESSION.getQueryId().toString());
-        assertNull(stateStoreProvider.getStateStore().getStateCollection(key2));
+        assertFalse(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId1));
+        assertFalse(taskDynamicFilters.getUnacknowledgedFilters().containsKey(filterId2));
     }
 
     @Test
@@ -522,12 +428,17 @@ public class TestDynamicFilterSourceOperator
                 largePage, nullsPage);
         operatorFactory.noMoreOperators();
 
-        String key = DynamicFilterUtils.createKey(PARTIALPREFIX, filterId, TEST_SESSION.getQueryId().toString());
         Set<Long> set = new HashSet<>();
         set.add(7L);
-        StateSet states = ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key));
-        for (Object bfSerialized : states.getAll()) {
-            assertEquals((Set) bfSerialized, set);
+        List<SerializedDynamicFilter> states = getPartialFilters(filterId);
+        for (SerializedDynamicFilter partialFilter : states) {
+            assertEquals(partialFilter.getValueSet(), set);
         }
     }
+
+    private List<SerializedDynamicFilter> getPartialFilters(String filterId)
+    {
+        SerializedDynamicFilter partialFilter = taskDynamicFilters.getUnacknowledgedFilters().get(filterId);
+        return partialFilter == null ? ImmutableList.of() : ImmutableList.of(partialFilter);
+    }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.RowPagesBuilder;
 import io.prestosql.Session;
 import io.prestosql.block.BlockAssertions;
 import io.prestosql.spi.Page;
@@ -36,20 +37,30 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.math.DoubleMath.log2;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.block.BlockAssertions.createIntsBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlockWithNull;
 import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.type.TypeUtils.getHashBlock;
 import static org.testng.Assert.assertEquals;
@@ -66,7 +77,21 @@ public class TestGroupByHash
     @DataProvider
     public Object[][] dataType()
     {
-        return new Object[][] {{VARCHAR}, {BIGINT}};
+        return new Object[][] {{VARCHAR}, {BIGINT}, {INTEGER}};
+    }
+
+    @DataProvider
+    public Object[][] fixedWidthTypes()
+    {
+        return new Object[][] {
+                {ImmutableList.of(BOOLEAN), DenseGroupByHash.class},
+                {ImmutableList.of(SMALLINT), DenseGroupByHash.class},
+                {ImmutableList.of(BOOLEAN, TINYINT), DenseGroupByHash.class},
+                {ImmutableList.of(TINYINT, TINYINT), DenseGroupByHash.class},
+                {ImmutableList.of(INTEGER), PackedLongGroupByHash.class},
+                {ImmutableList.of(SMALLINT, BOOLEAN), PackedLongGroupByHash.class},
+                {ImmutableList.of(DATE, SMALLINT), PackedLongGroupByHash.class},
+                {ImmutableList.of(INTEGER, INTEGER), PackedLongGroupByHash.class}};
     }
 
     @Test
@@ -410,6 +435,95 @@ public class TestGroupByHash
         }
     }
 
+    @Test(dataProvider = "fixedWidthTypes")
+    public void testFixedWidthKeys(List<Type> types, Class<?> expectedClass)
+    {
+        int[] hashChannels = IntStream.range(0, types.size()).toArray();
+        Optional<Integer> hashChannel = Optional.of(types.size());
+        GroupByHash groupByHash = createGroupByHash(types, hashChannels, hashChannel, 4, false, JOIN_COMPILER, NOOP);
+        assertEquals(groupByHash.getClass(), expectedClass);
+        GroupByHash expectedGroupByHash = new MultiChannelGroupByHash(types, hashChannels, hashChannel, 4, false, JOIN_COMPILER, NOOP);
+        assertEquals(groupByHash.getTypes(), expectedGroupByHash.getTypes());
+
+        Random random = new Random(42);
+        List<Page> pages = createFixedWidthPages(types, random);
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            if (i == pages.size() / 2) {
+                // continue on a restored copy
+                Object snapshot = groupByHash.capture(null);
+                groupByHash = createGroupByHash(types, hashChannels, hashChannel, 4, false, JOIN_COMPILER, NOOP);
+                groupByHash.restore(snapshot, null);
+            }
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+            assertTrue(work.process());
+            GroupByIdBlock groupIds = work.getResult();
+            Work<GroupByIdBlock> expectedWork = expectedGroupByHash.getGroupIds(page);
+            assertTrue(expectedWork.process());
+            GroupByIdBlock expectedGroupIds = expectedWork.getResult();
+            assertEquals(groupIds.getGroupCount(), expectedGroupIds.getGroupCount());
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                assertEquals(groupIds.getGroupId(position), expectedGroupIds.getGroupId(position));
+            }
+        }
+
+        assertEquals(groupByHash.getGroupCount(), expectedGroupByHash.getGroupCount());
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        PageBuilder expectedPageBuilder = new PageBuilder(expectedGroupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            expectedPageBuilder.declarePosition();
+            expectedGroupByHash.appendValuesTo(groupId, expectedPageBuilder, 0);
+            assertEquals(groupByHash.getRawHash(groupId), expectedGroupByHash.getRawHash(groupId));
+        }
+        assertPageEquals(groupByHash.getTypes(), pageBuilder.build(), expectedPageBuilder.build());
+
+        for (Page page : createFixedWidthPages(types, new Random(43))) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                assertEquals(groupByHash.contains(position, page, hashChannels), expectedGroupByHash.contains(position, page, hashChannels));
+            }
+        }
+    }
+
+    private static List<Page> createFixedWidthPages(List<Type> types, Random random)
+    {
+        RowPagesBuilder pagesBuilder = rowPagesBuilder(true, IntStream.range(0, types.size()).boxed().collect(toImmutableList()), types);
+        for (int row = 0; row < 10_000; row++) {
+            Object[] values = new Object[types.size()];
+            for (int channel = 0; channel < types.size(); channel++) {
+                values[channel] = createFixedWidthValue(types.get(channel), random);
+            }
+            pagesBuilder.row(values);
+            if (row % 1000 == 999) {
+                pagesBuilder.pageBreak();
+            }
+        }
+        return pagesBuilder.build();
+    }
+
+    private static Object createFixedWidthValue(Type type, Random random)
+    {
+        if (random.nextInt(20) == 0) {
+            return null;
+        }
+        if (type == BOOLEAN) {
+            return random.nextBoolean();
+        }
+        if (type == TINYINT) {
+            return (long) (random.nextInt(1 << Byte.SIZE) + Byte.MIN_VALUE);
+        }
+        long bound = type == SMALLINT ? Short.MAX_VALUE : Integer.MAX_VALUE;
+        switch (random.nextInt(10)) {
+            case 0:
+                return bound;
+            case 1:
+                return -bound - 1;
+            default:
+                return (long) (random.nextInt(500) - 250);
+        }
+    }
+
     @Test(dataProvider = "dataType")
     public void testUpdateMemory(Type type)
     {
@@ -422,6 +536,9 @@ public class TestGroupByHash
         else if (type == BIGINT) {
             valuesBlock = createLongSequenceBlock(0, length);
         }
+        else if (type == INTEGER) {
+            valuesBlock = createIntsBlock(IntStream.range(0, length).boxed().collect(toImmutableList()));
+        }
         else {
             throw new IllegalArgumentException("unsupported data type");
         }
@@ -458,6 +575,9 @@ public class TestGroupByHash
         else if (type == BIGINT) {
             valuesBlock = createLongSequenceBlock(0, length);
         }
+        else if (type == INTEGER) {
+            valuesBlock = createIntsBlock(IntStream.range(0, length).boxed().collect(toImmutableList()));
+        }
         else {
             throw new IllegalArgumentException("unsupported data type");
         }
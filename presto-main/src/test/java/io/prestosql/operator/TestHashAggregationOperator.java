@@ -28,6 +28,7 @@ import io.prestosql.operator.aggregation.InternalAggregationFunction;
 import io.prestosql.operator.aggregation.builder.AggregationBuilder;
 import io.prestosql.operator.aggregation.builder.InMemoryHashAggregationBuilder;
 import io.prestosql.operator.aggregation.partial.PartialAggregationController;
+import io.prestosql.operator.aggregation.partial.PartialAggregationInfo;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.PageBuilderStatus;
@@ -1083,6 +1084,65 @@ public class TestHashAggregationOperator
         OperatorAssertion.assertOperatorEquals(operatorFactory, ImmutableList.of(BIGINT, BIGINT), createDriverContext(), operator2Input, operator2Expected);
     }
 
+    @Test
+    public void testAdaptivePartialAggregationHeavyHitters()
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(5, 0.8, true);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                PARTIAL,
+                ImmutableList.of(COUNT.bind(ImmutableList.of(), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100,
+                Optional.of(new DataSize(16, MEGABYTE)),
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        // unique rows disable partial aggregation
+        assertEquals(partialAggregationController.onFlush(10, 10), PartialAggregationController.Decision.DISABLE);
+        assertTrue(partialAggregationController.isPartialAggregationDisabled());
+
+        // value 1 makes 80% of the rows, so it is aggregated as a heavy hitter once it was seen often enough
+        RowPagesBuilder inputBuilder = rowPagesBuilder(false, hashChannels, BIGINT);
+        for (int page = 0; page < 10; page++) {
+            inputBuilder.addBlocksPage(createLongsBlock(1, 1, 1, 1, 100 + 2 * page, 1, 1, 1, 1, 101 + 2 * page));
+        }
+        List<Page> input = inputBuilder.build();
+
+        DriverContext driverContext = createDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+        List<Page> output = toPages(operator, input.iterator());
+
+        Map<Long, Long> counts = new HashMap<>();
+        int outputRows = 0;
+        for (Page page : output) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                counts.merge(BIGINT.getLong(page.getBlock(0), position), BIGINT.getLong(page.getBlock(1), position), Long::sum);
+            }
+            outputRows += page.getPositionCount();
+        }
+        assertEquals(counts.get(1L), Long.valueOf(80));
+        for (long value = 100; value < 120; value++) {
+            assertEquals(counts.get(value), Long.valueOf(1));
+        }
+        assertTrue(outputRows < 100, "heavy hitter rows should have been aggregated");
+
+        // passing through only the rest of the rows shows partial aggregation is effective again
+        assertFalse(partialAggregationController.isPartialAggregationDisabled());
+        PartialAggregationInfo info = (PartialAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getReenableDecisions(), 1);
+        assertGreaterThan(info.getHeavyHitterRowsAggregated(), 0L);
+        assertEquals(info.getHeavyHitterRowsAggregated() + info.getRowsPassedThrough() + info.getRowsAggregated(), 100);
+    }
+
     private DriverContext createDriverContext()
     {
         return createDriverContext(Integer.MAX_VALUE);
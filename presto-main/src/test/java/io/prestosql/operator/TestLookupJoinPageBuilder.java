@@ -26,6 +26,7 @@ import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +88,45 @@ public class TestLookupJoinPageBuilder
         assertTrue(lookupJoinPageBuilder.isEmpty());
     }
 
+    @Test
+    public void testAppendRows()
+    {
+        int entries = 100;
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, entries);
+        for (int i = 0; i < entries; i++) {
+            BIGINT.writeLong(blockBuilder, i);
+        }
+        Block block = blockBuilder.build();
+        Page page = new Page(block, block);
+
+        JoinProbeFactory joinProbeFactory = new JoinProbeFactory(new int[] {0, 1}, ImmutableList.of(0, 1), OptionalInt.empty());
+        JoinProbe probe = joinProbeFactory.createJoinProbe(page);
+        LookupSource lookupSource = new TestLookupSource(ImmutableList.of(BIGINT, BIGINT), page);
+        LookupJoinPageBuilder lookupJoinPageBuilder = new LookupJoinPageBuilder(ImmutableList.of(BIGINT, BIGINT));
+
+        // every probe position matches the two build positions next to it
+        int[] probePositions = new int[2 * entries];
+        long[] joinPositions = new long[2 * entries];
+        for (int i = 0; i < entries; i++) {
+            probePositions[2 * i] = i;
+            probePositions[2 * i + 1] = i;
+            joinPositions[2 * i] = i;
+            joinPositions[2 * i + 1] = (i + 1) % entries;
+        }
+        lookupJoinPageBuilder.appendRows(probe, lookupSource, probePositions, joinPositions, entries);
+        lookupJoinPageBuilder.appendRows(probe, lookupSource, Arrays.copyOfRange(probePositions, entries, 2 * entries), Arrays.copyOfRange(joinPositions, entries, 2 * entries), entries);
+        assertFalse(lookupJoinPageBuilder.isEmpty());
+
+        Page output = lookupJoinPageBuilder.build(probe);
+        assertEquals(output.getPositionCount(), 2 * entries);
+        for (int i = 0; i < output.getPositionCount(); i++) {
+            assertEquals(output.getBlock(0).getLong(i, 0), probePositions[i]);
+            assertEquals(output.getBlock(1).getLong(i, 0), probePositions[i]);
+            assertEquals(output.getBlock(2).getLong(i, 0), joinPositions[i]);
+            assertEquals(output.getBlock(3).getLong(i, 0), joinPositions[i]);
+        }
+    }
+
     @Test
     public void testPageBuilderSnapshot()
     {
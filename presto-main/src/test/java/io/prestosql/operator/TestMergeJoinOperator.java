@@ -0,0 +1,239 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.operator.MergeJoinOperator.MergeJoinOperatorFactory;
+import io.prestosql.operator.MergeJoinSinkOperator.MergeJoinSinkOperatorFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.type.Type;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.TestingTaskContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.collect.Iterables.concat;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.operator.OperatorAssertion.assertOperatorEquals;
+import static io.prestosql.operator.OperatorAssertion.toPages;
+import static io.prestosql.operator.ValuesOperator.ValuesOperatorFactory;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestMergeJoinOperator
+{
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testMergeJoin()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(BIGINT, VARCHAR))
+                .row(1L, "b1")
+                .row(3L, "b3a")
+                .pageBreak()
+                .row(3L, "b3b")
+                .row(4L, "b4")
+                .pageBreak()
+                .row(6L, "b6");
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(VARCHAR, BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row("p0", 0L)
+                .row("p1", 1L)
+                .row("p2", 2L)
+                .pageBreak()
+                .row("p3a", 3L)
+                .row("p3b", 3L)
+                .row("p5", 5L)
+                .pageBreak()
+                .row("p6", 6L)
+                .row("p7", 7L)
+                .build();
+        MergeJoinOperatorFactory joinOperatorFactory = newJoinOperatorFactoryWithBufferedBuild(taskContext, probeTypes, 1, buildPages);
+
+        // expected
+        MaterializedResult expected = resultBuilder(taskContext.getSession(), concat(probeTypes, buildPages.getTypes()))
+                .row("p1", 1L, 1L, "b1")
+                .row("p3a", 3L, 3L, "b3a")
+                .row("p3a", 3L, 3L, "b3b")
+                .row("p3b", 3L, 3L, "b3a")
+                .row("p3b", 3L, 3L, "b3b")
+                .row("p6", 6L, 6L, "b6")
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected);
+    }
+
+    @Test
+    public void testMergeJoinWithNullKeys()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(BIGINT))
+                .row((Long) null)
+                .row(1L)
+                .row((Long) null)
+                .row(2L);
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row(1L)
+                .row((Long) null)
+                .row(2L)
+                .build();
+        MergeJoinOperatorFactory joinOperatorFactory = newJoinOperatorFactoryWithBufferedBuild(taskContext, probeTypes, 0, buildPages);
+
+        // expected
+        MaterializedResult expected = resultBuilder(taskContext.getSession(), concat(probeTypes, buildPages.getTypes()))
+                .row(1L, 1L)
+                .row(2L, 2L)
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected);
+    }
+
+    @Test
+    public void testEmptyBuild()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(BIGINT))
+                .pageBreak();
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row(1L)
+                .row(2L)
+                .build();
+        MergeJoinOperatorFactory joinOperatorFactory = newJoinOperatorFactoryWithBufferedBuild(taskContext, probeTypes, 0, buildPages);
+
+        // expected
+        MaterializedResult expected = resultBuilder(taskContext.getSession(), concat(probeTypes, buildPages.getTypes()))
+                .build();
+
+        assertOperatorEquals(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected);
+    }
+
+    @Test
+    public void testUnsortedBuild()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        // build
+        RowPagesBuilder buildPages = rowPagesBuilder(ImmutableList.of(BIGINT))
+                .row(2L)
+                .row(1L);
+
+        // probe
+        List<Type> probeTypes = ImmutableList.of(BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row(1L)
+                .row(2L)
+                .build();
+        MergeJoinOperatorFactory joinOperatorFactory = newJoinOperatorFactoryWithBufferedBuild(taskContext, probeTypes, 0, buildPages);
+
+        try {
+            toPages(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput);
+            fail("expected exception");
+        }
+        catch (PrestoException e) {
+            assertTrue(e.getMessage().contains("not sorted"), e.getMessage());
+        }
+    }
+
+    private TaskContext createTaskContext()
+    {
+        return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION);
+    }
+
+    /**
+     * Runs the build side until all its pages are handed over to the merge join source.
+     * The build must fit in the buffer of the source, as nothing consumes it yet.
+     */
+    private static MergeJoinOperatorFactory newJoinOperatorFactoryWithBufferedBuild(TaskContext taskContext, List<Type> probeTypes, int probeJoinChannel, RowPagesBuilder buildPages)
+    {
+        DriverContext driverContext = taskContext.addPipelineContext(0, true, true, false).addDriverContext();
+
+        ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(0, new PlanNodeId("test"), buildPages.build());
+
+        JoinBridgeManager<MergeJoinSource> mergeJoinSourceManager = new JoinBridgeManager<>(
+                false,
+                PipelineExecutionStrategy.UNGROUPED_EXECUTION,
+                PipelineExecutionStrategy.UNGROUPED_EXECUTION,
+                lifespan -> new MergeJoinSource(),
+                buildPages.getTypes());
+        MergeJoinSinkOperatorFactory mergeJoinSinkOperatorFactory = new MergeJoinSinkOperatorFactory(1, new PlanNodeId("test"), mergeJoinSourceManager);
+        MergeJoinOperatorFactory joinOperatorFactory = new MergeJoinOperatorFactory(
+                3,
+                new PlanNodeId("test"),
+                mergeJoinSourceManager,
+                probeTypes,
+                ImmutableList.of(probeJoinChannel),
+                ImmutableList.of(0));
+
+        Operator valuesOperator = valuesOperatorFactory.createOperator(driverContext);
+        Operator mergeJoinSinkOperator = mergeJoinSinkOperatorFactory.createOperator(driverContext);
+        Driver driver = Driver.createDriver(driverContext,
+                valuesOperator,
+                mergeJoinSinkOperator);
+
+        valuesOperatorFactory.noMoreOperators();
+        mergeJoinSinkOperatorFactory.noMoreOperators();
+
+        while (mergeJoinSinkOperator.isBlocked().isDone() && !driver.isFinished()) {
+            driver.process();
+        }
+
+        return joinOperatorFactory;
+    }
+}
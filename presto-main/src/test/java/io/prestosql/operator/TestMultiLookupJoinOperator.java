@@ -0,0 +1,234 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Ints;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.operator.HashBuilderOperator.HashBuilderOperatorFactory;
+import io.prestosql.operator.MultiLookupJoinOperator.MultiLookupJoinOperatorFactory;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.type.Type;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.TestingTaskContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static io.prestosql.operator.OperatorAssertion.toPages;
+import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestMultiLookupJoinOperator
+{
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduledExecutor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+        scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testStarJoin()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        JoinBridgeManager<PartitionedLookupSourceFactory> firstBuild = buildLookupSource(taskContext, 1, rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "one")
+                .row(3L, "three-x")
+                .pageBreak()
+                .row(3L, "three-y"));
+        JoinBridgeManager<PartitionedLookupSourceFactory> secondBuild = buildLookupSource(taskContext, 2, rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 100L)
+                .row("b", 200L)
+                .row("b", 201L));
+
+        List<Type> probeTypes = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row(1L, "a", 10L)
+                .row(2L, "b", 20L)
+                .row(1L, null, 30L)
+                .row(3L, "a", 40L)
+                .row(null, "a", 50L)
+                .pageBreak()
+                .row(3L, "c", 60L)
+                .row(1L, "b", 70L)
+                .build();
+
+        OperatorFactory joinOperatorFactory = new MultiLookupJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(firstBuild, secondBuild),
+                Ints.asList(2, 0),
+                ImmutableList.of(Ints.asList(0), Ints.asList(1)),
+                ImmutableList.of(OptionalInt.empty(), OptionalInt.empty()));
+
+        MaterializedResult expected = resultBuilder(taskContext.getSession(), BIGINT, BIGINT, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                .row(10L, 1L, 1L, "one", "a", 100L)
+                .row(40L, 3L, 3L, "three-x", "a", 100L)
+                .row(40L, 3L, 3L, "three-y", "a", 100L)
+                .row(70L, 1L, 1L, "one", "b", 200L)
+                .row(70L, 1L, 1L, "one", "b", 201L)
+                .build();
+
+        assertOperatorEqualsIgnoreOrder(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, false, Optional.empty());
+    }
+
+    @Test
+    public void testManyMatchesPerRow()
+    {
+        TaskContext taskContext = createTaskContext();
+        int matches = 60;
+        int probeRows = 10;
+
+        RowPagesBuilder buildPages = rowPagesBuilder(BIGINT, BIGINT);
+        IntStream.range(0, matches).forEach(i -> buildPages.row(0L, (long) i));
+        JoinBridgeManager<PartitionedLookupSourceFactory> firstBuild = buildLookupSource(taskContext, 1, buildPages);
+        JoinBridgeManager<PartitionedLookupSourceFactory> secondBuild = buildLookupSource(taskContext, 2, buildPages);
+
+        RowPagesBuilder probePages = rowPagesBuilder(BIGINT);
+        IntStream.range(0, probeRows).forEach(i -> probePages.row(0L));
+
+        OperatorFactory joinOperatorFactory = new MultiLookupJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(firstBuild, secondBuild),
+                Ints.asList(0),
+                ImmutableList.of(Ints.asList(0), Ints.asList(0)),
+                ImmutableList.of(OptionalInt.empty(), OptionalInt.empty()));
+
+        List<Page> output = toPages(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probePages.build());
+        assertEquals(output.stream().mapToInt(Page::getPositionCount).sum(), probeRows * matches * matches);
+        long sum = 0;
+        for (Page page : output) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                sum += BIGINT.getLong(page.getBlock(2), position) * matches + BIGINT.getLong(page.getBlock(4), position);
+            }
+        }
+        // every combination of the two build rows appears once per probe row
+        long combinations = (long) matches * matches;
+        assertEquals(sum, probeRows * combinations * (combinations - 1) / 2);
+    }
+
+    @Test
+    public void testEmptySelection()
+    {
+        TaskContext taskContext = createTaskContext();
+
+        JoinBridgeManager<PartitionedLookupSourceFactory> firstBuild = buildLookupSource(taskContext, 1, rowPagesBuilder(BIGINT, VARCHAR)
+                .row(1L, "one"));
+        JoinBridgeManager<PartitionedLookupSourceFactory> secondBuild = buildLookupSource(taskContext, 2, rowPagesBuilder(VARCHAR, BIGINT)
+                .row("a", 100L));
+
+        // no row of the first page has a key for the first join, no row of the second page has one for the second join
+        List<Type> probeTypes = ImmutableList.of(BIGINT, VARCHAR, BIGINT);
+        List<Page> probeInput = rowPagesBuilder(probeTypes)
+                .row(null, "a", 10L)
+                .row(null, "a", 20L)
+                .pageBreak()
+                .row(1L, null, 30L)
+                .pageBreak()
+                .row(1L, "a", 40L)
+                .build();
+
+        OperatorFactory joinOperatorFactory = new MultiLookupJoinOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(firstBuild, secondBuild),
+                Ints.asList(2, 0),
+                ImmutableList.of(Ints.asList(0), Ints.asList(1)),
+                ImmutableList.of(OptionalInt.empty(), OptionalInt.empty()));
+
+        MaterializedResult expected = resultBuilder(taskContext.getSession(), BIGINT, BIGINT, BIGINT, VARCHAR, VARCHAR, BIGINT)
+                .row(40L, 1L, 1L, "one", "a", 100L)
+                .build();
+
+        assertOperatorEqualsIgnoreOrder(joinOperatorFactory, taskContext.addPipelineContext(0, true, true, false).addDriverContext(), probeInput, expected, false, Optional.empty());
+    }
+
+    private static JoinBridgeManager<PartitionedLookupSourceFactory> buildLookupSource(TaskContext taskContext, int pipelineId, RowPagesBuilder buildPages)
+    {
+        List<Type> types = buildPages.getTypes();
+        PartitionedLookupSourceFactory lookupSourceFactory = new PartitionedLookupSourceFactory(
+                types,
+                types,
+                ImmutableList.of(types.get(0)),
+                1,
+                ImmutableMap.of(),
+                false,
+                false);
+        JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager = new JoinBridgeManager<>(
+                false,
+                UNGROUPED_EXECUTION,
+                UNGROUPED_EXECUTION,
+                ignored -> lookupSourceFactory,
+                lookupSourceFactory.getOutputTypes());
+
+        HashBuilderOperatorFactory buildOperatorFactory = new HashBuilderOperatorFactory(
+                1,
+                new PlanNodeId("build"),
+                lookupSourceFactoryManager,
+                IntStream.range(0, types.size()).boxed().collect(toImmutableList()),
+                Ints.asList(0),
+                OptionalInt.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableList.of(),
+                100,
+                new PagesIndex.TestingFactory(false),
+                false,
+                new DummySpillerFactory());
+        DriverContext driverContext = taskContext.addPipelineContext(pipelineId, true, true, false).addDriverContext();
+        HashBuilderOperator buildOperator = buildOperatorFactory.createOperator(driverContext);
+        buildPages.build().forEach(buildOperator::addInput);
+        buildOperator.finish();
+        buildOperatorFactory.noMoreOperators();
+        return lookupSourceFactoryManager;
+    }
+
+    private TaskContext createTaskContext()
+    {
+        return TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION);
+    }
+}
@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.collect.ImmutableMap;
 import io.airlift.json.JsonCodec;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
@@ -77,6 +78,7 @@ public class TestOperatorStats
             new DataSize(26, BYTE),
             new Duration(27, NANOSECONDS),
             new Duration(28, NANOSECONDS),
+            ImmutableMap.of("LZ4", 29L),
             Optional.empty(),
             NON_MERGEABLE_INFO);
 
@@ -125,6 +127,7 @@ public class TestOperatorStats
             new DataSize(26, BYTE),
             new Duration(27, NANOSECONDS),
             new Duration(28, NANOSECONDS),
+            ImmutableMap.of("LZ4", 29L),
             Optional.empty(),
             MERGEABLE_INFO);
 
@@ -182,6 +185,7 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), new DataSize(26, BYTE));
         assertEquals(actual.getSpillReadTime(), new Duration(27, NANOSECONDS));
         assertEquals(actual.getSpillWriteTime(), new Duration(28, NANOSECONDS));
+        assertEquals(actual.getSpillCompressionCodecs(), ImmutableMap.of("LZ4", 29L));
         assertEquals(actual.getInfo().getClass(), SplitOperatorInfo.class);
         assertEquals(((SplitOperatorInfo) actual.getInfo()).getSplitInfo(), NON_MERGEABLE_INFO.getSplitInfo());
     }
@@ -231,6 +235,7 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 26, BYTE));
         assertEquals(actual.getSpillReadTime(), new Duration(3 * 27, NANOSECONDS));
         assertEquals(actual.getSpillWriteTime(), new Duration(3 * 28, NANOSECONDS));
+        assertEquals(actual.getSpillCompressionCodecs(), ImmutableMap.of("LZ4", 3 * 29L));
         assertNull(actual.getInfo());
     }
 
@@ -279,6 +284,7 @@ public class TestOperatorStats
         assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 26, BYTE));
         assertEquals(actual.getSpillReadTime(), new Duration(3 * 27, NANOSECONDS));
         assertEquals(actual.getSpillWriteTime(), new Duration(3 * 28, NANOSECONDS));
+        assertEquals(actual.getSpillCompressionCodecs(), ImmutableMap.of("LZ4", 3 * 29L));
         assertEquals(actual.getInfo().getClass(), PartitionedOutputInfo.class);
         assertEquals(((PartitionedOutputInfo) actual.getInfo()).getPagesAdded(), 3 * MERGEABLE_INFO.getPagesAdded());
     }
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.operator.SyntheticAddress.encodeSyntheticAddress;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spi.type.VarcharType.createVarcharType;
+import static io.prestosql.type.TypeUtils.positionEqualsPosition;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestPackedKeysPagesHash
+{
+    @Test
+    public void testCreate()
+    {
+        assertEquals(PackedJoinKeys.create(ImmutableList.of(INTEGER, INTEGER), Ints.asList(0, 1)).get().getWordCount(), 1);
+        assertEquals(PackedJoinKeys.create(ImmutableList.of(BIGINT, DATE), Ints.asList(0, 1)).get().getWordCount(), 2);
+        assertEquals(PackedJoinKeys.create(ImmutableList.of(createVarcharType(2), INTEGER), Ints.asList(0, 1)).get().getWordCount(), 2);
+        assertFalse(PackedJoinKeys.create(ImmutableList.of(BIGINT, BIGINT, BIGINT), Ints.asList(0, 1, 2)).isPresent());
+        assertFalse(PackedJoinKeys.create(ImmutableList.of(BIGINT, DOUBLE), Ints.asList(0, 1)).isPresent());
+        assertFalse(PackedJoinKeys.create(ImmutableList.of(VARCHAR), Ints.asList(0)).isPresent());
+        assertFalse(PackedJoinKeys.create(ImmutableList.of(createVarcharType(20)), Ints.asList(0)).isPresent());
+    }
+
+    @Test
+    public void testSingleWord()
+    {
+        List<Type> types = ImmutableList.of(INTEGER, BIGINT, INTEGER);
+        RowPagesBuilder build = rowPagesBuilder(types);
+        for (int i = 0; i < 1000; i++) {
+            build.row(i % 100, (long) i, -i % 7);
+            if (i % 300 == 299) {
+                build.pageBreak();
+            }
+        }
+        build.row(null, 1L, 1);
+
+        assertLookups(types, Ints.asList(0, 2), build.build(), rowPagesBuilder(ImmutableList.of(INTEGER, INTEGER))
+                .row(1, -1)
+                .row(99, 0)
+                .row(-1, 1)
+                .row(100, 0)
+                .build());
+    }
+
+    @Test
+    public void testTwoWords()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DATE);
+        RowPagesBuilder build = rowPagesBuilder(types);
+        for (int i = 0; i < 1000; i++) {
+            build.row((long) i << 40, i % 3);
+        }
+
+        assertLookups(types, Ints.asList(0, 1), build.build(), rowPagesBuilder(types)
+                .row(1L << 40, 1)
+                .row(1L << 40, 2)
+                .row(-1L, 0)
+                .build());
+    }
+
+    @Test
+    public void testShortVarchar()
+    {
+        Type code = createVarcharType(2);
+        List<Type> types = ImmutableList.of(SMALLINT, code, BOOLEAN);
+        RowPagesBuilder build = rowPagesBuilder(types);
+        String[] codes = {"", "a", "ab", "é", "éé", "b\u0000", "b"};
+        for (int i = 0; i < 100; i++) {
+            build.row((long) (i % 5), codes[i % codes.length], i % 2 == 0);
+        }
+        build.row(1L, null, true);
+
+        assertLookups(types, Ints.asList(0, 1, 2), build.build(), rowPagesBuilder(types)
+                .row(0L, "", true)
+                .row(3L, "b\u0000", false)
+                .row(3L, "b", false)
+                .row(2L, "éé", true)
+                .row(2L, "ba", true)
+                // longer than any value on the build side
+                .row(2L, "abcdefghijklmnop", true)
+                .build());
+    }
+
+    private static void assertLookups(List<Type> types, List<Integer> joinChannels, List<Page> buildPages, List<Page> probePages)
+    {
+        LongArrayList addresses = new LongArrayList();
+        List<List<Block>> channels = new ArrayList<>();
+        for (int channel = 0; channel < types.size(); channel++) {
+            channels.add(new ArrayList<>());
+        }
+        for (int pageIndex = 0; pageIndex < buildPages.size(); pageIndex++) {
+            Page page = buildPages.get(pageIndex);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                addresses.add(encodeSyntheticAddress(pageIndex, position));
+            }
+            for (int channel = 0; channel < types.size(); channel++) {
+                channels.get(channel).add(page.getBlock(channel));
+            }
+        }
+        PagesHashStrategy strategy = new SimplePagesHashStrategy(
+                types,
+                ImmutableList.of(),
+                channels,
+                joinChannels,
+                OptionalInt.empty(),
+                Optional.empty(),
+                createTestMetadataManager());
+        PackedJoinKeys packedJoinKeys = PackedJoinKeys.create(types, joinChannels).get();
+        assertTrue(packedJoinKeys.fits(buildPages));
+        IPagesHash packedHash = new PackedKeysPagesHash(addresses, strategy, ArrayPositionLinks.builder(addresses.size()), buildPages, packedJoinKeys);
+
+        for (Page probePage : probePages) {
+            for (int position = 0; position < probePage.getPositionCount(); position++) {
+                int addressIndex = packedHash.getAddressIndex(position, probePage);
+                boolean expectedMatch = false;
+                for (int i = 0; i < addresses.size(); i++) {
+                    if (!strategy.isPositionNull(decodeSliceIndex(addresses.getLong(i)), decodePosition(addresses.getLong(i))) && keyEquals(types, joinChannels, buildPages, addresses.getLong(i), probePage, position)) {
+                        expectedMatch = true;
+                        break;
+                    }
+                }
+                assertEquals(addressIndex != -1, expectedMatch, "probe position " + position);
+                if (addressIndex != -1) {
+                    assertTrue(keyEquals(types, joinChannels, buildPages, addresses.getLong(addressIndex), probePage, position));
+                }
+            }
+        }
+    }
+
+    private static boolean keyEquals(List<Type> types, List<Integer> joinChannels, List<Page> buildPages, long address, Page probePage, int probePosition)
+    {
+        Page buildPage = buildPages.get(decodeSliceIndex(address));
+        int buildPosition = decodePosition(address);
+        for (int key = 0; key < joinChannels.size(); key++) {
+            int channel = joinChannels.get(key);
+            if (!positionEqualsPosition(types.get(channel), buildPage.getBlock(channel), buildPosition, probePage.getBlock(key), probePosition)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.operator.SyntheticAddress.encodeSyntheticAddress;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestRadixPartitionedPagesHash
+{
+    @Test
+    public void testGetRadixBits()
+    {
+        assertEquals(RadixPartitionedPagesHash.getRadixBits(0), 0);
+        assertEquals(RadixPartitionedPagesHash.getRadixBits(10_000), 0);
+        assertEquals(RadixPartitionedPagesHash.getRadixBits(100_000), 2);
+        assertEquals(RadixPartitionedPagesHash.getRadixBits(1_000_000), 5);
+        assertEquals(RadixPartitionedPagesHash.getRadixBits(Integer.MAX_VALUE), 8);
+    }
+
+    @Test
+    public void testLookups()
+    {
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT, BIGINT);
+        RowPagesBuilder build = rowPagesBuilder(types);
+        for (int i = 0; i < 5000; i++) {
+            build.row("key" + (i % 700), (long) i, (long) (i % 3));
+            if (i % 1000 == 999) {
+                build.pageBreak();
+            }
+        }
+        build.row(null, 1L, 1L);
+        List<Page> buildPages = build.build();
+
+        RowPagesBuilder probe = rowPagesBuilder(ImmutableList.of(VARCHAR, BIGINT));
+        for (int i = 0; i < 3000; i++) {
+            probe.row("key" + (i % 1000), (long) (i % 4));
+        }
+        probe.row(null, 1L);
+        List<Page> probePages = probe.build();
+
+        List<Integer> joinChannels = Ints.asList(0, 2);
+        LongArrayList addresses = new LongArrayList();
+        List<List<Block>> channels = new ArrayList<>();
+        for (int channel = 0; channel < types.size(); channel++) {
+            channels.add(new ArrayList<>());
+        }
+        for (int pageIndex = 0; pageIndex < buildPages.size(); pageIndex++) {
+            Page page = buildPages.get(pageIndex);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                addresses.add(encodeSyntheticAddress(pageIndex, position));
+            }
+            for (int channel = 0; channel < types.size(); channel++) {
+                channels.get(channel).add(page.getBlock(channel));
+            }
+        }
+        PagesHashStrategy strategy = new SimplePagesHashStrategy(
+                types,
+                ImmutableList.of(),
+                channels,
+                joinChannels,
+                OptionalInt.empty(),
+                Optional.empty(),
+                createTestMetadataManager());
+
+        IPagesHash defaultHash = new DefaultPagesHash(addresses, strategy, ArrayPositionLinks.builder(addresses.size()));
+        for (int radixBits = 1; radixBits <= 8; radixBits += 3) {
+            IPagesHash radixHash = new RadixPartitionedPagesHash(addresses, strategy, ArrayPositionLinks.builder(addresses.size()), radixBits);
+            for (Page probePage : probePages) {
+                int[] positions = new int[probePage.getPositionCount()];
+                for (int position = 0; position < positions.length; position++) {
+                    positions[position] = position;
+                }
+                assertEquals(radixHash.getAddressIndex(new int[0], probePage).length, 0);
+                int[] batch = radixHash.getAddressIndex(positions, probePage);
+                for (int position = 0; position < positions.length; position++) {
+                    boolean expectedMatch = defaultHash.getAddressIndex(position, probePage) != -1;
+                    assertMatch(strategy, addresses, radixHash.getAddressIndex(position, probePage), expectedMatch, probePage, position);
+                    assertMatch(strategy, addresses, batch[position], expectedMatch, probePage, position);
+                }
+            }
+        }
+    }
+
+    private static void assertMatch(PagesHashStrategy strategy, LongArrayList addresses, int addressIndex, boolean expectedMatch, Page probePage, int position)
+    {
+        assertEquals(addressIndex != -1, expectedMatch, "probe position " + position);
+        if (addressIndex != -1) {
+            long address = addresses.getLong(addressIndex);
+            assertTrue(strategy.positionEqualsRowIgnoreNulls(decodeSliceIndex(address), decodePosition(address), position, probePage));
+        }
+    }
+}
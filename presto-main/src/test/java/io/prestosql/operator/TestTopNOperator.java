@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.prestosql.ExceededMemoryLimitException;
+import io.prestosql.RowPagesBuilder;
 import io.prestosql.operator.TopNOperator.TopNOperatorFactory;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.SortOrder;
@@ -27,11 +28,13 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.LongStream;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
@@ -167,6 +170,38 @@ public class TestTopNOperator
         assertOperatorEqualsWithSimpleStateComparison(operatorFactory, driverContext, input, expected, createExpectedMapping());
     }
 
+    @Test
+    public void testLargeN()
+    {
+        int n = TopNProcessor.BOUNDED_SELECTION_MIN_TOP_N;
+        int rowCount = 3 * n;
+
+        // visit the rows in a scrambled order, with many ties on the first sort key
+        RowPagesBuilder inputBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (int i = 0; i < rowCount; i++) {
+            long value = (i * 7919L) % rowCount;
+            inputBuilder.row(value % 500, value);
+            if (i % 100 == 99) {
+                inputBuilder.pageBreak();
+            }
+        }
+
+        OperatorFactory operatorFactory = topNOperatorFactory(
+                ImmutableList.of(BIGINT, BIGINT),
+                n,
+                ImmutableList.of(0, 1),
+                ImmutableList.of(DESC_NULLS_LAST, ASC_NULLS_LAST));
+
+        MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT);
+        LongStream.range(0, rowCount)
+                .boxed()
+                .sorted(Comparator.<Long>comparingLong(value -> value % 500).reversed().thenComparingLong(value -> value))
+                .limit(n)
+                .forEach(value -> expected.row(value % 500, value));
+
+        assertOperatorEquals(operatorFactory, driverContext, inputBuilder.build(), expected.build());
+    }
+
     private Map<String, Object> createExpectedMapping()
     {
         Map<String, Object> expectedMapping = new HashMap<>();
@@ -181,6 +216,7 @@ public class TestTopNOperator
 
         workProcessorOperatorMapping.put("localUserMemoryContext", 19168L);
         workProcessorOperatorMapping.put("topNBuilder", topNBuilderMapping);
+        workProcessorOperatorMapping.put("boundedTopNBuilder", null);
         workProcessorOperatorMapping.put("outputIterator", false);
 
         topNBuilderMapping.put("groupByHash", 1);
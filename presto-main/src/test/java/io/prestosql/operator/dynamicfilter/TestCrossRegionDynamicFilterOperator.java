@@ -24,7 +24,7 @@ import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeUtils;
 import io.prestosql.spi.type.VarcharType;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.planner.TypeProvider;
 import org.testng.annotations.Test;
 
@@ -187,7 +187,7 @@ public class TestCrossRegionDynamicFilterOperator
 
     private void addBloomFilter(String column, List<String> values, DynamicFilterCacheManager dynamicFilterCacheManager, String queryId)
     {
-        BloomFilter bloomFilter = new BloomFilter(1024 * 1024, 0.005);
+        SplitBlockBloomFilter bloomFilter = new SplitBlockBloomFilter(1024 * 1024, 0.005);
         values.forEach(value -> bloomFilter.add(value.getBytes()));
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         try {
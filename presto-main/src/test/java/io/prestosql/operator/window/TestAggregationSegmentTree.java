@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.window;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.PagesIndex;
+import io.prestosql.operator.aggregation.Accumulator;
+import io.prestosql.operator.aggregation.AccumulatorFactory;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
+import io.prestosql.spi.function.WindowFunction;
+import io.prestosql.spi.function.WindowIndex;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.CURRENT_ROW;
+import static io.prestosql.spi.sql.expression.Types.FrameBoundType.PRECEDING;
+import static io.prestosql.spi.sql.expression.Types.WindowFrameType.ROWS;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestAggregationSegmentTree
+{
+    private static final Metadata metadata = createTestMetadataManager();
+    private static final Signature LONG_SUM_SIGNATURE = new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature());
+    private static final InternalAggregationFunction LONG_SUM = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(LONG_SUM_SIGNATURE);
+
+    @Test
+    public void testAllFrames()
+    {
+        int rowCount = 37;
+        WindowIndex windowIndex = createWindowIndex(rowCount);
+        AccumulatorFactory accumulatorFactory = LONG_SUM.bind(ImmutableList.of(0), Optional.empty());
+        AggregationSegmentTree segmentTree = AggregationSegmentTree.build(accumulatorFactory, windowIndex, ImmutableList.of(0));
+
+        for (int start = 0; start < rowCount; start++) {
+            for (int end = start; end < rowCount; end++) {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                segmentTree.aggregate(accumulator, start, end);
+                BlockBuilder output = BIGINT.createBlockBuilder(null, 1);
+                accumulator.evaluateFinal(output);
+                assertEquals(BIGINT.getLong(output.build(), 0), sum(start, end), "frame [" + start + ", " + end + "]");
+            }
+        }
+    }
+
+    @Test
+    public void testSlidingFrame()
+    {
+        int rowCount = 500;
+        int preceding = 100;
+        WindowIndex windowIndex = createWindowIndex(rowCount);
+        FrameInfo frameInfo = new FrameInfo(ROWS, PRECEDING, Optional.of(1), CURRENT_ROW, Optional.empty());
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        WindowFunction function = AggregateWindowFunction.supplier(LONG_SUM_SIGNATURE, LONG_SUM).createWindowFunction(ImmutableList.of(0), frameInfo, memoryContext);
+
+        function.reset(windowIndex);
+        BlockBuilder output = BIGINT.createBlockBuilder(null, rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            function.processRow(output, row, row, Math.max(0, row - preceding), row);
+        }
+        Block result = output.build();
+        for (int row = 0; row < rowCount; row++) {
+            assertEquals(BIGINT.getLong(result, row), sum(Math.max(0, row - preceding), row), "row " + row);
+        }
+
+        // the segment tree of the partition is accounted until the next partition
+        assertTrue(memoryContext.getBytes() > 0);
+        function.reset(createWindowIndex(1));
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testPartitionOverflow()
+    {
+        // rows 2 and 3 overflow when combined, but every frame below is within range in row order
+        long half = Long.MAX_VALUE / 2 + 1;
+        long[] values = {0, -half, half, half, -half, 0, 0, 0};
+        WindowIndex windowIndex = createWindowIndex(values);
+        AccumulatorFactory accumulatorFactory = LONG_SUM.bind(ImmutableList.of(0), Optional.empty());
+        AggregationSegmentTree segmentTree = AggregationSegmentTree.build(accumulatorFactory, windowIndex, ImmutableList.of(0));
+
+        assertEquals(aggregate(segmentTree, accumulatorFactory, 1, 4), 0);
+        assertEquals(aggregate(segmentTree, accumulatorFactory, 0, 7), 0);
+        assertEquals(aggregate(segmentTree, accumulatorFactory, 1, 2), 0);
+        assertEquals(aggregate(segmentTree, accumulatorFactory, 3, 7), 0);
+    }
+
+    private static long aggregate(AggregationSegmentTree segmentTree, AccumulatorFactory accumulatorFactory, int start, int end)
+    {
+        Accumulator accumulator = accumulatorFactory.createAccumulator();
+        segmentTree.aggregate(accumulator, start, end);
+        BlockBuilder output = BIGINT.createBlockBuilder(null, 1);
+        accumulator.evaluateFinal(output);
+        return BIGINT.getLong(output.build(), 0);
+    }
+
+    private static WindowIndex createWindowIndex(int rowCount)
+    {
+        long[] values = new long[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = value(row);
+        }
+        return createWindowIndex(values);
+    }
+
+    private static WindowIndex createWindowIndex(long[] values)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(ImmutableList.of(BIGINT), values.length);
+        RowPagesBuilder pages = rowPagesBuilder(BIGINT);
+        for (long value : values) {
+            pages.row(value);
+        }
+        pages.build().forEach(pagesIndex::addPage);
+        return new PagesWindowIndex(pagesIndex, 0, values.length);
+    }
+
+    private static long sum(int start, int end)
+    {
+        long sum = 0;
+        for (int row = start; row <= end; row++) {
+            sum += value(row);
+        }
+        return sum;
+    }
+
+    private static long value(int row)
+    {
+        return (row * 31L) % 17 - 8;
+    }
+}
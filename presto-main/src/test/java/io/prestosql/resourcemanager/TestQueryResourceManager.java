@@ -286,7 +286,7 @@ public class TestQueryResourceManager
                 0,
                 new Duration(0, MILLISECONDS),
                 ImmutableMap.of(),
-                Optional.empty(), new DataSize(0, BYTE));
+                Optional.empty(), new DataSize(0, BYTE), 0, ImmutableMap.of());
         TaskStats taskStats = new TaskStats(DateTime.now(),
                 null,
                 null,
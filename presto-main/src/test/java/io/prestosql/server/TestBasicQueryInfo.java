@@ -130,7 +130,8 @@ public class TestBasicQueryInfo
                                 Duration.valueOf("23m"),
                                 Duration.valueOf("23m"),
                                 Duration.valueOf("24m"),
-                                Duration.valueOf("24m")),
+                                Duration.valueOf("24m"),
+                                Duration.valueOf("25m")),
                         Optional.empty(),
                         Optional.empty(),
                         Optional.empty(),
@@ -174,7 +174,8 @@ public class TestQueryStateInfo
                         Duration.valueOf("24m"),
                         Duration.valueOf("24m"),
                         Duration.valueOf("26m"),
-                        Duration.valueOf("26m")),
+                        Duration.valueOf("26m"),
+                        Duration.valueOf("27m")),
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
@@ -29,6 +29,7 @@ import io.airlift.json.JsonModule;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.client.NodeVersion;
+import io.prestosql.dynamicfilter.DynamicFilterService;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.execution.QueryManagerConfig;
@@ -42,6 +43,7 @@ import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.TaskTestUtils;
 import io.prestosql.execution.TestSqlTaskManager;
 import io.prestosql.execution.buffer.OutputBuffers;
+import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.HandleJsonModule;
 import io.prestosql.metadata.HandleResolver;
 import io.prestosql.metadata.InternalNode;
@@ -53,12 +55,14 @@ import io.prestosql.server.FailTaskRequest;
 import io.prestosql.server.HttpRemoteTaskFactory;
 import io.prestosql.server.InternalCommunicationConfig;
 import io.prestosql.server.TaskUpdateRequest;
+import io.prestosql.seedstore.SeedStoreManager;
 import io.prestosql.snapshot.QuerySnapshotManager;
 import io.prestosql.spi.ErrorCode;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.CatalogName;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.type.Type;
+import io.prestosql.statestore.LocalStateStoreProvider;
 import io.prestosql.testing.TestingHandleResolver;
 import io.prestosql.testing.TestingSplit;
 import io.prestosql.type.TypeDeserializer;
@@ -282,7 +286,8 @@ public class TestHttpRemoteTask
                                 taskUpdateRequestSmileCodec,
                                 failTaskRequestCodec,
                                 new RemoteTaskStats(),
-                                new InternalCommunicationConfig());
+                                new InternalCommunicationConfig(),
+                                new DynamicFilterService(new LocalStateStoreProvider(new SeedStoreManager(new FileSystemClientManager()))));
                     }
                 });
         Injector injector = app
@@ -508,7 +513,7 @@ public class TestHttpRemoteTask
                     initialTaskStatus.getFullGcCount(),
                     initialTaskStatus.getFullGcTime(),
                     ImmutableMap.of(),
-                    Optional.empty(), new DataSize(0, DataSize.Unit.BYTE));
+                    Optional.empty(), new DataSize(0, DataSize.Unit.BYTE), 0, ImmutableMap.of());
         }
     }
 }
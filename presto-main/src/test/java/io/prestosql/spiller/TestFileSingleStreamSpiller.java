@@ -24,11 +24,13 @@ import io.hetu.core.filesystem.HetuHdfsFileSystemClient;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.PageAssertions;
+import io.prestosql.operator.SpillContext;
 import io.prestosql.operator.WorkProcessor;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
@@ -40,6 +42,8 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -48,7 +52,9 @@ import java.text.StringCharacterIterator;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -74,6 +80,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestFileSingleStreamSpiller
@@ -159,23 +166,150 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true, true, "hdfs");
     }
 
+    @Test
+    public void testSpillAsyncWrite()
+            throws Exception
+    {
+        SpillerStats spillerStats = new SpillerStats();
+        // a tiny buffer forces every page to be split over several batches
+        AsyncSpillWriter asyncSpillWriter = new AsyncSpillWriter(executor, spillerStats, 64, 2, true);
+        assertSpill(false, false, false, null, false, Optional.of(asyncSpillWriter), spillerStats);
+        assertSpill(true, true, false, null, false, Optional.of(asyncSpillWriter), spillerStats);
+        assertEquals(spillerStats.getQueuedWrites(), 0);
+        assertTrue(spillerStats.getWriteLatency().getAllTime().getCount() > 0);
+        assertTrue(spillerStats.getWriteBatchSizeInBytes().getAllTime().getMax() <= 64);
+    }
+
+    @Test
+    public void testAsyncWriteCloseWhileInterrupted()
+            throws Exception
+    {
+        ListeningExecutorService ioExecutor = listeningDecorator(newFixedThreadPool(1, daemonThreadsNamed("async-spill-writer-%s")));
+        SpillerStats spillerStats = new SpillerStats();
+        AsyncSpillWriter asyncSpillWriter = new AsyncSpillWriter(ioExecutor, spillerStats, 16, 2, false);
+        CountDownLatch blockIo = new CountDownLatch(1);
+        ioExecutor.submit(() -> {
+            blockIo.await();
+            return null;
+        });
+
+        Path file = Files.createTempFile(spillPath.toPath(), "async", ".bin");
+        OutputStream output = asyncSpillWriter.newOutputStream(file);
+        // the 17th byte queues the first batch behind the blocked task
+        output.write(new byte[17]);
+        Thread.currentThread().interrupt();
+        try {
+            output.close();
+            fail("expected close to be interrupted");
+        }
+        catch (InterruptedIOException expected) {
+            assertTrue(Thread.interrupted());
+        }
+        // the queued batch still owns its buffer, so nothing is returned to the pool yet
+        assertEquals(asyncSpillWriter.getPooledBuffers(), 0);
+
+        blockIo.countDown();
+        ioExecutor.shutdown();
+        assertTrue(ioExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(asyncSpillWriter.getPooledBuffers(), 2);
+        assertEquals(spillerStats.getQueuedWrites(), 0);
+        // the abandoned batch is not written
+        assertEquals(Files.size(file), 0);
+    }
+
+    @Test
+    public void testSpillMmapRead()
+            throws Exception
+    {
+        assertSpill(false, false, false, null, true, Optional.empty(), new SpillerStats());
+        assertSpill(true, false, false, null, true, Optional.empty(), new SpillerStats());
+        assertSpill(true, true, false, null, true, Optional.empty(), new SpillerStats());
+    }
+
+    @Test
+    public void testSpillAdaptiveCompression()
+            throws Exception
+    {
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor,
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                spillerStats,
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                true,
+                true,
+                false,
+                1,
+                false,
+                false,
+                null,
+                fileSystemClientManager,
+                new SpillPathTiers(ImmutableList.of(spillPath.toPath())),
+                false,
+                true,
+                Optional.empty());
+        List<PageCompressionCodec> codecs = new ArrayList<>();
+        SpillContext spillContext = new SpillContext()
+        {
+            @Override
+            public void updateBytes(long bytes) {}
+
+            @Override
+            public void updateCompressionCodec(PageCompressionCodec codec)
+            {
+                codecs.add(codec);
+            }
+        };
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, spillContext, memoryContext, false, false, "queryId", false);
+
+        Page page = buildPage();
+        // the codec is selected once the first pages have been sampled, and only reported once
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+        assertEquals(codecs.size(), 0);
+        spiller.spill(Iterators.forArray(page, page)).get();
+        spiller.spill(page).get();
+        assertEquals(codecs.size(), 1);
+        assertEquals(spillerStats.getUncompressedSpills() + spillerStats.getLz4CompressedSpills() + spillerStats.getZstdCompressedSpills(), 1);
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), 6);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+        spiller.close();
+    }
+
     private void assertSpill(boolean compression, boolean encryption, boolean spillToHdfs, String spillProfile)
             throws Exception
+    {
+        assertSpill(compression, encryption, spillToHdfs, spillProfile, false, Optional.empty(), new SpillerStats());
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, boolean spillToHdfs, String spillProfile, boolean mmapRead, Optional<AsyncSpillWriter> asyncSpillWriter, SpillerStats spillerStats)
+            throws Exception
     {
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
                 executor, // executor won't be closed, because we don't call destroy() on the spiller factory
                 createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
-                new SpillerStats(),
+                spillerStats,
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
                 encryption,
                 false,
                 1,
+                false,
                 spillToHdfs,
                 spillProfile,
-                fileSystemClientManager);
+                fileSystemClientManager,
+                new SpillPathTiers(ImmutableList.of(spillPath.toPath())),
+                mmapRead,
+                false,
+                asyncSpillWriter);
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        long expectedReservation = FileSingleStreamSpiller.BUFFER_SIZE + asyncSpillWriter.map(AsyncSpillWriter::getRetainedBytesPerStream).orElse(0);
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext, false, false, "queryId", spillToHdfs, spillPath.toPath());
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
         FileSingleStreamSpiller spiller = (FileSingleStreamSpiller) singleStreamSpiller;
@@ -183,7 +317,7 @@ public class TestFileSingleStreamSpiller
         Page page = buildPage();
 
         // The spillers will reserve memory in their constructors
-        assertEquals(memoryContext.getBytes(), 4096);
+        assertEquals(memoryContext.getBytes(), expectedReservation);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
         Path finalSpillPath = spillToHdfs ? Paths.get(spillerFactory.getSpillPaths().get(0).toString(), "queryId") : spillPath.toPath();
@@ -202,7 +336,8 @@ public class TestFileSingleStreamSpiller
         // they will have non-zero memory reservation.
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        // a mapped spill file is backed by the page cache and is not reserved
+        assertEquals(memoryContext.getBytes(), expectedReservation);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -37,7 +37,15 @@ public class TestNodeSpillConfig
                 .setSpillEncryptionEnabled(false)
                 .setSpillDirectSerdeEnabled(false)
                 .setSpillPrefetchReadPages(1)
-                .setSpillUseKryoSerialization(false));
+                .setSpillUseKryoSerialization(false)
+                .setSpillAsyncWriteEnabled(false)
+                .setSpillWriteBufferSize(new DataSize(1, MEGABYTE))
+                .setSpillIoThreads(2)
+                .setSpillWriteSyncEnabled(false)
+                .setSpillMmapReadEnabled(false)
+                .setSpillPathTiers("")
+                .setSpillPathBandwidths("")
+                .setSpillAdaptiveCompressionEnabled(false));
     }
 
     @Test
@@ -51,6 +59,14 @@ public class TestNodeSpillConfig
                 .put("experimental.spill-direct-serde-enabled", "true")
                 .put("experimental.spill-prefetch-read-pages", "25")
                 .put("experimental.spill-use-kryo-serialization", "true")
+                .put("experimental.spill-async-write-enabled", "true")
+                .put("experimental.spill-write-buffer-size", "4MB")
+                .put("experimental.spill-io-threads", "8")
+                .put("experimental.spill-write-sync-enabled", "true")
+                .put("experimental.spill-mmap-read-enabled", "true")
+                .put("experimental.spill-path-tiers", "/mnt/nvme/spill=0, /mnt/hdd/spill=1")
+                .put("experimental.spill-path-bandwidths", "/mnt/nvme/spill=2GB,/mnt/hdd/spill=200MB")
+                .put("experimental.spill-adaptive-compression-enabled", "true")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
@@ -60,7 +76,15 @@ public class TestNodeSpillConfig
                 .setSpillEncryptionEnabled(true)
                 .setSpillDirectSerdeEnabled(true)
                 .setSpillPrefetchReadPages(25)
-                .setSpillUseKryoSerialization(true);
+                .setSpillUseKryoSerialization(true)
+                .setSpillAsyncWriteEnabled(true)
+                .setSpillWriteBufferSize(new DataSize(4, MEGABYTE))
+                .setSpillIoThreads(8)
+                .setSpillWriteSyncEnabled(true)
+                .setSpillMmapReadEnabled(true)
+                .setSpillPathTiers("/mnt/nvme/spill=0,/mnt/hdd/spill=1")
+                .setSpillPathBandwidths("/mnt/nvme/spill=2GB,/mnt/hdd/spill=200MB")
+                .setSpillAdaptiveCompressionEnabled(true);
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestSpillPathTiers
+{
+    private static final Path NVME_1 = Paths.get("/nvme1/spill");
+    private static final Path NVME_2 = Paths.get("/nvme2/spill");
+    private static final Path HDD = Paths.get("/hdd/spill");
+
+    @Test
+    public void testRoundRobinWithoutTiers()
+    {
+        SpillPathTiers tiers = new SpillPathTiers(ImmutableList.of(NVME_1, NVME_2));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_2));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_2));
+        assertEquals(tiers.getOpenSpills(), ImmutableMap.of(0, 4L));
+    }
+
+    @Test
+    public void testRoundRobinIgnoresOpenSpillsWithoutTiers()
+    {
+        SpillPathTiers tiers = new SpillPathTiers(ImmutableList.of(NVME_1, NVME_2));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_2));
+        tiers.spillClosed(NVME_2, 0);
+        // NVME_2 has fewer open spill files, but it is not its turn
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        // a path without headroom is skipped and the turn moves past the chosen path
+        assertEquals(tiers.reserveNextPath(path -> !path.equals(NVME_2)), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_2));
+        assertEquals(tiers.getOpenSpills(), ImmutableMap.of(0, 4L));
+    }
+
+    @Test
+    public void testPrefersFastestTierWithHeadroom()
+    {
+        SpillPathTiers tiers = new SpillPathTiers(ImmutableList.of(HDD, NVME_1), ImmutableMap.of(NVME_1, 0, HDD, 1), ImmutableMap.of());
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> true), Optional.of(NVME_1));
+        assertEquals(tiers.reserveNextPath(path -> !path.equals(NVME_1)), Optional.of(HDD));
+        assertEquals(tiers.reserveNextPath(path -> false), Optional.empty());
+        assertEquals(tiers.getOpenSpills(), ImmutableMap.of(0, 2L, 1, 1L));
+
+        tiers.recordWrite(NVME_1, 1000, 1, SECONDS);
+        tiers.recordWrite(HDD, 100, 1, SECONDS);
+        assertEquals(tiers.getBytesOnDisk(), ImmutableMap.of(0, 1000L, 1, 100L));
+        assertEquals(tiers.getWriteThroughput(), ImmutableMap.of(0, 1000L, 1, 100L));
+
+        tiers.spillClosed(NVME_1, 1000);
+        tiers.spillClosed(HDD, 100);
+        assertEquals(tiers.getOpenSpills(), ImmutableMap.of(0, 1L, 1, 0L));
+        assertEquals(tiers.getBytesOnDisk(), ImmutableMap.of(0, 0L, 1, 0L));
+        assertEquals(tiers.getBytesWritten(), ImmutableMap.of(0, 1000L, 1, 100L));
+    }
+
+    @Test
+    public void testBalancesByBandwidthWithinTier()
+    {
+        SpillPathTiers tiers = new SpillPathTiers(
+                ImmutableList.of(NVME_1, NVME_2),
+                ImmutableMap.of(),
+                ImmutableMap.of(NVME_1, new DataSize(300, MEGABYTE), NVME_2, new DataSize(100, MEGABYTE)));
+        int[] counts = new int[2];
+        for (int i = 0; i < 8; i++) {
+            Path path = tiers.reserveNextPath(candidate -> true).get();
+            counts[path.equals(NVME_1) ? 0 : 1]++;
+        }
+        assertEquals(counts[0], 6);
+        assertEquals(counts[1], 2);
+    }
+}
@@ -67,6 +67,8 @@ public class TestFeaturesConfig
                 .setDynamicScheduleForGroupedExecutionEnabled(false)
                 .setConcurrentLifespansPerTask(0)
                 .setFastInequalityJoins(true)
+                .setJoinRadixPartitioningEnabled(false)
+                .setMultiLookupJoinEnabled(false)
                 .setColocatedJoinsEnabled(false)
                 .setSpatialJoinsEnabled(true)
                 .setJoinReorderingStrategy(JoinReorderingStrategy.AUTOMATIC)
@@ -155,6 +157,7 @@ public class TestFeaturesConfig
                 .setLegacyMapSubscript(false)
                 .setListBuiltInFunctionsOnly(true)
                 .setSortBasedAggregationEnabled(false)
+                .setMergeJoinEnabled(false)
                 .setPrcntDriversForPartialAggr(5)
                 .setSkipAttachingStatsWithPlan(true)
                 .setSkipNonApplicableRulesEnabled(false)
@@ -163,6 +166,7 @@ public class TestFeaturesConfig
                 .setAdaptivePartialAggregationEnabled(true)
                 .setAdaptivePartialAggregationMinRows(100_000)
                 .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.8)
+                .setAdaptivePartialAggregationHeavyHittersEnabled(false)
                 .setFilterConjunctionIndependenceFactor(0.75)
                 .setJoinMultiClauseIndependenceFactor(0.25)
                 .setTransformSelfJoinToWindow(true)
@@ -193,6 +197,8 @@ public class TestFeaturesConfig
                 .put("dynamic-schedule-for-grouped-execution", "true")
                 .put("concurrent-lifespans-per-task", "1")
                 .put("fast-inequality-joins", "false")
+                .put("join-radix-partitioning-enabled", "true")
+                .put("multi-lookup-join-enabled", "true")
                 .put("colocated-joins-enabled", "true")
                 .put("spatial-joins-enabled", "false")
                 .put("optimizer.join-reordering-strategy", "NONE")
@@ -275,6 +281,7 @@ public class TestFeaturesConfig
                 .put("deprecated.legacy-map-subscript", "true")
                 .put("list-built-in-functions-only", "false")
                 .put("optimizer.sort-based-aggregation-enabled", "true")
+                .put("optimizer.merge-join-enabled", "true")
                 .put("sort.prcnt-drivers-for-partial-aggr", "55")
                 .put("optimizer.skip-attaching-stats-with-plan", "false")
                 .put("optimizer.skip-non-applicable-rules-enabled", "true")
@@ -283,6 +290,7 @@ public class TestFeaturesConfig
                 .put("adaptive-partial-aggregation.enabled", "false")
                 .put("adaptive-partial-aggregation.min-rows", "1")
                 .put("adaptive-partial-aggregation.unique-rows-ratio-threshold", "0.99")
+                .put("adaptive-partial-aggregation.heavy-hitters-enabled", "true")
                 .put("optimizer.filter-conjunction-independence-factor", "0.99")
                 .put("optimizer.join-multi-clause-independence-factor", "0.99")
                 .put("optimizer.transform-self-join-to-window", "false")
@@ -309,6 +317,8 @@ public class TestFeaturesConfig
                 .setDynamicScheduleForGroupedExecutionEnabled(true)
                 .setConcurrentLifespansPerTask(1)
                 .setFastInequalityJoins(false)
+                .setJoinRadixPartitioningEnabled(true)
+                .setMultiLookupJoinEnabled(true)
                 .setColocatedJoinsEnabled(true)
                 .setSpatialJoinsEnabled(false)
                 .setJoinReorderingStrategy(NONE)
@@ -393,6 +403,7 @@ public class TestFeaturesConfig
                 .setLegacyMapSubscript(true)
                 .setListBuiltInFunctionsOnly(false)
                 .setSortBasedAggregationEnabled(true)
+                .setMergeJoinEnabled(true)
                 .setPrcntDriversForPartialAggr(55)
                 .setSkipAttachingStatsWithPlan(false)
                 .setSkipNonApplicableRulesEnabled(true)
@@ -401,6 +412,7 @@ public class TestFeaturesConfig
                 .setAdaptivePartialAggregationEnabled(false)
                 .setAdaptivePartialAggregationMinRows(1)
                 .setAdaptivePartialAggregationUniqueRowsRatioThreshold(0.99)
+                .setAdaptivePartialAggregationHeavyHittersEnabled(true)
                 .setFilterConjunctionIndependenceFactor(0.99)
                 .setJoinMultiClauseIndependenceFactor(0.99)
                 .setTransformSelfJoinToWindow(false)
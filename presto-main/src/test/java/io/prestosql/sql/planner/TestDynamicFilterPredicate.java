@@ -21,6 +21,8 @@ import io.prestosql.Session;
 import io.prestosql.dynamicfilter.DynamicFilterCacheManager;
 import io.prestosql.dynamicfilter.DynamicFilterListener;
 import io.prestosql.dynamicfilter.DynamicFilterService;
+import io.prestosql.dynamicfilter.SerializedDynamicFilter;
+import io.prestosql.execution.TaskId;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.ColumnHandle;
@@ -31,7 +33,6 @@ import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.relation.VariableReferenceExpression;
 import io.prestosql.spi.statestore.StateMap;
-import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.statestore.MockStateMap;
@@ -42,7 +43,6 @@ import io.prestosql.utils.DynamicFilterUtils;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,6 +59,7 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
 import static io.prestosql.utils.DynamicFilterUtils.MERGED_DYNAMIC_FILTERS;
 import static io.prestosql.utils.DynamicFilterUtils.createKey;
+import static io.prestosql.utils.TestDynamicFilterUtil.createTaskId;
 import static io.prestosql.utils.TestDynamicFilterUtil.registerDf;
 import static io.prestosql.utils.TestDynamicFilterUtil.setupMockStateStore;
 import static org.mockito.Matchers.any;
@@ -92,7 +93,6 @@ public class TestDynamicFilterPredicate
         when(stateStoreProvider.getStateStore()).thenReturn(stateStore);
 
         dynamicFilterService = new DynamicFilterService(stateStoreProvider);
-        dynamicFilterService.start();
     }
 
     @Test
@@ -168,10 +168,9 @@ public class TestDynamicFilterPredicate
                 ImmutableMap.of(new Symbol("name"), mockColumnHandle));
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set when dynamic filters are not available");
 
-        mockLocalDynamicFilterHashSet("task1.0", filterId, session.getQueryId().toString(), Arrays.asList(11L, 12L, 13L, 14L));
-        mockLocalDynamicFilterHashSet("task1.1", filterId, session.getQueryId().toString(), Arrays.asList(15L, 16L, 17L, 18L));
+        mockLocalDynamicFilterHashSet(createTaskId(session, 0), filterId, ImmutableSet.of(11L, 12L, 13L, 14L));
+        mockLocalDynamicFilterHashSet(createTaskId(session, 1), filterId, ImmutableSet.of(15L, 16L, 17L, 18L));
 
-        Thread.sleep(2000);
         Set hs = fetchDynamicFilterHashSet(filterId, session.getQueryId().toString());
         for (long i = 11; i < 19; i++) {
             Assert.assertEquals(true, hs.contains(i));
@@ -195,12 +194,10 @@ public class TestDynamicFilterPredicate
         assertTrue(dynamicFilterSupplier.get().isEmpty(), "should return empty dynamic filter set for invalid or non-existing queryId");
 
         String queryId = session.getQueryId().getId();
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 2);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 2);
         dynamicFilterService.clearDynamicFiltersForQuery(queryId);
         Thread.sleep(1000);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId)).size(), 0);
-        assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 0);
+        assertNull(((StateMap) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS))
+                .get(createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId)));
 
         assertTrue(hsDF.hasMinMaxStats());
         assertEquals(hsDF.getMax(), 18L);
@@ -216,22 +213,8 @@ public class TestDynamicFilterPredicate
         return hashSet;
     }
 
-    private void mockLocalDynamicFilterHashSet(String taskId, String filterId, String queryId, List<Long> values)
+    private void mockLocalDynamicFilterHashSet(TaskId taskId, String filterId, Set<Long> values)
     {
-        HashSet filter = new HashSet();
-        for (Long val : values) {
-            filter.add(val);
-        }
-
-        String key = DynamicFilterUtils.createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId);
-
-        try {
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(key)).add(filter);
-            ((StateSet) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId))).add(taskId);
-        }
-
-        catch (Exception e) {
-            Assert.fail("could not register finish filter, Exception happened:" + e.getMessage());
-        }
+        dynamicFilterService.addTaskDynamicFilters(taskId, ImmutableMap.of(filterId, SerializedDynamicFilter.fromValues(BIGINT, values)));
     }
 }
@@ -64,8 +64,8 @@ public class TestDynamicFilterUtil
         when(node.getLeft()).thenReturn(leftNode);
 
         HashSet<TaskId> tasks = new HashSet<>();
-        tasks.add(new TaskId("task1.0"));
-        tasks.add(new TaskId("task1.1"));
+        tasks.add(createTaskId(session, 0));
+        tasks.add(createTaskId(session, 1));
         StageStateMachine stateMachine = mock(StageStateMachine.class);
 
         when(stateMachine.getSession()).thenReturn(session);
@@ -82,6 +82,14 @@ public class TestDynamicFilterUtil
         dynamicFilterService.registerTasks(node, tasks, workers, stateMachine);
     }
 
+    /**
+     * Ids of the build side tasks registered by {@link #registerDf}
+     */
+    public static TaskId createTaskId(Session session, int id)
+    {
+        return new TaskId(session.getQueryId().getId(), 1, id, 0);
+    }
+
     public static StateStore setupMockStateStore(Map mergeMap, Map<String, String> dfTypeMap, Set<String> tasks, Set partial, String queryId, String filterId)
     {
         StateMap mockMergeMap = mock(StateMap.class);
@@ -96,6 +104,7 @@ public class TestDynamicFilterUtil
         when(mockPartialSet.add(any())).thenAnswer(i -> partial.add(i.getArguments()[0]));
 
         when(mockMergeMap.get(anyString())).thenAnswer(i -> mergeMap.get(i.getArguments()[0]));
+        when(mockMergeMap.remove(anyString())).thenAnswer(i -> mergeMap.remove(i.getArguments()[0]));
         when(mockDFTypeMap.get(anyString())).thenAnswer(i -> dfTypeMap.get(i.getArguments()[0]));
 
         when(mockMergeMap.getAll()).thenReturn(mergeMap);
@@ -25,12 +25,17 @@ import io.prestosql.spi.connector.ConnectorTransactionHandle;
 import io.prestosql.spi.connector.FixedPageSource;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.TypeUtils;
 
 import javax.inject.Inject;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -80,7 +85,10 @@ public final class MemoryPageSourceProvider
         OptionalDouble sampleRatio = memoryTable.getSampleRatio();
 
         TupleDomain<ColumnHandle> predicate = memoryTable.getPredicate();
-        // Commenting for Dynamic filter changes
+        if (dynamicFilterSupplier.isPresent()) {
+            // lets the zone maps of the logical part skip pages outside the dynamic filter ranges
+            predicate = predicate.intersect(getDynamicFilterRanges(dynamicFilterSupplier.get()));
+        }
 
         List<Integer> columnIndexes = columns.stream()
                 .map(MemoryColumnHandle.class::cast)
@@ -104,6 +112,29 @@ public final class MemoryPageSourceProvider
         }
     }
 
+    /**
+     * Min/max ranges of the dynamic filters. Only a single filter group is turned into ranges,
+     * the ranges of several groups would have to be ORed together.
+     */
+    private TupleDomain<ColumnHandle> getDynamicFilterRanges(DynamicFilterSupplier dynamicFilterSupplier)
+    {
+        List<Map<ColumnHandle, DynamicFilter>> dynamicFilters = dynamicFilterSupplier.getDynamicFilters();
+        if (dynamicFilters.size() != 1) {
+            return TupleDomain.all();
+        }
+        Map<ColumnHandle, Domain> domains = new HashMap<>();
+        for (Map.Entry<ColumnHandle, DynamicFilter> entry : dynamicFilters.get(0).entrySet()) {
+            DynamicFilter dynamicFilter = entry.getValue();
+            Type type = ((MemoryColumnHandle) entry.getKey()).getType(typeManager);
+            if (!dynamicFilter.hasMinMaxStats() || type.getJavaType() != long.class
+                    || !(dynamicFilter.getMin() instanceof Long) || !(dynamicFilter.getMax() instanceof Long)) {
+                continue;
+            }
+            domains.put(entry.getKey(), Domain.create(ValueSet.ofRanges(Range.range(type, dynamicFilter.getMin(), true, dynamicFilter.getMax(), true)), false));
+        }
+        return TupleDomain.withColumnDomains(domains);
+    }
+
     private Page applyFilter(Page page, Optional<DynamicFilterSupplier> dynamicFilters, List<ColumnHandle> columns)
     {
         if (!dynamicFilters.isPresent()) {
@@ -32,6 +32,9 @@ import io.prestosql.plugin.memory.SortingColumn;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageSorter;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.LazyBlock;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.Domain;
@@ -39,10 +42,12 @@ import io.prestosql.spi.predicate.Marker;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.SortedRangeSet;
 import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.spi.type.TypeUtils;
+import io.prestosql.spi.type.VarcharType;
 import io.prestosql.spi.util.BloomFilter;
 
 import java.io.IOException;
@@ -51,6 +56,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.AbstractMap;
@@ -58,6 +64,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -128,6 +135,13 @@ public class LogicalPart
     private final TreeMap<Comparable, SparseValue> sparseIdx = new TreeMap<>();
     private final Map<Integer, BloomFilter> bloomIdx = new HashMap<>();
     private final Map<Integer, Map.Entry<Comparable, Comparable>> minMaxIdx = new HashMap<>();
+    // zone maps: min and max of each page of the index columns, null for pages without non-null values
+    // not final, they are missing from LogicalParts serialized before they were added
+    private Map<Integer, List<Map.Entry<Comparable, Comparable>>> pageMinMaxIdx = new HashMap<>();
+
+    // pages are written to disk one file per column, so that a scan only loads the columns it reads
+    private boolean columnarPageFiles;
+    private List<Integer> pagePositionCounts = new ArrayList<>();
 
     private transient Path tableDataRoot;
     private transient PagesSerde pagesSerde;
@@ -136,6 +150,8 @@ public class LogicalPart
     private transient List<Type> types;
     // Using majority of memory and disk space. Serialized and deserialized separately. Only loaded when used.
     private transient List<Page> pages;
+    // columns loaded from columnar page files, by channel
+    private transient Map<Integer, List<Block>> loadedColumns = new HashMap<>();
 
     public LogicalPart(
             List<MemoryColumnHandle> columns,
@@ -156,6 +172,7 @@ public class LogicalPart
         this.maxLogicalPartBytes = maxLogicalPartBytes;
         this.maxPageSizeBytes = maxPageSizeBytes;
         this.compressionEnabled = compressionEnabled;
+        this.columnarPageFiles = true;
         this.pagesSerde = requireNonNull(pagesSerde, "pagesSerde is null");
         this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
         requireNonNull(columns, "columns is null");
@@ -230,9 +247,10 @@ public class LogicalPart
         return pages != null;
     }
 
-    void unloadPages()
+    synchronized void unloadPages()
     {
         pages = null;
+        loadedColumns.clear();
     }
 
     void finishAdding()
@@ -242,6 +260,9 @@ public class LogicalPart
 
     List<Page> getPages()
     {
+        if (!pageInMemory() && columnarPageFiles) {
+            return getLazyPages();
+        }
         if (!pageInMemory()) {
             try {
                 readPages();
@@ -278,10 +299,15 @@ public class LogicalPart
             return getPages();
         }
 
+        if (predicate.isNone()) {
+            return Collections.emptyList();
+        }
+
         // determine which columns in the predicate can utilize indexes
         Map<Integer, List<Range>> minmaxChannelsToRangesMap = new HashMap<>();
         Map<Integer, List<Range>> bloomChannelsToRangesMap = new HashMap<>();
         Map<Integer, List<Range>> sparseChannelsToRangesMap = new HashMap<>();
+        Map<Integer, List<Range>> pageMinMaxChannelsToRangesMap = new HashMap<>();
         for (Map.Entry<ColumnHandle, Domain> e : predicate.getDomains().orElse(Collections.emptyMap()).entrySet()) {
             int expressionColumnIndex = ((MemoryColumnHandle) e.getKey()).getColumnIndex();
             List<Range> ranges = ((SortedRangeSet) e.getValue().getValues()).getOrderedRanges();
@@ -295,6 +321,11 @@ public class LogicalPart
                 minmaxChannelsToRangesMap.put(expressionColumnIndex, ranges);
             }
 
+            // zone maps only cover non-null values, pages with nulls can match a domain that allows null
+            if (pageMinMaxIdx.containsKey(expressionColumnIndex) && !e.getValue().isNullAllowed()) {
+                pageMinMaxChannelsToRangesMap.put(expressionColumnIndex, ranges);
+            }
+
             if (bloomIdx.containsKey(expressionColumnIndex)) {
                 bloomChannelsToRangesMap.put(expressionColumnIndex, ranges);
             }
@@ -305,11 +336,11 @@ public class LogicalPart
         }
 
         // no index to help with filtering
-        if (minmaxChannelsToRangesMap.isEmpty() && bloomChannelsToRangesMap.isEmpty() && sparseChannelsToRangesMap.isEmpty()) {
+        if (minmaxChannelsToRangesMap.isEmpty() && bloomChannelsToRangesMap.isEmpty() && sparseChannelsToRangesMap.isEmpty() && pageMinMaxChannelsToRangesMap.isEmpty()) {
             return getPages();
         }
 
-        return getPages(minmaxChannelsToRangesMap, bloomChannelsToRangesMap, sparseChannelsToRangesMap);
+        return getPages(minmaxChannelsToRangesMap, bloomChannelsToRangesMap, sparseChannelsToRangesMap, pageMinMaxChannelsToRangesMap);
     }
 
     /**
@@ -325,6 +356,19 @@ public class LogicalPart
             Map<Integer, List<Range>> minmaxChannelsToRangesMap,
             Map<Integer, List<Range>> bloomChannelsToRangesMap,
             Map<Integer, List<Range>> sparseChannelsToRangesMap)
+    {
+        return getPages(minmaxChannelsToRangesMap, bloomChannelsToRangesMap, sparseChannelsToRangesMap, Collections.emptyMap());
+    }
+
+    /**
+     * Applies the provided indexes, then skips the pages whose zone maps show that they can't match
+     * the ranges in pageMinMaxChannelsToRangesMap.
+     */
+    List<Page> getPages(
+            Map<Integer, List<Range>> minmaxChannelsToRangesMap,
+            Map<Integer, List<Range>> bloomChannelsToRangesMap,
+            Map<Integer, List<Range>> sparseChannelsToRangesMap,
+            Map<Integer, List<Range>> pageMinMaxChannelsToRangesMap)
     {
         // minmax index
         // if any column has no range match, the whole logipart can be filtered since it is assumed all column
@@ -568,14 +612,83 @@ public class LogicalPart
                 }
             }
 
+            List<Page> allPages = getPages();
             List<Page> resultPageList = new ArrayList<>();
             for (Integer idx : result) {
-                resultPageList.add(getPages().get(idx));
+                if (pageMayMatch(idx, pageMinMaxChannelsToRangesMap)) {
+                    resultPageList.add(allPages.get(idx));
+                }
             }
             return resultPageList;
         }
 
-        return getPages();
+        if (pageMinMaxChannelsToRangesMap.isEmpty()) {
+            return getPages();
+        }
+
+        List<Page> allPages = getPages();
+        List<Page> resultPageList = new ArrayList<>();
+        for (int i = 0; i < allPages.size(); i++) {
+            if (pageMayMatch(i, pageMinMaxChannelsToRangesMap)) {
+                resultPageList.add(allPages.get(i));
+            }
+        }
+        return resultPageList;
+    }
+
+    /**
+     * Checks the zone maps of a page. Like the minmax index, the ranges of a column are ORed together
+     * and the columns are ANDed together.
+     */
+    private boolean pageMayMatch(int pageIndex, Map<Integer, List<Range>> pageMinMaxChannelsToRangesMap)
+    {
+        for (Map.Entry<Integer, List<Range>> e : pageMinMaxChannelsToRangesMap.entrySet()) {
+            List<Map.Entry<Comparable, Comparable>> zoneMaps = pageMinMaxIdx.get(e.getKey());
+            if (zoneMaps == null || pageIndex >= zoneMaps.size()) {
+                continue;
+            }
+            Map.Entry<Comparable, Comparable> zoneMap = zoneMaps.get(pageIndex);
+            if (zoneMap == null) {
+                // only nulls in this page, and the domain doesn't allow null
+                return false;
+            }
+            boolean overlaps = false;
+            for (Range range : e.getValue()) {
+                if (rangeOverlaps(range, zoneMap.getKey(), zoneMap.getValue())) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean rangeOverlaps(Range range, Comparable min, Comparable max)
+    {
+        if (!range.getLow().isLowerUnbounded()) {
+            Object low = getNativeValue(range.getLow().getValue());
+            if (!(low instanceof Comparable)) {
+                return true;
+            }
+            int comp = ((Comparable) low).compareTo(max);
+            if (comp > 0 || (comp == 0 && range.getLow().getBound() == Marker.Bound.ABOVE)) {
+                return false;
+            }
+        }
+        if (!range.getHigh().isUpperUnbounded()) {
+            Object high = getNativeValue(range.getHigh().getValue());
+            if (!(high instanceof Comparable)) {
+                return true;
+            }
+            int comp = ((Comparable) high).compareTo(min);
+            if (comp < 0 || (comp == 0 && range.getHigh().getBound() == Marker.Bound.BELOW)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private Integer getLowerPageIndex(Comparable lowestInDom, Comparable lowBound, boolean includeLowBound, Comparable highBound, boolean includeHighBound)
@@ -705,16 +818,31 @@ public class LogicalPart
             this.pages = sortedPages;
         }
 
-        // create bloom index on index columns
+        // create bloom index and page zone maps on index columns
         for (Integer indexChannel : indexChannels) {
             Set<Object> values = new HashSet<>();
+            List<Map.Entry<Comparable, Comparable>> zoneMaps = new ArrayList<>();
+            boolean comparable = true;
             for (Page page : getPages()) {
+                Comparable pageMin = null;
+                Comparable pageMax = null;
                 for (int i = 0; i < page.getPositionCount(); i++) {
                     Object value = getNativeValue(types.get(indexChannel), page.getBlock(indexChannel), i);
                     if (value != null) {
                         values.add(value);
+                        if (value instanceof Comparable) {
+                            pageMin = min(pageMin, (Comparable) value);
+                            pageMax = max(pageMax, (Comparable) value);
+                        }
+                        else {
+                            comparable = false;
+                        }
                     }
                 }
+                zoneMaps.add(pageMin == null ? null : new AbstractMap.SimpleEntry<>(pageMin, pageMax));
+            }
+            if (comparable) {
+                pageMinMaxIdx.put(indexChannel, zoneMaps);
             }
 
             BloomFilter filter = values.size() == 0 ? null : new BloomFilter(values.size(), 0.05);
@@ -753,6 +881,8 @@ public class LogicalPart
             bloomIdx.put(indexChannel, filter);
         }
 
+        dictionaryEncodePages();
+
         try {
             writePages();
         }
@@ -767,6 +897,136 @@ public class LogicalPart
         return "logicalPartNumber" + logicalPartNum;
     }
 
+    private String getColumnFileName(int channel)
+    {
+        return getPageFileName() + "_" + channel;
+    }
+
+    /**
+     * Replaces the blocks of character columns that repeat values with dictionary blocks, when that makes them smaller.
+     */
+    private void dictionaryEncodePages()
+    {
+        List<Integer> dictionaryChannels = new ArrayList<>();
+        for (int channel = 0; channel < types.size(); channel++) {
+            if (types.get(channel) instanceof VarcharType || types.get(channel) instanceof CharType) {
+                dictionaryChannels.add(channel);
+            }
+        }
+        if (dictionaryChannels.isEmpty()) {
+            return;
+        }
+
+        long newByteSize = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = page.getBlock(channel);
+            }
+            for (int channel : dictionaryChannels) {
+                blocks[channel] = dictionaryEncode(types.get(channel), blocks[channel]);
+            }
+            Page encodedPage = new Page(page.getPositionCount(), blocks);
+            pages.set(i, encodedPage);
+            newByteSize += encodedPage.getSizeInBytes();
+        }
+        this.byteSize = newByteSize;
+    }
+
+    @VisibleForTesting
+    static Block dictionaryEncode(Type type, Block block)
+    {
+        if (block instanceof DictionaryBlock) {
+            return block;
+        }
+
+        int positionCount = block.getPositionCount();
+        Map<Slice, Integer> valueIds = new HashMap<>();
+        BlockBuilder dictionary = type.createBlockBuilder(null, positionCount / 2 + 1);
+        int[] ids = new int[positionCount];
+        int nullId = -1;
+        for (int position = 0; position < positionCount; position++) {
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    nullId = dictionary.getPositionCount();
+                    dictionary.appendNull();
+                }
+                ids[position] = nullId;
+                continue;
+            }
+            Slice value = type.getSlice(block, position);
+            Integer id = valueIds.get(value);
+            if (id == null) {
+                if (valueIds.size() >= positionCount / 2) {
+                    // too many distinct values for a dictionary to pay off
+                    return block;
+                }
+                id = dictionary.getPositionCount();
+                valueIds.put(value, id);
+                type.appendTo(block, position, dictionary);
+            }
+            ids[position] = id;
+        }
+
+        // copied so that the dictionary doesn't retain the unused capacity of the builder
+        Block dictionaryValues = dictionary.build();
+        dictionaryValues = dictionaryValues.copyRegion(0, dictionaryValues.getPositionCount());
+        Block dictionaryBlock = new DictionaryBlock(positionCount, dictionaryValues, ids);
+        return dictionaryBlock.getRetainedSizeInBytes() < block.getRetainedSizeInBytes() ? dictionaryBlock : block;
+    }
+
+    /**
+     * Pages backed by the columnar page files. The blocks are lazy, so only the columns that are read get loaded.
+     */
+    private List<Page> getLazyPages()
+    {
+        List<Page> lazyPages = new ArrayList<>(pagePositionCounts.size());
+        for (int pageIndex = 0; pageIndex < pagePositionCounts.size(); pageIndex++) {
+            int positionCount = pagePositionCounts.get(pageIndex);
+            Block[] blocks = new Block[types.size()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                int blockChannel = channel;
+                int blockPage = pageIndex;
+                blocks[channel] = new LazyBlock(positionCount, lazyBlock -> lazyBlock.setBlock(getColumn(blockChannel).get(blockPage)));
+            }
+            lazyPages.add(new Page(positionCount, blocks));
+        }
+        return lazyPages;
+    }
+
+    private synchronized List<Block> getColumn(int channel)
+    {
+        List<Block> column = loadedColumns.get(channel);
+        if (column == null) {
+            try {
+                column = readColumn(channel);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to load column " + channel + " of " + getPageFileName(), e);
+            }
+            loadedColumns.put(channel, column);
+        }
+        return column;
+    }
+
+    private List<Block> readColumn(int channel)
+            throws IOException
+    {
+        long start = System.currentTimeMillis();
+        Path columnFile = tableDataRoot.resolve(TABLE_DATA_FOLDER).resolve(getColumnFileName(channel));
+        List<Block> column = new ArrayList<>(pagePositionCounts.size());
+        try (InputStream inputStream = Files.newInputStream(columnFile)) {
+            try (InputStream inputStreamToUse = compressionEnabled ? new GZIPInputStream(inputStream) : inputStream) {
+                SliceInput sliceInput = new InputStreamSliceInput(inputStreamToUse);
+                PagesSerdeUtil.readPages(pagesSerde, sliceInput).forEachRemaining(page -> column.add(page.getBlock(0)));
+            }
+        }
+        long dur = System.currentTimeMillis() - start;
+        LOG.debug("[Load] %s completed. Time elapsed: %dms", columnFile.toString(), dur);
+        return column;
+    }
+
     /**
      * Deserialize pages from disk
      */
@@ -801,15 +1061,33 @@ public class LogicalPart
         if (!Files.exists(pagesFile.getParent())) {
             Files.createDirectories(pagesFile.getParent());
         }
-        try (OutputStream outputStream = Files.newOutputStream(pagesFile)) {
+        if (columnarPageFiles) {
+            pagePositionCounts = new ArrayList<>(pages.size());
+            for (Page page : pages) {
+                pagePositionCounts.add(page.getPositionCount());
+            }
+            for (int channel = 0; channel < types.size(); channel++) {
+                int pageChannel = channel;
+                writePageFile(pagesFile.resolveSibling(getColumnFileName(channel)), pages.stream().map(page -> new Page(page.getPositionCount(), page.getBlock(pageChannel))).iterator());
+            }
+        }
+        else {
+            writePageFile(pagesFile, pages.iterator());
+        }
+        long dur = System.currentTimeMillis() - start;
+        LOG.debug("[Spill] %s completed. Time elapsed: %dms", pagesFile.toString(), dur);
+    }
+
+    private void writePageFile(Path file, Iterator<Page> filePages)
+            throws IOException
+    {
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
             try (OutputStream outputStreamToUse = compressionEnabled ? new GZIPOutputStream(outputStream) : outputStream) {
                 SliceOutput sliceOutput = new OutputStreamSliceOutput(outputStreamToUse);
-                PagesSerdeUtil.writePages(pagesSerde, sliceOutput, pages.iterator());
+                PagesSerdeUtil.writePages(pagesSerde, sliceOutput, filePages);
                 sliceOutput.flush();
             }
         }
-        long dur = System.currentTimeMillis() - start;
-        LOG.debug("[Spill] %s completed. Time elapsed: %dms", pagesFile.toString(), dur);
     }
 
     private Comparable min(Comparable c1, Comparable c2)
@@ -1031,6 +1309,13 @@ public class LogicalPart
             throws ClassNotFoundException, IOException
     {
         in.defaultReadObject();
+        this.loadedColumns = new HashMap<>();
+        if (pageMinMaxIdx == null) {
+            pageMinMaxIdx = new HashMap<>();
+        }
+        if (pagePositionCounts == null) {
+            pagePositionCounts = new ArrayList<>();
+        }
         int typeSize = in.readInt();
         this.typeSignatures = new ArrayList<>(typeSize);
         for (int i = 0; i < typeSize; i++) {
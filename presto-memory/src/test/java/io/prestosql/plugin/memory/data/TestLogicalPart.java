@@ -18,20 +18,34 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.plugin.memory.MemoryColumnHandle;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageSorter;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.SortedRangeSet;
 import io.prestosql.spi.predicate.ValueSet;
 import io.prestosql.spi.type.IntegerType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
+import io.prestosql.spi.type.VarcharType;
+import io.prestosql.spi.type.testing.TestingTypeManager;
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -46,17 +60,21 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
 import static io.prestosql.spi.predicate.Range.equal;
 import static io.prestosql.spi.predicate.Range.greaterThan;
 import static io.prestosql.spi.predicate.Range.greaterThanOrEqual;
 import static io.prestosql.spi.predicate.Range.lessThan;
 import static io.prestosql.spi.predicate.Range.lessThanOrEqual;
 import static io.prestosql.spi.predicate.Range.range;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
 import static org.testng.Assert.assertTrue;
 
 public class TestLogicalPart
@@ -2130,6 +2148,137 @@ public class TestLogicalPart
         assertTrue(areListPagesEqual(result, newPages.subList(1, 3)));
     }
 
+    // page zone map tests
+    @Test
+    public void testGetPagesPageMinMax()
+    {
+        List<Page> pages = buildFourByThreePagesList(PAGE_VALUES);
+        LogicalPart logicalPart = setupMinMaxLogicalPart(2L, 7L);
+        addPages(logicalPart, pages);
+
+        List<Map.Entry<Comparable, Comparable>> zoneMaps = new ArrayList<>();
+        zoneMaps.add(new AbstractMap.SimpleEntry<>(2L, 2L));
+        zoneMaps.add(new AbstractMap.SimpleEntry<>(2L, 3L));
+        zoneMaps.add(new AbstractMap.SimpleEntry<>(3L, 5L));
+        zoneMaps.add(null);
+        Map<Integer, List<Map.Entry<Comparable, Comparable>>> pageMinMaxIdx = new HashMap<>();
+        pageMinMaxIdx.put(0, zoneMaps);
+        ReflectionTestUtils.setField(logicalPart, "pageMinMaxIdx", pageMinMaxIdx);
+
+        List<Page> result = getPageMinMaxResult(logicalPart, equal(IntegerType.INTEGER, 3L));
+        assertEquals(result.size(), 2);
+        assertTrue(areListPagesEqual(result, pages.subList(1, 3)));
+
+        result = getPageMinMaxResult(logicalPart, greaterThan(IntegerType.INTEGER, 3L));
+        assertEquals(result.size(), 1);
+        assertTrue(areListPagesEqual(result, pages.subList(2, 3)));
+
+        result = getPageMinMaxResult(logicalPart, lessThan(IntegerType.INTEGER, 3L));
+        assertEquals(result.size(), 2);
+        assertTrue(areListPagesEqual(result, pages.subList(0, 2)));
+
+        // the last page only has nulls
+        result = getPageMinMaxResult(logicalPart, equal(IntegerType.INTEGER, 7L));
+        assertEquals(result.size(), 0);
+    }
+
+    private List<Page> getPageMinMaxResult(LogicalPart logicalPart, Range range)
+    {
+        Domain domain = Domain.create(ValueSet.ofRanges(range), false);
+        return logicalPart.getPages(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), ImmutableMap.of(0, ((SortedRangeSet) domain.getValues()).getOrderedRanges()));
+    }
+
+    @Test
+    public void testLazyColumnarPages()
+            throws Exception
+    {
+        Path tableDataRoot = Files.createTempDirectory("test-logical-part");
+        TypeManager typeManager = new TestingTypeManager();
+        PagesSerde pagesSerde = new TestingPagesSerdeFactory().createPagesSerde();
+        LogicalPart logicalPart = new LogicalPart(
+                ImmutableList.of(
+                        new MemoryColumnHandle("a", 0, BIGINT.getTypeSignature(), false),
+                        new MemoryColumnHandle("b", 1, BIGINT.getTypeSignature(), false)),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                tableDataRoot,
+                mock(PageSorter.class),
+                0,
+                0,
+                typeManager,
+                pagesSerde,
+                0,
+                false);
+        List<Page> pages = RowPagesBuilder.rowPagesBuilder(BIGINT, BIGINT)
+                .row(1L, 10L)
+                .row(2L, 20L)
+                .pageBreak()
+                .row(3L, 30L)
+                .build();
+        pages.forEach(logicalPart::add);
+        logicalPart.finishAdding();
+        logicalPart.process();
+
+        // one page file per channel
+        Path dataFolder = tableDataRoot.resolve("data");
+        assertTrue(Files.exists(dataFolder.resolve("logicalPartNumber0_0")));
+        assertTrue(Files.exists(dataFolder.resolve("logicalPartNumber0_1")));
+        assertFalse(Files.exists(dataFolder.resolve("logicalPartNumber0")));
+
+        // reload the part from disk, as after a restart
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+            output.writeObject(logicalPart);
+        }
+        LogicalPart reloaded;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+            reloaded = (LogicalPart) input.readObject();
+        }
+        reloaded.restoreTransientObjects(mock(PageSorter.class), typeManager, pagesSerde, tableDataRoot);
+        assertFalse(reloaded.pageInMemory());
+
+        // only the columns that are read are loaded, so the first one is readable without the file of the second
+        Files.delete(dataFolder.resolve("logicalPartNumber0_1"));
+        List<Page> result = reloaded.getPages();
+        assertEquals(result.size(), pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals(result.get(i).getPositionCount(), pages.get(i).getPositionCount());
+            assertBlockEquals(BIGINT, result.get(i).getBlock(0).getLoadedBlock(), pages.get(i).getBlock(0));
+        }
+        assertThrows(UncheckedIOException.class, () -> result.get(0).getBlock(1).getLoadedBlock());
+    }
+
+    @Test
+    public void testDictionaryEncode()
+    {
+        BlockBuilder repeated = VarcharType.VARCHAR.createBlockBuilder(null, 100);
+        for (int i = 0; i < 100; i++) {
+            if (i == 3) {
+                repeated.appendNull();
+            }
+            else {
+                VarcharType.VARCHAR.writeString(repeated, i % 2 == 0 ? "a repeated value" : "another repeated value");
+            }
+        }
+        Block block = repeated.build();
+        Block encoded = LogicalPart.dictionaryEncode(VarcharType.VARCHAR, block);
+        assertTrue(encoded instanceof DictionaryBlock);
+        assertEquals(encoded.getPositionCount(), block.getPositionCount());
+        for (int i = 0; i < block.getPositionCount(); i++) {
+            assertEquals(encoded.isNull(i), block.isNull(i));
+            if (!block.isNull(i)) {
+                assertEquals(VarcharType.VARCHAR.getSlice(encoded, i), VarcharType.VARCHAR.getSlice(block, i));
+            }
+        }
+
+        BlockBuilder distinct = VarcharType.VARCHAR.createBlockBuilder(null, 8);
+        for (int i = 0; i < 8; i++) {
+            VarcharType.VARCHAR.writeString(distinct, "value " + i);
+        }
+        Block distinctBlock = distinct.build();
+        assertTrue(LogicalPart.dictionaryEncode(VarcharType.VARCHAR, distinctBlock) == distinctBlock);
+    }
+
     static class BlockComparator
             implements Comparator<long[]>
     {
@@ -115,6 +115,7 @@ public class ParquetReader
     private final List<RowRanges> blockRowRanges;
     private final Map<ColumnPath, ColumnDescriptor> paths = new HashMap<>();
     private final Optional<FilterPredicate> filter;
+    private java.util.function.Predicate<BlockMetaData> rowGroupFilter = block -> true;
 
     public ParquetReader(Optional<String> fileCreatedBy,
                          MessageColumnIO messageColumnIO,
@@ -293,6 +294,15 @@ public class ParquetReader
         return currentPosition;
     }
 
+    /**
+     * Skip the row groups not started yet which do not match the filter,
+     * e.g. because of a predicate that only became known after the reader was created
+     */
+    public void setRowGroupFilter(java.util.function.Predicate<BlockMetaData> rowGroupFilter)
+    {
+        this.rowGroupFilter = requireNonNull(rowGroupFilter, "rowGroupFilter is null");
+    }
+
     public int nextBatch()
     {
         if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
@@ -315,6 +325,9 @@ public class ParquetReader
         currentRowGroupMemoryContext.close();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
 
+        while (currentBlock < blocks.size() && !rowGroupFilter.test(blocks.get(currentBlock))) {
+            currentBlock++;
+        }
         if (currentBlock == blocks.size()) {
             return false;
         }
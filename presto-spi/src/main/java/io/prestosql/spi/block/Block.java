@@ -15,6 +15,7 @@ package io.prestosql.spi.block;
 
 import io.airlift.slice.Slice;
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 import java.util.function.BiConsumer;
@@ -343,6 +344,19 @@ public interface Block<T>
         return validPositions;
     }
 
+    /**
+     * Test the values at the given positions against a split block bloom filter, and write the positions
+     * that may be in the filter to matchedPositions, in the same order. matchedPositions may be the positions array itself.
+     * By default nothing is filtered.
+     *
+     * @return the number of matched positions
+     */
+    default int filter(SplitBlockBloomFilter filter, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        System.arraycopy(positions, 0, matchedPositions, 0, positionCount);
+        return positionCount;
+    }
+
     default int filter(int[] positions, int positionCount, int[] matchedPositions, Function<Object, Boolean> test)
     {
         System.arraycopy(positions, positionCount, matchedPositions, positionCount, positionCount);
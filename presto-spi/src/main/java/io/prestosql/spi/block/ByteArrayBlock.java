@@ -14,6 +14,7 @@
 package io.prestosql.spi.block;
 
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.openjdk.jol.info.ClassLayout;
 
 import javax.annotation.Nullable;
@@ -261,6 +262,19 @@ public class ByteArrayBlock
         return validPositions;
     }
 
+    @Override
+    public int filter(SplitBlockBloomFilter filter, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i] + arrayOffset;
+            if (valueIsNull != null && valueIsNull[position] ? filter.test((byte[]) null) : filter.test(values[position])) {
+                matchedPositions[matchCount++] = positions[i];
+            }
+        }
+        return matchCount;
+    }
+
     @Override
     public int filter(int[] positions, int positionCount, int[] matchedPositions, Function<Object, Boolean> test)
     {
@@ -15,6 +15,7 @@ package io.prestosql.spi.block;
 
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.Arrays;
@@ -479,6 +480,26 @@ public class DictionaryBlock<T>
         }
     }
 
+    @Override
+    public int filter(SplitBlockBloomFilter filter, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        int[] dictionaryIds = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            dictionaryIds[i] = getId(positions[i]);
+        }
+        int[] matchedIds = new int[positionCount];
+        int matchedIdCount = dictionary.filter(filter, dictionaryIds, positionCount, matchedIds);
+
+        // the matched ids keep the order of the ids, and equal ids have the same result
+        int matchCount = 0;
+        for (int i = 0; i < positionCount && matchCount < matchedIdCount; i++) {
+            if (dictionaryIds[i] == matchedIds[matchCount]) {
+                matchedPositions[matchCount++] = positions[i];
+            }
+        }
+        return matchCount;
+    }
+
     @Override
     public int filter(int[] positions, int positionCount, int[] matchedPositions, Function<Object, Boolean> test)
     {
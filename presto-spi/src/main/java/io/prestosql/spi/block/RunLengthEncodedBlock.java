@@ -16,6 +16,7 @@ package io.prestosql.spi.block;
 import io.airlift.slice.Slice;
 import io.prestosql.spi.predicate.Utils;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.function.BiConsumer;
@@ -306,6 +307,16 @@ public class RunLengthEncodedBlock<T>
         }
     }
 
+    @Override
+    public int filter(SplitBlockBloomFilter filter, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        if (positionCount == 0 || value.filter(filter, new int[] {0}, 1, new int[1]) == 0) {
+            return 0;
+        }
+        System.arraycopy(positions, 0, matchedPositions, 0, positionCount);
+        return positionCount;
+    }
+
     @Override
     public int filter(int[] positions, int positionCount, int[] matchedPositions, Function<Object, Boolean> test)
     {
@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -1308,6 +1309,15 @@ public interface ConnectorMetadata
         return partialAndFinalAggregationType;
     }
 
+    /**
+     * Returns the bucket count of the table if every bucket is read by a single split whose rows are
+     * sorted in ascending order on the given columns, in that order. Returns empty otherwise.
+     */
+    default OptionalInt getSortedBucketCount(ConnectorSession session, ConnectorTableHandle tableHandle, List<String> columnNames)
+    {
+        return OptionalInt.empty();
+    }
+
     default void refreshMetadataCache()
     {
         throw new UnsupportedOperationException("This connector does not support refreshing metadata cache");
@@ -85,6 +85,17 @@ public interface ConnectorPageSource
         return NOT_BLOCKED;
     }
 
+    /**
+     * Returns true if {@link #getNextPage()} waits for remote I/O, such as the response of a
+     * database or search service, instead of returning a future from {@link #isBlocked()}.
+     * The engine reads such page sources ahead on a separate I/O thread pool, so that waiting
+     * does not hold the threads processing splits.
+     */
+    default boolean hasBlockingIo()
+    {
+        return false;
+    }
+
     default boolean needMergingForPages()
     {
         return false;
@@ -53,6 +53,16 @@ public interface RecordCursor
         return 0;
     }
 
+    /**
+     * Returns true if advancing the cursor waits for remote I/O.
+     *
+     * @see ConnectorPageSource#hasBlockingIo()
+     */
+    default boolean hasBlockingIo()
+    {
+        return false;
+    }
+
     @Override
     void close();
 }
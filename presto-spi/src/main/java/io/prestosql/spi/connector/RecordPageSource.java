@@ -88,6 +88,12 @@ public class RecordPageSource
         return closed && pageBuilder.isEmpty();
     }
 
+    @Override
+    public boolean hasBlockingIo()
+    {
+        return cursor.hasBlockingIo();
+    }
+
     @Override
     public Page getNextPage()
     {
@@ -68,6 +68,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -932,6 +933,14 @@ public class ClassLoaderSafeConnectorMetadata
         }
     }
 
+    @Override
+    public OptionalInt getSortedBucketCount(ConnectorSession session, ConnectorTableHandle tableHandle, List<String> columnNames)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getSortedBucketCount(session, tableHandle, columnNames);
+        }
+    }
+
     @Override
     public void refreshMetadataCache()
     {
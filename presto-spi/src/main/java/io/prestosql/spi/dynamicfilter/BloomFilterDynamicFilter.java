@@ -18,11 +18,10 @@ import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.TupleDomain;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
@@ -36,7 +35,7 @@ public class BloomFilterDynamicFilter
     public static final int DEFAULT_DYNAMIC_FILTER_SIZE = 1024 * 1024;
     public static final double DEFAULT_BLOOM_FILTER_FPP = 0.1D;
     private byte[] bloomFilterSerialized;
-    private BloomFilter bloomFilterDeserialized;
+    private SplitBlockBloomFilter bloomFilterDeserialized;
 
     public BloomFilterDynamicFilter(String filterId, ColumnHandle columnHandle, byte[] bloomFilterSerialized, Type type)
     {
@@ -48,7 +47,7 @@ public class BloomFilterDynamicFilter
         setMinMax(bloomFilterDeserialized);
     }
 
-    private void setMinMax(BloomFilter bloomFilterDeserialized)
+    private void setMinMax(SplitBlockBloomFilter bloomFilterDeserialized)
     {
         if (null != bloomFilterDeserialized) {
             this.min = bloomFilterDeserialized.getMin();
@@ -56,12 +55,12 @@ public class BloomFilterDynamicFilter
         }
     }
 
-    public BloomFilterDynamicFilter(String filterId, ColumnHandle columnHandle, BloomFilter bloomFilterDeserialized, Type type)
+    public BloomFilterDynamicFilter(String filterId, ColumnHandle columnHandle, SplitBlockBloomFilter bloomFilterDeserialized, Type type)
     {
         this(filterId, columnHandle, bloomFilterDeserialized, null, type);
     }
 
-    private BloomFilterDynamicFilter(String filterId, ColumnHandle columnHandle, BloomFilter bloomFilterDeserialized, byte[] bloomFilterSerialized, Type type)
+    private BloomFilterDynamicFilter(String filterId, ColumnHandle columnHandle, SplitBlockBloomFilter bloomFilterDeserialized, byte[] bloomFilterSerialized, Type type)
     {
         this.filterId = filterId;
         this.type = type;
@@ -78,16 +77,16 @@ public class BloomFilterDynamicFilter
 
     public static BloomFilterDynamicFilter fromHashSetDynamicFilter(HashSetDynamicFilter hashSetDynamicFilter, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = BloomFilterDynamicFilter.createBloomFilterFromSet(hashSetDynamicFilter.getSetValues(), bloomFilterFpp);
+        SplitBlockBloomFilter bloomFilter = BloomFilterDynamicFilter.createBloomFilterFromSet(hashSetDynamicFilter.getSetValues(), bloomFilterFpp);
         return new BloomFilterDynamicFilter(hashSetDynamicFilter.getFilterId(), hashSetDynamicFilter.getColumnHandle(), bloomFilter, hashSetDynamicFilter.getType());
     }
 
-    public static BloomFilter createBloomFilterFromSet(Set valueSet, double bloomFilterFpp)
+    public static SplitBlockBloomFilter createBloomFilterFromSet(Set valueSet, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        SplitBlockBloomFilter bloomFilter = new SplitBlockBloomFilter(DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
         for (Object value : valueSet) {
             if (value instanceof Long) {
-                bloomFilter.addLong((Long) value);
+                bloomFilter.add((Long) value);
             }
             else if (value instanceof Slice) {
                 bloomFilter.add((Slice) value);
@@ -99,14 +98,13 @@ public class BloomFilterDynamicFilter
         return bloomFilter;
     }
 
-    public static byte[] convertBloomFilterToByteArray(BloomFilter bloomFilter)
+    public static byte[] convertBloomFilterToByteArray(SplitBlockBloomFilter bloomFilter)
     {
         byte[] finalOutput = null;
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            bloomFilter.writeTo(out);
-            finalOutput = out.toByteArray();
+        try {
+            finalOutput = bloomFilter.toByteArray();
         }
-        catch (IOException e) {
+        catch (UncheckedIOException e) {
             log.error("could not  finish filter, Exception happened:" + e.getMessage());
         }
         return finalOutput;
@@ -173,10 +171,10 @@ public class BloomFilterDynamicFilter
         return bloomFilterDeserialized.isEmpty();
     }
 
-    private BloomFilter deserializeBloomFilter(byte[] bloomFilterSerialized)
+    private SplitBlockBloomFilter deserializeBloomFilter(byte[] bloomFilterSerialized)
     {
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(bloomFilterSerialized)) {
-            return BloomFilter.readFrom(bis);
+        try {
+            return SplitBlockBloomFilter.fromByteArray(bloomFilterSerialized);
         }
         catch (IOException e) {
             throw new RuntimeException("Unable to deserialize dynamic filter: " + columnHandle.toString());
@@ -199,7 +197,7 @@ public class BloomFilterDynamicFilter
         return this.bloomFilterSerialized;
     }
 
-    public BloomFilter getBloomFilterDeserialized()
+    public SplitBlockBloomFilter getBloomFilterDeserialized()
     {
         return bloomFilterDeserialized;
     }
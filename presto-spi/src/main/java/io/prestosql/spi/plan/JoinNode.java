@@ -53,6 +53,24 @@ public class JoinNode
     private final Optional<DistributionType> distributionType;
     private final Optional<Boolean> spillable;
     private final Map<String, Symbol> dynamicFilters;
+    private final JoinAlgorithm joinAlgorithm;
+
+    public JoinNode(
+            PlanNodeId id,
+            Type type,
+            PlanNode left,
+            PlanNode right,
+            List<EquiJoinClause> criteria,
+            List<Symbol> outputSymbols,
+            Optional<RowExpression> filter,
+            Optional<Symbol> leftHashSymbol,
+            Optional<Symbol> rightHashSymbol,
+            Optional<DistributionType> distributionType,
+            Optional<Boolean> spillable,
+            Map<String, Symbol> dynamicFilters)
+    {
+        this(id, type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, spillable, dynamicFilters, JoinAlgorithm.HASH);
+    }
 
     @JsonCreator
     public JoinNode(
@@ -67,7 +85,8 @@ public class JoinNode
             @JsonProperty("rightHashSymbol") Optional<Symbol> rightHashSymbol,
             @JsonProperty("distributionType") Optional<DistributionType> distributionType,
             @JsonProperty("spillable") Optional<Boolean> spillable,
-            @JsonProperty("dynamicFilters") Map<String, Symbol> dynamicFilters)
+            @JsonProperty("dynamicFilters") Map<String, Symbol> dynamicFilters,
+            @JsonProperty("joinAlgorithm") JoinAlgorithm joinAlgorithm)
     {
         super(id);
         requireNonNull(type, "type is null");
@@ -80,6 +99,7 @@ public class JoinNode
         requireNonNull(rightHashSymbol, "rightHashSymbol is null");
         requireNonNull(distributionType, "distributionType is null");
         requireNonNull(spillable, "spillable is null");
+        requireNonNull(joinAlgorithm, "joinAlgorithm is null");
 
         this.type = type;
         this.left = left;
@@ -92,6 +112,7 @@ public class JoinNode
         this.distributionType = distributionType;
         this.spillable = spillable;
         this.dynamicFilters = ImmutableMap.copyOf(requireNonNull(dynamicFilters, "dynamicFilters is null"));
+        this.joinAlgorithm = joinAlgorithm;
 
         Set<Symbol> inputSymbols = ImmutableSet.<Symbol>builder()
                 .addAll(left.getOutputSymbols())
@@ -121,6 +142,8 @@ public class JoinNode
         for (Symbol symbol : dynamicFilters.values()) {
             checkArgument(right.getOutputSymbols().contains(symbol), "Right join input doesn't contain symbol for dynamic filter: %s", symbol);
         }
+
+        checkArgument(joinAlgorithm == JoinAlgorithm.HASH || (type == Type.INNER && !criteria.isEmpty() && !filter.isPresent()), "Sort merge join is only supported for inner equi joins");
     }
 
     public JoinNode flipChildren()
@@ -137,7 +160,8 @@ public class JoinNode
                 leftHashSymbol,
                 distributionType,
                 spillable,
-                ImmutableMap.of()); // dynamicFilters are invalid after flipping children
+                ImmutableMap.of(), // dynamicFilters are invalid after flipping children
+                joinAlgorithm);
     }
 
     private static Type flipType(Type type)
@@ -183,6 +207,13 @@ public class JoinNode
         REPLICATED
     }
 
+    public enum JoinAlgorithm
+    {
+        HASH,
+        // both inputs are sorted on the join keys, so they are merged instead of building a hash table
+        SORT_MERGE
+    }
+
     public enum Type
     {
         INNER("InnerJoin"),
@@ -293,6 +324,12 @@ public class JoinNode
         return dynamicFilters;
     }
 
+    @JsonProperty
+    public JoinAlgorithm getJoinAlgorithm()
+    {
+        return joinAlgorithm;
+    }
+
     @Override
     public <R, C> R accept(PlanVisitor<R, C> visitor, C context)
     {
@@ -303,17 +340,22 @@ public class JoinNode
     public PlanNode replaceChildren(List<PlanNode> newChildren)
     {
         checkArgument(newChildren.size() == 2, "expected newChildren to contain 2 nodes");
-        return new JoinNode(getId(), type, newChildren.get(0), newChildren.get(1), criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, spillable, dynamicFilters);
+        return new JoinNode(getId(), type, newChildren.get(0), newChildren.get(1), criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, spillable, dynamicFilters, joinAlgorithm);
     }
 
     public JoinNode withDistributionType(DistributionType distributionType)
     {
-        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, Optional.of(distributionType), spillable, dynamicFilters);
+        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, Optional.of(distributionType), spillable, dynamicFilters, joinAlgorithm);
     }
 
     public JoinNode withSpillable(boolean spillable)
     {
-        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, Optional.of(spillable), dynamicFilters);
+        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, Optional.of(spillable), dynamicFilters, joinAlgorithm);
+    }
+
+    public JoinNode withJoinAlgorithm(JoinAlgorithm joinAlgorithm)
+    {
+        return new JoinNode(getId(), type, left, right, criteria, outputSymbols, filter, leftHashSymbol, rightHashSymbol, distributionType, spillable, dynamicFilters, joinAlgorithm);
     }
 
     public boolean isCrossJoin()
@@ -0,0 +1,513 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.util;
+
+import com.google.common.math.DoubleMath;
+import com.google.common.primitives.Ints;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Double.doubleToLongBits;
+
+/**
+ * Split block bloom filter: the filter is divided into blocks of 256 bits, and all the bits of a key
+ * are set in the one block selected by the high half of its hash, one bit in each of the 8 32-bit words
+ * of the block. Testing a key therefore touches a single cache line, and the 8 word checks are
+ * independent of each other, so they are done without branches.
+ * <p>
+ * Filters created with the same expected entries and fpp have the same number of blocks, and can be merged.
+ * Like {@link BloomFilter}, the minimum and maximum of the long values added are kept for range pruning.
+ * <p>
+ * The serialized form starts with a magic number and a format version. Data serialized by a {@link BloomFilter},
+ * which older versions used for dynamic filters, is still read: such a filter keeps the {@link BloomFilter} and
+ * delegates to it, and is serialized back in that form.
+ */
+public final class SplitBlockBloomFilter
+        implements Serializable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SplitBlockBloomFilter.class).instanceSize();
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+
+    // odd constants used to derive the bit of each word from the low half of the hash
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    // a serialized BloomFilter starts with its number of hash functions, which is never negative
+    private static final int SERIALIZATION_MAGIC = 0xB10C_F117;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte HAS_MIN_MAX = 1;
+    private static final byte SPARSE = 2;
+
+    // from 64-bit linear congruential generator
+    private static final long NULL_HASHCODE = 2862933555777941757L;
+
+    private final int numBlocks;
+    private final int[] words;
+    // set for filters read from the serialized form of a BloomFilter
+    private final BloomFilter legacyFilter;
+
+    private Long min;
+    private Long max;
+
+    public SplitBlockBloomFilter(long expectedEntries, double fpp)
+    {
+        this(optimalNumOfBlocks(expectedEntries, fpp));
+    }
+
+    private SplitBlockBloomFilter(int numBlocks)
+    {
+        this(numBlocks, new int[numBlocks * WORDS_PER_BLOCK]);
+    }
+
+    private SplitBlockBloomFilter(int numBlocks, int[] words)
+    {
+        checkArgument(numBlocks > 0, "numBlocks should be > 0");
+        checkArgument(words.length == numBlocks * WORDS_PER_BLOCK, "words does not match numBlocks");
+        this.numBlocks = numBlocks;
+        this.words = words;
+        this.legacyFilter = null;
+    }
+
+    private SplitBlockBloomFilter(BloomFilter legacyFilter)
+    {
+        this.numBlocks = 0;
+        this.words = new int[0];
+        this.legacyFilter = legacyFilter;
+        if (legacyFilter.getMin() instanceof Long) {
+            this.min = (Long) legacyFilter.getMin();
+            this.max = (Long) legacyFilter.getMax();
+        }
+    }
+
+    static int optimalNumOfBlocks(long n, double p)
+    {
+        checkArgument(n > 0, "expectedEntries should be > 0");
+        checkArgument(p > 0.0 && p < 1.0, "False positive probability should be > 0.0 & < 1.0");
+        // a key sets one bit in each of the 8 words of a block, see https://github.com/apache/parquet-format/blob/master/BloomFilter.md
+        double bits = -WORDS_PER_BLOCK * n / Math.log(1 - Math.pow(p, 1.0 / WORDS_PER_BLOCK));
+        return Math.max(1, DoubleMath.roundToInt(bits / BITS_PER_BLOCK, RoundingMode.CEILING));
+    }
+
+    // finalizer of Murmur3, spreads the bits of the value over the whole hash
+    private static long getLongHash(long value)
+    {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long getSliceHash(Slice value)
+    {
+        return (value == null) ? NULL_HASHCODE : BloomFilter.OrcMurmur3.hash64(value);
+    }
+
+    private int blockOffset(long hash64)
+    {
+        // maps the high half of the hash to [0, numBlocks) without a division
+        return (int) (((hash64 >>> 32) * numBlocks) >>> 32) * WORDS_PER_BLOCK;
+    }
+
+    private void addHash(long hash64)
+    {
+        int offset = blockOffset(hash64);
+        int key = (int) hash64;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            words[offset + i] |= 1 << ((key * SALT[i]) >>> 27);
+        }
+    }
+
+    private boolean testHash(long hash64)
+    {
+        int offset = blockOffset(hash64);
+        int key = (int) hash64;
+        int missing = 0;
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            missing |= ~words[offset + i] & (1 << ((key * SALT[i]) >>> 27));
+        }
+        return missing == 0;
+    }
+
+    public void add(long value)
+    {
+        if (min == null) {
+            min = value;
+            max = value;
+        }
+        else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (legacyFilter != null) {
+            legacyFilter.add(value);
+            return;
+        }
+        addHash(getLongHash(value));
+    }
+
+    public void add(double value)
+    {
+        add(doubleToLongBits(value));
+    }
+
+    public void add(Slice value)
+    {
+        if (legacyFilter != null) {
+            legacyFilter.add(value);
+            return;
+        }
+        addHash(getSliceHash(value));
+    }
+
+    public void add(byte[] value)
+    {
+        if (legacyFilter != null) {
+            legacyFilter.add(value);
+            return;
+        }
+        addHash((value == null) ? NULL_HASHCODE : BloomFilter.OrcMurmur3.hash64(value));
+    }
+
+    public boolean test(long value)
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.test(value);
+        }
+        return testHash(getLongHash(value));
+    }
+
+    public boolean test(double value)
+    {
+        return test(doubleToLongBits(value));
+    }
+
+    public boolean test(Slice value)
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.test(value);
+        }
+        return testHash(getSliceHash(value));
+    }
+
+    public boolean test(byte[] value)
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.test(value);
+        }
+        return testHash((value == null) ? NULL_HASHCODE : BloomFilter.OrcMurmur3.hash64(value));
+    }
+
+    /**
+     * Tests the values of the block at the given positions, and writes the positions that may be in the filter to matchedPositions.
+     * Blocks that can not be tested keep all their positions.
+     *
+     * @return the number of matched positions
+     */
+    public int test(Block<?> block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        return block.filter(this, positions, positionCount, matchedPositions);
+    }
+
+    /**
+     * Merge in another filter with the same number of blocks, or another filter read from the same size of {@link BloomFilter}
+     *
+     * @param that filter to merge
+     */
+    public void merge(SplitBlockBloomFilter that)
+    {
+        checkArgument(that != null, "SplitBlockBloomFilter to merge is null");
+        if (this == that) {
+            return;
+        }
+        checkArgument((legacyFilter == null) == (that.legacyFilter == null), "SplitBlockBloomFilter to merge must have the same serialized format");
+        checkArgument(numBlocks == that.numBlocks, "SplitBlockBloomFilter to merge must have the same number of blocks");
+
+        if (legacyFilter != null) {
+            legacyFilter.merge(that.legacyFilter);
+        }
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= that.words[i];
+        }
+        if (that.min != null) {
+            min = (min == null) ? that.min : Math.min(min, that.min);
+            max = (max == null) ? that.max : Math.max(max, that.max);
+        }
+    }
+
+    public Object getMin()
+    {
+        return min;
+    }
+
+    public Object getMax()
+    {
+        return max;
+    }
+
+    public int getNumBlocks()
+    {
+        return numBlocks;
+    }
+
+    private long bitCount()
+    {
+        long bitCount = 0;
+        for (int word : words) {
+            bitCount += Integer.bitCount(word);
+        }
+        return bitCount;
+    }
+
+    /**
+     * Returns the probability that test() returns true for a value that was not added,
+     * estimated from the fraction of bits set.
+     */
+    public double expectedFpp()
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.expectedFpp();
+        }
+        return Math.pow((double) bitCount() / (words.length * (long) Integer.SIZE), WORDS_PER_BLOCK);
+    }
+
+    public long approximateElementCount()
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.approximateElementCount();
+        }
+        long bitSize = words.length * (long) Integer.SIZE;
+        double fractionOfBitsSet = (double) bitCount() / bitSize;
+        return DoubleMath.roundToLong(-Math.log1p(-fractionOfBitsSet) * bitSize / WORDS_PER_BLOCK, RoundingMode.HALF_UP);
+    }
+
+    public boolean isEmpty()
+    {
+        if (legacyFilter != null) {
+            return legacyFilter.isEmpty();
+        }
+        for (int word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(words) + (legacyFilter == null ? 0 : legacyFilter.getRetainedSizeInBytes());
+    }
+
+    /**
+     * Serialize the filter into an OutputStream. Filters with few non-empty blocks, such as the partial filters
+     * of small build sides, only write their non-empty blocks.
+     *
+     * @param out OutputStream the filter is serialized to
+     * @throws IOException Exception writing values into the OutputStream
+     */
+    public void writeTo(OutputStream out)
+            throws IOException
+    {
+        if (legacyFilter != null) {
+            legacyFilter.writeTo(out);
+            return;
+        }
+
+        int nonEmptyBlocks = 0;
+        for (int block = 0; block < numBlocks; block++) {
+            if (!isEmptyBlock(block)) {
+                nonEmptyBlocks++;
+            }
+        }
+        // a sparse block is written with its index
+        boolean sparse = (long) nonEmptyBlocks * (WORDS_PER_BLOCK + 1) < (long) numBlocks * WORDS_PER_BLOCK;
+
+        DataOutputStream dataOutputStream = new DataOutputStream(out);
+        dataOutputStream.writeInt(SERIALIZATION_MAGIC);
+        dataOutputStream.writeByte(FORMAT_VERSION);
+        dataOutputStream.writeByte((min != null ? HAS_MIN_MAX : 0) | (sparse ? SPARSE : 0));
+        dataOutputStream.writeInt(numBlocks);
+        if (min != null) {
+            dataOutputStream.writeLong(min);
+            dataOutputStream.writeLong(max);
+        }
+        if (sparse) {
+            dataOutputStream.writeInt(nonEmptyBlocks);
+        }
+        for (int block = 0; block < numBlocks; block++) {
+            if (sparse) {
+                if (isEmptyBlock(block)) {
+                    continue;
+                }
+                dataOutputStream.writeInt(block);
+            }
+            for (int i = block * WORDS_PER_BLOCK; i < (block + 1) * WORDS_PER_BLOCK; i++) {
+                dataOutputStream.writeInt(words[i]);
+            }
+        }
+        dataOutputStream.flush();
+    }
+
+    private boolean isEmptyBlock(int block)
+    {
+        int bits = 0;
+        for (int i = block * WORDS_PER_BLOCK; i < (block + 1) * WORDS_PER_BLOCK; i++) {
+            bits |= words[i];
+        }
+        return bits == 0;
+    }
+
+    /**
+     * De-serialize a filter from a given InputStream, which may also contain a serialized {@link BloomFilter}
+     *
+     * @param in InputStream that contains serialized value of a SplitBlockBloomFilter
+     * @return De-serialized SplitBlockBloomFilter
+     * @throws IOException Exception reading values from the InputStream
+     */
+    public static SplitBlockBloomFilter readFrom(InputStream in)
+            throws IOException
+    {
+        DataInputStream dataInputStream = new DataInputStream(in);
+        int magic = dataInputStream.readInt();
+        if (magic != SERIALIZATION_MAGIC) {
+            if (magic < 0) {
+                throw new IOException("Failed to deserialize SplitBlockBloomFilter, invalid header: " + magic);
+            }
+            // the number of hash functions of a serialized BloomFilter, put it back for BloomFilter to read
+            return new SplitBlockBloomFilter(BloomFilter.readFrom(new SequenceInputStream(new ByteArrayInputStream(Ints.toByteArray(magic)), in)));
+        }
+        byte version = dataInputStream.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Failed to deserialize SplitBlockBloomFilter, unsupported version: " + version);
+        }
+        byte flags = dataInputStream.readByte();
+        int numBlocks = dataInputStream.readInt();
+        if (numBlocks <= 0) {
+            throw new IOException("Failed to deserialize SplitBlockBloomFilter, numBlocks: " + numBlocks);
+        }
+
+        Long min = null;
+        Long max = null;
+        if ((flags & HAS_MIN_MAX) != 0) {
+            min = dataInputStream.readLong();
+            max = dataInputStream.readLong();
+        }
+
+        int[] words = new int[numBlocks * WORDS_PER_BLOCK];
+        if ((flags & SPARSE) != 0) {
+            int nonEmptyBlocks = dataInputStream.readInt();
+            for (int i = 0; i < nonEmptyBlocks; i++) {
+                int block = dataInputStream.readInt();
+                if (block < 0 || block >= numBlocks) {
+                    throw new IOException("Failed to deserialize SplitBlockBloomFilter, block: " + block + ", numBlocks: " + numBlocks);
+                }
+                readBlock(dataInputStream, words, block);
+            }
+        }
+        else {
+            for (int block = 0; block < numBlocks; block++) {
+                readBlock(dataInputStream, words, block);
+            }
+        }
+
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(numBlocks, words);
+        filter.min = min;
+        filter.max = max;
+        return filter;
+    }
+
+    private static void readBlock(DataInputStream in, int[] words, int block)
+            throws IOException
+    {
+        for (int i = block * WORDS_PER_BLOCK; i < (block + 1) * WORDS_PER_BLOCK; i++) {
+            words[i] = in.readInt();
+        }
+    }
+
+    public byte[] toByteArray()
+    {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writeTo(out);
+            return out.toByteArray();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SplitBlockBloomFilter fromByteArray(byte[] serialized)
+            throws IOException
+    {
+        try (ByteArrayInputStream in = new ByteArrayInputStream(serialized)) {
+            return readFrom(in);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        SplitBlockBloomFilter that = (SplitBlockBloomFilter) other;
+        return numBlocks == that.numBlocks &&
+                Arrays.equals(words, that.words) &&
+                Objects.equals(min, that.min) &&
+                Objects.equals(max, that.max) &&
+                Objects.equals(legacyFilter, that.legacyFilter);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(numBlocks, Arrays.hashCode(words), min, max, legacyFilter);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("numBlocks", numBlocks)
+                .add("min", min)
+                .add("max", max)
+                .toString();
+    }
+}
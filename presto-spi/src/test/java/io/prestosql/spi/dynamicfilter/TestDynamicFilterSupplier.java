@@ -19,7 +19,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.TestingColumnHandle;
-import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayOutputStream;
@@ -49,7 +49,7 @@ public class TestDynamicFilterSupplier
         // construct a supplier
         List<Long> filterValues = ImmutableList.of(1L, 50L, 100L);
         ColumnHandle testColumnHandle = new TestingColumnHandle("test");
-        BloomFilter filter = new BloomFilter(filterValues.size(), 0.01);
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(filterValues.size(), 0.01);
         for (Long value : filterValues) {
             filter.add(value);
         }
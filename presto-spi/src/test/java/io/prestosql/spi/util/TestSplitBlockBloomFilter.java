@@ -0,0 +1,266 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.util;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.block.VariableWidthBlock;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestSplitBlockBloomFilter
+{
+    private static final int COUNT = 100_000;
+
+    @Test
+    public void testLongs()
+    {
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.01);
+        assertTrue(filter.isEmpty());
+        for (long i = 0; i < COUNT; i++) {
+            filter.add(i * 7);
+        }
+        assertFalse(filter.isEmpty());
+        for (long i = 0; i < COUNT; i++) {
+            assertTrue(filter.test(i * 7));
+        }
+
+        int falsePositives = 0;
+        for (long i = 0; i < COUNT; i++) {
+            if (filter.test(i * 7 + 1)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < COUNT * 0.02, "false positives: " + falsePositives);
+        assertTrue(filter.expectedFpp() < 0.02, "expected fpp: " + filter.expectedFpp());
+        assertTrue(Math.abs(filter.approximateElementCount() - COUNT) < COUNT * 0.05, "approximate count: " + filter.approximateElementCount());
+        assertEquals(filter.getMin(), 0L);
+        assertEquals(filter.getMax(), (COUNT - 1) * 7L);
+    }
+
+    @Test
+    public void testSlices()
+    {
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.01);
+        for (int i = 0; i < COUNT; i++) {
+            filter.add(("item " + i).getBytes(UTF_8));
+        }
+        for (int i = 0; i < COUNT; i++) {
+            // bytes and slices of the same value have the same hash
+            assertTrue(filter.test(Slices.utf8Slice("item " + i)));
+            assertTrue(filter.test(Slices.utf8Slice("xx item " + i).slice(3, ("item " + i).length())));
+        }
+        assertFalse(filter.test((byte[]) null));
+        assertNull(filter.getMin());
+    }
+
+    @Test
+    public void testMerge()
+    {
+        SplitBlockBloomFilter first = new SplitBlockBloomFilter(COUNT, 0.05);
+        SplitBlockBloomFilter second = new SplitBlockBloomFilter(COUNT, 0.05);
+        for (long i = 0; i < COUNT / 2; i++) {
+            first.add(i);
+            second.add(i + COUNT / 2);
+        }
+        first.merge(second);
+        for (long i = 0; i < COUNT; i++) {
+            assertTrue(first.test(i));
+        }
+        assertEquals(first.getMin(), 0L);
+        assertEquals(first.getMax(), COUNT - 1L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentSize()
+    {
+        new SplitBlockBloomFilter(COUNT, 0.05).merge(new SplitBlockBloomFilter(COUNT, 0.01));
+    }
+
+    @Test
+    public void testSerialization()
+            throws IOException
+    {
+        SplitBlockBloomFilter sparse = new SplitBlockBloomFilter(COUNT, 0.01);
+        sparse.add(42L);
+        sparse.add(Slices.utf8Slice("value"));
+        byte[] sparseBytes = sparse.toByteArray();
+        assertTrue(sparseBytes.length < 128, "sparse filter size: " + sparseBytes.length);
+        SplitBlockBloomFilter sparseCopy = SplitBlockBloomFilter.fromByteArray(sparseBytes);
+        assertEquals(sparseCopy, sparse);
+        assertTrue(sparseCopy.test(42L));
+        assertTrue(sparseCopy.test(Slices.utf8Slice("value")));
+        assertEquals(sparseCopy.getMin(), 42L);
+        assertEquals(sparseCopy.getMax(), 42L);
+
+        SplitBlockBloomFilter dense = new SplitBlockBloomFilter(COUNT, 0.01);
+        for (int i = 0; i < COUNT; i++) {
+            dense.add(("item " + i).getBytes(UTF_8));
+        }
+        SplitBlockBloomFilter denseCopy = SplitBlockBloomFilter.fromByteArray(dense.toByteArray());
+        assertEquals(denseCopy, dense);
+        assertNull(denseCopy.getMin());
+    }
+
+    @Test
+    public void testEqualsIncludesMinMax()
+            throws IOException
+    {
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.01);
+        filter.add(42L);
+        byte[] serialized = filter.toByteArray();
+        // the min follows the magic, the version, the flags and the number of blocks
+        serialized[17]--;
+        SplitBlockBloomFilter otherMin = SplitBlockBloomFilter.fromByteArray(serialized);
+        assertEquals(otherMin.getMin(), 41L);
+        assertFalse(otherMin.equals(filter));
+        assertFalse(otherMin.hashCode() == filter.hashCode());
+    }
+
+    @Test
+    public void testDeserializeBloomFilter()
+            throws IOException
+    {
+        BloomFilter bloomFilter = new BloomFilter(COUNT, 0.01);
+        bloomFilter.add(42L);
+        bloomFilter.add(Slices.utf8Slice("value"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        bloomFilter.writeTo(output);
+        byte[] serialized = output.toByteArray();
+
+        SplitBlockBloomFilter filter = SplitBlockBloomFilter.fromByteArray(serialized);
+        assertTrue(filter.test(42L));
+        assertTrue(filter.test(Slices.utf8Slice("value")));
+        assertFalse(filter.test(Slices.utf8Slice("other value")));
+        assertEquals(filter.getMin(), 42L);
+        assertEquals(filter.getMax(), 42L);
+
+        SplitBlockBloomFilter other = SplitBlockBloomFilter.fromByteArray(serialized);
+        other.add(43L);
+        filter.merge(other);
+        assertTrue(filter.test(43L));
+        assertEquals(filter.getMax(), 43L);
+
+        // written back in the BloomFilter form
+        BloomFilter copy = BloomFilter.readFrom(new ByteArrayInputStream(filter.toByteArray()));
+        assertTrue(copy.test(43L));
+        assertEquals(copy.getMax(), 43L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeBloomFilter()
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new BloomFilter(COUNT, 0.01).writeTo(output);
+        new SplitBlockBloomFilter(COUNT, 0.01).merge(SplitBlockBloomFilter.fromByteArray(output.toByteArray()));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testDeserializeOtherFormat()
+            throws IOException
+    {
+        SplitBlockBloomFilter.fromByteArray("content".getBytes(UTF_8));
+    }
+
+    @Test
+    public void testBlocks()
+    {
+        SplitBlockBloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.001);
+        for (long i = 0; i < 100; i += 2) {
+            filter.add(i);
+            filter.add(Slices.utf8Slice(String.valueOf(i)));
+        }
+
+        long[] values = new long[100];
+        Slice[] slices = new Slice[100];
+        for (int i = 0; i < 100; i++) {
+            values[i] = i;
+            slices[i] = Slices.utf8Slice(String.valueOf(i));
+        }
+        boolean[] nulls = new boolean[100];
+        nulls[4] = true;
+
+        assertEvenPositions(filter, new LongArrayBlock(100, Optional.of(nulls), values));
+        assertEvenPositions(filter, createSlicesBlock(slices, nulls));
+        int[] ids = new int[100];
+        for (int i = 0; i < 100; i++) {
+            ids[i] = 99 - i;
+        }
+        int[] reversed = assertMatches(filter, new DictionaryBlock(new LongArrayBlock(100, Optional.empty(), values), ids));
+        for (int position : reversed) {
+            assertEquals(position % 2, 1);
+        }
+
+        assertEquals(assertMatches(filter, new RunLengthEncodedBlock(new LongArrayBlock(1, Optional.empty(), new long[] {2}), 10)).length, 10);
+        assertEquals(assertMatches(filter, new RunLengthEncodedBlock(new LongArrayBlock(1, Optional.empty(), new long[] {3}), 10)).length, 0);
+    }
+
+    private static void assertEvenPositions(SplitBlockBloomFilter filter, Block<?> block)
+    {
+        int[] matched = assertMatches(filter, block);
+        // position 4 is null
+        assertEquals(matched.length, 49);
+        for (int position : matched) {
+            assertEquals(position % 2, 0);
+        }
+    }
+
+    private static int[] assertMatches(SplitBlockBloomFilter filter, Block<?> block)
+    {
+        int positionCount = block.getPositionCount();
+        int[] positions = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            positions[i] = i;
+        }
+        int[] matched = new int[positionCount];
+        int matchCount = filter.test(block, positions, positionCount, matched);
+
+        // testing in place gives the same positions
+        int inPlaceCount = filter.test(block, positions, positionCount, positions);
+        assertEquals(inPlaceCount, matchCount);
+        assertEquals(Arrays.copyOf(positions, inPlaceCount), Arrays.copyOf(matched, matchCount));
+        return Arrays.copyOf(matched, matchCount);
+    }
+
+    private static Block<?> createSlicesBlock(Slice[] values, boolean[] nulls)
+    {
+        int[] offsets = new int[values.length + 1];
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            length += values[i].length();
+            offsets[i + 1] = length;
+        }
+        Slice slice = Slices.allocate(length);
+        for (int i = 0; i < values.length; i++) {
+            slice.setBytes(offsets[i], values[i]);
+        }
+        return new VariableWidthBlock(values.length, slice, offsets, Optional.of(nulls));
+    }
+}
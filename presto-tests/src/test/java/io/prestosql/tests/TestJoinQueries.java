@@ -13,7 +13,21 @@
  */
 package io.prestosql.tests;
 
+import io.prestosql.Session;
+import io.prestosql.operator.MultiLookupJoinOperator;
+import io.prestosql.operator.OperatorStats;
+import io.prestosql.sql.analyzer.FeaturesConfig;
+import io.prestosql.testing.MaterializedResult;
 import io.prestosql.tests.tpch.TpchQueryRunnerBuilder;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.JOIN_REORDERING_STRATEGY;
+import static io.prestosql.SystemSessionProperties.MULTI_LOOKUP_JOIN_ENABLED;
+import static io.prestosql.SystemSessionProperties.OPTIMIZE_HASH_GENERATION;
+import static io.prestosql.tests.QueryAssertions.assertEqualsIgnoreOrder;
+import static org.testng.Assert.assertEquals;
 
 public class TestJoinQueries
         extends AbstractTestJoinQueries
@@ -22,4 +36,64 @@ public class TestJoinQueries
     {
         super(() -> TpchQueryRunnerBuilder.builder().build());
     }
+
+    @Test
+    public void testMultiLookupJoinStar()
+    {
+        // all dimensions are joined on lineitem columns, the three joins run as one operator
+        assertMultiLookupJoin("SELECT l.orderkey, l.linenumber, p.name, s.name, o.orderdate " +
+                "FROM lineitem l " +
+                "JOIN part p ON l.partkey = p.partkey " +
+                "JOIN supplier s ON l.suppkey = s.suppkey " +
+                "JOIN orders o ON l.orderkey = o.orderkey");
+    }
+
+    @Test
+    public void testMultiLookupJoinSnowflake()
+    {
+        // customer is joined on an orders column, so only the orders and supplier joins run as one operator
+        assertMultiLookupJoin("SELECT l.orderkey, l.linenumber, s.name, c.name, n.name " +
+                "FROM lineitem l " +
+                "JOIN orders o ON l.orderkey = o.orderkey " +
+                "JOIN supplier s ON l.suppkey = s.suppkey " +
+                "JOIN (customer c JOIN nation n ON c.nationkey = n.nationkey) ON o.custkey = c.custkey");
+    }
+
+    private void assertMultiLookupJoin(@Language("SQL") String sql)
+    {
+        ResultWithQueryId<MaterializedResult> expected = execute(multiLookupJoinSession(false), sql);
+        ResultWithQueryId<MaterializedResult> actual = execute(multiLookupJoinSession(true), sql);
+
+        assertEqualsIgnoreOrder(actual.getResult().getMaterializedRows(), expected.getResult().getMaterializedRows());
+        assertEquals(countMultiLookupJoinOperators(expected), 0);
+        assertEquals(countMultiLookupJoinOperators(actual), 1);
+    }
+
+    private ResultWithQueryId<MaterializedResult> execute(Session session, @Language("SQL") String sql)
+    {
+        return ((DistributedQueryRunner) getQueryRunner()).executeWithQueryId(session, sql);
+    }
+
+    private long countMultiLookupJoinOperators(ResultWithQueryId<MaterializedResult> result)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        return queryRunner.getCoordinator().getQueryManager().getFullQueryInfo(result.getQueryId())
+                .getQueryStats()
+                .getOperatorSummaries()
+                .stream()
+                .map(OperatorStats::getOperatorType)
+                .filter(MultiLookupJoinOperator.class.getSimpleName()::equals)
+                .count();
+    }
+
+    private Session multiLookupJoinSession(boolean enabled)
+    {
+        // keep the joins in query order and avoid hash projections between them
+        return Session.builder(getSession())
+                .setSystemProperty(MULTI_LOOKUP_JOIN_ENABLED, Boolean.toString(enabled))
+                .setSystemProperty(JOIN_REORDERING_STRATEGY, FeaturesConfig.JoinReorderingStrategy.NONE.name())
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, FeaturesConfig.JoinDistributionType.BROADCAST.name())
+                .setSystemProperty(OPTIMIZE_HASH_GENERATION, "false")
+                .build();
+    }
 }